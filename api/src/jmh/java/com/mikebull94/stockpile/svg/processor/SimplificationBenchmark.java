@@ -0,0 +1,107 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.xml.XmlInputEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the {@link SimplificationProcessor} takes to simplify the paths of the three Wikimedia Community
+ * Logo documents bundled with the API, and reports how many characters of path data it removes from them. The
+ * documents are small, so the results show the cost per document rather than the cost of a large icon set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SimplificationBenchmark {
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(SimplificationBenchmark.class);
+
+	/**
+	 * The bundled SVG documents that the workload is made of.
+	 */
+	private static final ImmutableList<String> RESOURCES = ImmutableList.of(
+		"/Wikimedia_Community_Logo.svg",
+		"/Wikimedia_Community_Logo_Red.svg",
+		"/Wikimedia_Community_Logo_Yellow.svg"
+	);
+
+	/**
+	 * The tolerance in user units.
+	 */
+	@Param({ "0.1", "0.5" })
+	public double tolerance;
+
+	/**
+	 * The {@link XMLEvent}s of each document in the workload.
+	 */
+	private ImmutableList<ImmutableList<XMLEvent>> documents;
+
+	/**
+	 * The {@link SimplificationProcessor} that is measured.
+	 */
+	private SimplificationProcessor processor;
+
+	/**
+	 * Parses the bundled documents.
+	 * @throws IOException If a document could not be read.
+	 * @throws XMLStreamException If a document could not be parsed.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, XMLStreamException {
+		ImmutableList.Builder<ImmutableList<XMLEvent>> parsed = ImmutableList.builder();
+
+		for (String resource : RESOURCES) {
+			try (InputStream input = SimplificationBenchmark.class.getResourceAsStream(resource)) {
+				parsed.add(XmlInputEngine.jdk().read(input));
+			}
+		}
+
+		documents = parsed.build();
+		processor = new SimplificationProcessor(tolerance);
+	}
+
+	/**
+	 * Logs how many characters of path data the {@link SimplificationProcessor} removes from the workload.
+	 */
+	@TearDown(Level.Trial)
+	public void report() {
+		SimplificationProcessor reported = new SimplificationProcessor(tolerance);
+		documents.forEach(document -> reported.process("benchmark", document));
+		logger.info("Tolerance {}: {}.", tolerance, reported);
+	}
+
+	/**
+	 * Simplifies the paths of every document in the workload.
+	 * @return The number of {@link XMLEvent}s processed, so that the work is not eliminated.
+	 */
+	@Benchmark
+	public long simplifyDocuments() {
+		long events = 0;
+
+		for (ImmutableList<XMLEvent> document : documents) {
+			events += processor.process("benchmark", document).size();
+		}
+
+		return events;
+	}
+}
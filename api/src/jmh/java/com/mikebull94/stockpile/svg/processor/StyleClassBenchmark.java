@@ -0,0 +1,134 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.mikebull94.stockpile.Stockpile;
+import com.mikebull94.stockpile.StockpileBuilder;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the trade-off of the {@link StyleClassProcessor}: how large a stockpile of ten thousand icons is with and
+ * without shared classes, and how long it takes to parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StyleClassBenchmark {
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(StyleClassBenchmark.class);
+
+	/**
+	 * The number of icons in the workload.
+	 */
+	private static final int ICONS = 10_000;
+
+	/**
+	 * The fills the icons are painted with, as icon sets tend to use a small palette.
+	 */
+	private static final String[] FILLS = { "#333", "#757575", "#fff", "#1e88e5", "#e53935", "#43a047" };
+
+	/**
+	 * An icon, formatted with a fill, a stroke width and a rotation so that the path data varies.
+	 */
+	private static final String ICON = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 24 24\">"
+		+ "<path d=\"M%1$d 2L22 12 12 22 2 12z\" fill=\"%2$s\" stroke=\"none\" fill-rule=\"evenodd\"/>"
+		+ "<circle cx=\"12\" cy=\"12\" r=\"%1$d\" style=\"fill:none;stroke:%2$s;stroke-width:%3$d;stroke-linecap:round\"/>"
+		+ "</svg>";
+
+	/**
+	 * A flag indicating whether the {@link StyleClassProcessor} is used.
+	 */
+	@Param({ "false", "true" })
+	public boolean classes;
+
+	/**
+	 * The serialized stockpile.
+	 */
+	private byte[] stockpile;
+
+	/**
+	 * Used to create {@link XMLStreamReader}s.
+	 */
+	private XMLInputFactory input;
+
+	/**
+	 * Builds the stockpile of the workload.
+	 * @throws XMLStreamException If an icon could not be read or the stockpile could not be written.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws XMLStreamException {
+		StyleClassProcessor processor = new StyleClassProcessor();
+		StockpileBuilder builder = Stockpile.builder();
+
+		if (classes) {
+			builder.with(processor);
+		}
+
+		builder.add(SvgDocument.startSvg(new SvgViewBox(0, 0, 24, 24))).add(SvgDocument.hideEmbeddedSvgs());
+
+		for (int index = 0; index < ICONS; index++) {
+			String icon = String.format(ICON, index % 10 + 1, FILLS[index % FILLS.length], index % 3 + 1);
+			builder.read("icon" + index, new ByteArrayInputStream(icon.getBytes(StandardCharsets.UTF_8)));
+		}
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		builder.addSharedEvents().add(SvgDocument.endSvg()).build().write(output);
+		stockpile = output.toByteArray();
+		input = XMLInputFactory.newFactory();
+
+		logger.info("Classes {}: {} bytes, {}.", classes, stockpile.length, processor);
+	}
+
+	/**
+	 * Parses the stockpile, as a consumer of it would.
+	 * @return The number of attributes parsed, so that the work is not eliminated.
+	 * @throws XMLStreamException If the stockpile could not be parsed.
+	 */
+	@Benchmark
+	public long parse() throws XMLStreamException {
+		XMLStreamReader reader = input.createXMLStreamReader(new ByteArrayInputStream(stockpile));
+		long attributes = 0;
+
+		try {
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamReader.START_ELEMENT) {
+					attributes += reader.getAttributeCount();
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		return attributes;
+	}
+
+	/**
+	 * Logs the size of the stockpile again once the measurements are complete, next to the results.
+	 */
+	@TearDown(Level.Trial)
+	public void report() {
+		logger.info("Classes {}: {} bytes.", classes, stockpile.length);
+	}
+}
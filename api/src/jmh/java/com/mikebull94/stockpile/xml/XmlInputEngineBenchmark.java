@@ -0,0 +1,141 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.Stockpile;
+import com.mikebull94.stockpile.StockpileBuilder;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.util.PathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link XmlInputEngine}s on a workload shaped like an icon set: a thousand small SVGs, each read either
+ * from memory on the calling thread or from a file with the asynchronous read-ahead of
+ * {@link StockpileBuilder#read(Iterable)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class XmlInputEngineBenchmark {
+
+	/**
+	 * The number of icons in the workload.
+	 */
+	private static final int ICONS = 1_000;
+
+	/**
+	 * An icon, formatted with a number so that the path data varies.
+	 */
+	private static final String ICON = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+		+ "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" viewBox=\"0 0 24 24\">"
+		+ "<title>Icon %1$d</title>"
+		+ "<g transform=\"translate(1 1)\"><path d=\"M%1$d 2L22 12 12 22 2 12z\" fill=\"#333\" stroke=\"none\"/>"
+		+ "<circle cx=\"12\" cy=\"12\" r=\"%1$d\" style=\"fill:none;stroke:#1e88e5;stroke-width:2\"/></g>"
+		+ "</svg>";
+
+	/**
+	 * The name of the {@link XmlInputEngine}, as per {@link XmlInputEngine#forName(String)}.
+	 */
+	@Param({ "jdk", "woodstox", "aalto" })
+	public String engine;
+
+	/**
+	 * Where the icons are read from: {@code memory} or {@code file}.
+	 */
+	@Param({ "memory", "file" })
+	public String source;
+
+	/**
+	 * The {@link XmlInputEngine}.
+	 */
+	private XmlInputEngine inputEngine;
+
+	/**
+	 * The bytes of each icon.
+	 */
+	private ImmutableList<byte[]> icons;
+
+	/**
+	 * The directory the icons are written to.
+	 */
+	private Path directory;
+
+	/**
+	 * The {@link Path}s of the icons.
+	 */
+	private ImmutableList<Path> paths;
+
+	/**
+	 * Creates the {@link XmlInputEngine} and writes the icons of the workload.
+	 * @throws IOException If an icon could not be written.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		inputEngine = XmlInputEngine.forName(engine);
+		directory = Files.createTempDirectory("stockpile-engines");
+		ImmutableList.Builder<byte[]> iconBuilder = ImmutableList.builder();
+
+		for (int index = 0; index < ICONS; index++) {
+			byte[] icon = String.format(ICON, index % 10 + 1).getBytes(StandardCharsets.UTF_8);
+			iconBuilder.add(icon);
+			Files.write(directory.resolve("icon" + index + ".svg"), icon);
+		}
+
+		icons = iconBuilder.build();
+		paths = PathUtils.filterPathsIn(directory, PathUtils::hasSvgExtension);
+	}
+
+	/**
+	 * Stacks the icons.
+	 * @return The number of events in the stockpile, so that the work is not eliminated.
+	 * @throws IOException If an icon could not be read.
+	 * @throws XMLStreamException If an icon could not be parsed.
+	 */
+	@Benchmark
+	public int stack() throws IOException, XMLStreamException {
+		StockpileBuilder builder = Stockpile.builder()
+			.withInputEngine(inputEngine)
+			.add(SvgDocument.startSvg(new SvgViewBox(0, 0, 24, 24)))
+			.add(SvgDocument.hideEmbeddedSvgs());
+
+		if (source.equals("file")) {
+			builder.read(paths);
+		} else {
+			for (int index = 0; index < icons.size(); index++) {
+				builder.read("icon" + index, new ByteArrayInputStream(icons.get(index)));
+			}
+		}
+
+		return builder.add(SvgDocument.endSvg()).build().size();
+	}
+
+	/**
+	 * Deletes the icons of the workload.
+	 * @throws IOException If an icon could not be deleted.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		for (Path path : paths) {
+			Files.delete(path);
+		}
+
+		Files.delete(directory);
+	}
+}
@@ -39,10 +39,10 @@ public final class Example {
 
 			Path inputDir = Paths.get(args[0]);
 			Path output = Paths.get(args[1]);
-			int minX = Integer.parseInt(args[2]);
-			int minY = Integer.parseInt(args[3]);
-			int width = Integer.parseInt(args[4]);
-			int height = Integer.parseInt(args[5]);
+			double minX = Double.parseDouble(args[2]);
+			double minY = Double.parseDouble(args[3]);
+			double width = Double.parseDouble(args[4]);
+			double height = Double.parseDouble(args[5]);
 
 			SvgViewBox viewBox = new SvgViewBox(minX, minY, width, height);
 			logger.info("Providing embedded SVGs with: {}", viewBox);
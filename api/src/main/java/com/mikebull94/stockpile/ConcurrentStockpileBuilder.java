@@ -0,0 +1,202 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.xml.XmlDocument;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEventProcessor;
+import com.mikebull94.stockpile.xml.XmlInputEngine;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Used to build {@link Stockpile}s from {@link XmlDocument}s that are read by many threads at once, such as by the
+ * request threads of a server.
+ * <p>
+ * Each {@link XmlDocument} is passed through the registered {@link XmlEventProcessor}s on the thread that reads it, into
+ * a buffer of its own, and is then published under an order key. No lock is shared between the reading threads. The
+ * {@link XmlDocument}s of a built {@link Stockpile} are ordered by their order keys, then by their ids, regardless of
+ * the order in which they were read. Each id may only be read once, whatever its order key, as it identifies the
+ * embedded document within the {@link Stockpile}.
+ * <p>
+ * Unlike a {@link StockpileBuilder}, this builder does not run {@link XmlDocumentProcessor}s, as they collect state
+ * across documents. A reading thread may run its own {@link XmlDocumentProcessor}s on a document before reading it
+ * with {@link #read(long, String, ImmutableList)}.
+ */
+public final class ConcurrentStockpileBuilder {
+
+	/**
+	 * The key that orders an {@link XmlDocument} within a {@link Stockpile}.
+	 */
+	private static final class OrderKey implements Comparable<OrderKey> {
+
+		/**
+		 * The order given by the reader.
+		 */
+		private final long order;
+
+		/**
+		 * The id of the {@link XmlDocument}, which orders documents of the same {@link #order}.
+		 */
+		private final String id;
+
+		/**
+		 * Creates a new {@link OrderKey}.
+		 * @param order The order given by the reader.
+		 * @param id The id of the {@link XmlDocument}.
+		 */
+		private OrderKey(long order, String id) {
+			this.order = order;
+			this.id = id;
+		}
+
+		@Override
+		public int compareTo(OrderKey other) {
+			return ComparisonChain.start()
+				.compare(order, other.order)
+				.compare(id, other.id)
+				.result();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+
+			OrderKey other = (OrderKey) obj;
+			return order == other.order && id.equals(other.id);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Long.hashCode(order) + id.hashCode();
+		}
+	}
+
+	/**
+	 * The {@link XmlEventProcessor}s to run on each {@link XMLEvent}, in order.
+	 */
+	private final ImmutableSet<XmlEventProcessor> processors;
+
+	/**
+	 * The {@link XmlInputEngine} to read each {@link XmlDocument} with.
+	 */
+	private final XmlInputEngine engine;
+
+	/**
+	 * The processed {@link XMLEvent}s of each {@link XmlDocument}, by {@link OrderKey}.
+	 */
+	private final ConcurrentNavigableMap<OrderKey, ImmutableList<XMLEvent>> documents = new ConcurrentSkipListMap<>();
+
+	/**
+	 * The ids of the {@link XmlDocument}s that have been read.
+	 */
+	private final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Creates a new {@link ConcurrentStockpileBuilder}.
+	 * @param processors The {@link XmlEventProcessor}s to register, which must be safe to use from several threads.
+	 * @param engine The {@link XmlInputEngine} to read each {@link XmlDocument} with.
+	 * @throws NullPointerException If {@code processors} or {@code engine} is {@code null}.
+	 */
+	ConcurrentStockpileBuilder(ImmutableSet<XmlEventProcessor> processors, XmlInputEngine engine) {
+		this.processors = Preconditions.checkNotNull(processors);
+		this.engine = Preconditions.checkNotNull(engine);
+	}
+
+	/**
+	 * Reads an {@link XmlDocument} from an {@link InputStream}, which is not closed, ordered by its id.
+	 * @param id The id of the {@link XmlDocument}.
+	 * @param inputStream The {@link InputStream}.
+	 * @return The {@link ConcurrentStockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code id} or {@code inputStream} is {@code null}.
+	 * @throws IllegalArgumentException If a document with the same id has already been read.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public ConcurrentStockpileBuilder read(String id, InputStream inputStream) throws XMLStreamException {
+		return read(0, id, inputStream);
+	}
+
+	/**
+	 * Reads an {@link XmlDocument} from an {@link InputStream}, which is not closed.
+	 * @param order The order key of the {@link XmlDocument}.
+	 * @param id The id of the {@link XmlDocument}.
+	 * @param inputStream The {@link InputStream}.
+	 * @return The {@link ConcurrentStockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code id} or {@code inputStream} is {@code null}.
+	 * @throws IllegalArgumentException If a document with the same id has already been read, with any order key.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public ConcurrentStockpileBuilder read(long order, String id, InputStream inputStream) throws XMLStreamException {
+		Preconditions.checkNotNull(id);
+		return read(order, id, engine.read(Preconditions.checkNotNull(inputStream)));
+	}
+
+	/**
+	 * Adds an {@link XmlDocument} whose {@link XMLEvent}s have already been read.
+	 * @param order The order key of the {@link XmlDocument}.
+	 * @param id The id of the {@link XmlDocument}.
+	 * @param document The {@link XMLEvent}s of the {@link XmlDocument}.
+	 * @return The {@link ConcurrentStockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code id} or {@code document} is {@code null}.
+	 * @throws IllegalArgumentException If a document with the same id has already been read, with any order key.
+	 */
+	public ConcurrentStockpileBuilder read(long order, String id, ImmutableList<XMLEvent> document) {
+		Preconditions.checkNotNull(id);
+		Preconditions.checkNotNull(document);
+		ImmutableList.Builder<XMLEvent> processed = ImmutableList.builder();
+
+		for (XMLEvent event : document) {
+			for (XmlEventProcessor processor : processors) {
+				if (processor.accepts(event)) {
+					processed.addAll(processor.process(id, event));
+				}
+			}
+		}
+
+		Preconditions.checkArgument(ids.add(id), "Duplicate document '%s'.", id);
+		documents.put(new OrderKey(order, id), processed.build());
+		return this;
+	}
+
+	/**
+	 * Gets the number of {@link XmlDocument}s that have been read.
+	 * @return The number of {@link XmlDocument}s.
+	 */
+	public int size() {
+		return documents.size();
+	}
+
+	/**
+	 * Builds a new {@link Stockpile} of the {@link XmlDocument}s that have been read, in order. A document that is read
+	 * concurrently with this method may or may not be included.
+	 * @param before The {@link XMLEvent}s to add before the documents, such as the start of the enclosing element.
+	 * @param after The {@link XMLEvent}s to add after the documents, such as the end of the enclosing element.
+	 * @return The built {@link Stockpile}.
+	 * @throws NullPointerException If {@code before} or {@code after} is {@code null}.
+	 */
+	public Stockpile build(Iterable<XMLEvent> before, Iterable<XMLEvent> after) {
+		ImmutableList.Builder<XMLEvent> events = ImmutableList.builder();
+		events.addAll(Preconditions.checkNotNull(before));
+
+		for (ImmutableList<XMLEvent> document : documents.values()) {
+			events.addAll(document);
+		}
+
+		events.addAll(Preconditions.checkNotNull(after));
+		return new Stockpile(events.build());
+	}
+}
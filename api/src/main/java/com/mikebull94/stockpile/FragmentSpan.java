@@ -0,0 +1,104 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.collect.ImmutableMap;
+import com.mikebull94.stockpile.report.FragmentSize;
+import com.mikebull94.stockpile.xml.XmlDocument;
+
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * The {@link XMLEvent}s of a {@link Stockpile} that one {@link XmlDocument} was processed into, along with what was
+ * measured as it was read, so that the bytes it is written as can be measured by {@link Stockpile#writeMeasured}.
+ */
+final class FragmentSpan {
+
+	/**
+	 * The id the {@link XmlDocument} is embedded with.
+	 */
+	private final String id;
+
+	/**
+	 * The number of bytes the {@link XmlDocument} was read from, or {@code -1} if it was not read from bytes.
+	 */
+	private final long inputBytes;
+
+	/**
+	 * The number of {@link XMLEvent}s the {@link XmlDocument} was read as.
+	 */
+	private final int inputEvents;
+
+	/**
+	 * The number of {@link XMLEvent}s removed by each processor, by the simple name of its class.
+	 */
+	private final ImmutableMap<String, Integer> savedEvents;
+
+	/**
+	 * The index of the first {@link XMLEvent} of the {@link XmlDocument} in the {@link Stockpile}.
+	 */
+	private final int firstEvent;
+
+	/**
+	 * The index after the last {@link XMLEvent} of the {@link XmlDocument} in the {@link Stockpile}.
+	 */
+	private final int endEvent;
+
+	/**
+	 * The number of bytes the {@link XmlDocument} was serialized as while the {@link Stockpile} was built, or {@code -1}
+	 * if it is only serialized when the {@link Stockpile} is written.
+	 */
+	private final long outputBytes;
+
+	/**
+	 * Creates a new {@link FragmentSpan}.
+	 * @param id The id the {@link XmlDocument} is embedded with.
+	 * @param inputBytes The number of bytes the {@link XmlDocument} was read from, or {@code -1}.
+	 * @param inputEvents The number of {@link XMLEvent}s the {@link XmlDocument} was read as.
+	 * @param savedEvents The number of {@link XMLEvent}s removed by each processor.
+	 * @param firstEvent The index of the first {@link XMLEvent} of the {@link XmlDocument}.
+	 * @param endEvent The index after the last {@link XMLEvent} of the {@link XmlDocument}.
+	 * @param outputBytes The number of bytes the {@link XmlDocument} was serialized as, or {@code -1}.
+	 */
+	FragmentSpan(String id, long inputBytes, int inputEvents, ImmutableMap<String, Integer> savedEvents, int firstEvent,
+			int endEvent, long outputBytes) {
+		this.id = id;
+		this.inputBytes = inputBytes;
+		this.inputEvents = inputEvents;
+		this.savedEvents = savedEvents;
+		this.firstEvent = firstEvent;
+		this.endEvent = endEvent;
+		this.outputBytes = outputBytes;
+	}
+
+	/**
+	 * Gets the index of the first {@link XMLEvent} of the {@link XmlDocument} in the {@link Stockpile}.
+	 * @return The index.
+	 */
+	int getFirstEvent() {
+		return firstEvent;
+	}
+
+	/**
+	 * Gets the index after the last {@link XMLEvent} of the {@link XmlDocument} in the {@link Stockpile}.
+	 * @return The index.
+	 */
+	int getEndEvent() {
+		return endEvent;
+	}
+
+	/**
+	 * Gets the number of bytes the {@link XmlDocument} was serialized as while the {@link Stockpile} was built.
+	 * @return The number of bytes, or {@code -1} if it is only serialized when the {@link Stockpile} is written.
+	 */
+	long getOutputBytes() {
+		return outputBytes;
+	}
+
+	/**
+	 * Creates the {@link FragmentSize} of the {@link XmlDocument}.
+	 * @param outputBytes The number of bytes the {@link XmlDocument} was written as.
+	 * @return The {@link FragmentSize}.
+	 */
+	FragmentSize toSize(long outputBytes) {
+		return new FragmentSize(id, inputBytes, outputBytes, inputEvents, endEvent - firstEvent, savedEvents);
+	}
+}
@@ -3,17 +3,27 @@ package com.mikebull94.stockpile;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CountingOutputStream;
+import com.mikebull94.stockpile.flow.ChunkPublisher;
+import com.mikebull94.stockpile.report.FragmentSize;
+import com.mikebull94.stockpile.report.SizeReport;
 import com.mikebull94.stockpile.svg.processor.EndElementProcessor;
+import com.mikebull94.stockpile.svg.SpriteSheet;
 import com.mikebull94.stockpile.svg.processor.FilterXmlEventProcessor;
+import com.mikebull94.stockpile.svg.processor.SpriteTagProcessor;
 import com.mikebull94.stockpile.svg.processor.StartElementProcessor;
 import com.mikebull94.stockpile.svg.processor.SvgTagProcessor;
 import com.mikebull94.stockpile.xml.XmlEventProcessor;
+import com.mikebull94.stockpile.xml.XmlFactories;
+import com.mikebull94.stockpile.xml.XmlInputEngine;
 
+import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 import javax.xml.stream.util.XMLEventConsumer;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -28,12 +38,32 @@ import java.util.Iterator;
  * may be written to the file system using {@link #write(File)} or {@link #write(Path)}), or any user-supplied
  * {@link OutputStream} using {@link #write(OutputStream)}.
  */
-public final class Stockpile {
+public final class Stockpile implements Closeable {
+
+	/**
+	 * The default size of the chunks published by {@link #publisher()}, in bytes.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
 
 	/**
 	 * Used to create {@link XMLEventWriter}s.
 	 */
-	private static final XMLOutputFactory output = XMLOutputFactory.newFactory();
+	private static final XMLOutputFactory output = XmlFactories.output();
+
+	/**
+	 * Creates the {@link XmlEventProcessor}s that stack and optimize SVG documents.
+	 * @param preserveViewBoxes A flag indicating whether each embedded SVG keeps its own view-box, as per
+	 * {@link SvgTagProcessor#SvgTagProcessor(boolean)}.
+	 * @return An {@link ImmutableSet} of {@link XmlEventProcessor}s, in order.
+	 */
+	static ImmutableSet<XmlEventProcessor> stackingProcessors(boolean preserveViewBoxes) {
+		return ImmutableSet.of(
+			new FilterXmlEventProcessor(),
+			new SvgTagProcessor(preserveViewBoxes),
+			new StartElementProcessor(),
+			new EndElementProcessor()
+		);
+	}
 
 	/**
 	 * Creates a new {@link StockpileBuilder} with {@link XmlEventProcessor}s registered to stack and optimize SVG
@@ -41,9 +71,31 @@ public final class Stockpile {
 	 * @return The {@link StockpileBuilder}.
 	 */
 	public static StockpileBuilder builder() {
+		return builder(false);
+	}
+
+	/**
+	 * Creates a new {@link StockpileBuilder} with {@link XmlEventProcessor}s registered to stack and optimize SVG
+	 * documents.
+	 * @param preserveViewBoxes A flag indicating whether each embedded SVG keeps its own view-box, so that it is scaled
+	 * to fit the document, as per {@link SvgTagProcessor#SvgTagProcessor(boolean)}.
+	 * @return The {@link StockpileBuilder}.
+	 */
+	public static StockpileBuilder builder(boolean preserveViewBoxes) {
+		return new StockpileBuilder(stackingProcessors(preserveViewBoxes));
+	}
+
+	/**
+	 * Creates a new {@link StockpileBuilder} with {@link XmlEventProcessor}s registered to lay SVG documents out on a
+	 * {@link SpriteSheet} and optimize them. The document should be provided with {@link SpriteSheet#getViewBox()} and
+	 * end with {@link SpriteSheet#views()}, in place of {@link com.mikebull94.stockpile.svg.SvgDocument#hideEmbeddedSvgs()}.
+	 * @param sheet The {@link SpriteSheet}.
+	 * @return The {@link StockpileBuilder}.
+	 */
+	public static StockpileBuilder builder(SpriteSheet sheet) {
 		return builder(
 			new FilterXmlEventProcessor(),
-			new SvgTagProcessor(),
+			new SpriteTagProcessor(sheet),
 			new StartElementProcessor(),
 			new EndElementProcessor()
 		);
@@ -86,17 +138,70 @@ public final class Stockpile {
 	}
 
 	/**
-	 * The {@link XMLEvent}s in this stockpile.
+	 * Creates a new {@link ConcurrentStockpileBuilder} with {@link XmlEventProcessor}s registered to stack and optimize
+	 * SVG documents that are read by many threads at once.
+	 * @param preserveViewBoxes A flag indicating whether each embedded SVG keeps its own view-box, as per
+	 * {@link SvgTagProcessor#SvgTagProcessor(boolean)}.
+	 * @return The {@link ConcurrentStockpileBuilder}.
+	 */
+	public static ConcurrentStockpileBuilder concurrentBuilder(boolean preserveViewBoxes) {
+		return new ConcurrentStockpileBuilder(stackingProcessors(preserveViewBoxes), XmlInputEngine.jdk());
+	}
+
+	/**
+	 * Creates a new {@link ConcurrentStockpileBuilder}.
+	 * @param engine The {@link XmlInputEngine} to read each document with.
+	 * @param processors The {@link XmlEventProcessor}s to register, which must be safe to use from several threads.
+	 * @return The {@link ConcurrentStockpileBuilder}.
+	 */
+	public static ConcurrentStockpileBuilder concurrentBuilder(XmlInputEngine engine, XmlEventProcessor... processors) {
+		return new ConcurrentStockpileBuilder(ImmutableSet.copyOf(processors), engine);
+	}
+
+	/**
+	 * The {@link XMLEvent}s in this stockpile, which are empty if they have been spilled.
 	 */
 	private final ImmutableList<XMLEvent> events;
 
+	/**
+	 * The serialized {@link XMLEvent}s in this stockpile, or {@code null} if they are held in {@link #events}.
+	 */
+	private final StockpileSpill spill;
+
+	/**
+	 * The {@link FragmentSpan} of each embedded SVG whose size was measured as it was read.
+	 */
+	private final ImmutableList<FragmentSpan> fragments;
+
 	/**
 	 * Creates a new {@link Stockpile}.
 	 * @param events The {@link XMLEvent}s.
 	 * @throws NullPointerException If {@code events} is null.
 	 */
 	public Stockpile(ImmutableList<XMLEvent> events) {
+		this(events, ImmutableList.of());
+	}
+
+	/**
+	 * Creates a new {@link Stockpile} whose embedded SVGs were measured as they were read.
+	 * @param events The {@link XMLEvent}s.
+	 * @param fragments The {@link FragmentSpan} of each embedded SVG that was measured.
+	 */
+	Stockpile(ImmutableList<XMLEvent> events, ImmutableList<FragmentSpan> fragments) {
 		this.events = Preconditions.checkNotNull(events);
+		this.spill = null;
+		this.fragments = fragments;
+	}
+
+	/**
+	 * Creates a new {@link Stockpile} whose {@link XMLEvent}s have been serialized to a {@link StockpileSpill}.
+	 * @param spill The finished {@link StockpileSpill}.
+	 * @param fragments The {@link FragmentSpan} of each embedded SVG that was measured, including its serialized bytes.
+	 */
+	Stockpile(StockpileSpill spill, ImmutableList<FragmentSpan> fragments) {
+		this.events = ImmutableList.of();
+		this.spill = spill;
+		this.fragments = fragments;
 	}
 
 	/**
@@ -118,6 +223,11 @@ public final class Stockpile {
 	 * @throws XMLStreamException If an XML error occurs.
 	 */
 	public Stockpile write(Path path) throws IOException, XMLStreamException {
+		if (spill != null) {
+			spill.writeTo(path);
+			return this;
+		}
+
 		try (OutputStream outputStream = Files.newOutputStream(path)) {
 			return write(outputStream);
 		}
@@ -127,9 +237,20 @@ public final class Stockpile {
 	 * Writes the processed {@link XMLEvent}s to an {@link OutputStream}.
 	 * @param outputStream The {@link OutputStream} to write the {@link XMLEvent}s to.
 	 * @return The {@link Stockpile} instance for chaining.
-	 * @throws XMLStreamException If an XML error occurs.
+	 * @throws XMLStreamException If an XML error occurs, or an I/O error occurs while the bytes of a spilled stockpile
+	 * are copied.
 	 */
 	public Stockpile write(OutputStream outputStream) throws XMLStreamException {
+		if (spill != null) {
+			try {
+				spill.writeTo(outputStream);
+			} catch (IOException e) {
+				throw new XMLStreamException(e);
+			}
+
+			return this;
+		}
+
 		XMLEventWriter writer = output.createXMLEventWriter(outputStream);
 
 		try {
@@ -142,6 +263,120 @@ public final class Stockpile {
 		return this;
 	}
 
+	/**
+	 * Writes the processed {@link XMLEvent}s to a {@link File}, measuring the bytes each embedded SVG is written as.
+	 * @param path The {@link Path} at which to write the {@link File}.
+	 * @return The {@link SizeReport} of the embedded SVGs that were measured as they were read, as per
+	 * {@link StockpileBuilder#measureSizes()}.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public SizeReport writeMeasured(Path path) throws IOException, XMLStreamException {
+		if (spill != null) {
+			spill.writeTo(path);
+			return spilledReport();
+		}
+
+		try (OutputStream outputStream = Files.newOutputStream(path)) {
+			return writeMeasured(outputStream);
+		}
+	}
+
+	/**
+	 * Writes the processed {@link XMLEvent}s to an {@link OutputStream}, measuring the bytes each embedded SVG is
+	 * written as. The writer is flushed at the start and end of each embedded SVG, so the bytes are counted in the same
+	 * pass that writes them.
+	 * @param outputStream The {@link OutputStream} to write the {@link XMLEvent}s to.
+	 * @return The {@link SizeReport} of the embedded SVGs that were measured as they were read, as per
+	 * {@link StockpileBuilder#measureSizes()}.
+	 * @throws XMLStreamException If an XML error occurs, or an I/O error occurs while the bytes of a spilled stockpile
+	 * are copied.
+	 */
+	public SizeReport writeMeasured(OutputStream outputStream) throws XMLStreamException {
+		if (spill != null) {
+			write(outputStream);
+			return spilledReport();
+		}
+
+		CountingOutputStream counted = new CountingOutputStream(outputStream);
+		XMLEventWriter writer = output.createXMLEventWriter(counted);
+		ImmutableList.Builder<FragmentSize> sizes = ImmutableList.builder();
+
+		try {
+			int index = 0;
+
+			for (FragmentSpan fragment : fragments) {
+				index = addEventsTo(writer, index, fragment.getFirstEvent());
+				writer.flush();
+				long start = counted.getCount();
+
+				index = addEventsTo(writer, index, fragment.getEndEvent());
+				writer.flush();
+				sizes.add(fragment.toSize(counted.getCount() - start));
+			}
+
+			addEventsTo(writer, index, events.size());
+		} finally {
+			writer.flush();
+			writer.close();
+		}
+
+		return new SizeReport(counted.getCount(), sizes.build());
+	}
+
+	/**
+	 * Adds a range of the {@link XMLEvent}s in this stockpile to an {@link XMLEventWriter}.
+	 * @param writer The {@link XMLEventWriter}.
+	 * @param from The index of the first {@link XMLEvent} to add.
+	 * @param to The index after the last {@link XMLEvent} to add.
+	 * @return The index after the last {@link XMLEvent} added.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	private int addEventsTo(XMLEventWriter writer, int from, int to) throws XMLStreamException {
+		for (int index = from; index < to; index++) {
+			writer.add(events.get(index));
+		}
+
+		return to;
+	}
+
+	/**
+	 * Creates the {@link SizeReport} of a spilled stockpile, whose embedded SVGs were measured as they were serialized
+	 * to the spill.
+	 * @return The {@link SizeReport}.
+	 */
+	private SizeReport spilledReport() {
+		ImmutableList.Builder<FragmentSize> sizes = ImmutableList.builder();
+
+		for (FragmentSpan fragment : fragments) {
+			sizes.add(fragment.toSize(fragment.getOutputBytes()));
+		}
+
+		return new SizeReport(spill.length(), sizes.build());
+	}
+
+	/**
+	 * Creates a {@link ChunkPublisher} of the bytes that {@link #write(OutputStream)} would write, in chunks of
+	 * {@value #DEFAULT_CHUNK_SIZE} bytes.
+	 * @return The {@link ChunkPublisher}.
+	 */
+	public ChunkPublisher publisher() {
+		return publisher(DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a {@link ChunkPublisher} of the bytes that {@link #write(OutputStream)} would write, so that they can be
+	 * sent by a non-blocking server without a thread waiting for each slow client. The {@link XMLEvent}s are only
+	 * serialized as chunks are requested, by the thread that requests them. Every chunk is full but the last.
+	 * @param chunkSize The size of each chunk, in bytes.
+	 * @return The {@link ChunkPublisher}.
+	 * @throws IllegalArgumentException If {@code chunkSize} is not positive.
+	 */
+	public ChunkPublisher publisher(int chunkSize) {
+		Preconditions.checkArgument(chunkSize > 0, "Chunk size must be positive.");
+		return spill == null ? new StockpilePublisher(events, chunkSize) : new StockpilePublisher(spill, chunkSize);
+	}
+
 	/**
 	 * Adds the {@link XMLEvent}s in this stockpile to an {@link XMLEventConsumer}.
 	 * @param consumer The {@link XMLEventConsumer} to add the {@link XMLEvent}s to.
@@ -149,6 +384,24 @@ public final class Stockpile {
 	 * @throws XMLStreamException If an XML error occurs.
 	 */
 	public Stockpile addEventsTo(XMLEventConsumer consumer) throws XMLStreamException {
+		if (spill != null) {
+			XMLEventReader reader = XmlFactories.input().createXMLEventReader(spill.openStream());
+
+			try {
+				while (reader.hasNext()) {
+					XMLEvent event = reader.nextEvent();
+
+					if (!event.isStartDocument() && !event.isEndDocument()) {
+						consumer.add(event);
+					}
+				}
+			} finally {
+				reader.close();
+			}
+
+			return this;
+		}
+
 		for (XMLEvent event : events) {
 			consumer.add(event);
 		}
@@ -161,6 +414,18 @@ public final class Stockpile {
 	 * @return The number of {@link XMLEvent}s in this stockpile.
 	 */
 	public int size() {
-		return events.size();
+		return spill == null ? events.size() : spill.size();
+	}
+
+	/**
+	 * Deletes the spill file of a stockpile built by a {@link StockpileBuilder} that spills to disk, after which it can
+	 * no longer be written. This has no effect on any other stockpile.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (spill != null) {
+			spill.close();
+		}
 	}
 }
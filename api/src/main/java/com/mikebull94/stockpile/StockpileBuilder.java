@@ -2,32 +2,162 @@ package com.mikebull94.stockpile;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CountingInputStream;
+import com.mikebull94.stockpile.report.FragmentSize;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.util.PathUtils;
 import com.mikebull94.stockpile.xml.XmlDocument;
+import com.mikebull94.stockpile.xml.XmlDocumentFeeder;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
 import com.mikebull94.stockpile.xml.XmlEventProcessor;
+import com.mikebull94.stockpile.xml.XmlInputEngine;
+import com.mikebull94.stockpile.xml.XmlInputLimits;
+import com.mikebull94.stockpile.xml.XmlLimitException;
 
 import javax.xml.stream.XMLEventReader;
-import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
-
-import static com.google.common.io.Files.getNameWithoutExtension;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 /**
  * Used to build {@link Stockpile}s.
+ * <p>
+ * A builder must only be used by one thread at a time. {@link ConcurrentStockpileBuilder} may be used to build a
+ * {@link Stockpile} from documents that are read by many threads at once.
  */
 public final class StockpileBuilder {
 
 	/**
-	 * Used to create {@link XMLEventReader}s.
+	 * The maximum number of files that {@link #read(Iterator)} reads ahead of the one it is processing.
+	 */
+	private static final int MAX_PENDING_READS = 64;
+
+	/**
+	 * An {@link XmlDocument} that has been read and passed through the registered {@link XmlDocumentProcessor}s, kept
+	 * so that each {@link StockpileVariant} can be built from it without reading it again.
+	 */
+	private static final class ParsedDocument {
+
+		/**
+		 * The fragment identifier, before it is mapped.
+		 */
+		private final String name;
+
+		/**
+		 * The id the {@link XmlDocument} is embedded with.
+		 */
+		private final String id;
+
+		/**
+		 * The processed {@link XMLEvent}s.
+		 */
+		private final ImmutableList<XMLEvent> events;
+
+		/**
+		 * Creates a new {@link ParsedDocument}.
+		 * @param name The fragment identifier, before it is mapped.
+		 * @param id The id the {@link XmlDocument} is embedded with.
+		 * @param events The processed {@link XMLEvent}s.
+		 */
+		private ParsedDocument(String name, String id, ImmutableList<XMLEvent> events) {
+			this.name = name;
+			this.id = id;
+			this.events = events;
+		}
+	}
+
+	/**
+	 * What has been measured of the {@link XmlDocument} being read, when sizes are measured.
+	 */
+	private static final class OpenFragment {
+
+		/**
+		 * The number of {@link XMLEvent}s removed by each processor, by the simple name of its class, as per
+		 * {@link FragmentSize#getSavedEvents()}.
+		 */
+		private final Map<String, Integer> savedEvents = new LinkedHashMap<>();
+
+		/**
+		 * The index of the first {@link XMLEvent} of the {@link XmlDocument}.
+		 */
+		private final int firstEvent;
+
+		/**
+		 * The position of the first byte of the {@link XmlDocument} in the spill, or {@code -1} if it is not spilled.
+		 */
+		private final long firstByte;
+
+		/**
+		 * Creates a new {@link OpenFragment}.
+		 * @param firstEvent The index of the first {@link XMLEvent} of the {@link XmlDocument}.
+		 * @param firstByte The position of the first byte of the {@link XmlDocument} in the spill, or {@code -1}.
+		 */
+		private OpenFragment(int firstEvent, long firstByte) {
+			this.firstEvent = firstEvent;
+			this.firstByte = firstByte;
+		}
+
+		/**
+		 * Records the {@link XMLEvent}s removed by a processor.
+		 * @param name The simple name of the class of the processor.
+		 * @param saved The number of {@link XMLEvent}s removed, which is negative if more were added.
+		 */
+		private void save(String name, int saved) {
+			savedEvents.merge(name, saved, Integer::sum);
+		}
+	}
+
+	/**
+	 * Gets the result of a {@link Future}, rethrowing the exception it failed with.
+	 * @param future The {@link Future}.
+	 * @param <T> The type of the result.
+	 * @return The result.
+	 * @throws IOException If an I/O error occurred, or the thread was interrupted while waiting.
+	 * @throws XMLStreamException If an XML error occurred.
 	 */
-	private static final XMLInputFactory input = XMLInputFactory.newFactory();
+	private static <T> T get(Future<T> future) throws IOException, XMLStreamException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a task.");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof XMLStreamException) {
+				throw (XMLStreamException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw new IllegalStateException(cause);
+		}
+	}
 
 	/**
 	 * Used to create an {@link ImmutableList} of processed {@link XMLEvent}s.
@@ -39,6 +169,79 @@ public final class StockpileBuilder {
 	 */
 	private final ImmutableSet<XmlEventProcessor> processors;
 
+	/**
+	 * The {@link XmlDocumentProcessor}s to run on each {@link XmlDocument}, in order.
+	 */
+	private final List<XmlDocumentProcessor> documentProcessors = new ArrayList<>();
+
+	/**
+	 * Serializes the processed {@link XMLEvent}s in place of {@link #events}, or {@code null} if they are held in
+	 * memory.
+	 */
+	private StockpileSpill spill;
+
+	/**
+	 * A flag indicating whether an {@link XMLEvent} has been added.
+	 */
+	private boolean started;
+
+	/**
+	 * The number of {@link XMLEvent}s that have been added.
+	 */
+	private int count;
+
+	/**
+	 * The {@link FragmentSpan} of each {@link XmlDocument} that has been read, or {@code null} unless sizes are
+	 * measured.
+	 */
+	private ImmutableList.Builder<FragmentSpan> spans;
+
+	/**
+	 * What has been measured of the {@link XmlDocument} being read, or {@code null} if none is being measured.
+	 */
+	private OpenFragment fragment;
+
+	/**
+	 * The {@link XmlInputEngine} to read each {@link XmlDocument} with.
+	 */
+	private XmlInputEngine engine = XmlInputEngine.jdk();
+
+	/**
+	 * The {@link XmlInputLimits} each {@link XmlDocument} is read within.
+	 */
+	private XmlInputLimits limits = XmlInputLimits.UNLIMITED;
+
+	/**
+	 * A flag indicating whether an {@link XmlDocument} that exceeds the {@link #limits} is skipped, rather than failing
+	 * the read.
+	 */
+	private boolean skipRejected;
+
+	/**
+	 * The number of bytes of the {@link XmlDocument}s that have been read within the {@link #limits}.
+	 */
+	private long totalBytes;
+
+	/**
+	 * The reason each skipped {@link XmlDocument} was rejected, by its fragment identifier.
+	 */
+	private final Map<String, String> rejected = new LinkedHashMap<>();
+
+	/**
+	 * Maps the fragment identifier of each {@link XmlDocument} to the id it is embedded with.
+	 */
+	private Function<String, String> fragmentIds = Function.identity();
+
+	/**
+	 * The registered {@link StockpileVariant}s, in order.
+	 */
+	private final List<StockpileVariant> variants = new ArrayList<>();
+
+	/**
+	 * The {@link ParsedDocument}s that have been read, which are only kept if a {@link StockpileVariant} is registered.
+	 */
+	private final List<ParsedDocument> documents = new ArrayList<>();
+
 	/**
 	 * Creates a new {@link StockpileBuilder}.
 	 * @param processors The {@link XmlEventProcessor}s to register.
@@ -49,15 +252,151 @@ public final class StockpileBuilder {
 	}
 
 	/**
-	 * Processes an {@link XMLEvent} and adds the result of {@link XmlEventProcessor#process(String, XMLEvent)}.
+	 * Registers an {@link XmlDocumentProcessor} to run on each {@link XmlDocument} that is subsequently read, after
+	 * any previously registered {@link XmlDocumentProcessor}s and before the {@link XmlEventProcessor}s.
+	 * @param processor The {@link XmlDocumentProcessor} to register.
+	 * @return The {@link StockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code processor} is {@code null}.
+	 */
+	public StockpileBuilder with(XmlDocumentProcessor processor) {
+		documentProcessors.add(Preconditions.checkNotNull(processor));
+		return this;
+	}
+
+	/**
+	 * Reads each {@link XmlDocument} that is subsequently read with an {@link XmlInputEngine}, rather than with the
+	 * parser built into the JRE.
+	 * @param engine The {@link XmlInputEngine}.
+	 * @return The {@link StockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code engine} is {@code null}.
+	 */
+	public StockpileBuilder withInputEngine(XmlInputEngine engine) {
+		this.engine = Preconditions.checkNotNull(engine);
+		return this;
+	}
+
+	/**
+	 * Reads each {@link XmlDocument} that is subsequently read within {@link XmlInputLimits}. Each limit is checked as
+	 * the document is streamed, so a document that exceeds one is rejected without reading the rest of it, and none of
+	 * its {@link XMLEvent}s are added. The limit on the total bytes applies to the documents read after this call.
+	 * @param limits The {@link XmlInputLimits}.
+	 * @param skipRejected A flag indicating whether a rejected document is skipped and reported by
+	 * {@link #getRejected()}, rather than failing the read with an {@link XmlLimitException}.
+	 * @return The {@link StockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code limits} is {@code null}.
+	 */
+	public StockpileBuilder withInputLimits(XmlInputLimits limits, boolean skipRejected) {
+		this.limits = Preconditions.checkNotNull(limits);
+		this.skipRejected = skipRejected;
+		this.totalBytes = 0;
+		return this;
+	}
+
+	/**
+	 * Gets the {@link XmlDocument}s that were skipped because they exceeded the {@link XmlInputLimits}.
+	 * @return An {@link ImmutableMap} of fragment identifiers, before they are mapped, to the reason each document was
+	 * rejected, in the order they were read.
+	 */
+	public ImmutableMap<String, String> getRejected() {
+		return ImmutableMap.copyOf(rejected);
+	}
+
+	/**
+	 * Caps the memory held by this builder regardless of how many {@link XmlDocument}s are read: each processed
+	 * {@link XMLEvent} is serialized as soon as it is added, and once the serialized bytes reach a maximum, the rest are
+	 * written to a temporary spill file. The built {@link Stockpile} copies the spill file when it is written, and
+	 * should be closed to delete it.
+	 * @param directory The directory to create the spill file in.
+	 * @param maxBufferedBytes The maximum number of serialized bytes to hold in memory.
+	 * @return The {@link StockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code directory} is {@code null}.
+	 * @throws IllegalArgumentException If {@code maxBufferedBytes} is negative.
+	 * @throws IllegalStateException If an {@link XMLEvent} has already been added, or a {@link StockpileVariant} has
+	 * been registered.
+	 */
+	public StockpileBuilder spillTo(Path directory, long maxBufferedBytes) {
+		Preconditions.checkState(!started && spill == null, "Spilling must be enabled before any events are added.");
+		Preconditions.checkState(variants.isEmpty(), "Variants cannot be built by a builder that spills to disk.");
+		spill = new StockpileSpill(directory, maxBufferedBytes);
+		return this;
+	}
+
+	/**
+	 * Measures the contribution of each {@link XmlDocument} that is subsequently read: the bytes and {@link XMLEvent}s
+	 * it is read from, and the {@link XMLEvent}s each processor removes from it. The bytes it is written as are
+	 * measured by {@link Stockpile#writeMeasured(Path)} as it writes the built {@link Stockpile}.
+	 * @return The {@link StockpileBuilder} instance for chaining.
+	 */
+	public StockpileBuilder measureSizes() {
+		if (spans == null) {
+			spans = ImmutableList.builder();
+		}
+
+		return this;
+	}
+
+	/**
+	 * Maps the fragment identifier of each {@link XmlDocument} that is subsequently read to the id it is embedded with,
+	 * such as a short id given by a {@link com.mikebull94.stockpile.svg.FragmentIdMinifier}.
+	 * @param fragmentIds Maps a fragment identifier to an id.
+	 * @return The {@link StockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code fragmentIds} is {@code null}.
+	 */
+	public StockpileBuilder withFragmentIds(Function<String, String> fragmentIds) {
+		this.fragmentIds = Preconditions.checkNotNull(fragmentIds);
+		return this;
+	}
+
+	/**
+	 * Registers a {@link StockpileVariant} to build from each {@link XmlDocument} that is subsequently read, once it has
+	 * passed through the {@link XmlDocumentProcessor}s registered with this builder. The {@link XMLEvent}s of every
+	 * {@link XmlDocument} are kept until the variants are built, so variants should be registered before reading.
+	 * @param variant The {@link StockpileVariant} to register.
+	 * @return The {@link StockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code variant} is {@code null}.
+	 * @throws IllegalArgumentException If a variant with the same name has already been registered.
+	 * @throws IllegalStateException If this builder spills to disk.
+	 */
+	public StockpileBuilder variant(StockpileVariant variant) {
+		Preconditions.checkNotNull(variant);
+		Preconditions.checkState(spill == null, "Variants cannot be built by a builder that spills to disk.");
+
+		for (StockpileVariant registered : variants) {
+			Preconditions.checkArgument(!registered.getName().equals(variant.getName()), "Duplicate variant '%s'.",
+				variant.getName());
+		}
+
+		variants.add(variant);
+		return this;
+	}
+
+	/**
+	 * Processes an {@link XMLEvent} and adds the result of {@link XmlEventProcessor#process(String, XMLEvent)} of each
+	 * {@link XmlEventProcessor} that accepts it, in the order they were registered.
 	 * @param id The id of the {@link XmlDocument} this {@link XMLEvent} belongs to.
 	 * @param event The {@link XMLEvent} to process.
 	 * @return The {@link StockpileBuilder} instance for chaining.
 	 */
 	public StockpileBuilder process(String id, XMLEvent event) {
-		processors.stream().parallel()
-			.filter(processor -> processor.accepts(event))
-			.forEach(processor -> add(processor.process(id, event)));
+		boolean accepted = false;
+
+		for (XmlEventProcessor processor : processors) {
+			if (processor.accepts(event)) {
+				ImmutableList<XMLEvent> processed = processor.process(id, event);
+				accepted = true;
+
+				if (fragment != null) {
+					fragment.save(processor.getClass().getSimpleName(), 1 - processed.size());
+				}
+
+				add(processed);
+			}
+		}
+
+		if (!accepted && fragment != null) {
+			fragment.save(FragmentSize.UNPROCESSED, 1);
+		}
+
 		return this;
 	}
 
@@ -67,7 +406,15 @@ public final class StockpileBuilder {
 	 * @return The {@link StockpileBuilder} instance for chaining.
 	 */
 	public StockpileBuilder add(XMLEvent event) {
-		events.add(event);
+		started = true;
+		count++;
+
+		if (spill == null) {
+			events.add(event);
+		} else {
+			spill.add(event);
+		}
+
 		return this;
 	}
 
@@ -77,7 +424,10 @@ public final class StockpileBuilder {
 	 * @return The {@link StockpileBuilder} instance for chaining.
 	 */
 	public StockpileBuilder add(XMLEvent... events) {
-		this.events.add(events);
+		for (XMLEvent event : events) {
+			add(event);
+		}
+
 		return this;
 	}
 
@@ -87,7 +437,10 @@ public final class StockpileBuilder {
 	 * @return The {@link StockpileBuilder} instance for chaining.
 	 */
 	public StockpileBuilder add(Iterable<XMLEvent> events) {
-		this.events.addAll(events);
+		for (XMLEvent event : events) {
+			add(event);
+		}
+
 		return this;
 	}
 
@@ -97,33 +450,217 @@ public final class StockpileBuilder {
 	 * @return The {@link StockpileBuilder} instance for chaining.
 	 */
 	public StockpileBuilder add(Iterator<XMLEvent> events) {
-		this.events.addAll(events);
+		while (events.hasNext()) {
+			add(events.next());
+		}
+
+		return this;
+	}
+
+	/**
+	 * Adds the {@link XmlDocumentProcessor#sharedEvents()} of every registered {@link XmlDocumentProcessor}. This should
+	 * be called once all of the {@link XmlDocument}s have been read.
+	 * @return The {@link StockpileBuilder} instance for chaining.
+	 */
+	public StockpileBuilder addSharedEvents() {
+		for (XmlDocumentProcessor processor : documentProcessors) {
+			add(processor.sharedEvents());
+		}
+
 		return this;
 	}
 
 	/**
-	 * Reads {@link XMLEvent}s from an {@link InputStream} and passes them to {@link #process(String, XMLEvent)}.
-	 * @param id The fragment identifier of this embedded SVG.
+	 * Reads {@link XMLEvent}s from an {@link InputStream} and passes them to {@link #process(String, XMLEvent)}, first
+	 * passing the whole {@link XmlDocument} through each registered {@link XmlDocumentProcessor}.
+	 * @param id The fragment identifier of this embedded SVG, before it is mapped as per
+	 * {@link #withFragmentIds(Function)}.
 	 * @param inputStream The {@link InputStream} to read {@link XMLEvent}s from.
 	 * @return The {@link StockpileBuilder} instance for chaining.
 	 * @throws NullPointerException If {@code id} is {@code null} or {@code inputStream} is {@code null}.
+	 * @throws XmlLimitException If the document exceeds the {@link XmlInputLimits} and is not skipped.
 	 * @throws XMLStreamException If an XML error occurs.
 	 */
 	public StockpileBuilder read(String id, InputStream inputStream) throws XMLStreamException {
-		Preconditions.checkNotNull(id);
-		XMLEventReader reader = input.createXMLEventReader(Preconditions.checkNotNull(inputStream));
+		String fragmentId = fragmentIds.apply(Preconditions.checkNotNull(id));
+		CountingInputStream counted = new CountingInputStream(Preconditions.checkNotNull(inputStream));
+
+		if (limited()) {
+			ImmutableList<XMLEvent> document;
+
+			try {
+				document = engine.limit(limits).read(counted);
+				checkTotalBytes(counted.getCount());
+			} catch (XmlLimitException e) {
+				reject(id, e);
+				return this;
+			}
+
+			processDocument(id, fragmentId, document, counted.getCount());
+			return this;
+		}
+
+		XMLEventReader reader = engine.createReader(spans == null ? inputStream : counted);
 
 		try {
-			while (reader.hasNext()) {
-				process(id, reader.nextEvent());
+			if (documentProcessors.isEmpty() && variants.isEmpty()) {
+				int inputEvents = 0;
+				openFragment();
+
+				while (reader.hasNext()) {
+					process(fragmentId, reader.nextEvent());
+					inputEvents++;
+				}
+
+				closeFragment(fragmentId, counted.getCount(), inputEvents);
+			} else {
+				ImmutableList.Builder<XMLEvent> document = ImmutableList.builder();
+
+				while (reader.hasNext()) {
+					document.add(reader.nextEvent());
+				}
+
+				processDocument(id, fragmentId, document.build(), counted.getCount());
 			}
 		} finally {
+			fragment = null;
 			reader.close();
 		}
 
 		return this;
 	}
 
+	/**
+	 * Adds an {@link XmlDocument} whose {@link XMLEvent}s have already been read, such as one that is shared by several
+	 * builders, passing it through each registered {@link XmlDocumentProcessor} and then to
+	 * {@link #process(String, XMLEvent)}.
+	 * @param id The fragment identifier of this embedded SVG, before it is mapped as per
+	 * {@link #withFragmentIds(Function)}.
+	 * @param document The {@link XMLEvent}s of the {@link XmlDocument}.
+	 * @return The {@link StockpileBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code id} is {@code null} or {@code document} is {@code null}.
+	 * @throws IllegalArgumentException If the document exceeds the {@link XmlInputLimits} on its depth, events or
+	 * attribute values and is not skipped.
+	 */
+	public StockpileBuilder read(String id, ImmutableList<XMLEvent> document) {
+		Preconditions.checkNotNull(id);
+		Preconditions.checkNotNull(document);
+
+		if (limited()) {
+			try {
+				limits.check(document);
+			} catch (XmlLimitException e) {
+				if (!skipRejected) {
+					throw new IllegalArgumentException("Document '" + id + "' was rejected: " + e.getMessage(), e);
+				}
+
+				rejected.put(id, e.getMessage());
+				return this;
+			}
+		}
+
+		processDocument(id, fragmentIds.apply(id), document, -1);
+		return this;
+	}
+
+	/**
+	 * Passes the {@link XMLEvent}s of an {@link XmlDocument} through each registered {@link XmlDocumentProcessor}, then
+	 * passes the result to {@link #process(String, XMLEvent)}, keeping it for the {@link StockpileVariant}s if any are
+	 * registered.
+	 * @param name The fragment identifier of the {@link XmlDocument}, before it is mapped.
+	 * @param id The id of the {@link XmlDocument}.
+	 * @param document The {@link XMLEvent}s of the {@link XmlDocument}.
+	 * @param inputBytes The number of bytes the {@link XmlDocument} was read from, or {@code -1} if it was not read from
+	 * bytes.
+	 */
+	private void processDocument(String name, String id, ImmutableList<XMLEvent> document, long inputBytes) {
+		openFragment();
+
+		try {
+			ImmutableList<XMLEvent> processed = document;
+
+			for (XmlDocumentProcessor processor : documentProcessors) {
+				int before = processed.size();
+				processed = processor.process(id, processed);
+
+				if (fragment != null) {
+					fragment.save(processor.getClass().getSimpleName(), before - processed.size());
+				}
+			}
+
+			if (!variants.isEmpty()) {
+				documents.add(new ParsedDocument(name, id, processed));
+			}
+
+			for (XMLEvent event : processed) {
+				process(id, event);
+			}
+
+			closeFragment(id, inputBytes, document.size());
+		} finally {
+			fragment = null;
+		}
+	}
+
+	/**
+	 * A flag indicating whether {@link XmlDocument}s are read within {@link XmlInputLimits}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private boolean limited() {
+		return !limits.equals(XmlInputLimits.UNLIMITED);
+	}
+
+	/**
+	 * Checks that an {@link XmlDocument} fits within the limit on the total bytes, counting it towards the total if so.
+	 * @param bytes The number of bytes of the {@link XmlDocument}.
+	 * @throws XmlLimitException If the {@link XmlDocument} would exceed the limit.
+	 */
+	private void checkTotalBytes(long bytes) throws XmlLimitException {
+		if (bytes > limits.getMaxTotalBytes() - totalBytes) {
+			throw new XmlLimitException("Documents exceed the maximum total of " + limits.getMaxTotalBytes() + " bytes.");
+		}
+
+		totalBytes += bytes;
+	}
+
+	/**
+	 * Rejects an {@link XmlDocument} that exceeds the {@link XmlInputLimits}, either skipping it or failing the read.
+	 * @param id The fragment identifier of the {@link XmlDocument}, before it is mapped.
+	 * @param cause The {@link XmlLimitException} describing the limit that was exceeded.
+	 * @throws XmlLimitException If rejected documents are not skipped.
+	 */
+	private void reject(String id, XmlLimitException cause) throws XmlLimitException {
+		if (!skipRejected) {
+			throw cause;
+		}
+
+		rejected.put(id, cause.getMessage());
+	}
+
+	/**
+	 * Starts measuring the {@link XmlDocument} about to be read, if sizes are measured.
+	 */
+	private void openFragment() {
+		if (spans != null) {
+			fragment = new OpenFragment(count, spill == null ? -1 : spill.position());
+		}
+	}
+
+	/**
+	 * Finishes measuring the {@link XmlDocument} that has been read, if sizes are measured.
+	 * @param id The id of the {@link XmlDocument}.
+	 * @param inputBytes The number of bytes the {@link XmlDocument} was read from, or {@code -1} if it was not read from
+	 * bytes.
+	 * @param inputEvents The number of {@link XMLEvent}s the {@link XmlDocument} was read as.
+	 */
+	private void closeFragment(String id, long inputBytes, int inputEvents) {
+		if (fragment != null) {
+			long outputBytes = spill == null ? -1 : spill.position() - fragment.firstByte;
+			spans.add(new FragmentSpan(id, inputBytes, inputEvents, ImmutableMap.copyOf(fragment.savedEvents),
+				fragment.firstEvent, count, outputBytes));
+		}
+	}
+
 	/**
 	 * Reads {@link XMLEvent}s from a file located at a {@link Path}.
 	 * @param path The {@link Path} from which to read the file.
@@ -134,15 +671,7 @@ public final class StockpileBuilder {
 	 * @throws XMLStreamException If an XML error occurs.
 	 */
 	public StockpileBuilder read(Path path) throws IOException, XMLStreamException {
-		Preconditions.checkNotNull(path);
-
-		Path fileName = path.getFileName();
-
-		if (fileName == null) {
-			throw new IllegalArgumentException("Path " + path + " has zero elements.");
-		}
-
-		String id = getNameWithoutExtension(fileName.toString());
+		String id = PathUtils.fragmentId(Preconditions.checkNotNull(path));
 
 		try (InputStream inputStream = Files.newInputStream(path)) {
 			return read(id, inputStream);
@@ -168,33 +697,206 @@ public final class StockpileBuilder {
 	 * @throws XMLStreamException If an XML error occurs.
 	 */
 	public StockpileBuilder read(Iterable<Path> paths) throws IOException, XMLStreamException {
-		for (Path path : paths) {
-			read(path);
-		}
-
-		return this;
+		return read(paths.iterator());
 	}
 
 	/**
-	 * Reads {@link XMLEvent}s from files in an {@link Iterator} of {@link Path}s.
+	 * Reads {@link XMLEvent}s from files in an {@link Iterator} of {@link Path}s. Up to {@value #MAX_PENDING_READS}
+	 * files are read and parsed asynchronously ahead of the one being processed, as per
+	 * {@link XmlDocumentFeeder#read(Path, XmlInputEngine, ExecutorService)}, by a pool of one thread per processor
+	 * that is shut down when this method returns. Each file is still processed in order on the calling thread.
 	 * @param paths The {@link Iterator} of {@link Path}s.
 	 * @return The {@link StockpileBuilder} instance for chaining.
 	 * @throws IOException If an I/O error occurs.
 	 * @throws XMLStreamException If an XML error occurs.
 	 */
 	public StockpileBuilder read(Iterator<Path> paths) throws IOException, XMLStreamException {
-		while (paths.hasNext()) {
-			read(paths.next());
+		Deque<Path> pendingPaths = new ArrayDeque<>();
+		Deque<CompletableFuture<ImmutableList<XMLEvent>>> pendingReads = new ArrayDeque<>();
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+		try {
+			while (paths.hasNext() || !pendingReads.isEmpty()) {
+				while (paths.hasNext() && pendingReads.size() < MAX_PENDING_READS) {
+					Path path = Preconditions.checkNotNull(paths.next());
+					pendingPaths.add(path);
+					pendingReads.add(startRead(path, executor));
+				}
+
+				Path path = pendingPaths.remove();
+				String id = PathUtils.fragmentId(path);
+				long size = spans == null && !limited() ? -1 : Files.size(path);
+				ImmutableList<XMLEvent> document;
+
+				try {
+					document = get(pendingReads.remove());
+
+					if (limited()) {
+						checkTotalBytes(size);
+					}
+				} catch (XmlLimitException e) {
+					reject(id, e);
+					continue;
+				}
+
+				processDocument(id, fragmentIds.apply(id), document, size);
+			}
+		} finally {
+			pendingReads.forEach(read -> read.cancel(false));
+			executor.shutdown();
 		}
 
 		return this;
 	}
 
+	/**
+	 * Starts to read and parse a file asynchronously, as per
+	 * {@link XmlDocumentFeeder#read(Path, XmlInputEngine, ExecutorService)}, within the {@link XmlInputLimits}. A file
+	 * that is larger than the limit on the bytes of each document is rejected without being read.
+	 * @param path The {@link Path} of the file.
+	 * @param executor The {@link ExecutorService} that reads and parses the file.
+	 * @return A {@link CompletableFuture} of the {@link XMLEvent}s of the file.
+	 * @throws IOException If the size of the file cannot be read.
+	 */
+	private CompletableFuture<ImmutableList<XMLEvent>> startRead(Path path, ExecutorService executor) throws IOException {
+		if (limited() && Files.size(path) > limits.getMaxDocumentBytes()) {
+			CompletableFuture<ImmutableList<XMLEvent>> rejection = new CompletableFuture<>();
+			rejection.completeExceptionally(new XmlLimitException("Document exceeds the maximum of "
+				+ limits.getMaxDocumentBytes() + " bytes."));
+			return rejection;
+		}
+
+		return XmlDocumentFeeder.read(path, engine.limit(limits), executor);
+	}
+
 	/**
 	 * Builds a new {@link Stockpile}.
 	 * @return The built {@link Stockpile}.
 	 */
 	public Stockpile build() {
-		return new Stockpile(events.build());
+		ImmutableList<FragmentSpan> fragments = spans == null ? ImmutableList.of() : spans.build();
+		return spill == null ? new Stockpile(events.build(), fragments) : new Stockpile(spill.finish(), fragments);
+	}
+
+	/**
+	 * Builds a {@link Stockpile} of each registered {@link StockpileVariant} concurrently.
+	 * @return An {@link ImmutableMap} of variant names to {@link Stockpile}s, in the order the variants were
+	 * registered.
+	 * @throws IllegalStateException If no variants have been registered.
+	 * @throws IOException If the thread is interrupted while waiting for the variants.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public ImmutableMap<String, Stockpile> buildVariants() throws IOException, XMLStreamException {
+		ImmutableList<XMLEvent> shared = sharedEvents();
+		return submit(variant -> () -> build(variant, shared));
+	}
+
+	/**
+	 * Builds a {@link Stockpile} of each registered {@link StockpileVariant} and writes it to a file in a directory,
+	 * named after the variant, concurrently.
+	 * @param directory The {@link Path} of the directory.
+	 * @return An {@link ImmutableMap} of variant names to the written {@link Stockpile}s, in the order the variants were
+	 * registered.
+	 * @throws NullPointerException If {@code directory} is {@code null}.
+	 * @throws IllegalStateException If no variants have been registered.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public ImmutableMap<String, Stockpile> writeVariants(Path directory) throws IOException, XMLStreamException {
+		Preconditions.checkNotNull(directory);
+		Files.createDirectories(directory);
+		ImmutableList<XMLEvent> shared = sharedEvents();
+		return submit(variant -> () -> build(variant, shared).write(directory.resolve(variant.getName() + "." + SvgDocument.FILE_EXTENSION)));
+	}
+
+	/**
+	 * Runs a task for each registered {@link StockpileVariant} concurrently, waiting for all of them to complete.
+	 * @param tasks Creates the task of a {@link StockpileVariant}.
+	 * @param <T> The type of the result of each task.
+	 * @return An {@link ImmutableMap} of variant names to results, in the order the variants were registered.
+	 * @throws IllegalStateException If no variants have been registered.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	private <T> ImmutableMap<String, T> submit(Function<StockpileVariant, Callable<T>> tasks) throws IOException, XMLStreamException {
+		Preconditions.checkState(!variants.isEmpty(), "No variants have been registered.");
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(variants.size(), Runtime.getRuntime().availableProcessors()));
+
+		try {
+			Map<String, Future<T>> futures = new LinkedHashMap<>();
+
+			for (StockpileVariant variant : variants) {
+				futures.put(variant.getName(), executor.submit(tasks.apply(variant)));
+			}
+
+			ImmutableMap.Builder<String, T> results = ImmutableMap.builder();
+
+			for (Map.Entry<String, Future<T>> future : futures.entrySet()) {
+				results.put(future.getKey(), get(future.getValue()));
+			}
+
+			return results.build();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Gets the {@link XmlDocumentProcessor#sharedEvents()} of every registered {@link XmlDocumentProcessor}, which the
+	 * {@link ParsedDocument}s of every variant refer to. They are gathered once, before the variants are built, so that
+	 * the registered {@link XmlDocumentProcessor}s are not used by many threads at once.
+	 * @return The {@link ImmutableList} of {@link XMLEvent}s.
+	 */
+	private ImmutableList<XMLEvent> sharedEvents() {
+		ImmutableList.Builder<XMLEvent> shared = ImmutableList.builder();
+
+		for (XmlDocumentProcessor processor : documentProcessors) {
+			shared.addAll(processor.sharedEvents());
+		}
+
+		return shared.build();
+	}
+
+	/**
+	 * Builds a {@link Stockpile} of a {@link StockpileVariant} from the {@link ParsedDocument}s it includes. The
+	 * {@link XmlDocumentProcessor}s of the variant are only ever run on the thread that builds it.
+	 * @param variant The {@link StockpileVariant}.
+	 * @param shared The {@link XMLEvent}s shared by the {@link XmlDocumentProcessor}s of this builder.
+	 * @return The {@link Stockpile}.
+	 */
+	private Stockpile build(StockpileVariant variant, ImmutableList<XMLEvent> shared) {
+		ImmutableList<XmlDocumentProcessor> variantProcessors = variant.getProcessors();
+		ImmutableList.Builder<XMLEvent> variantEvents = ImmutableList.builder();
+		variantEvents.add(SvgDocument.startSvg(variant.getViewBox()));
+		variantEvents.addAll(SvgDocument.hideEmbeddedSvgs());
+
+		for (ParsedDocument document : documents) {
+			if (!variant.includes(document.name)) {
+				continue;
+			}
+
+			ImmutableList<XMLEvent> processed = document.events;
+
+			for (XmlDocumentProcessor processor : variantProcessors) {
+				processed = processor.process(document.id, processed);
+			}
+
+			for (XMLEvent event : processed) {
+				for (XmlEventProcessor processor : processors) {
+					if (processor.accepts(event)) {
+						variantEvents.addAll(processor.process(document.id, event));
+					}
+				}
+			}
+		}
+
+		variantEvents.addAll(shared);
+
+		for (XmlDocumentProcessor processor : variantProcessors) {
+			variantEvents.addAll(processor.sharedEvents());
+		}
+
+		variantEvents.add(SvgDocument.endSvg());
+		return new Stockpile(variantEvents.build());
 	}
 }
@@ -0,0 +1,340 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.flow.ChunkPublisher;
+import com.mikebull94.stockpile.flow.ChunkSubscriber;
+import com.mikebull94.stockpile.flow.ChunkSubscription;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ChunkPublisher} of the serialized bytes of a {@link Stockpile}. The {@link XMLEvent}s of the stockpile are
+ * only serialized, or the bytes of its {@link StockpileSpill} only read, as chunks are requested, so no more than about
+ * one chunk of bytes is held for each subscriber.
+ */
+final class StockpilePublisher implements ChunkPublisher {
+
+	/**
+	 * A {@link ByteArrayOutputStream} from which the bytes written so far can be taken in chunks.
+	 */
+	private static final class ChunkBuffer extends ByteArrayOutputStream {
+
+		/**
+		 * Creates a new {@link ChunkBuffer}.
+		 * @param size The initial capacity.
+		 */
+		private ChunkBuffer(int size) {
+			super(size);
+		}
+
+		/**
+		 * Takes the first bytes that have been written, moving the rest to the start of the buffer.
+		 * @param length The number of bytes to take.
+		 * @return A {@link ByteBuffer} of the bytes.
+		 */
+		private ByteBuffer take(int length) {
+			byte[] chunk = new byte[length];
+			System.arraycopy(buf, 0, chunk, 0, length);
+			System.arraycopy(buf, length, buf, 0, count - length);
+			count -= length;
+			return ByteBuffer.wrap(chunk);
+		}
+	}
+
+	/**
+	 * Produces the chunks of one {@link Subscription}.
+	 */
+	@FunctionalInterface
+	private interface ChunkSource {
+
+		/**
+		 * Produces the next chunk.
+		 * @return A {@link ByteBuffer} of the next chunk, or {@code null} if every byte has been published.
+		 * @throws IOException If an I/O error occurs.
+		 * @throws XMLStreamException If an XML error occurs.
+		 */
+		ByteBuffer next() throws IOException, XMLStreamException;
+	}
+
+	/**
+	 * A {@link ChunkSource} that serializes {@link XMLEvent}s as chunks are requested.
+	 */
+	private static final class EventSource implements ChunkSource {
+
+		/**
+		 * The size of each chunk, in bytes.
+		 */
+		private final int chunkSize;
+
+		/**
+		 * The {@link XMLEvent}s that have not yet been serialized.
+		 */
+		private final Iterator<XMLEvent> events;
+
+		/**
+		 * The serialized bytes that have not yet been published.
+		 */
+		private final ChunkBuffer buffer;
+
+		/**
+		 * Serializes the {@link #events}, or {@code null} before the first chunk is requested.
+		 */
+		private XMLEventWriter writer;
+
+		/**
+		 * A flag indicating whether the {@link #writer} has been closed.
+		 */
+		private boolean closed;
+
+		/**
+		 * Creates a new {@link EventSource}.
+		 * @param chunkSize The size of each chunk, in bytes.
+		 * @param events The {@link XMLEvent}s to serialize.
+		 */
+		private EventSource(int chunkSize, ImmutableList<XMLEvent> events) {
+			this.chunkSize = chunkSize;
+			this.events = events.iterator();
+			this.buffer = new ChunkBuffer(chunkSize);
+		}
+
+		@Override
+		public ByteBuffer next() throws XMLStreamException {
+			if (writer == null) {
+				writer = XmlFactories.output().createXMLEventWriter(buffer);
+			}
+
+			while (buffer.size() < chunkSize && events.hasNext()) {
+				writer.add(events.next());
+				writer.flush();
+			}
+
+			if (!events.hasNext() && !closed) {
+				writer.close();
+				closed = true;
+			}
+
+			if (buffer.size() == 0) {
+				return null;
+			}
+
+			return buffer.take(Math.min(chunkSize, buffer.size()));
+		}
+	}
+
+	/**
+	 * A {@link ChunkSource} that reads the bytes of a {@link StockpileSpill}.
+	 */
+	private static final class SpillSource implements ChunkSource {
+
+		/**
+		 * The size of each chunk, in bytes.
+		 */
+		private final int chunkSize;
+
+		/**
+		 * The {@link StockpileSpill}.
+		 */
+		private final StockpileSpill spill;
+
+		/**
+		 * The position of the next chunk.
+		 */
+		private long position;
+
+		/**
+		 * Creates a new {@link SpillSource}.
+		 * @param chunkSize The size of each chunk, in bytes.
+		 * @param spill The {@link StockpileSpill}.
+		 */
+		private SpillSource(int chunkSize, StockpileSpill spill) {
+			this.chunkSize = chunkSize;
+			this.spill = spill;
+		}
+
+		@Override
+		public ByteBuffer next() throws IOException {
+			if (position >= spill.length()) {
+				return null;
+			}
+
+			ByteBuffer chunk = spill.read(position, chunkSize);
+			position += chunk.remaining();
+			return chunk;
+		}
+	}
+
+	/**
+	 * The state of one {@link ChunkSubscriber}. Chunks are published by whichever thread requests them, one thread at a
+	 * time: a thread that requests chunks while another is publishing leaves them for that thread to publish.
+	 */
+	private static final class Subscription implements ChunkSubscription {
+
+		/**
+		 * The {@link ChunkSubscriber}.
+		 */
+		private final ChunkSubscriber subscriber;
+
+		/**
+		 * Produces the chunks.
+		 */
+		private final ChunkSource source;
+
+		/**
+		 * The number of chunks that have been requested but not published.
+		 */
+		private final AtomicLong demand = new AtomicLong();
+
+		/**
+		 * The number of times {@link #drain()} has been called and not yet observed by the publishing thread.
+		 */
+		private final AtomicInteger pending = new AtomicInteger();
+
+		/**
+		 * A flag indicating whether the subscription has been cancelled.
+		 */
+		private volatile boolean cancelled;
+
+		/**
+		 * The failure of a non-positive request, to be reported by the publishing thread, or {@code null} if there is
+		 * none.
+		 */
+		private volatile IllegalArgumentException invalidRequest;
+
+		/**
+		 * A flag indicating whether {@link ChunkSubscriber#onComplete()} or {@link ChunkSubscriber#onError(Throwable)}
+		 * has been called.
+		 */
+		private boolean terminated;
+
+		/**
+		 * Creates a new {@link Subscription}.
+		 * @param subscriber The {@link ChunkSubscriber}.
+		 * @param source Produces the chunks.
+		 */
+		private Subscription(ChunkSubscriber subscriber, ChunkSource source) {
+			this.subscriber = subscriber;
+			this.source = source;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("Requested " + n + " chunks.");
+			} else {
+				demand.accumulateAndGet(n, (current, requested) -> {
+					long total = current + requested;
+					return total < 0 ? Long.MAX_VALUE : total;
+				});
+			}
+
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+		}
+
+		/**
+		 * Publishes the requested chunks, unless another thread is already doing so, in which case that thread is left
+		 * to publish them once it observes this call.
+		 */
+		private void drain() {
+			if (pending.getAndIncrement() != 0) {
+				return;
+			}
+
+			int missed = 1;
+
+			do {
+				publish();
+				missed = pending.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		/**
+		 * Publishes chunks until the demand is met, the bytes run out or the subscription ends. A failure to produce a
+		 * chunk, including an unchecked exception, is reported to {@link ChunkSubscriber#onError(Throwable)}. An
+		 * exception thrown by {@link ChunkSubscriber#onNext(ByteBuffer)} violates the contract of the subscriber, so
+		 * the subscription is treated as cancelled, rather than letting the exception escape {@link #drain()} before
+		 * it has observed its calls.
+		 */
+		private void publish() {
+			while (!terminated && !cancelled) {
+				if (invalidRequest != null) {
+					terminated = true;
+					subscriber.onError(invalidRequest);
+					return;
+				}
+
+				if (demand.get() == 0) {
+					return;
+				}
+
+				ByteBuffer chunk;
+
+				try {
+					chunk = source.next();
+				} catch (IOException | XMLStreamException | RuntimeException e) {
+					terminated = true;
+					subscriber.onError(e);
+					return;
+				}
+
+				if (chunk == null) {
+					terminated = true;
+					subscriber.onComplete();
+					return;
+				}
+
+				demand.decrementAndGet();
+
+				try {
+					subscriber.onNext(chunk);
+				} catch (RuntimeException e) {
+					cancelled = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the {@link ChunkSource} of each {@link Subscription}.
+	 */
+	private final Supplier<ChunkSource> sources;
+
+	/**
+	 * Creates a new {@link StockpilePublisher} that serializes {@link XMLEvent}s as chunks are requested.
+	 * @param events The {@link XMLEvent}s of the {@link Stockpile}.
+	 * @param chunkSize The size of each chunk, in bytes.
+	 */
+	StockpilePublisher(ImmutableList<XMLEvent> events, int chunkSize) {
+		this.sources = () -> new EventSource(chunkSize, events);
+	}
+
+	/**
+	 * Creates a new {@link StockpilePublisher} that reads the bytes of a {@link StockpileSpill}.
+	 * @param spill The {@link StockpileSpill} of the {@link Stockpile}.
+	 * @param chunkSize The size of each chunk, in bytes.
+	 */
+	StockpilePublisher(StockpileSpill spill, int chunkSize) {
+		this.sources = () -> new SpillSource(chunkSize, spill);
+	}
+
+	@Override
+	public void subscribe(ChunkSubscriber subscriber) {
+		Preconditions.checkNotNull(subscriber);
+		subscriber.onSubscribe(new Subscription(subscriber, sources.get()));
+	}
+}
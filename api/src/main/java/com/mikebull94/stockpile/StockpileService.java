@@ -0,0 +1,359 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.io.ByteSource;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.xml.XmlEventProcessor;
+import com.mikebull94.stockpile.xml.XmlFactories;
+import com.mikebull94.stockpile.xml.XmlInputEngine;
+
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Assembles stacked sheets of any subset of the SVGs in a directory, such as the icons requested by each client of a
+ * server, without reading or processing an SVG more than once while it is cached.
+ * <p>
+ * Each SVG is read and processed once into a fragment of serialized bytes, which is held in a cache bounded by the
+ * total size of its fragments, optionally backed by a cache of soft references to the fragments it evicts. A sheet is
+ * assembled by concatenating the bytes of its fragments between the bytes of the enclosing {@code <svg>} element, and
+ * is itself cached under a canonical key of its sorted ids, so that a sheet of {@code a,b} and one of {@code b,a} are
+ * the same sheet.
+ * <p>
+ * A service may be used by many threads at once.
+ */
+public final class StockpileService {
+
+	/**
+	 * Joins the sorted ids of a sheet into its canonical key.
+	 */
+	private static final Joiner KEY_JOINER = Joiner.on(',');
+
+	/**
+	 * Matches the characters that an id must not contain, so that it cannot name a file outside of the directory.
+	 */
+	private static final CharMatcher SEPARATORS = CharMatcher.anyOf("/\\,");
+
+	/**
+	 * The statistics of a cache that is disabled.
+	 */
+	private static final CacheStats NO_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+
+	/**
+	 * Creates a new {@link StockpileServiceBuilder}.
+	 * @param directory The directory the SVGs are read from, each named after its id.
+	 * @param viewBox The {@link SvgViewBox} to provide each sheet with.
+	 * @return The {@link StockpileServiceBuilder}.
+	 * @throws NullPointerException If {@code directory} or {@code viewBox} is {@code null}.
+	 */
+	public static StockpileServiceBuilder builder(Path directory, SvgViewBox viewBox) {
+		return new StockpileServiceBuilder(directory, viewBox);
+	}
+
+	/**
+	 * Gets the result of a cache's loader, rethrowing the exception it failed with.
+	 * @param e The {@link ExecutionException} the loader failed with.
+	 * @return Never returns normally.
+	 * @throws IOException If an I/O error occurred.
+	 * @throws XMLStreamException If an XML error occurred.
+	 */
+	private static IOException rethrow(ExecutionException e) throws IOException, XMLStreamException {
+		Throwable cause = e.getCause();
+
+		if (cause instanceof IOException) {
+			throw (IOException) cause;
+		} else if (cause instanceof XMLStreamException) {
+			throw (XMLStreamException) cause;
+		}
+
+		throw new IllegalStateException(cause);
+	}
+
+	/**
+	 * Writes an empty sheet, the enclosing {@code <svg>} element of every sheet.
+	 * @param outputStream The {@link OutputStream} to write to.
+	 * @param viewBox The {@link SvgViewBox} of the sheet.
+	 * @return The number of bytes that precede the fragments of a sheet.
+	 */
+	private static long write(OutputStream outputStream, SvgViewBox viewBox) {
+		CountingOutputStream counter = new CountingOutputStream(outputStream);
+
+		try {
+			XMLEventWriter writer = XmlFactories.output().createXMLEventWriter(counter);
+			writer.add(SvgDocument.startSvg(viewBox));
+
+			/* the start tag is only closed once its first child is written, so the header ends after an end tag */
+			for (XMLEvent event : SvgDocument.hideEmbeddedSvgs()) {
+				writer.add(event);
+			}
+
+			writer.flush();
+			long headerLength = counter.getCount();
+			writer.add(SvgDocument.endSvg());
+			writer.flush();
+			writer.close();
+			return headerLength;
+		} catch (XMLStreamException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * The directory the SVGs are read from.
+	 */
+	private final Path directory;
+
+	/**
+	 * The {@link XmlEventProcessor}s to run on each {@link XMLEvent} of an SVG, in order.
+	 */
+	private final ImmutableSet<XmlEventProcessor> processors;
+
+	/**
+	 * The {@link XmlInputEngine} to read each SVG with.
+	 */
+	private final XmlInputEngine engine;
+
+	/**
+	 * The bytes of each sheet that precede its fragments.
+	 */
+	private final byte[] header;
+
+	/**
+	 * The bytes of each sheet that follow its fragments.
+	 */
+	private final byte[] footer;
+
+	/**
+	 * The softly held fragments that have been evicted from {@link #fragments}, or {@code null} if they are discarded.
+	 */
+	private final Cache<String, byte[]> overflow;
+
+	/**
+	 * The strongly held fragments, by id, bounded by their total size.
+	 */
+	private final Cache<String, byte[]> fragments;
+
+	/**
+	 * The assembled sheets, by canonical key, bounded by their total size.
+	 */
+	private final Cache<String, byte[]> sheets;
+
+	/**
+	 * Creates a new {@link StockpileService}.
+	 * @param directory The directory the SVGs are read from.
+	 * @param viewBox The {@link SvgViewBox} to provide each sheet with.
+	 * @param preserveViewBoxes A flag indicating whether each embedded SVG keeps its own view-box.
+	 * @param engine The {@link XmlInputEngine} to read each SVG with.
+	 * @param maxFragmentBytes The maximum size of the strongly held fragments, in bytes.
+	 * @param softOverflow A flag indicating whether evicted fragments are softly held.
+	 * @param maxSheetBytes The maximum size of the cached sheets, in bytes.
+	 */
+	StockpileService(Path directory, SvgViewBox viewBox, boolean preserveViewBoxes, XmlInputEngine engine,
+		long maxFragmentBytes, boolean softOverflow, long maxSheetBytes) {
+		this.directory = directory;
+		this.processors = Stockpile.stackingProcessors(preserveViewBoxes);
+		this.engine = engine;
+
+		ByteArrayOutputStream document = new ByteArrayOutputStream();
+		long headerLength = write(document, viewBox);
+		byte[] bytes = document.toByteArray();
+		this.header = Arrays.copyOfRange(bytes, 0, (int) headerLength);
+		this.footer = Arrays.copyOfRange(bytes, (int) headerLength, bytes.length);
+
+		this.overflow = softOverflow ? CacheBuilder.newBuilder().softValues().recordStats().build() : null;
+		this.fragments = CacheBuilder.newBuilder()
+			.maximumWeight(maxFragmentBytes)
+			.<String, byte[]>weigher((id, fragment) -> fragment.length)
+			.removalListener(notification -> {
+				if (overflow != null && notification.getCause() == RemovalCause.SIZE) {
+					overflow.put(notification.getKey(), notification.getValue());
+				}
+			})
+			.recordStats()
+			.build();
+		this.sheets = CacheBuilder.newBuilder()
+			.maximumWeight(maxSheetBytes)
+			.<String, byte[]>weigher((key, sheet) -> sheet.length)
+			.recordStats()
+			.build();
+	}
+
+	/**
+	 * Gets the sheet of a subset of the SVGs, assembling it if it is not cached. The fragments of the sheet are ordered
+	 * by id, and duplicate ids are ignored.
+	 * @param ids The ids of the SVGs, each the name of a file in the directory without its extension.
+	 * @return A {@link ByteSource} of the bytes of the sheet.
+	 * @throws NullPointerException If {@code ids} is or contains {@code null}.
+	 * @throws IllegalArgumentException If an id is empty, starts with a dot or contains a path separator or comma.
+	 * @throws IOException If an SVG cannot be read.
+	 * @throws XMLStreamException If an SVG cannot be parsed.
+	 */
+	public ByteSource sheet(Iterable<String> ids) throws IOException, XMLStreamException {
+		ImmutableSortedSet<String> sorted = ImmutableSortedSet.copyOf(ids);
+
+		for (String id : sorted) {
+			Preconditions.checkArgument(!id.isEmpty() && !id.startsWith(".") && SEPARATORS.matchesNoneOf(id),
+				"Invalid id '%s'.", id);
+		}
+
+		String key = KEY_JOINER.join(sorted);
+		byte[] sheet = sheets.getIfPresent(key);
+
+		if (sheet == null) {
+			sheet = assemble(sorted.asList());
+			sheets.put(key, sheet);
+		}
+
+		return ByteSource.wrap(sheet);
+	}
+
+	/**
+	 * Assembles a sheet by concatenating the bytes of its fragments between the {@link #header} and {@link #footer}.
+	 * @param ids The ids of the SVGs, in order.
+	 * @return The bytes of the sheet.
+	 * @throws IOException If an SVG cannot be read.
+	 * @throws XMLStreamException If an SVG cannot be parsed.
+	 */
+	private byte[] assemble(ImmutableList<String> ids) throws IOException, XMLStreamException {
+		ImmutableList.Builder<byte[]> builder = ImmutableList.builder();
+		int length = header.length + footer.length;
+
+		for (String id : ids) {
+			byte[] fragment = fragment(id);
+			builder.add(fragment);
+			length += fragment.length;
+		}
+
+		byte[] sheet = new byte[length];
+		System.arraycopy(header, 0, sheet, 0, header.length);
+		int offset = header.length;
+
+		for (byte[] fragment : builder.build()) {
+			System.arraycopy(fragment, 0, sheet, offset, fragment.length);
+			offset += fragment.length;
+		}
+
+		System.arraycopy(footer, 0, sheet, offset, footer.length);
+		return sheet;
+	}
+
+	/**
+	 * Gets the fragment of an SVG, restoring it from the {@link #overflow} or reading it if it is not cached.
+	 * @param id The id of the SVG.
+	 * @return The bytes of the fragment.
+	 * @throws IOException If the SVG cannot be read.
+	 * @throws XMLStreamException If the SVG cannot be parsed.
+	 */
+	private byte[] fragment(String id) throws IOException, XMLStreamException {
+		try {
+			return fragments.get(id, () -> {
+				byte[] fragment = overflow == null ? null : overflow.getIfPresent(id);
+
+				if (fragment != null) {
+					overflow.invalidate(id);
+					return fragment;
+				}
+
+				return read(id);
+			});
+		} catch (ExecutionException e) {
+			throw rethrow(e);
+		} catch (UncheckedExecutionException e) {
+			throw Throwables.propagate(e.getCause());
+		}
+	}
+
+	/**
+	 * Reads an SVG and processes it into a fragment.
+	 * @param id The id of the SVG.
+	 * @return The bytes of the fragment.
+	 * @throws IOException If the SVG cannot be read.
+	 * @throws XMLStreamException If the SVG cannot be parsed.
+	 */
+	private byte[] read(String id) throws IOException, XMLStreamException {
+		ImmutableList<XMLEvent> document;
+
+		try (InputStream inputStream = Files.newInputStream(directory.resolve(id + "." + SvgDocument.FILE_EXTENSION))) {
+			document = engine.read(inputStream);
+		}
+
+		ByteArrayOutputStream fragment = new ByteArrayOutputStream();
+		XMLEventWriter writer = XmlFactories.output().createXMLEventWriter(fragment);
+
+		try {
+			for (XMLEvent event : document) {
+				for (XmlEventProcessor processor : processors) {
+					if (processor.accepts(event)) {
+						for (XMLEvent processed : processor.process(id, event)) {
+							writer.add(processed);
+						}
+					}
+				}
+			}
+		} finally {
+			writer.flush();
+			writer.close();
+		}
+
+		return fragment.toByteArray();
+	}
+
+	/**
+	 * Discards every cached fragment and sheet, such as when the SVGs in the directory have changed.
+	 */
+	public void invalidateAll() {
+		sheets.invalidateAll();
+		fragments.invalidateAll();
+
+		if (overflow != null) {
+			overflow.invalidateAll();
+		}
+	}
+
+	/**
+	 * Gets the statistics of the strongly held fragments: a hit is a fragment that was neither read nor restored, and an
+	 * eviction is a fragment that was discarded or moved to the soft overflow.
+	 * @return The {@link CacheStats}.
+	 */
+	public CacheStats fragmentStats() {
+		return fragments.stats();
+	}
+
+	/**
+	 * Gets the statistics of the soft overflow: a hit is a fragment that was restored rather than read again.
+	 * @return The {@link CacheStats}, all zero if there is no soft overflow.
+	 */
+	public CacheStats overflowStats() {
+		return overflow == null ? NO_STATS : overflow.stats();
+	}
+
+	/**
+	 * Gets the statistics of the cached sheets: a hit is a sheet that was not assembled.
+	 * @return The {@link CacheStats}.
+	 */
+	public CacheStats sheetStats() {
+		return sheets.stats();
+	}
+}
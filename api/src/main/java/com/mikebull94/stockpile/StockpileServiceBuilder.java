@@ -0,0 +1,136 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.base.Preconditions;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.xml.XmlInputEngine;
+
+import java.nio.file.Path;
+
+/**
+ * Used to build {@link StockpileService}s.
+ */
+public final class StockpileServiceBuilder {
+
+	/**
+	 * The default maximum size of the cached fragments, in bytes.
+	 */
+	private static final long DEFAULT_MAX_FRAGMENT_BYTES = 16L * 1024 * 1024;
+
+	/**
+	 * The default maximum size of the cached sheets, in bytes.
+	 */
+	private static final long DEFAULT_MAX_SHEET_BYTES = 16L * 1024 * 1024;
+
+	/**
+	 * The directory the SVGs are read from.
+	 */
+	private final Path directory;
+
+	/**
+	 * The {@link SvgViewBox} to provide each sheet with.
+	 */
+	private final SvgViewBox viewBox;
+
+	/**
+	 * A flag indicating whether each embedded SVG keeps its own view-box.
+	 */
+	private boolean preserveViewBoxes;
+
+	/**
+	 * The {@link XmlInputEngine} to read each SVG with.
+	 */
+	private XmlInputEngine engine = XmlInputEngine.jdk();
+
+	/**
+	 * The maximum size of the fragments that are strongly held, in bytes.
+	 */
+	private long maxFragmentBytes = DEFAULT_MAX_FRAGMENT_BYTES;
+
+	/**
+	 * A flag indicating whether fragments evicted from the strongly held cache are kept while memory allows.
+	 */
+	private boolean softOverflow;
+
+	/**
+	 * The maximum size of the cached sheets, in bytes.
+	 */
+	private long maxSheetBytes = DEFAULT_MAX_SHEET_BYTES;
+
+	/**
+	 * Creates a new {@link StockpileServiceBuilder}.
+	 * @param directory The directory the SVGs are read from.
+	 * @param viewBox The {@link SvgViewBox} to provide each sheet with.
+	 * @throws NullPointerException If {@code directory} or {@code viewBox} is {@code null}.
+	 */
+	StockpileServiceBuilder(Path directory, SvgViewBox viewBox) {
+		this.directory = Preconditions.checkNotNull(directory);
+		this.viewBox = Preconditions.checkNotNull(viewBox);
+	}
+
+	/**
+	 * Keeps the view-box of each embedded SVG, as per {@link Stockpile#builder(boolean)}.
+	 * @param preserveViewBoxes A flag indicating whether each embedded SVG keeps its own view-box.
+	 * @return The {@link StockpileServiceBuilder} instance for chaining.
+	 */
+	public StockpileServiceBuilder preserveViewBoxes(boolean preserveViewBoxes) {
+		this.preserveViewBoxes = preserveViewBoxes;
+		return this;
+	}
+
+	/**
+	 * Reads each SVG with an {@link XmlInputEngine}, rather than with the parser built into the JRE.
+	 * @param engine The {@link XmlInputEngine}.
+	 * @return The {@link StockpileServiceBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code engine} is {@code null}.
+	 */
+	public StockpileServiceBuilder withInputEngine(XmlInputEngine engine) {
+		this.engine = Preconditions.checkNotNull(engine);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum size of the fragments that are strongly held. The least recently used fragments are evicted
+	 * first.
+	 * @param maxFragmentBytes The maximum size, in bytes.
+	 * @return The {@link StockpileServiceBuilder} instance for chaining.
+	 * @throws IllegalArgumentException If {@code maxFragmentBytes} is negative.
+	 */
+	public StockpileServiceBuilder maxFragmentBytes(long maxFragmentBytes) {
+		Preconditions.checkArgument(maxFragmentBytes >= 0, "Maximum fragment bytes must not be negative.");
+		this.maxFragmentBytes = maxFragmentBytes;
+		return this;
+	}
+
+	/**
+	 * Keeps the fragments that are evicted from the strongly held cache in a cache of soft references, from which they
+	 * are restored rather than read again until the garbage collector needs their memory.
+	 * @param softOverflow A flag indicating whether evicted fragments are softly held.
+	 * @return The {@link StockpileServiceBuilder} instance for chaining.
+	 */
+	public StockpileServiceBuilder softOverflow(boolean softOverflow) {
+		this.softOverflow = softOverflow;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum size of the cached sheets. The least recently used sheets are evicted first, and a size of
+	 * {@code 0} disables the cache.
+	 * @param maxSheetBytes The maximum size, in bytes.
+	 * @return The {@link StockpileServiceBuilder} instance for chaining.
+	 * @throws IllegalArgumentException If {@code maxSheetBytes} is negative.
+	 */
+	public StockpileServiceBuilder maxSheetBytes(long maxSheetBytes) {
+		Preconditions.checkArgument(maxSheetBytes >= 0, "Maximum sheet bytes must not be negative.");
+		this.maxSheetBytes = maxSheetBytes;
+		return this;
+	}
+
+	/**
+	 * Builds a new {@link StockpileService}.
+	 * @return The built {@link StockpileService}.
+	 */
+	public StockpileService build() {
+		return new StockpileService(directory, viewBox, preserveViewBoxes, engine, maxFragmentBytes, softOverflow,
+			maxSheetBytes);
+	}
+}
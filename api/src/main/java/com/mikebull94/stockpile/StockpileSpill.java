@@ -0,0 +1,359 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.base.Preconditions;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The serialized bytes of a {@link Stockpile} whose {@link XMLEvent}s are not held in memory: up to a maximum number of
+ * bytes are held in memory, and the rest are held in a temporary spill file, which is deleted when the spill is
+ * closed.
+ * <p>
+ * A spill is written by one thread, then once it is {@link #finish() finished} it may be read by many threads at once,
+ * as every read of the spill file is positional.
+ */
+final class StockpileSpill implements Closeable {
+
+	/**
+	 * The size of the buffer that bytes are written to the spill file through.
+	 */
+	private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The maximum number of bytes copied by each {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+	 */
+	private static final long MAX_TRANSFER = 8L * 1024 * 1024;
+
+	/**
+	 * An {@link OutputStream} that fills the {@link #memory} and then writes to the {@link #file}.
+	 */
+	private final class SpillOutputStream extends OutputStream {
+
+		/**
+		 * Writes to the {@link #file}, or {@code null} until the {@link #memory} is full.
+		 */
+		private OutputStream fileStream;
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			int buffered = (int) Math.min(len, maxBufferedBytes - memory.size());
+
+			if (buffered > 0) {
+				memory.write(b, off, buffered);
+			}
+
+			if (buffered < len) {
+				if (fileStream == null) {
+					file = FileChannel.open(Files.createTempFile(directory, "stockpile", ".spill"), StandardOpenOption.READ,
+						StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+					fileStream = new BufferedOutputStream(Channels.newOutputStream(file), FILE_BUFFER_SIZE);
+				}
+
+				fileStream.write(b, off + buffered, len - buffered);
+				fileLength += len - buffered;
+			}
+		}
+
+		/**
+		 * Flushes the bytes buffered for the {@link #file}. The {@link #writer} flushes this stream whenever
+		 * {@link #position()} is measured, so {@link #flush()} leaves them buffered.
+		 * @throws IOException If an I/O error occurs.
+		 */
+		private void flushFile() throws IOException {
+			if (fileStream != null) {
+				fileStream.flush();
+			}
+		}
+	}
+
+	/**
+	 * An {@link InputStream} that reads the {@link #file} from a position, without moving the position of the
+	 * {@link FileChannel}.
+	 */
+	private final class FileInputStream extends InputStream {
+
+		/**
+		 * The position of the next byte to read.
+		 */
+		private long position;
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= fileLength) {
+				return -1;
+			}
+
+			int read = file.read(ByteBuffer.wrap(b, off, (int) Math.min(len, fileLength - position)), position);
+
+			if (read > 0) {
+				position += read;
+			}
+
+			return read;
+		}
+	}
+
+	/**
+	 * The directory the spill file is created in.
+	 */
+	private final Path directory;
+
+	/**
+	 * The maximum number of bytes held in memory.
+	 */
+	private final long maxBufferedBytes;
+
+	/**
+	 * The bytes held in memory.
+	 */
+	private final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+
+	/**
+	 * The stream the {@link #writer} writes to.
+	 */
+	private final SpillOutputStream stream = new SpillOutputStream();
+
+	/**
+	 * Serializes the {@link XMLEvent}s that are added.
+	 */
+	private final XMLEventWriter writer;
+
+	/**
+	 * The spill file, or {@code null} if every byte fits in memory.
+	 */
+	private FileChannel file;
+
+	/**
+	 * The number of bytes in the spill file.
+	 */
+	private long fileLength;
+
+	/**
+	 * The number of {@link XMLEvent}s that have been added.
+	 */
+	private int size;
+
+	/**
+	 * The bytes held in memory, once the spill is finished.
+	 */
+	private byte[] head;
+
+	/**
+	 * Creates a new {@link StockpileSpill}.
+	 * @param directory The directory the spill file is created in.
+	 * @param maxBufferedBytes The maximum number of bytes held in memory.
+	 * @throws NullPointerException If {@code directory} is {@code null}.
+	 * @throws IllegalArgumentException If {@code maxBufferedBytes} is negative.
+	 */
+	StockpileSpill(Path directory, long maxBufferedBytes) {
+		Preconditions.checkArgument(maxBufferedBytes >= 0, "Maximum buffered bytes must not be negative.");
+		this.directory = Preconditions.checkNotNull(directory);
+		this.maxBufferedBytes = maxBufferedBytes;
+
+		try {
+			writer = XmlFactories.output().createXMLEventWriter(stream);
+		} catch (XMLStreamException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Serializes an {@link XMLEvent}.
+	 * @param event The {@link XMLEvent}.
+	 * @throws IllegalStateException If the spill is finished.
+	 * @throws UncheckedIOException If the spill file cannot be written.
+	 */
+	void add(XMLEvent event) {
+		Preconditions.checkState(head == null, "Spill is finished.");
+
+		try {
+			writer.add(event);
+			size++;
+		} catch (XMLStreamException e) {
+			throw new UncheckedIOException(new IOException(e));
+		}
+	}
+
+	/**
+	 * Finishes the spill, after which no more {@link XMLEvent}s may be added.
+	 * @return The {@link StockpileSpill} instance for chaining.
+	 * @throws UncheckedIOException If the spill file cannot be written.
+	 */
+	StockpileSpill finish() {
+		if (head == null) {
+			try {
+				writer.flush();
+				writer.close();
+				stream.flushFile();
+			} catch (XMLStreamException e) {
+				throw new UncheckedIOException(new IOException(e));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			head = memory.toByteArray();
+			memory.reset();
+		}
+
+		return this;
+	}
+
+	/**
+	 * Gets the number of bytes the {@link XMLEvent}s added so far have been serialized as. A start tag is only closed
+	 * once the next {@link XMLEvent} is added, so the position is exact after an end tag.
+	 * @return The number of bytes.
+	 * @throws IllegalStateException If the spill is finished.
+	 * @throws UncheckedIOException If the spill file cannot be written.
+	 */
+	long position() {
+		Preconditions.checkState(head == null, "Spill is finished.");
+
+		try {
+			writer.flush();
+		} catch (XMLStreamException e) {
+			throw new UncheckedIOException(new IOException(e));
+		}
+
+		return memory.size() + fileLength;
+	}
+
+	/**
+	 * Gets the number of {@link XMLEvent}s that have been added.
+	 * @return The number of {@link XMLEvent}s.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the total number of bytes.
+	 * @return The number of bytes.
+	 */
+	long length() {
+		return head.length + fileLength;
+	}
+
+	/**
+	 * Reads bytes from a position, which may span the bytes in memory and the spill file.
+	 * @param position The position of the first byte.
+	 * @param length The maximum number of bytes to read.
+	 * @return A {@link ByteBuffer} of the bytes, which is empty if {@code position} is at the end.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	ByteBuffer read(long position, int length) throws IOException {
+		int remaining = (int) Math.min(length, length() - position);
+		ByteBuffer bytes = ByteBuffer.allocate(Math.max(remaining, 0));
+
+		if (position < head.length) {
+			int fromHead = (int) Math.min(remaining, head.length - position);
+			bytes.put(head, (int) position, fromHead);
+		}
+
+		while (bytes.hasRemaining()) {
+			long filePosition = position + bytes.position() - head.length;
+
+			if (file.read(bytes, filePosition) < 0) {
+				throw new IOException("Spill file is shorter than expected.");
+			}
+		}
+
+		bytes.flip();
+		return bytes;
+	}
+
+	/**
+	 * Opens an {@link InputStream} of every byte.
+	 * @return The {@link InputStream}.
+	 */
+	InputStream openStream() {
+		InputStream headStream = new ByteArrayInputStream(head);
+		return file == null ? headStream : new SequenceInputStream(headStream, new FileInputStream());
+	}
+
+	/**
+	 * Writes every byte to an {@link OutputStream}, copying the spill file with
+	 * {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+	 * @param outputStream The {@link OutputStream}.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	void writeTo(OutputStream outputStream) throws IOException {
+		outputStream.write(head);
+
+		if (file != null) {
+			transferTo(Channels.newChannel(outputStream));
+		}
+
+		outputStream.flush();
+	}
+
+	/**
+	 * Writes every byte to a file, which the operating system may copy the spill file to without passing its bytes
+	 * through the heap.
+	 * @param path The {@link Path} of the file.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	void writeTo(Path path) throws IOException {
+		try (FileChannel target = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+			StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer headBuffer = ByteBuffer.wrap(head);
+
+			while (headBuffer.hasRemaining()) {
+				target.write(headBuffer);
+			}
+
+			if (file != null) {
+				transferTo(target);
+			}
+		}
+	}
+
+	/**
+	 * Copies the spill file to a {@link WritableByteChannel}.
+	 * @param target The {@link WritableByteChannel}.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void transferTo(WritableByteChannel target) throws IOException {
+		long position = 0;
+
+		while (position < fileLength) {
+			position += file.transferTo(position, Math.min(MAX_TRANSFER, fileLength - position), target);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (file != null) {
+			file.close();
+		}
+	}
+}
@@ -0,0 +1,173 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A named output of a {@link StockpileBuilder}, such as a theme, a subset of the SVGs or a size, that is built from the
+ * same parse of the SVGs as every other variant.
+ * <p>
+ * Each SVG that is read by the {@link StockpileBuilder} is passed through the {@link XmlDocumentProcessor}s registered
+ * with the {@link StockpileBuilder} once, then through the {@link XmlDocumentProcessor}s of each variant that includes
+ * it. The SVGs of a variant are stacked in an {@code <svg>} element with its own {@link SvgViewBox}.
+ * <p>
+ * A variant must be configured before it is registered with {@link StockpileBuilder#variant(StockpileVariant)}.
+ */
+public final class StockpileVariant {
+
+	/**
+	 * The name, which is also the file name the variant is written to.
+	 */
+	private final String name;
+
+	/**
+	 * The {@link SvgViewBox} to provide the variant with.
+	 */
+	private final SvgViewBox viewBox;
+
+	/**
+	 * The {@link XmlDocumentProcessor}s to run on each SVG of this variant, in order.
+	 */
+	private final List<XmlDocumentProcessor> processors = new ArrayList<>();
+
+	/**
+	 * Tests the fragment identifier of each SVG to decide whether it is included.
+	 */
+	private Predicate<String> filter = id -> true;
+
+	/**
+	 * Describes the {@link #filter}, or {@code null} if it cannot be described.
+	 */
+	private String filterDescription = "";
+
+	/**
+	 * Creates a new {@link StockpileVariant} that includes every SVG.
+	 * @param name The name, which is also the file name the variant is written to.
+	 * @param viewBox The {@link SvgViewBox} to provide the variant with.
+	 * @throws NullPointerException If {@code name} or {@code viewBox} is {@code null}.
+	 * @throws IllegalArgumentException If {@code name} is empty.
+	 */
+	public StockpileVariant(String name, SvgViewBox viewBox) {
+		Preconditions.checkArgument(!Preconditions.checkNotNull(name).isEmpty(), "Variant name must not be empty.");
+		this.name = name;
+		this.viewBox = Preconditions.checkNotNull(viewBox);
+	}
+
+	/**
+	 * Registers an {@link XmlDocumentProcessor} to run on each SVG of this variant, after any previously registered
+	 * {@link XmlDocumentProcessor}s. The {@link XmlDocumentProcessor#sharedEvents()} are added to this variant once
+	 * every SVG has been processed.
+	 * @param processor The {@link XmlDocumentProcessor} to register.
+	 * @return The {@link StockpileVariant} instance for chaining.
+	 * @throws NullPointerException If {@code processor} is {@code null}.
+	 */
+	public StockpileVariant with(XmlDocumentProcessor processor) {
+		processors.add(Preconditions.checkNotNull(processor));
+		return this;
+	}
+
+	/**
+	 * Includes only the SVGs whose fragment identifiers, before they are mapped as per
+	 * {@link StockpileBuilder#withFragmentIds(java.util.function.Function)}, pass a {@link Predicate}.
+	 * @param filter The {@link Predicate}.
+	 * @return The {@link StockpileVariant} instance for chaining.
+	 * @throws NullPointerException If {@code filter} is {@code null}.
+	 */
+	public StockpileVariant filter(Predicate<String> filter) {
+		this.filter = Preconditions.checkNotNull(filter);
+		this.filterDescription = null;
+		return this;
+	}
+
+	/**
+	 * Includes only the SVGs whose fragment identifiers pass a {@link Predicate}, as per {@link #filter(Predicate)},
+	 * which is described so that {@link #describe()} can describe this variant.
+	 * @param filter The {@link Predicate}.
+	 * @param description Describes the {@link Predicate}, such as the pattern it matches, which must change whenever
+	 * the SVGs it includes do.
+	 * @return The {@link StockpileVariant} instance for chaining.
+	 * @throws NullPointerException If {@code filter} or {@code description} is {@code null}.
+	 */
+	public StockpileVariant filter(Predicate<String> filter, String description) {
+		this.filter = Preconditions.checkNotNull(filter);
+		this.filterDescription = Preconditions.checkNotNull(description);
+		return this;
+	}
+
+	/**
+	 * Gets the name.
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the {@link SvgViewBox}.
+	 * @return The {@link SvgViewBox}.
+	 */
+	public SvgViewBox getViewBox() {
+		return viewBox;
+	}
+
+	/**
+	 * Gets the {@link XmlDocumentProcessor}s to run on each SVG of this variant.
+	 * @return An {@link ImmutableList} of {@link XmlDocumentProcessor}s, in order.
+	 */
+	public ImmutableList<XmlDocumentProcessor> getProcessors() {
+		return ImmutableList.copyOf(processors);
+	}
+
+	/**
+	 * A flag indicating whether an SVG is included in this variant.
+	 * @param id The fragment identifier of the SVG.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean includes(String id) {
+		return filter.test(id);
+	}
+
+	/**
+	 * Describes how this variant is built: its name, {@link SvgViewBox}, filter, and each of its
+	 * {@link XmlDocumentProcessor}s with their {@link XmlDocumentProcessor#describeOptions() options}. Two variants
+	 * with the same description build the same output from the same SVGs.
+	 * @return The description, or {@code null} if the filter or the options of any {@link XmlDocumentProcessor} cannot
+	 * be described.
+	 */
+	public String describe() {
+		if (filterDescription == null) {
+			return null;
+		}
+
+		StringBuilder description = new StringBuilder(name).append('=').append(viewBox.toAttributeValue());
+		description.append(",filter(").append(filterDescription).append(')');
+
+		for (XmlDocumentProcessor processor : processors) {
+			String options = processor.describeOptions();
+
+			if (options == null) {
+				return null;
+			}
+
+			description.append(',').append(processor.getClass().getName()).append('(').append(options).append(')');
+		}
+
+		return description.toString();
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("name", name)
+			.add("viewBox", viewBox)
+			.add("processors", processors.size())
+			.toString();
+	}
+}
@@ -0,0 +1,19 @@
+package com.mikebull94.stockpile.flow;
+
+/**
+ * Publishes chunks of bytes to each {@link ChunkSubscriber}, no faster than the subscriber requests them.
+ * <p>
+ * This follows the contract of {@code java.util.concurrent.Flow.Publisher<ByteBuffer>}, so that a publisher can be
+ * adapted to a Java 9 or Reactive Streams publisher by forwarding each method.
+ */
+@FunctionalInterface
+public interface ChunkPublisher {
+
+	/**
+	 * Subscribes a {@link ChunkSubscriber}, which is first passed its {@link ChunkSubscription} in
+	 * {@link ChunkSubscriber#onSubscribe(ChunkSubscription)}. No chunks are published until they are requested.
+	 * @param subscriber The {@link ChunkSubscriber}.
+	 * @throws NullPointerException If {@code subscriber} is {@code null}.
+	 */
+	void subscribe(ChunkSubscriber subscriber);
+}
@@ -0,0 +1,36 @@
+package com.mikebull94.stockpile.flow;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives chunks of bytes from a {@link ChunkPublisher}. The methods of a subscriber are never called concurrently,
+ * but may be called by different threads.
+ * <p>
+ * This follows the contract of {@code java.util.concurrent.Flow.Subscriber<ByteBuffer>}.
+ */
+public interface ChunkSubscriber {
+
+	/**
+	 * Called once, before any other method, with the {@link ChunkSubscription} used to request chunks.
+	 * @param subscription The {@link ChunkSubscription}.
+	 */
+	void onSubscribe(ChunkSubscription subscription);
+
+	/**
+	 * Called with the next chunk, once for each chunk that has been requested. The subscriber owns the
+	 * {@link ByteBuffer}.
+	 * @param chunk The {@link ByteBuffer} of the chunk.
+	 */
+	void onNext(ByteBuffer chunk);
+
+	/**
+	 * Called once if the bytes cannot be produced, after which no other method is called.
+	 * @param cause The cause of the failure.
+	 */
+	void onError(Throwable cause);
+
+	/**
+	 * Called once after the last chunk, after which no other method is called.
+	 */
+	void onComplete();
+}
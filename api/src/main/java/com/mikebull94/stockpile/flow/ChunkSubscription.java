@@ -0,0 +1,23 @@
+package com.mikebull94.stockpile.flow;
+
+/**
+ * Links a {@link ChunkSubscriber} to a {@link ChunkPublisher}, through which the subscriber signals demand.
+ * <p>
+ * This follows the contract of {@code java.util.concurrent.Flow.Subscription}.
+ */
+public interface ChunkSubscription {
+
+	/**
+	 * Requests more chunks, in addition to any that are outstanding. Chunks may be published by the thread that calls
+	 * this method, including from within {@link ChunkSubscriber#onNext(java.nio.ByteBuffer)}, without recursion.
+	 * @param n The number of chunks, which must be positive; the {@link ChunkSubscriber} is otherwise passed an
+	 * {@link IllegalArgumentException} in {@link ChunkSubscriber#onError(Throwable)}.
+	 */
+	void request(long n);
+
+	/**
+	 * Cancels the subscription, after which the {@link ChunkSubscriber} may receive some chunks that were already being
+	 * published, but eventually no more.
+	 */
+	void cancel();
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains interfaces for streaming the bytes of a stockpile to a consumer that signals how many chunks it can accept,
+ * following the contract of {@code java.util.concurrent.Flow} in Java 9.
+ */
+package com.mikebull94.stockpile.flow;
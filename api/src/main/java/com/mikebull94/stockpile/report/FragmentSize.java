@@ -0,0 +1,134 @@
+package com.mikebull94.stockpile.report;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The contribution of one embedded SVG to a stockpile: the bytes and {@link javax.xml.stream.events.XMLEvent}s it was
+ * read from and written as, and the number of events that each processor removed from it.
+ */
+public final class FragmentSize {
+
+	/**
+	 * The name under which the events that no processor accepted, and that were therefore removed, are counted.
+	 */
+	public static final String UNPROCESSED = "unprocessed";
+
+	/**
+	 * The id the SVG is embedded with.
+	 */
+	private final String id;
+
+	/**
+	 * The number of bytes the SVG was read from, or {@code -1} if it was not read from bytes.
+	 */
+	private final long inputBytes;
+
+	/**
+	 * The number of bytes the SVG was written as.
+	 */
+	private final long outputBytes;
+
+	/**
+	 * The number of events the SVG was read as.
+	 */
+	private final int inputEvents;
+
+	/**
+	 * The number of events the SVG was written as.
+	 */
+	private final int outputEvents;
+
+	/**
+	 * The number of events removed by each processor, by the simple name of its class, and the number that no processor
+	 * accepted under {@link #UNPROCESSED}. A processor that adds more events than it removes has a negative count.
+	 */
+	private final ImmutableMap<String, Integer> savedEvents;
+
+	/**
+	 * Creates a new {@link FragmentSize}.
+	 * @param id The id the SVG is embedded with.
+	 * @param inputBytes The number of bytes the SVG was read from, or {@code -1} if it was not read from bytes.
+	 * @param outputBytes The number of bytes the SVG was written as.
+	 * @param inputEvents The number of events the SVG was read as.
+	 * @param outputEvents The number of events the SVG was written as.
+	 * @param savedEvents The number of events removed by each processor, by the simple name of its class.
+	 * @throws NullPointerException If {@code id} or {@code savedEvents} is {@code null}.
+	 * @throws IllegalArgumentException If {@code inputBytes} is less than {@code -1}, or any other count is negative.
+	 */
+	public FragmentSize(String id, long inputBytes, long outputBytes, int inputEvents, int outputEvents,
+			ImmutableMap<String, Integer> savedEvents) {
+		Preconditions.checkArgument(inputBytes >= -1, "Input bytes must not be less than -1.");
+		Preconditions.checkArgument(outputBytes >= 0, "Output bytes must not be negative.");
+		Preconditions.checkArgument(inputEvents >= 0 && outputEvents >= 0, "Event counts must not be negative.");
+		this.id = Preconditions.checkNotNull(id);
+		this.inputBytes = inputBytes;
+		this.outputBytes = outputBytes;
+		this.inputEvents = inputEvents;
+		this.outputEvents = outputEvents;
+		this.savedEvents = Preconditions.checkNotNull(savedEvents);
+	}
+
+	/**
+	 * Gets the id the SVG is embedded with.
+	 * @return The id.
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Gets the number of bytes the SVG was read from.
+	 * @return The number of bytes, or {@code -1} if it was not read from bytes.
+	 */
+	public long getInputBytes() {
+		return inputBytes;
+	}
+
+	/**
+	 * Gets the number of bytes the SVG was written as, from its start tag to its end tag. A start tag that precedes
+	 * it may be closed by the writer once the SVG has begun, so its first byte may be the {@code >} of that tag.
+	 * @return The number of bytes.
+	 */
+	public long getOutputBytes() {
+		return outputBytes;
+	}
+
+	/**
+	 * Gets the number of events the SVG was read as.
+	 * @return The number of events.
+	 */
+	public int getInputEvents() {
+		return inputEvents;
+	}
+
+	/**
+	 * Gets the number of events the SVG was written as.
+	 * @return The number of events.
+	 */
+	public int getOutputEvents() {
+		return outputEvents;
+	}
+
+	/**
+	 * Gets the number of events removed by each processor.
+	 * @return An {@link ImmutableMap} of the simple names of the processors' classes to the number of events they
+	 * removed, in the order the processors ran.
+	 */
+	public ImmutableMap<String, Integer> getSavedEvents() {
+		return savedEvents;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("id", id)
+			.add("inputBytes", inputBytes)
+			.add("outputBytes", outputBytes)
+			.add("inputEvents", inputEvents)
+			.add("outputEvents", outputEvents)
+			.add("savedEvents", savedEvents)
+			.toString();
+	}
+}
@@ -0,0 +1,88 @@
+package com.mikebull94.stockpile.report;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * The maximum number of bytes that a stockpile, and each SVG embedded in it, may be written as.
+ */
+public final class SizeBudget {
+
+	/**
+	 * The budget of a size that is not limited.
+	 */
+	public static final long UNLIMITED = Long.MAX_VALUE;
+
+	/**
+	 * The maximum number of bytes of the whole stockpile.
+	 */
+	private final long maxSheetBytes;
+
+	/**
+	 * The maximum number of bytes of each embedded SVG.
+	 */
+	private final long maxFragmentBytes;
+
+	/**
+	 * Creates a new {@link SizeBudget}.
+	 * @param maxSheetBytes The maximum number of bytes of the whole stockpile, or {@link #UNLIMITED}.
+	 * @param maxFragmentBytes The maximum number of bytes of each embedded SVG, or {@link #UNLIMITED}.
+	 * @throws IllegalArgumentException If {@code maxSheetBytes} or {@code maxFragmentBytes} is negative.
+	 */
+	public SizeBudget(long maxSheetBytes, long maxFragmentBytes) {
+		Preconditions.checkArgument(maxSheetBytes >= 0, "Maximum sheet bytes must not be negative.");
+		Preconditions.checkArgument(maxFragmentBytes >= 0, "Maximum fragment bytes must not be negative.");
+		this.maxSheetBytes = maxSheetBytes;
+		this.maxFragmentBytes = maxFragmentBytes;
+	}
+
+	/**
+	 * Gets the maximum number of bytes of the whole stockpile.
+	 * @return The maximum number of bytes, or {@link #UNLIMITED}.
+	 */
+	public long getMaxSheetBytes() {
+		return maxSheetBytes;
+	}
+
+	/**
+	 * Gets the maximum number of bytes of each embedded SVG.
+	 * @return The maximum number of bytes, or {@link #UNLIMITED}.
+	 */
+	public long getMaxFragmentBytes() {
+		return maxFragmentBytes;
+	}
+
+	/**
+	 * Describes each way in which a {@link SizeReport} exceeds this budget.
+	 * @param report The {@link SizeReport}.
+	 * @return An {@link ImmutableList} of descriptions, the stockpile first and then each embedded SVG from largest to
+	 * smallest, which is empty if the report is within this budget.
+	 * @throws NullPointerException If {@code report} is {@code null}.
+	 */
+	public ImmutableList<String> violations(SizeReport report) {
+		ImmutableList.Builder<String> violations = ImmutableList.builder();
+
+		if (report.getTotalBytes() > maxSheetBytes) {
+			violations.add(String.format("Stockpile is %d bytes, exceeding its budget of %d bytes.",
+				report.getTotalBytes(), maxSheetBytes));
+		}
+
+		for (FragmentSize fragment : report.getFragments()) {
+			if (fragment.getOutputBytes() > maxFragmentBytes) {
+				violations.add(String.format("Embedded SVG '%s' is %d bytes, exceeding its budget of %d bytes.",
+					fragment.getId(), fragment.getOutputBytes(), maxFragmentBytes));
+			}
+		}
+
+		return violations.build();
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("maxSheetBytes", maxSheetBytes)
+			.add("maxFragmentBytes", maxFragmentBytes)
+			.toString();
+	}
+}
@@ -0,0 +1,241 @@
+package com.mikebull94.stockpile.report;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.google.common.escape.Escaper;
+import com.google.common.html.HtmlEscapers;
+import com.mikebull94.stockpile.util.JsonStrings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A report of how many bytes each SVG embedded in a stockpile contributes to it, measured while the stockpile was
+ * written. The embedded SVGs are ordered from largest to smallest, so that those that bloat the stockpile come first.
+ */
+public final class SizeReport {
+
+	/**
+	 * Orders {@link FragmentSize}s from largest to smallest, then by id.
+	 */
+	private static final Comparator<FragmentSize> LARGEST_FIRST = Comparator
+		.comparingLong(FragmentSize::getOutputBytes).reversed()
+		.thenComparing(FragmentSize::getId);
+
+	/**
+	 * Escapes text for HTML.
+	 */
+	private static final Escaper HTML = HtmlEscapers.htmlEscaper();
+
+	/**
+	 * Appends a treemap of {@link FragmentSize}s to a {@link StringBuilder}, splitting the rectangle between the larger
+	 * and smaller halves of the fragments by their bytes, across its longer side, until each fragment has a rectangle
+	 * of its own.
+	 * @param fragments The {@link FragmentSize}s, from largest to smallest.
+	 * @param x The left of the rectangle, as a percentage of the treemap.
+	 * @param y The top of the rectangle, as a percentage of the treemap.
+	 * @param width The width of the rectangle, as a percentage of the treemap.
+	 * @param height The height of the rectangle, as a percentage of the treemap.
+	 * @param html The {@link StringBuilder}.
+	 */
+	private static void appendTreemap(List<FragmentSize> fragments, double x, double y, double width, double height,
+			StringBuilder html) {
+		if (fragments.size() == 1) {
+			FragmentSize fragment = fragments.get(0);
+			String id = HTML.escape(fragment.getId());
+			double ratio = fragment.getInputBytes() > 0 ? (double) fragment.getOutputBytes() / fragment.getInputBytes() : 1;
+			long hue = Math.round(120 * (1 - Math.min(ratio, 1)));
+
+			html.append(String.format(Locale.ROOT, "<div class=\"tile\" style=\"left:%.3f%%;top:%.3f%%;width:%.3f%%;"
+				+ "height:%.3f%%;background:hsl(%d,60%%,70%%)\" title=\"%s: %d bytes\">%s</div>\n", x, y, width, height,
+				hue, id, fragment.getOutputBytes(), id));
+			return;
+		}
+
+		long total = weight(fragments);
+		long first = 0;
+		int split = 0;
+
+		while (split < fragments.size() - 1 && (first == 0 || first * 2 < total)) {
+			first += Math.max(fragments.get(split++).getOutputBytes(), 1);
+		}
+
+		double share = (double) first / total;
+		List<FragmentSize> larger = fragments.subList(0, split);
+		List<FragmentSize> smaller = fragments.subList(split, fragments.size());
+
+		if (width >= height) {
+			appendTreemap(larger, x, y, width * share, height, html);
+			appendTreemap(smaller, x + width * share, y, width * (1 - share), height, html);
+		} else {
+			appendTreemap(larger, x, y, width, height * share, html);
+			appendTreemap(smaller, x, y + height * share, width, height * (1 - share), html);
+		}
+	}
+
+	/**
+	 * Gets the total bytes of {@link FragmentSize}s, counting each as at least one byte so that every fragment has an
+	 * area in a treemap.
+	 * @param fragments The {@link FragmentSize}s.
+	 * @return The total bytes.
+	 */
+	private static long weight(List<FragmentSize> fragments) {
+		return fragments.stream().mapToLong(fragment -> Math.max(fragment.getOutputBytes(), 1)).sum();
+	}
+
+	/**
+	 * The number of bytes the whole stockpile was written as.
+	 */
+	private final long totalBytes;
+
+	/**
+	 * The {@link FragmentSize} of each embedded SVG, from largest to smallest.
+	 */
+	private final ImmutableList<FragmentSize> fragments;
+
+	/**
+	 * Creates a new {@link SizeReport}.
+	 * @param totalBytes The number of bytes the whole stockpile was written as.
+	 * @param fragments The {@link FragmentSize} of each embedded SVG, in any order.
+	 * @throws NullPointerException If {@code fragments} is {@code null}.
+	 * @throws IllegalArgumentException If {@code totalBytes} is negative.
+	 */
+	public SizeReport(long totalBytes, Iterable<FragmentSize> fragments) {
+		Preconditions.checkArgument(totalBytes >= 0, "Total bytes must not be negative.");
+		this.totalBytes = totalBytes;
+		this.fragments = ImmutableList.copyOf(Ordering.from(LARGEST_FIRST).sortedCopy(fragments));
+	}
+
+	/**
+	 * Gets the number of bytes the whole stockpile was written as.
+	 * @return The number of bytes.
+	 */
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	/**
+	 * Gets the {@link FragmentSize} of each embedded SVG.
+	 * @return An {@link ImmutableList} of {@link FragmentSize}s, from largest to smallest.
+	 */
+	public ImmutableList<FragmentSize> getFragments() {
+		return fragments;
+	}
+
+	/**
+	 * Formats this report as JSON.
+	 * @return The JSON.
+	 */
+	public String toJson() {
+		StringBuilder json = new StringBuilder("{\n\t\"totalBytes\": ").append(totalBytes).append(",\n\t\"fragments\": [");
+		String separator = "\n";
+
+		for (FragmentSize fragment : fragments) {
+			json.append(separator).append("\t\t{\"id\": ");
+			JsonStrings.append(fragment.getId(), json);
+			json.append(", \"inputBytes\": ").append(fragment.getInputBytes())
+				.append(", \"outputBytes\": ").append(fragment.getOutputBytes())
+				.append(", \"inputEvents\": ").append(fragment.getInputEvents())
+				.append(", \"outputEvents\": ").append(fragment.getOutputEvents())
+				.append(", \"savedEvents\": {");
+
+			String savedSeparator = "";
+
+			for (Map.Entry<String, Integer> saved : fragment.getSavedEvents().entrySet()) {
+				json.append(savedSeparator);
+				JsonStrings.append(saved.getKey(), json);
+				json.append(": ").append(saved.getValue());
+				savedSeparator = ", ";
+			}
+
+			json.append("}}");
+			separator = ",\n";
+		}
+
+		return json.append(fragments.isEmpty() ? "]\n}\n" : "\n\t]\n}\n").toString();
+	}
+
+	/**
+	 * Formats this report as a standalone HTML page, with a treemap in which the area of each embedded SVG is
+	 * proportional to its bytes, and a table of its figures.
+	 * @return The HTML.
+	 */
+	public String toHtml() {
+		StringBuilder html = new StringBuilder()
+			.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>Stockpile size report</title>\n")
+			.append("<style>\n")
+			.append("body { font-family: sans-serif; }\n")
+			.append(".treemap { position: relative; width: 100%; height: 480px; }\n")
+			.append(".tile { position: absolute; box-sizing: border-box; overflow: hidden; border: 1px solid #fff; ")
+			.append("font-size: 11px; padding: 2px; }\n")
+			.append("td, th { padding: 2px 8px; text-align: right; }\n")
+			.append("td:first-child, th:first-child { text-align: left; }\n")
+			.append("</style>\n</head>\n<body>\n")
+			.append("<h1>").append(totalBytes).append(" bytes in ").append(fragments.size()).append(" SVGs</h1>\n")
+			.append("<div class=\"treemap\">\n");
+
+		if (!fragments.isEmpty()) {
+			appendTreemap(fragments, 0, 0, 100, 100, html);
+		}
+
+		html.append("</div>\n<table>\n<tr><th>Id</th><th>Input bytes</th><th>Output bytes</th><th>Share</th>")
+			.append("<th>Input events</th><th>Output events</th><th>Saved events</th></tr>\n");
+
+		for (FragmentSize fragment : fragments) {
+			double share = totalBytes == 0 ? 0 : 100.0 * fragment.getOutputBytes() / totalBytes;
+
+			html.append("<tr><td>").append(HTML.escape(fragment.getId()))
+				.append("</td><td>").append(fragment.getInputBytes() < 0 ? "" : Long.toString(fragment.getInputBytes()))
+				.append("</td><td>").append(fragment.getOutputBytes())
+				.append("</td><td>").append(String.format(Locale.ROOT, "%.1f%%", share))
+				.append("</td><td>").append(fragment.getInputEvents())
+				.append("</td><td>").append(fragment.getOutputEvents())
+				.append("</td><td>");
+
+			String separator = "";
+
+			for (Map.Entry<String, Integer> saved : fragment.getSavedEvents().entrySet()) {
+				html.append(separator).append(HTML.escape(saved.getKey())).append(": ").append(saved.getValue());
+				separator = ", ";
+			}
+
+			html.append("</td></tr>\n");
+		}
+
+		return html.append("</table>\n</body>\n</html>\n").toString();
+	}
+
+	/**
+	 * Writes this report to a file as JSON, as per {@link #toJson()}.
+	 * @param path The {@link Path} of the file to write to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void writeJson(Path path) throws IOException {
+		Files.write(path, toJson().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Writes this report to a file as HTML, as per {@link #toHtml()}.
+	 * @param path The {@link Path} of the file to write to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void writeHtml(Path path) throws IOException {
+		Files.write(path, toHtml().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("totalBytes", totalBytes)
+			.add("fragments", fragments.size())
+			.toString();
+	}
+}
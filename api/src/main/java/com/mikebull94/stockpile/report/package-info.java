@@ -0,0 +1,5 @@
+/**
+ * Contains classes for reporting how many bytes each embedded SVG contributes to a stockpile, and for checking them
+ * against budgets.
+ */
+package com.mikebull94.stockpile.report;
@@ -0,0 +1,121 @@
+package com.mikebull94.stockpile.svg;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.mikebull94.stockpile.util.JsonStrings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Maps the fragment identifiers of embedded SVGs, which are their file names by default, to short generated ids, and
+ * writes the mapping as a JSON manifest so that an application's references can be rewritten to match.
+ * <p>
+ * Ids are given in the order they are first mapped, so the most frequently referenced fragment identifiers can be
+ * given the shortest ids by {@link #assign(Iterable) assigning} them first. Mapping a fragment identifier again returns
+ * the same id.
+ */
+public final class FragmentIdMinifier implements Function<String, String> {
+
+	/**
+	 * The default prefix of the short ids.
+	 */
+	private static final String DEFAULT_PREFIX = "f";
+
+	/**
+	 * The prefix of the short ids.
+	 */
+	private final String prefix;
+
+	/**
+	 * The short id of each fragment identifier, in the order they were given.
+	 */
+	private final Map<String, String> mapping = new LinkedHashMap<>();
+
+	/**
+	 * Creates a new {@link FragmentIdMinifier} whose short ids are prefixed with {@code f}.
+	 */
+	public FragmentIdMinifier() {
+		this(DEFAULT_PREFIX);
+	}
+
+	/**
+	 * Creates a new {@link FragmentIdMinifier}.
+	 * @param prefix The prefix of the short ids, which must not be the prefix of any other id in the stockpile.
+	 * @throws NullPointerException If {@code prefix} is {@code null}.
+	 * @throws IllegalArgumentException If {@code prefix} is not valid as per {@link SvgIds#checkPrefix(String)}.
+	 */
+	public FragmentIdMinifier(String prefix) {
+		this.prefix = SvgIds.checkPrefix(prefix);
+	}
+
+	/**
+	 * Gives short ids to fragment identifiers in order, such as in descending order of how often they are referenced.
+	 * @param ids The fragment identifiers.
+	 * @return The {@link FragmentIdMinifier} instance for chaining.
+	 * @throws NullPointerException If {@code ids} or any of its elements are {@code null}.
+	 */
+	public FragmentIdMinifier assign(Iterable<String> ids) {
+		for (String id : ids) {
+			apply(id);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Maps a fragment identifier to its short id, giving it the next short id if it does not have one.
+	 * @param id The fragment identifier.
+	 * @return The short id.
+	 * @throws NullPointerException If {@code id} is {@code null}.
+	 */
+	@Override
+	public synchronized String apply(String id) {
+		Preconditions.checkNotNull(id);
+		return mapping.computeIfAbsent(id, original -> SvgIds.shortId(prefix, mapping.size()));
+	}
+
+	/**
+	 * Gets the short id of each fragment identifier, in the order they were given.
+	 * @return An {@link ImmutableMap} of fragment identifiers to short ids.
+	 */
+	public synchronized ImmutableMap<String, String> getMapping() {
+		return ImmutableMap.copyOf(mapping);
+	}
+
+	/**
+	 * Writes the mapping to a file as a JSON object, whose keys are the fragment identifiers and whose values are
+	 * their short ids.
+	 * @param path The {@link Path} of the file to write to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void writeManifest(Path path) throws IOException {
+		StringBuilder json = new StringBuilder("{");
+		String separator = "\n";
+
+		for (Map.Entry<String, String> entry : getMapping().entrySet()) {
+			json.append(separator).append('\t');
+			JsonStrings.append(entry.getKey(), json);
+			json.append(": ");
+			JsonStrings.append(entry.getValue(), json);
+			separator = ",\n";
+		}
+
+		json.append("\n}\n");
+		Files.write(path, json.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public synchronized String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("prefix", prefix)
+			.add("ids", mapping.size())
+			.toString();
+	}
+}
@@ -0,0 +1,139 @@
+package com.mikebull94.stockpile.svg;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.XMLEvent;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * The layout of a sprite-sheet, in which each embedded SVG is placed at its own region of the document rather
+ * than on top of the others.
+ * <p>
+ * Each region is selected by a {@code <view>} element whose id is the fragment identifier of the embedded SVG,
+ * so a fragment identifier displays its SVG by changing the view-box of the document alone. Unlike
+ * {@link SvgDocument#hideEmbeddedSvgs()}, no style sheet is involved, so navigating between fragments does not cause
+ * the whole document to be restyled. Regions start at whole coordinates, so that their edges do not blur into their
+ * neighbours.
+ * <p>
+ * {@link SpriteSheet}s are packed by a {@link SpriteSheetBuilder}.
+ */
+public final class SpriteSheet {
+
+	/**
+	 * Used to create the {@code <view>} elements.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * Creates a new {@link SpriteSheetBuilder}.
+	 * @return The {@link SpriteSheetBuilder}.
+	 */
+	public static SpriteSheetBuilder builder() {
+		return new SpriteSheetBuilder();
+	}
+
+	/**
+	 * The region of each embedded SVG, by fragment identifier.
+	 */
+	private final ImmutableMap<String, SvgViewBox> regions;
+
+	/**
+	 * The width of the sheet.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the sheet.
+	 */
+	private final int height;
+
+	/**
+	 * Creates a new {@link SpriteSheet}.
+	 * @param regions The region of each embedded SVG, by fragment identifier.
+	 * @param width The width of the sheet.
+	 * @param height The height of the sheet.
+	 * @throws NullPointerException If {@code regions} is {@code null}.
+	 */
+	SpriteSheet(ImmutableMap<String, SvgViewBox> regions, int width, int height) {
+		this.regions = Preconditions.checkNotNull(regions);
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Gets the region of an embedded SVG.
+	 * @param id The fragment identifier of the embedded SVG.
+	 * @return The region as an {@link SvgViewBox}, or {@code null} if the embedded SVG is not on this sheet.
+	 */
+	public SvgViewBox getRegion(String id) {
+		return regions.get(id);
+	}
+
+	/**
+	 * Gets the region of each embedded SVG.
+	 * @return An {@link ImmutableMap} of fragment identifiers to regions, in the order they were added.
+	 */
+	public ImmutableMap<String, SvgViewBox> getRegions() {
+		return regions;
+	}
+
+	/**
+	 * Gets the width of the sheet.
+	 * @return The width.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the height of the sheet.
+	 * @return The height.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Gets the {@link SvgViewBox} that shows the whole sheet, to provide the document with.
+	 * @return The {@link SvgViewBox}.
+	 */
+	public SvgViewBox getViewBox() {
+		return new SvgViewBox(0, 0, width, height);
+	}
+
+	/**
+	 * Creates the {@code <view>} element of each embedded SVG, which are to be added to the document once.
+	 * @return An {@link ImmutableList} of {@link XMLEvent}s.
+	 */
+	public ImmutableList<XMLEvent> views() {
+		ImmutableList.Builder<XMLEvent> views = ImmutableList.builder();
+
+		regions.forEach((id, region) -> {
+			ImmutableList<Attribute> attributes = ImmutableList.of(
+				events.createAttribute("id", id),
+				events.createAttribute("viewBox", region.toAttributeValue())
+			);
+
+			views.add(events.createStartElement(SvgDocument.EMBEDDED_VIEW_TAG, attributes.iterator(), emptyIterator()));
+			views.add(events.createEndElement(SvgDocument.EMBEDDED_VIEW_TAG, emptyIterator()));
+		});
+
+		return views.build();
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("regions", regions.size())
+			.add("width", width)
+			.add("height", height)
+			.toString();
+	}
+}
@@ -0,0 +1,319 @@
+package com.mikebull94.stockpile.svg;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.mikebull94.stockpile.util.PathUtils;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Used to build {@link SpriteSheet}s, by reading the size of each SVG and packing them onto shelves.
+ * <p>
+ * The SVGs are sorted by descending height and each is placed on the first shelf it fits, opening a new shelf below
+ * the others if it fits on none of them. The sheet is made as wide as it would be if it were square, or as wide as the
+ * widest SVG. Packing takes {@code O(n log n)} time for {@code n} SVGs, plus the time to find a shelf, which is at most
+ * the number of shelves that still have room.
+ */
+public final class SpriteSheetBuilder {
+
+	/**
+	 * Used to create {@link XMLEventReader}s.
+	 */
+	private static final XMLInputFactory input = XmlFactories.input();
+
+	/**
+	 * The default space between adjacent SVGs.
+	 */
+	private static final int DEFAULT_PADDING = 1;
+
+	/**
+	 * The size of an SVG that is to be placed on the sheet.
+	 */
+	private static final class Sprite {
+
+		/**
+		 * The fragment identifier.
+		 */
+		private final String id;
+
+		/**
+		 * The width.
+		 */
+		private final double width;
+
+		/**
+		 * The height.
+		 */
+		private final double height;
+
+		/**
+		 * The width, rounded up to a whole number.
+		 */
+		private final int cellWidth;
+
+		/**
+		 * The height, rounded up to a whole number.
+		 */
+		private final int cellHeight;
+
+		/**
+		 * Creates a new {@link Sprite}.
+		 * @param id The fragment identifier.
+		 * @param width The width.
+		 * @param height The height.
+		 */
+		private Sprite(String id, double width, double height) {
+			this.id = id;
+			this.width = width;
+			this.height = height;
+			this.cellWidth = (int) Math.ceil(width);
+			this.cellHeight = (int) Math.ceil(height);
+		}
+	}
+
+	/**
+	 * A row of the sheet, whose height is that of the first (and tallest) {@link Sprite} placed on it.
+	 */
+	private static final class Shelf {
+
+		/**
+		 * The y-coordinate.
+		 */
+		private final int y;
+
+		/**
+		 * The height.
+		 */
+		private final int height;
+
+		/**
+		 * The x-coordinate at which the next {@link Sprite} is placed.
+		 */
+		private int x;
+
+		/**
+		 * Creates a new {@link Shelf}.
+		 * @param y The y-coordinate.
+		 * @param height The height.
+		 */
+		private Shelf(int y, int height) {
+			this.y = y;
+			this.height = height;
+		}
+	}
+
+	/**
+	 * The {@link Sprite}s to place, by fragment identifier, in the order they were added.
+	 */
+	private final Map<String, Sprite> sprites = new LinkedHashMap<>();
+
+	/**
+	 * The space between adjacent SVGs.
+	 */
+	private int padding = DEFAULT_PADDING;
+
+	/**
+	 * Maps the fragment identifier of each SVG to the id it is embedded with.
+	 */
+	private Function<String, String> fragmentIds = Function.identity();
+
+	/**
+	 * Creates a new {@link SpriteSheetBuilder}.
+	 */
+	SpriteSheetBuilder() {
+		/* empty */
+	}
+
+	/**
+	 * Sets the space between adjacent SVGs, which is {@code 1} by default.
+	 * @param padding The space.
+	 * @return The {@link SpriteSheetBuilder} instance for chaining.
+	 * @throws IllegalArgumentException If {@code padding} is negative.
+	 */
+	public SpriteSheetBuilder padding(int padding) {
+		Preconditions.checkArgument(padding >= 0, "Padding must not be negative.");
+		this.padding = padding;
+		return this;
+	}
+
+	/**
+	 * Maps the fragment identifier of each SVG that is subsequently read to the id it is embedded with. This must be
+	 * the same mapping as that of the {@link com.mikebull94.stockpile.StockpileBuilder} that embeds the SVGs.
+	 * @param fragmentIds Maps a fragment identifier to an id.
+	 * @return The {@link SpriteSheetBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code fragmentIds} is {@code null}.
+	 */
+	public SpriteSheetBuilder withFragmentIds(Function<String, String> fragmentIds) {
+		this.fragmentIds = Preconditions.checkNotNull(fragmentIds);
+		return this;
+	}
+
+	/**
+	 * Adds an SVG of a known size.
+	 * @param id The id the SVG is embedded with.
+	 * @param width The width of the SVG.
+	 * @param height The height of the SVG.
+	 * @return The {@link SpriteSheetBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code id} is {@code null}.
+	 * @throws IllegalArgumentException If {@code width} or {@code height} is not a positive, finite number, or an SVG
+	 * has already been added with the same id.
+	 */
+	public SpriteSheetBuilder add(String id, double width, double height) {
+		Preconditions.checkNotNull(id);
+		Preconditions.checkArgument(width > 0 && width < Double.POSITIVE_INFINITY, "Width of '%s' must be positive.", id);
+		Preconditions.checkArgument(height > 0 && height < Double.POSITIVE_INFINITY, "Height of '%s' must be positive.", id);
+		Preconditions.checkArgument(sprites.put(id, new Sprite(id, width, height)) == null, "Duplicate id '%s'.", id);
+		return this;
+	}
+
+	/**
+	 * Reads the size of an SVG from the {@code viewBox} of its root element, or its {@code width} and {@code height} if
+	 * it has no {@code viewBox}. Only the root element is read.
+	 * @param id The fragment identifier of the SVG, before it is mapped as per {@link #withFragmentIds(Function)}.
+	 * @param inputStream The {@link InputStream} to read the SVG from.
+	 * @return The {@link SpriteSheetBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code id} is {@code null} or {@code inputStream} is {@code null}.
+	 * @throws IllegalArgumentException If the size of the SVG cannot be read.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public SpriteSheetBuilder read(String id, InputStream inputStream) throws XMLStreamException {
+		String fragmentId = fragmentIds.apply(Preconditions.checkNotNull(id));
+		XMLEventReader reader = input.createXMLEventReader(Preconditions.checkNotNull(inputStream));
+
+		try {
+			while (reader.hasNext()) {
+				XMLEvent event = reader.nextEvent();
+
+				if (event.isStartElement()) {
+					return add(fragmentId, event.asStartElement());
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		throw new IllegalArgumentException("SVG '" + id + "' has no root element.");
+	}
+
+	/**
+	 * Adds an SVG, reading its size from its root element.
+	 * @param id The id the SVG is embedded with.
+	 * @param root The root {@link StartElement} of the SVG.
+	 * @return The {@link SpriteSheetBuilder} instance for chaining.
+	 * @throws IllegalArgumentException If the size of the SVG cannot be read.
+	 */
+	private SpriteSheetBuilder add(String id, StartElement root) {
+		SvgViewBox viewBox = SvgViewBox.of(root);
+		Preconditions.checkArgument(viewBox != null, "SVG '%s' has no valid viewBox, width or height.", id);
+		return add(id, viewBox.getWidth(), viewBox.getHeight());
+	}
+
+	/**
+	 * Reads the size of an SVG from a file located at a {@link Path}.
+	 * @param path The {@link Path} from which to read the file.
+	 * @return The {@link SpriteSheetBuilder} instance for chaining.
+	 * @throws NullPointerException If {@code path} is null.
+	 * @throws IllegalArgumentException If the size of the SVG cannot be read.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public SpriteSheetBuilder read(Path path) throws IOException, XMLStreamException {
+		String id = PathUtils.fragmentId(Preconditions.checkNotNull(path));
+
+		try (InputStream inputStream = Files.newInputStream(path)) {
+			return read(id, inputStream);
+		}
+	}
+
+	/**
+	 * Reads the sizes of SVGs from files in an {@link Iterable} of {@link Path}s.
+	 * @param paths The {@link Iterable} of {@link Path}s.
+	 * @return The {@link SpriteSheetBuilder} instance for chaining.
+	 * @throws IllegalArgumentException If the size of an SVG cannot be read.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public SpriteSheetBuilder read(Iterable<Path> paths) throws IOException, XMLStreamException {
+		for (Path path : paths) {
+			read(path);
+		}
+
+		return this;
+	}
+
+	/**
+	 * Packs the SVGs into a new {@link SpriteSheet}.
+	 * @return The {@link SpriteSheet}.
+	 */
+	public SpriteSheet build() {
+		List<Sprite> sorted = new ArrayList<>(sprites.values());
+		sorted.sort(Comparator.<Sprite>comparingInt(sprite -> sprite.cellHeight).reversed()
+			.thenComparing(Comparator.<Sprite>comparingInt(sprite -> sprite.cellWidth).reversed()));
+
+		long area = 0;
+		int widest = 0;
+		int narrowest = Integer.MAX_VALUE;
+
+		for (Sprite sprite : sorted) {
+			area += (long) (sprite.cellWidth + padding) * (sprite.cellHeight + padding);
+			widest = Math.max(widest, sprite.cellWidth);
+			narrowest = Math.min(narrowest, sprite.cellWidth);
+		}
+
+		int sheetWidth = Math.max(widest, (int) Math.ceil(Math.sqrt(area)));
+		List<Shelf> open = new ArrayList<>();
+		Map<String, SvgViewBox> regions = new HashMap<>();
+		int width = 0;
+		int height = 0;
+
+		for (Sprite sprite : sorted) {
+			Shelf shelf = null;
+
+			for (Shelf candidate : open) {
+				if (candidate.x + sprite.cellWidth <= sheetWidth) {
+					shelf = candidate;
+					break;
+				}
+			}
+
+			if (shelf == null) {
+				shelf = new Shelf(height == 0 ? 0 : height + padding, sprite.cellHeight);
+				open.add(shelf);
+				height = shelf.y + shelf.height;
+			}
+
+			regions.put(sprite.id, new SvgViewBox(shelf.x, shelf.y, sprite.width, sprite.height));
+			width = Math.max(width, shelf.x + sprite.cellWidth);
+			shelf.x += sprite.cellWidth + padding;
+
+			/* a shelf that cannot fit even the narrowest sprite is never searched again */
+			if (shelf.x + narrowest > sheetWidth) {
+				open.remove(shelf);
+			}
+		}
+
+		ImmutableMap.Builder<String, SvgViewBox> ordered = ImmutableMap.builder();
+
+		for (String id : sprites.keySet()) {
+			ordered.put(id, regions.get(id));
+		}
+
+		return new SpriteSheet(ordered.build(), width, height);
+	}
+}
@@ -0,0 +1,207 @@
+package com.mikebull94.stockpile.svg;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Contains utility methods for compacting colour values, choosing the shortest of the hexadecimal, short hexadecimal
+ * and named forms of a colour.
+ * @see <a href="https://www.w3.org/TR/css-color-3/#svg-color">Extended colour keywords</a>
+ */
+public final class SvgColors {
+
+	/**
+	 * The extended colour keywords, each followed by its hexadecimal value.
+	 */
+	private static final String KEYWORDS =
+		"aliceblue f0f8ff antiquewhite faebd7 aqua 00ffff aquamarine 7fffd4 azure f0ffff beige f5f5dc bisque ffe4c4 " +
+		"black 000000 blanchedalmond ffebcd blue 0000ff blueviolet 8a2be2 brown a52a2a burlywood deb887 " +
+		"cadetblue 5f9ea0 chartreuse 7fff00 chocolate d2691e coral ff7f50 cornflowerblue 6495ed cornsilk fff8dc " +
+		"crimson dc143c cyan 00ffff darkblue 00008b darkcyan 008b8b darkgoldenrod b8860b darkgray a9a9a9 " +
+		"darkgreen 006400 darkgrey a9a9a9 darkkhaki bdb76b darkmagenta 8b008b darkolivegreen 556b2f darkorange ff8c00 " +
+		"darkorchid 9932cc darkred 8b0000 darksalmon e9967a darkseagreen 8fbc8f darkslateblue 483d8b " +
+		"darkslategray 2f4f4f darkslategrey 2f4f4f darkturquoise 00ced1 darkviolet 9400d3 deeppink ff1493 " +
+		"deepskyblue 00bfff dimgray 696969 dimgrey 696969 dodgerblue 1e90ff firebrick b22222 floralwhite fffaf0 " +
+		"forestgreen 228b22 fuchsia ff00ff gainsboro dcdcdc ghostwhite f8f8ff gold ffd700 goldenrod daa520 " +
+		"gray 808080 grey 808080 green 008000 greenyellow adff2f honeydew f0fff0 hotpink ff69b4 indianred cd5c5c " +
+		"indigo 4b0082 ivory fffff0 khaki f0e68c lavender e6e6fa lavenderblush fff0f5 lawngreen 7cfc00 " +
+		"lemonchiffon fffacd lightblue add8e6 lightcoral f08080 lightcyan e0ffff lightgoldenrodyellow fafad2 " +
+		"lightgray d3d3d3 lightgreen 90ee90 lightgrey d3d3d3 lightpink ffb6c1 lightsalmon ffa07a lightseagreen 20b2aa " +
+		"lightskyblue 87cefa lightslategray 778899 lightslategrey 778899 lightsteelblue b0c4de lightyellow ffffe0 " +
+		"lime 00ff00 limegreen 32cd32 linen faf0e6 magenta ff00ff maroon 800000 mediumaquamarine 66cdaa " +
+		"mediumblue 0000cd mediumorchid ba55d3 mediumpurple 9370db mediumseagreen 3cb371 mediumslateblue 7b68ee " +
+		"mediumspringgreen 00fa9a mediumturquoise 48d1cc mediumvioletred c71585 midnightblue 191970 mintcream f5fffa " +
+		"mistyrose ffe4e1 moccasin ffe4b5 navajowhite ffdead navy 000080 oldlace fdf5e6 olive 808000 olivedrab 6b8e23 " +
+		"orange ffa500 orangered ff4500 orchid da70d6 palegoldenrod eee8aa palegreen 98fb98 paleturquoise afeeee " +
+		"palevioletred db7093 papayawhip ffefd5 peachpuff ffdab9 peru cd853f pink ffc0cb plum dda0dd " +
+		"powderblue b0e0e6 purple 800080 rebeccapurple 663399 red ff0000 rosybrown bc8f8f royalblue 4169e1 " +
+		"saddlebrown 8b4513 salmon fa8072 sandybrown f4a460 seagreen 2e8b57 seashell fff5ee sienna a0522d " +
+		"silver c0c0c0 skyblue 87ceeb slateblue 6a5acd slategray 708090 slategrey 708090 snow fffafa " +
+		"springgreen 00ff7f steelblue 4682b4 tan d2b48c teal 008080 thistle d8bfd8 tomato ff6347 turquoise 40e0d0 " +
+		"violet ee82ee wheat f5deb3 white ffffff whitesmoke f5f5f5 yellow ffff00 yellowgreen 9acd32";
+
+	/**
+	 * The prefix of a hexadecimal colour.
+	 */
+	private static final char HEX_PREFIX = '#';
+
+	/**
+	 * The prefix of a functional RGB colour.
+	 */
+	private static final String RGB_PREFIX = "rgb(";
+
+	/**
+	 * The hexadecimal digits.
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * The colour keywords.
+	 */
+	private static final ImmutableSet<String> NAMES;
+
+	/**
+	 * Maps each colour keyword to its shortest hexadecimal form, where that is shorter than the keyword.
+	 */
+	private static final ImmutableMap<String, String> KEYWORD_TO_HEX;
+
+	/**
+	 * Maps the shortest hexadecimal form of a colour to the shortest keyword for it, where that is shorter.
+	 */
+	private static final ImmutableMap<String, String> HEX_TO_KEYWORD;
+
+	static {
+		ImmutableSet.Builder<String> names = ImmutableSet.builder();
+		Map<String, String> keywordToHex = new HashMap<>();
+		Map<String, String> hexToKeyword = new HashMap<>();
+		Iterator<String> tokens = Splitter.on(' ').omitEmptyStrings().split(KEYWORDS).iterator();
+
+		while (tokens.hasNext()) {
+			String keyword = tokens.next();
+			String hex = shortHex(tokens.next());
+			names.add(keyword);
+
+			if (hex.length() < keyword.length()) {
+				keywordToHex.put(keyword, hex);
+			} else if (keyword.length() < hex.length()) {
+				hexToKeyword.merge(hex, keyword, (a, b) -> a.length() <= b.length() ? a : b);
+			}
+		}
+
+		NAMES = names.build();
+		KEYWORD_TO_HEX = ImmutableMap.copyOf(keywordToHex);
+		HEX_TO_KEYWORD = ImmutableMap.copyOf(hexToKeyword);
+	}
+
+	/**
+	 * Shortens six hexadecimal digits to the three digit form, if each pair of digits is repeated.
+	 * @param digits The six lower-case hexadecimal digits, without the prefix.
+	 * @return The hexadecimal colour, with the prefix.
+	 */
+	private static String shortHex(String digits) {
+		if (digits.charAt(0) == digits.charAt(1) && digits.charAt(2) == digits.charAt(3) && digits.charAt(4) == digits.charAt(5)) {
+			return new String(new char[] { HEX_PREFIX, digits.charAt(0), digits.charAt(2), digits.charAt(4) });
+		}
+
+		return HEX_PREFIX + digits;
+	}
+
+	/**
+	 * A flag indicating whether every character of a {@link String} is a hexadecimal digit.
+	 * @param value The {@link String}.
+	 * @param start The index to start checking from.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isHex(String value, int start) {
+		for (int index = start; index < value.length(); index++) {
+			char character = value.charAt(index);
+
+			if ((character < '0' || character > '9') && (character < 'a' || character > 'f')) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Converts a functional {@code rgb(r, g, b)} colour with integer components to six hexadecimal digits.
+	 * @param value The lower-case colour.
+	 * @return The hexadecimal digits, or {@code null} if the colour is not of that form.
+	 */
+	private static String rgbToHex(String value) {
+		if (!value.startsWith(RGB_PREFIX) || value.charAt(value.length() - 1) != ')') {
+			return null;
+		}
+
+		char[] hex = new char[6];
+		int component = 0;
+
+		for (String token : Splitter.on(',').trimResults().split(value.substring(RGB_PREFIX.length(), value.length() - 1))) {
+			if (component == 3 || token.isEmpty() || token.length() > 3) {
+				return null;
+			}
+
+			int channel = 0;
+
+			for (int index = 0; index < token.length(); index++) {
+				char character = token.charAt(index);
+
+				if (character < '0' || character > '9') {
+					return null;
+				}
+
+				channel = channel * 10 + character - '0';
+			}
+
+			channel = Math.min(channel, 255);
+			hex[component * 2] = HEX_DIGITS[channel >> 4];
+			hex[component * 2 + 1] = HEX_DIGITS[channel & 0xF];
+			component++;
+		}
+
+		return component == 3 ? new String(hex) : null;
+	}
+
+	/**
+	 * Compacts a colour value. Values that are not a keyword, a hexadecimal colour or an integer {@code rgb()} colour,
+	 * such as {@code none}, {@code currentColor} or a {@code url(#...)} reference, are returned trimmed but otherwise
+	 * unchanged.
+	 * @param value The colour value.
+	 * @return The shortest equivalent colour value.
+	 */
+	public static String compact(String value) {
+		String trimmed = value.trim();
+		String lower = trimmed.toLowerCase(Locale.ENGLISH);
+		String hex;
+
+		if (lower.length() == 7 && lower.charAt(0) == HEX_PREFIX && isHex(lower, 1)) {
+			hex = shortHex(lower.substring(1));
+		} else if (lower.length() == 4 && lower.charAt(0) == HEX_PREFIX && isHex(lower, 1)) {
+			hex = lower;
+		} else if (NAMES.contains(lower)) {
+			return KEYWORD_TO_HEX.getOrDefault(lower, lower);
+		} else {
+			String digits = rgbToHex(lower);
+
+			if (digits == null) {
+				return trimmed;
+			}
+
+			hex = shortHex(digits);
+		}
+
+		String keyword = HEX_TO_KEYWORD.get(hex);
+		return keyword == null ? hex : keyword;
+	}
+
+	private SvgColors() {
+		/* empty */
+	}
+}
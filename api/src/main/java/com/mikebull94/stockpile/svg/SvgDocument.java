@@ -1,7 +1,9 @@
 package com.mikebull94.stockpile.svg;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.mikebull94.stockpile.xml.XmlDocument;
+import com.mikebull94.stockpile.xml.XmlFactories;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventFactory;
@@ -9,8 +11,6 @@ import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.EndElement;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
-import java.util.ArrayList;
-import java.util.Collection;
 
 import static java.util.Collections.emptyIterator;
 
@@ -24,7 +24,7 @@ public final class SvgDocument {
 	/**
 	 * Used to create SVG {@link StartElement}s and {@link EndElement}s.
 	 */
-	private static final XMLEventFactory events = XMLEventFactory.newFactory();
+	private static final XMLEventFactory events = XmlFactories.events();
 
 	/**
 	 * The file extension used to identify SVG documents.
@@ -46,6 +46,11 @@ public final class SvgDocument {
 	 */
 	public static final String NAMESPACE_URI = "http://www.w3.org/2000/svg";
 
+	/**
+	 * The URI to the namespace for XLink attributes, such as {@code xlink:href}.
+	 */
+	public static final String XLINK_NAMESPACE_URI = "http://www.w3.org/1999/xlink";
+
 	/**
 	 * The {@code <svg>} tag.
 	 */
@@ -76,6 +81,16 @@ public final class SvgDocument {
 	 */
 	public static final QName STYLE_TAG = new QName(NAMESPACE_URI, "style", "svg");
 
+	/**
+	 * The {@code <svg:defs>} tag.
+	 */
+	public static final QName EMBEDDED_DEFS_TAG = new QName(NAMESPACE_URI, "defs", "svg");
+
+	/**
+	 * The {@code <svg:view>} tag.
+	 */
+	public static final QName EMBEDDED_VIEW_TAG = new QName(NAMESPACE_URI, "view", "svg");
+
 	/**
 	 * An {@link ImmutableSet} of {@link QName}s to deem invalid with regards to an optimized SVG specification.
 	 */
@@ -85,6 +100,34 @@ public final class SvgDocument {
 		GROUP_TAG
 	);
 
+	/**
+	 * The {@link Attribute}s that declare the namespaces of the {@code <svg>}.
+	 */
+	private static final ImmutableList<Attribute> NAMESPACE_ATTRIBUTES = ImmutableList.of(
+		events.createAttribute(XmlDocument.NAMESPACE, NAMESPACE_URI),
+		events.createAttribute(NAMESPACE, NAMESPACE_URI),
+		events.createAttribute(EMBEDDED_NAMESPACE, NAMESPACE_URI)
+	);
+
+	/**
+	 * The {@link XMLEvent}s that hide embedded SVGs, shared by every document.
+	 */
+	private static final ImmutableSet<XMLEvent> HIDE_EMBEDDED_SVGS = ImmutableSet.of(
+		events.createStartElement(STYLE_TAG, emptyIterator(), emptyIterator()),
+		events.createCharacters(".i {display:none;}.i:target {display:block;}"),
+		events.createEndElement(STYLE_TAG, emptyIterator())
+	);
+
+	/**
+	 * The {@link EndElement} of the {@code <svg>}, shared by every document.
+	 */
+	private static final EndElement END_SVG = events.createEndElement(SVG_TAG, emptyIterator());
+
+	/**
+	 * The {@link EndElement} of an embedded SVG, shared by every document.
+	 */
+	private static final EndElement END_EMBEDDED_SVG = events.createEndElement(EMBEDDED_SVG_TAG, emptyIterator());
+
 	/**
 	 * A flag indicating whether a {@link QName} is valid for the optimized SVG specification.
 	 * @param name The {@link QName}.
@@ -100,32 +143,36 @@ public final class SvgDocument {
 	 * @return The {@link StartElement}
 	 */
 	public static StartElement startSvg(SvgViewBox viewBox) {
-		Collection<Attribute> attributes = new ArrayList<>();
-		attributes.add(events.createAttribute(XmlDocument.NAMESPACE, NAMESPACE_URI));
-		attributes.add(events.createAttribute(NAMESPACE, NAMESPACE_URI));
-		attributes.add(events.createAttribute(EMBEDDED_NAMESPACE, NAMESPACE_URI));
-		attributes.addAll(viewBox.attributes());
+		ImmutableList<Attribute> attributes = ImmutableList.<Attribute>builder()
+			.addAll(NAMESPACE_ATTRIBUTES)
+			.addAll(viewBox.attributes())
+			.build();
 		return events.createStartElement(SVG_TAG, attributes.iterator(), emptyIterator());
 	}
 
 	/**
-	 * Creates an {@link ImmutableSet} of {@link XMLEvent}s related to hiding embedded SVGs.
+	 * Gets the {@link ImmutableSet} of {@link XMLEvent}s related to hiding embedded SVGs. The same instances are
+	 * returned by every call.
 	 * @return The {@link ImmutableSet} of {@link XMLEvent}s.
 	 */
 	public static ImmutableSet<XMLEvent> hideEmbeddedSvgs() {
-		return ImmutableSet.of(
-			events.createStartElement(STYLE_TAG, emptyIterator(), emptyIterator()),
-			events.createCharacters(".i {display:none;}.i:target {display:block;}"),
-			events.createEndElement(STYLE_TAG, emptyIterator())
-		);
+		return HIDE_EMBEDDED_SVGS;
 	}
 
 	/**
-	 * Creates an {@link EndElement} with the {@code <svg>}.
+	 * Gets the {@link EndElement} with the {@code <svg>}. The same instance is returned by every call.
 	 * @return The {@link EndElement}
 	 */
 	public static EndElement endSvg() {
-		return events.createEndElement(SVG_TAG, emptyIterator());
+		return END_SVG;
+	}
+
+	/**
+	 * Gets the {@link EndElement} with the {@link #EMBEDDED_SVG_TAG}. The same instance is returned by every call.
+	 * @return The {@link EndElement}
+	 */
+	public static EndElement endEmbeddedSvg() {
+		return END_EMBEDDED_SVG;
 	}
 
 	private SvgDocument() {
@@ -0,0 +1,66 @@
+package com.mikebull94.stockpile.svg;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Preconditions;
+
+/**
+ * Contains utility methods for generating short ids, which are a prefix followed by a counter in base 62.
+ * <p>
+ * The counter is written in bijective base 62, so that every string of digits is used and ids only grow longer once
+ * every shorter id has been generated: the first 62 ids have one digit, the next 3,844 have two, and so on.
+ */
+public final class SvgIds {
+
+	/**
+	 * The digits of the counter, in order.
+	 */
+	private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+	/**
+	 * Matches the characters that may start a prefix, so that every id is a valid XML name and CSS identifier.
+	 */
+	private static final CharMatcher PREFIX_START = CharMatcher.inRange('a', 'z')
+		.or(CharMatcher.inRange('A', 'Z'))
+		.or(CharMatcher.is('_'));
+
+	/**
+	 * Matches the characters that may follow the start of a prefix.
+	 */
+	private static final CharMatcher PREFIX_PART = PREFIX_START.or(CharMatcher.inRange('0', '9')).or(CharMatcher.is('-'));
+
+	/**
+	 * Checks that a prefix starts with a letter or underscore and only contains letters, digits, underscores and
+	 * hyphens.
+	 * @param prefix The prefix.
+	 * @return The prefix.
+	 * @throws NullPointerException If {@code prefix} is {@code null}.
+	 * @throws IllegalArgumentException If {@code prefix} is empty or contains any other characters.
+	 */
+	public static String checkPrefix(String prefix) {
+		Preconditions.checkArgument(!prefix.isEmpty() && PREFIX_START.matches(prefix.charAt(0)) && PREFIX_PART.matchesAllOf(prefix),
+			"Prefix must start with a letter or underscore, and only contain letters, digits, underscores and hyphens.");
+		return prefix;
+	}
+
+	/**
+	 * Generates a short id.
+	 * @param prefix The prefix.
+	 * @param index The index of the id, from {@code 0}.
+	 * @return The short id.
+	 * @throws IllegalArgumentException If {@code index} is negative.
+	 */
+	public static String shortId(String prefix, int index) {
+		Preconditions.checkArgument(index >= 0, "Index must not be negative.");
+		StringBuilder digits = new StringBuilder();
+
+		for (int remaining = index; remaining >= 0; remaining = remaining / DIGITS.length() - 1) {
+			digits.append(DIGITS.charAt(remaining % DIGITS.length()));
+		}
+
+		return prefix + digits.reverse();
+	}
+
+	private SvgIds() {
+		/* empty */
+	}
+}
@@ -0,0 +1,512 @@
+package com.mikebull94.stockpile.svg;
+
+import com.google.common.base.Preconditions;
+
+import java.math.BigDecimal;
+
+/**
+ * Contains utility methods for compacting the numbers found in SVG attribute values.
+ * <p>
+ * Numbers are compacted as decimal text, never passing through a {@code double}, so compaction is exact unless a
+ * precision is requested, in which case the decimal digits are rounded half-up. The shortest of the plain and the
+ * exponent notations is chosen, with leading and trailing zeros, positive signs and negative zeros removed.
+ */
+public final class SvgNumbers {
+
+	/**
+	 * Indicates that numbers should be compacted without being rounded.
+	 */
+	public static final int LOSSLESS = -1;
+
+	/**
+	 * The maximum number of exponent digits that will be interpreted, beyond which a number is left unchanged.
+	 */
+	private static final int MAX_EXPONENT_DIGITS = 6;
+
+	/**
+	 * The maximum number of significant digits that {@link #parseDouble(CharSequence, int, int)} converts exactly.
+	 */
+	private static final int MAX_EXACT_DIGITS = 15;
+
+	/**
+	 * The maximum number of decimal digits in a {@code long}.
+	 */
+	private static final int MAX_LONG_DIGITS = 19;
+
+	/**
+	 * The powers of ten that are exactly representable as a {@code double}.
+	 */
+	private static final double[] POWERS_OF_TEN = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19,
+		1e20, 1e21, 1e22
+	};
+
+	/**
+	 * A flag indicating whether a character is a decimal digit.
+	 * @param character The character.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isDigit(char character) {
+		return character >= '0' && character <= '9';
+	}
+
+	/**
+	 * A flag indicating whether a character is a sign.
+	 * @param character The character.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isSign(char character) {
+		return character == '-' || character == '+';
+	}
+
+	/**
+	 * A flag indicating whether a character separates the items of a list.
+	 * @param character The character.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public static boolean isSeparator(char character) {
+		return character == ' ' || character == ',' || character == '\t' || character == '\n' || character == '\r';
+	}
+
+	/**
+	 * Scans a number starting at an index of a {@link CharSequence}.
+	 * @param value The {@link CharSequence}.
+	 * @param start The index to start scanning from.
+	 * @param end The index to stop scanning at.
+	 * @return The index after the end of the number, or {@code start} if no number starts at {@code start}.
+	 */
+	public static int scan(CharSequence value, int start, int end) {
+		int index = start;
+
+		if (index < end && isSign(value.charAt(index))) {
+			index++;
+		}
+
+		int digits = 0;
+
+		while (index < end && isDigit(value.charAt(index))) {
+			index++;
+			digits++;
+		}
+
+		if (index < end && value.charAt(index) == '.') {
+			int fraction = index + 1;
+
+			while (fraction < end && isDigit(value.charAt(fraction))) {
+				fraction++;
+				digits++;
+			}
+
+			if (digits > 0) {
+				index = fraction;
+			}
+		}
+
+		if (digits == 0) {
+			return start;
+		}
+
+		if (index < end && (value.charAt(index) == 'e' || value.charAt(index) == 'E')) {
+			int exponent = index + 1;
+
+			if (exponent < end && isSign(value.charAt(exponent))) {
+				exponent++;
+			}
+
+			int exponentStart = exponent;
+
+			while (exponent < end && isDigit(value.charAt(exponent))) {
+				exponent++;
+			}
+
+			if (exponent > exponentStart) {
+				index = exponent;
+			}
+		}
+
+		return index;
+	}
+
+	/**
+	 * Appends the compacted form of a number that was found by {@link #scan(CharSequence, int, int)}.
+	 * @param value The {@link CharSequence} containing the number.
+	 * @param start The index of the start of the number.
+	 * @param end The index after the end of the number.
+	 * @param precision The maximum number of fraction digits to keep, or {@link #LOSSLESS}.
+	 * @param out The {@link StringBuilder} to append to.
+	 */
+	public static void appendCompact(CharSequence value, int start, int end, int precision, StringBuilder out) {
+		int index = start;
+		boolean negative = false;
+
+		if (isSign(value.charAt(index))) {
+			negative = value.charAt(index) == '-';
+			index++;
+		}
+
+		char[] digits = new char[end - index];
+		int length = 0;
+		int point = -1;
+		int exponent = 0;
+
+		for (; index < end; index++) {
+			char character = value.charAt(index);
+
+			if (character == '.') {
+				point = length;
+			} else if (character == 'e' || character == 'E') {
+				if (end - index > MAX_EXPONENT_DIGITS + 2) {
+					out.append(value, start, end);
+					return;
+				}
+
+				exponent = parseExponent(value, index + 1, end);
+				break;
+			} else {
+				digits[length++] = character;
+			}
+		}
+
+		int first = 0;
+
+		while (first < length && digits[first] == '0') {
+			first++;
+		}
+
+		/* the position of the decimal point relative to the first significant digit */
+		int magnitude = (point < 0 ? length : point) + exponent - first;
+		int count = length - first;
+
+		if (precision >= 0 && magnitude + precision < count) {
+			int keep = magnitude + precision;
+			boolean roundUp = keep >= 0 && digits[first + keep] >= '5';
+			count = Math.max(keep, 0);
+
+			if (roundUp) {
+				int digit = first + count - 1;
+
+				while (digit >= first && digits[digit] == '9') {
+					digit--;
+				}
+
+				if (digit < first) {
+					digits[first] = '1';
+					count = 1;
+					magnitude++;
+				} else {
+					digits[digit]++;
+					count = digit - first + 1;
+				}
+			}
+		}
+
+		while (count > 0 && digits[first + count - 1] == '0') {
+			count--;
+		}
+
+		if (count == 0) {
+			out.append('0');
+			return;
+		}
+
+		if (negative) {
+			out.append('-');
+		}
+
+		int scientific = magnitude - count;
+		int plainLength = magnitude <= 0 ? 1 - magnitude + count : magnitude >= count ? magnitude : count + 1;
+		int scientificLength = count + 1 + Integer.toString(scientific).length();
+
+		if (scientificLength < plainLength && scientific != 0) {
+			out.append(digits, first, count).append('e').append(scientific);
+		} else if (magnitude <= 0) {
+			out.append('.');
+
+			for (int zero = magnitude; zero < 0; zero++) {
+				out.append('0');
+			}
+
+			out.append(digits, first, count);
+		} else if (magnitude >= count) {
+			out.append(digits, first, count);
+
+			for (int zero = count; zero < magnitude; zero++) {
+				out.append('0');
+			}
+		} else {
+			out.append(digits, first, magnitude).append('.').append(digits, first + magnitude, count - magnitude);
+		}
+	}
+
+	/**
+	 * Parses the exponent of a number.
+	 * @param value The {@link CharSequence} containing the exponent.
+	 * @param start The index of the start of the exponent, after the {@code e}.
+	 * @param end The index after the end of the exponent.
+	 * @return The exponent.
+	 */
+	private static int parseExponent(CharSequence value, int start, int end) {
+		int index = start;
+		boolean negative = false;
+
+		if (isSign(value.charAt(index))) {
+			negative = value.charAt(index) == '-';
+			index++;
+		}
+
+		int exponent = 0;
+
+		for (; index < end; index++) {
+			exponent = exponent * 10 + value.charAt(index) - '0';
+		}
+
+		return negative ? -exponent : exponent;
+	}
+
+	/**
+	 * Compacts a single number.
+	 * @param number The number.
+	 * @param precision The maximum number of fraction digits to keep, or {@link #LOSSLESS}.
+	 * @return The compacted number, or {@code number} itself if it is not a number.
+	 */
+	public static String compactNumber(String number, int precision) {
+		if (number.isEmpty() || scan(number, 0, number.length()) != number.length()) {
+			return number;
+		}
+
+		StringBuilder out = new StringBuilder(number.length());
+		appendCompact(number, 0, number.length(), precision, out);
+		return out.toString();
+	}
+
+	/**
+	 * Parses a number that was found by {@link #scan(CharSequence, int, int)}. Numbers with up to 15 significant digits
+	 * and a small exponent are converted exactly without creating a {@link String}.
+	 * @param value The {@link CharSequence} containing the number.
+	 * @param start The index of the start of the number.
+	 * @param end The index after the end of the number.
+	 * @return The number.
+	 */
+	public static double parseDouble(CharSequence value, int start, int end) {
+		int index = start;
+		boolean negative = false;
+
+		if (isSign(value.charAt(index))) {
+			negative = value.charAt(index) == '-';
+			index++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean fraction = false;
+
+		for (; index < end; index++) {
+			char character = value.charAt(index);
+
+			if (character == '.') {
+				fraction = true;
+			} else if (character == 'e' || character == 'E') {
+				if (end - index > MAX_EXPONENT_DIGITS + 2) {
+					return Double.parseDouble(value.subSequence(start, end).toString());
+				}
+
+				exponent += parseExponent(value, index + 1, end);
+				break;
+			} else if (digits < MAX_EXACT_DIGITS) {
+				mantissa = mantissa * 10 + character - '0';
+
+				if (mantissa != 0) {
+					digits++;
+				}
+
+				if (fraction) {
+					exponent--;
+				}
+			} else {
+				return Double.parseDouble(value.subSequence(start, end).toString());
+			}
+		}
+
+		double result;
+
+		if (exponent == 0) {
+			result = mantissa;
+		} else if (exponent > 0 && exponent < POWERS_OF_TEN.length) {
+			result = mantissa * POWERS_OF_TEN[exponent];
+		} else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+			result = mantissa / POWERS_OF_TEN[-exponent];
+		} else {
+			return Double.parseDouble(value.subSequence(start, end).toString());
+		}
+
+		return negative ? -result : result;
+	}
+
+	/**
+	 * Appends a fixed-point number in its compacted form, as {@link #appendCompact} would, without first formatting it
+	 * as text.
+	 * @param units The number, multiplied by {@code 10^precision}.
+	 * @param precision The number of fraction digits in {@code units}.
+	 * @param out The {@link StringBuilder} to append to.
+	 * @throws IllegalArgumentException If {@code units} is {@link Long#MIN_VALUE}.
+	 */
+	public static void appendFixed(long units, int precision, StringBuilder out) {
+		Preconditions.checkArgument(units != Long.MIN_VALUE, "Units out of range.");
+
+		long magnitude = Math.abs(units);
+		int scale = precision;
+
+		while (magnitude != 0 && magnitude % 10 == 0) {
+			magnitude /= 10;
+			scale--;
+		}
+
+		if (magnitude == 0) {
+			out.append('0');
+			return;
+		}
+
+		if (units < 0) {
+			out.append('-');
+		}
+
+		char[] digits = new char[MAX_LONG_DIGITS];
+		int first = digits.length;
+
+		for (long remaining = magnitude; remaining != 0; remaining /= 10) {
+			digits[--first] = (char) ('0' + remaining % 10);
+		}
+
+		int count = digits.length - first;
+		/* scale is now the exponent that the significant digits are divided by, as in appendCompact */
+		int plainLength = scale <= 0 ? count - scale : scale >= count ? scale + 1 : count + 1;
+		int scientificLength = count + 1 + Integer.toString(-scale).length();
+
+		if (scientificLength < plainLength && scale != 0) {
+			out.append(digits, first, count).append('e').append(-scale);
+		} else if (scale <= 0) {
+			out.append(digits, first, count);
+
+			for (int zero = scale; zero < 0; zero++) {
+				out.append('0');
+			}
+		} else if (scale >= count) {
+			out.append('.');
+
+			for (int zero = count; zero < scale; zero++) {
+				out.append('0');
+			}
+
+			out.append(digits, first, count);
+		} else {
+			out.append(digits, first, count - scale).append('.').append(digits, first + count - scale, scale);
+		}
+	}
+
+	/**
+	 * Parses a value that is a single plain number, without units, as an exact {@link BigDecimal}.
+	 * @param value The value, which may be surrounded by whitespace.
+	 * @return The {@link BigDecimal}, or {@code null} if the value is not a single plain number.
+	 */
+	public static BigDecimal parseDecimal(String value) {
+		String trimmed = value.trim();
+
+		if (trimmed.isEmpty() || scan(trimmed, 0, trimmed.length()) != trimmed.length()) {
+			return null;
+		}
+
+		return new BigDecimal(trimmed);
+	}
+
+	/**
+	 * Formats a {@link BigDecimal} in its compacted form.
+	 * @param value The {@link BigDecimal}.
+	 * @return The compacted number.
+	 */
+	public static String format(BigDecimal value) {
+		String number = value.toString();
+		StringBuilder out = new StringBuilder(number.length());
+		appendCompact(number, 0, number.length(), LOSSLESS, out);
+		return out.toString();
+	}
+
+	/**
+	 * Formats a {@code double} in its compacted form. Whole numbers are formatted directly, and any other number is
+	 * formatted from the shortest decimal that {@link Double#toString(double)} gives for it.
+	 * @param value The {@code double}, which must be finite.
+	 * @return The compacted number.
+	 * @throws IllegalArgumentException If {@code value} is not finite.
+	 */
+	public static String format(double value) {
+		Preconditions.checkArgument(!Double.isNaN(value) && !Double.isInfinite(value), "Value must be finite.");
+
+		if (value == Math.rint(value) && Math.abs(value) < POWERS_OF_TEN[MAX_EXACT_DIGITS]) {
+			return Long.toString((long) value);
+		}
+
+		return format(BigDecimal.valueOf(value));
+	}
+
+	/**
+	 * Compacts every number in a value such as a length, a list of numbers or a list of transform functions, and
+	 * collapses the separators between them. Units and function names are kept as they are.
+	 * @param value The value.
+	 * @param precision The maximum number of fraction digits to keep, or {@link #LOSSLESS}.
+	 * @return The compacted value.
+	 * @throws IllegalArgumentException If {@code precision} is less than {@link #LOSSLESS}.
+	 */
+	public static String compact(String value, int precision) {
+		Preconditions.checkArgument(precision >= LOSSLESS, "Precision must be non-negative or LOSSLESS.");
+
+		int end = value.length();
+		StringBuilder out = new StringBuilder(end);
+		boolean separated = false;
+		boolean comma = false;
+		char previous = ' ';
+		int index = 0;
+
+		while (index < end) {
+			char character = value.charAt(index);
+
+			if (isSeparator(character)) {
+				separated = true;
+				comma |= character == ',';
+				previous = character;
+				index++;
+				continue;
+			}
+
+			if (separated && out.length() > 0) {
+				char last = out.charAt(out.length() - 1);
+
+				if (comma) {
+					out.append(',');
+				} else if (last != '(' && character != ')') {
+					out.append(' ');
+				}
+			}
+
+			separated = false;
+			comma = false;
+
+			int number = Character.isLetter(previous) || previous == '#' ? index : scan(value, index, end);
+
+			if (number > index) {
+				appendCompact(value, index, number, precision, out);
+				previous = value.charAt(number - 1);
+				index = number;
+			} else {
+				out.append(character);
+				previous = character;
+				index++;
+			}
+		}
+
+		return out.toString();
+	}
+
+	private SvgNumbers() {
+		/* empty */
+	}
+}
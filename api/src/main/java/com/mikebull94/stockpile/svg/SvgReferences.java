@@ -0,0 +1,121 @@
+package com.mikebull94.stockpile.svg;
+
+import javax.xml.namespace.QName;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Contains utility methods for finding and rewriting the references an SVG document makes to the {@code id}s of its
+ * elements, either as a functional IRI such as {@code fill="url(#gradient)"} or as an {@code href="#gradient"}.
+ */
+public final class SvgReferences {
+
+	/**
+	 * Matches a functional IRI reference to an element, capturing the referenced id.
+	 */
+	private static final Pattern URL = Pattern.compile("url\\(\\s*(['\"]?)#([^'\")\\s]+)\\1\\s*\\)");
+
+	/**
+	 * The local name of the {@code href} attribute.
+	 */
+	private static final String HREF = "href";
+
+	/**
+	 * The prefix of an {@code href} that references an element in the same document.
+	 */
+	private static final String LOCAL_REFERENCE = "#";
+
+	/**
+	 * A flag indicating whether a {@link QName} is that of an {@code href} or {@code xlink:href} attribute.
+	 * @param name The {@link QName}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public static boolean isHref(QName name) {
+		String namespaceUri = name.getNamespaceURI();
+		boolean namespaced = namespaceUri.isEmpty() || namespaceUri.equals(SvgDocument.XLINK_NAMESPACE_URI);
+		return namespaced && name.getLocalPart().equals(HREF);
+	}
+
+	/**
+	 * Rewrites the ids referenced by an attribute value.
+	 * @param name The {@link QName} of the attribute.
+	 * @param value The attribute value.
+	 * @param mapping Maps a referenced id to its replacement, or to {@code null} if it should be left unchanged.
+	 * @return The rewritten attribute value, which is {@code value} itself if nothing was rewritten.
+	 */
+	public static String rewrite(QName name, String value, Function<String, String> mapping) {
+		if (isHref(name)) {
+			return rewriteHref(value, mapping);
+		}
+
+		return rewriteUrls(value, mapping);
+	}
+
+	/**
+	 * Rewrites the id referenced by an {@code href} attribute value.
+	 * @param value The attribute value.
+	 * @param mapping Maps a referenced id to its replacement, or to {@code null} if it should be left unchanged.
+	 * @return The rewritten attribute value, which is {@code value} itself if nothing was rewritten.
+	 */
+	public static String rewriteHref(String value, Function<String, String> mapping) {
+		if (!value.startsWith(LOCAL_REFERENCE)) {
+			return value;
+		}
+
+		String replacement = mapping.apply(value.substring(LOCAL_REFERENCE.length()));
+		return replacement == null ? value : LOCAL_REFERENCE + replacement;
+	}
+
+	/**
+	 * Rewrites the ids referenced by every functional IRI in a value, such as an attribute value or a style sheet.
+	 * @param value The value.
+	 * @param mapping Maps a referenced id to its replacement, or to {@code null} if it should be left unchanged.
+	 * @return The rewritten value, which is {@code value} itself if nothing was rewritten.
+	 */
+	public static String rewriteUrls(String value, Function<String, String> mapping) {
+		if (value.indexOf('#') < 0) {
+			return value;
+		}
+
+		Matcher matcher = URL.matcher(value);
+		StringBuffer rewritten = null;
+
+		while (matcher.find()) {
+			String replacement = mapping.apply(matcher.group(2));
+
+			if (replacement != null) {
+				if (rewritten == null) {
+					rewritten = new StringBuffer(value.length());
+				}
+
+				matcher.appendReplacement(rewritten, Matcher.quoteReplacement("url(#" + replacement + ")"));
+			}
+		}
+
+		if (rewritten == null) {
+			return value;
+		}
+
+		matcher.appendTail(rewritten);
+		return rewritten.toString();
+	}
+
+	/**
+	 * Finds the ids referenced by an attribute value.
+	 * @param name The {@link QName} of the attribute.
+	 * @param value The attribute value.
+	 * @param consumer Receives each referenced id.
+	 */
+	public static void forEachReference(QName name, String value, Consumer<String> consumer) {
+		rewrite(name, value, id -> {
+			consumer.accept(id);
+			return null;
+		});
+	}
+
+	private SvgReferences() {
+		/* empty */
+	}
+}
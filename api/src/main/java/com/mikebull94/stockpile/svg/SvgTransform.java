@@ -0,0 +1,428 @@
+package com.mikebull94.stockpile.svg;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents an affine transformation matrix of the form {@code matrix(a b c d e f)}, as used by the {@code transform}
+ * attribute.
+ * <p>
+ * The components are held as {@link BigDecimal}s so that composing transforms and applying them to coordinates is
+ * exact. Transforms whose components are irrational, such as most rotations, cannot be represented and are not
+ * parsed.
+ * @see <a href="https://www.w3.org/TR/SVG/coords.html#TransformAttribute">The transform attribute</a>
+ */
+public final class SvgTransform {
+
+	/**
+	 * The identity transform.
+	 */
+	public static final SvgTransform IDENTITY = new SvgTransform(BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ZERO,
+		BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ZERO);
+
+	/**
+	 * The number of degrees in a right angle.
+	 */
+	private static final int RIGHT_ANGLE = 90;
+
+	/**
+	 * The number of degrees in a full turn.
+	 */
+	private static final int FULL_TURN = 360;
+
+	/**
+	 * Parses the value of a {@code transform} attribute.
+	 * @param value The value, a list of transform functions.
+	 * @return The {@link SvgTransform}, or {@code null} if the value could not be parsed or cannot be represented
+	 * exactly.
+	 */
+	public static SvgTransform parse(String value) {
+		SvgTransform transform = IDENTITY;
+		int end = value.length();
+		int index = 0;
+
+		while (index < end) {
+			char character = value.charAt(index);
+
+			if (SvgNumbers.isSeparator(character)) {
+				index++;
+				continue;
+			}
+
+			int open = value.indexOf('(', index);
+			int close = value.indexOf(')', index);
+
+			if (open < 0 || close < open) {
+				return null;
+			}
+
+			List<BigDecimal> arguments = arguments(value, open + 1, close);
+			SvgTransform function = arguments == null ? null : function(value.substring(index, open).trim(), arguments);
+
+			if (function == null) {
+				return null;
+			}
+
+			transform = transform.multiply(function);
+			index = close + 1;
+		}
+
+		return transform;
+	}
+
+	/**
+	 * Parses the arguments of a transform function.
+	 * @param value The value containing the arguments.
+	 * @param start The index of the first character after the opening parenthesis.
+	 * @param end The index of the closing parenthesis.
+	 * @return A {@link List} of the arguments, or {@code null} if they could not be parsed.
+	 */
+	private static List<BigDecimal> arguments(String value, int start, int end) {
+		List<BigDecimal> arguments = new ArrayList<>(6);
+		int index = start;
+
+		while (index < end) {
+			if (SvgNumbers.isSeparator(value.charAt(index))) {
+				index++;
+				continue;
+			}
+
+			int next = SvgNumbers.scan(value, index, end);
+
+			if (next == index) {
+				return null;
+			}
+
+			arguments.add(new BigDecimal(value.substring(index, next)));
+			index = next;
+		}
+
+		return arguments;
+	}
+
+	/**
+	 * Creates the {@link SvgTransform} of a single transform function.
+	 * @param name The name of the function.
+	 * @param arguments The arguments of the function.
+	 * @return The {@link SvgTransform}, or {@code null} if the function is unknown, has the wrong number of arguments or
+	 * cannot be represented exactly.
+	 */
+	private static SvgTransform function(String name, List<BigDecimal> arguments) {
+		int count = arguments.size();
+
+		switch (name) {
+			case "matrix":
+				return count != 6 ? null : new SvgTransform(arguments.get(0), arguments.get(1), arguments.get(2),
+					arguments.get(3), arguments.get(4), arguments.get(5));
+			case "translate":
+				return count < 1 || count > 2 ? null : translate(arguments.get(0), count == 2 ? arguments.get(1) : BigDecimal.ZERO);
+			case "scale":
+				return count < 1 || count > 2 ? null : scale(arguments.get(0), count == 2 ? arguments.get(1) : arguments.get(0));
+			case "rotate":
+				if (count != 1 && count != 3) {
+					return null;
+				}
+
+				SvgTransform rotation = rotate(arguments.get(0));
+
+				if (rotation == null || count == 1) {
+					return rotation;
+				}
+
+				BigDecimal cx = arguments.get(1);
+				BigDecimal cy = arguments.get(2);
+				return translate(cx, cy).multiply(rotation).multiply(translate(cx.negate(), cy.negate()));
+			case "skewX":
+			case "skewY":
+				return count == 1 && arguments.get(0).signum() == 0 ? IDENTITY : null;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Creates a translation.
+	 * @param tx The translation along the x-axis.
+	 * @param ty The translation along the y-axis.
+	 * @return The {@link SvgTransform}.
+	 */
+	public static SvgTransform translate(BigDecimal tx, BigDecimal ty) {
+		return new SvgTransform(BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ONE, tx, ty);
+	}
+
+	/**
+	 * Creates a scale.
+	 * @param sx The scale along the x-axis.
+	 * @param sy The scale along the y-axis.
+	 * @return The {@link SvgTransform}.
+	 */
+	public static SvgTransform scale(BigDecimal sx, BigDecimal sy) {
+		return new SvgTransform(sx, BigDecimal.ZERO, BigDecimal.ZERO, sy, BigDecimal.ZERO, BigDecimal.ZERO);
+	}
+
+	/**
+	 * Creates a rotation about the origin, if it is a multiple of a right angle.
+	 * @param degrees The angle in degrees.
+	 * @return The {@link SvgTransform}, or {@code null} if it cannot be represented exactly.
+	 */
+	private static SvgTransform rotate(BigDecimal degrees) {
+		BigDecimal[] turns = degrees.divideAndRemainder(BigDecimal.valueOf(RIGHT_ANGLE));
+
+		if (turns[1].signum() != 0) {
+			return null;
+		}
+
+		int quarter = Math.floorMod(turns[0].remainder(BigDecimal.valueOf(FULL_TURN / RIGHT_ANGLE)).intValue(), 4);
+		BigDecimal cos = quarter == 0 ? BigDecimal.ONE : quarter == 2 ? BigDecimal.ONE.negate() : BigDecimal.ZERO;
+		BigDecimal sin = quarter == 1 ? BigDecimal.ONE : quarter == 3 ? BigDecimal.ONE.negate() : BigDecimal.ZERO;
+		return new SvgTransform(cos, sin, sin.negate(), cos, BigDecimal.ZERO, BigDecimal.ZERO);
+	}
+
+	/**
+	 * The a component, which scales along the x-axis.
+	 */
+	private final BigDecimal a;
+
+	/**
+	 * The b component.
+	 */
+	private final BigDecimal b;
+
+	/**
+	 * The c component.
+	 */
+	private final BigDecimal c;
+
+	/**
+	 * The d component, which scales along the y-axis.
+	 */
+	private final BigDecimal d;
+
+	/**
+	 * The e component, which translates along the x-axis.
+	 */
+	private final BigDecimal e;
+
+	/**
+	 * The f component, which translates along the y-axis.
+	 */
+	private final BigDecimal f;
+
+	/**
+	 * Creates a new {@link SvgTransform}.
+	 * @param a The a component.
+	 * @param b The b component.
+	 * @param c The c component.
+	 * @param d The d component.
+	 * @param e The e component.
+	 * @param f The f component.
+	 * @throws NullPointerException If any of the components are {@code null}.
+	 */
+	public SvgTransform(BigDecimal a, BigDecimal b, BigDecimal c, BigDecimal d, BigDecimal e, BigDecimal f) {
+		this.a = Preconditions.checkNotNull(a);
+		this.b = Preconditions.checkNotNull(b);
+		this.c = Preconditions.checkNotNull(c);
+		this.d = Preconditions.checkNotNull(d);
+		this.e = Preconditions.checkNotNull(e);
+		this.f = Preconditions.checkNotNull(f);
+	}
+
+	/**
+	 * Composes this transform with another, such that the other is applied first.
+	 * @param other The other {@link SvgTransform}.
+	 * @return The composed {@link SvgTransform}.
+	 */
+	public SvgTransform multiply(SvgTransform other) {
+		return new SvgTransform(
+			a.multiply(other.a).add(c.multiply(other.b)),
+			b.multiply(other.a).add(d.multiply(other.b)),
+			a.multiply(other.c).add(c.multiply(other.d)),
+			b.multiply(other.c).add(d.multiply(other.d)),
+			a.multiply(other.e).add(c.multiply(other.f)).add(e),
+			b.multiply(other.e).add(d.multiply(other.f)).add(f)
+		);
+	}
+
+	/**
+	 * A flag indicating whether this transform neither rotates nor skews, so that it maps each axis onto itself.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean isAxisAligned() {
+		return b.signum() == 0 && c.signum() == 0;
+	}
+
+	/**
+	 * A flag indicating whether this transform only translates.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean isTranslation() {
+		return isAxisAligned() && a.compareTo(BigDecimal.ONE) == 0 && d.compareTo(BigDecimal.ONE) == 0;
+	}
+
+	/**
+	 * A flag indicating whether this transform is the identity transform.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean isIdentity() {
+		return isTranslation() && e.signum() == 0 && f.signum() == 0;
+	}
+
+	/**
+	 * A flag indicating whether this transform scales both axes by the same amount, ignoring reflections.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean isUniform() {
+		return isAxisAligned() && a.abs().compareTo(d.abs()) == 0;
+	}
+
+	/**
+	 * A flag indicating whether this transform reverses the orientation of shapes.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean isReflection() {
+		return a.multiply(d).subtract(b.multiply(c)).signum() < 0;
+	}
+
+	/**
+	 * Transforms an x-coordinate, if this transform is {@link #isAxisAligned() axis-aligned}.
+	 * @param x The x-coordinate.
+	 * @return The transformed x-coordinate.
+	 */
+	public BigDecimal x(BigDecimal x) {
+		return a.multiply(x).add(e);
+	}
+
+	/**
+	 * Transforms a y-coordinate, if this transform is {@link #isAxisAligned() axis-aligned}.
+	 * @param y The y-coordinate.
+	 * @return The transformed y-coordinate.
+	 */
+	public BigDecimal y(BigDecimal y) {
+		return d.multiply(y).add(f);
+	}
+
+	/**
+	 * Scales a distance along the x-axis, if this transform is {@link #isAxisAligned() axis-aligned}.
+	 * @param dx The distance, which may be negative.
+	 * @return The scaled distance.
+	 */
+	public BigDecimal dx(BigDecimal dx) {
+		return a.multiply(dx);
+	}
+
+	/**
+	 * Scales a distance along the y-axis, if this transform is {@link #isAxisAligned() axis-aligned}.
+	 * @param dy The distance, which may be negative.
+	 * @return The scaled distance.
+	 */
+	public BigDecimal dy(BigDecimal dy) {
+		return d.multiply(dy);
+	}
+
+	/**
+	 * Gets the a component.
+	 * @return The a component.
+	 */
+	public BigDecimal getA() {
+		return a;
+	}
+
+	/**
+	 * Gets the b component.
+	 * @return The b component.
+	 */
+	public BigDecimal getB() {
+		return b;
+	}
+
+	/**
+	 * Gets the c component.
+	 * @return The c component.
+	 */
+	public BigDecimal getC() {
+		return c;
+	}
+
+	/**
+	 * Gets the d component.
+	 * @return The d component.
+	 */
+	public BigDecimal getD() {
+		return d;
+	}
+
+	/**
+	 * Gets the e component.
+	 * @return The e component.
+	 */
+	public BigDecimal getE() {
+		return e;
+	}
+
+	/**
+	 * Gets the f component.
+	 * @return The f component.
+	 */
+	public BigDecimal getF() {
+		return f;
+	}
+
+	/**
+	 * Formats this transform as the shortest value of a {@code transform} attribute that represents it.
+	 * @return The value, which is empty for the {@link #IDENTITY}.
+	 */
+	public String toAttributeValue() {
+		if (isIdentity()) {
+			return "";
+		} else if (isTranslation()) {
+			return "translate(" + SvgNumbers.format(e) + (f.signum() == 0 ? "" : " " + SvgNumbers.format(f)) + ")";
+		} else if (isAxisAligned() && e.signum() == 0 && f.signum() == 0) {
+			return "scale(" + SvgNumbers.format(a) + (a.compareTo(d) == 0 ? "" : " " + SvgNumbers.format(d)) + ")";
+		}
+
+		return "matrix(" + SvgNumbers.format(a) + " " + SvgNumbers.format(b) + " " + SvgNumbers.format(c) + " " +
+			SvgNumbers.format(d) + " " + SvgNumbers.format(e) + " " + SvgNumbers.format(f) + ")";
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		SvgTransform that = (SvgTransform) o;
+		return a.compareTo(that.a) == 0 &&
+			b.compareTo(that.b) == 0 &&
+			c.compareTo(that.c) == 0 &&
+			d.compareTo(that.d) == 0 &&
+			e.compareTo(that.e) == 0 &&
+			f.compareTo(that.f) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(a.stripTrailingZeros(), b.stripTrailingZeros(), c.stripTrailingZeros(),
+			d.stripTrailingZeros(), e.stripTrailingZeros(), f.stripTrailingZeros());
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("a", a)
+			.add("b", b)
+			.add("c", c)
+			.add("d", d)
+			.add("e", e)
+			.add("f", f)
+			.toString();
+	}
+}
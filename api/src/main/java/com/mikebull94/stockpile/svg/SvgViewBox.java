@@ -1,47 +1,146 @@
 package com.mikebull94.stockpile.svg;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
 
 import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.events.Attribute;
-import java.util.Objects;
+import javax.xml.stream.events.StartElement;
+import java.io.Serializable;
 
 /**
- * Represents the view-box of an {@link SvgDocument}.
+ * Represents the view-box of an {@link SvgDocument}. View-boxes are {@link Serializable}, so that they can be
+ * recorded as the inputs of a build.
  * @see <a href="https://developer.mozilla.org/en-US/docs/Web/SVG/Attribute/viewBox">viewBox</a>
  */
-public final class SvgViewBox {
+public final class SvgViewBox implements Serializable {
+
+	/**
+	 * The version of the serialized form.
+	 */
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Used to create SVG view-box {@link Attribute}s.
 	 */
-	private static final XMLEventFactory events = XMLEventFactory.newFactory();
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The number of values in a {@code viewBox} attribute.
+	 */
+	private static final int VALUES = 4;
+
+	/**
+	 * The unit that may follow the {@code width} and {@code height} of an {@code <svg>} element.
+	 */
+	private static final String PIXELS = "px";
 
 	/**
-	 * The format of the viewBox attribute.
+	 * Parses the value of a {@code viewBox} attribute: four numbers separated by whitespace and/or a comma.
+	 * @param value The value.
+	 * @return The {@link SvgViewBox}, or {@code null} if the value is not four numbers or its width or height is
+	 * negative.
 	 */
-	private static final String VIEW_BOX_FORMAT = "%d %d %d %d";
+	public static SvgViewBox parse(String value) {
+		double[] values = new double[VALUES];
+		int end = value.length();
+		int count = 0;
+		int index = 0;
+
+		while (index < end) {
+			if (SvgNumbers.isSeparator(value.charAt(index))) {
+				index++;
+				continue;
+			}
+
+			int next = SvgNumbers.scan(value, index, end);
+
+			if (next == index || count == VALUES) {
+				return null;
+			}
+
+			values[count++] = SvgNumbers.parseDouble(value, index, next);
+			index = next;
+		}
+
+		if (count != VALUES || values[2] < 0 || values[3] < 0) {
+			return null;
+		}
+
+		return new SvgViewBox(values[0], values[1], values[2], values[3]);
+	}
+
+	/**
+	 * Gets the view-box of an {@code <svg>} element: its {@code viewBox}, or a view-box at the origin of its
+	 * {@code width} and {@code height} if it has no {@code viewBox}.
+	 * @param element The {@link StartElement} of the {@code <svg>} element.
+	 * @return The {@link SvgViewBox}, or {@code null} if the element has no valid {@code viewBox}, and no {@code width}
+	 * and {@code height} that are numbers of pixels.
+	 */
+	public static SvgViewBox of(StartElement element) {
+		String viewBox = XmlEvents.attribute(element, "viewBox");
+
+		if (viewBox != null) {
+			return parse(viewBox);
+		}
+
+		double width = parseLength(XmlEvents.attribute(element, "width"));
+		double height = parseLength(XmlEvents.attribute(element, "height"));
+		return width > 0 && height > 0 ? new SvgViewBox(0, 0, width, height) : null;
+	}
+
+	/**
+	 * Parses the value of a {@code width} or {@code height} attribute that is a number of pixels.
+	 * @param value The value, which may be {@code null}.
+	 * @return The number of pixels, or {@code -1} if the value is absent or not a number of pixels.
+	 */
+	private static double parseLength(String value) {
+		if (value == null) {
+			return -1;
+		}
+
+		String trimmed = value.trim();
+		int end = trimmed.endsWith(PIXELS) ? trimmed.length() - PIXELS.length() : trimmed.length();
+		return end > 0 && SvgNumbers.scan(trimmed, 0, end) == end ? SvgNumbers.parseDouble(trimmed, 0, end) : -1;
+	}
+
+	/**
+	 * A flag indicating whether a {@code double} is finite.
+	 * @param value The {@code double}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isFinite(double value) {
+		return !Double.isNaN(value) && !Double.isInfinite(value);
+	}
 
 	/**
 	 * The minimum x-coordinate.
 	 */
-	private final int minX;
+	private final double minX;
 
 	/**
 	 * The minimum y-coordinate.
 	 */
-	private final int minY;
+	private final double minY;
 
 	/**
 	 * The width.
 	 */
-	private final int width;
+	private final double width;
 
 	/**
 	 * The height.
 	 */
-	private final int height;
+	private final double height;
+
+	/**
+	 * The {@link Attribute}s of this {@link SvgViewBox}, or {@code null} until they are first created. View-boxes are
+	 * immutable, so a race only creates the same {@link Attribute}s twice.
+	 */
+	private transient ImmutableList<Attribute> attributes;
 
 	/**
 	 * Creates a new {@link SvgViewBox}.
@@ -49,8 +148,11 @@ public final class SvgViewBox {
 	 * @param minY The minimum y-coordinate.
 	 * @param width The width.
 	 * @param height The height.
+	 * @throws IllegalArgumentException If any of the values is not finite.
 	 */
-	public SvgViewBox(int minX, int minY, int width, int height) {
+	public SvgViewBox(double minX, double minY, double width, double height) {
+		Preconditions.checkArgument(isFinite(minX) && isFinite(minY) && isFinite(width) && isFinite(height),
+			"View-box must be finite.");
 		this.minX = minX;
 		this.minY = minY;
 		this.width = width;
@@ -58,15 +160,64 @@ public final class SvgViewBox {
 	}
 
 	/**
-	 * Creates an {@link ImmutableList} of {@link Attribute}s from this {@link SvgViewBox}.
+	 * Gets the minimum x-coordinate.
+	 * @return The minimum x-coordinate.
+	 */
+	public double getMinX() {
+		return minX;
+	}
+
+	/**
+	 * Gets the minimum y-coordinate.
+	 * @return The minimum y-coordinate.
+	 */
+	public double getMinY() {
+		return minY;
+	}
+
+	/**
+	 * Gets the width.
+	 * @return The width.
+	 */
+	public double getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the height.
+	 * @return The height.
+	 */
+	public double getHeight() {
+		return height;
+	}
+
+	/**
+	 * Formats this {@link SvgViewBox} as the value of a {@code viewBox} attribute.
+	 * @return The value.
+	 */
+	public String toAttributeValue() {
+		return SvgNumbers.format(minX) + " " + SvgNumbers.format(minY) + " " + SvgNumbers.format(width) + " "
+			+ SvgNumbers.format(height);
+	}
+
+	/**
+	 * Gets an {@link ImmutableList} of {@link Attribute}s from this {@link SvgViewBox}, which are created once and
+	 * then shared by every call.
 	 * @return The {@link ImmutableList} of {@link Attribute}s.
 	 */
 	public ImmutableList<Attribute> attributes() {
-		return ImmutableList.of(
-			events.createAttribute("width", String.valueOf(width)),
-			events.createAttribute("height", String.valueOf(height)),
-			events.createAttribute("viewBox", String.format(VIEW_BOX_FORMAT, minX, minY, width, height))
-		);
+		ImmutableList<Attribute> created = attributes;
+
+		if (created == null) {
+			created = ImmutableList.of(
+				events.createAttribute("width", SvgNumbers.format(width)),
+				events.createAttribute("height", SvgNumbers.format(height)),
+				events.createAttribute("viewBox", toAttributeValue())
+			);
+			attributes = created;
+		}
+
+		return created;
 	}
 
 	@Override
@@ -78,15 +229,18 @@ public final class SvgViewBox {
 			return false;
 		}
 		SvgViewBox that = (SvgViewBox) o;
-		return minX == that.minX
-			&& minY == that.minY
-			&& width == that.width
-			&& height == that.height;
+		return Double.compare(minX, that.minX) == 0
+			&& Double.compare(minY, that.minY) == 0
+			&& Double.compare(width, that.width) == 0
+			&& Double.compare(height, that.height) == 0;
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(minX, minY, width, height);
+		int result = Double.hashCode(minX);
+		result = 31 * result + Double.hashCode(minY);
+		result = 31 * result + Double.hashCode(width);
+		return 31 * result + Double.hashCode(height);
 	}
 
 	@Override
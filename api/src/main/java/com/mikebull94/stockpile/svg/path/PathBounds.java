@@ -0,0 +1,178 @@
+package com.mikebull94.stockpile.svg.path;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.List;
+
+/**
+ * A box that contains everything a path fills, found from its end points and control points without solving for the
+ * extremes of its curves, so that it may be larger than the path but never smaller.
+ */
+public final class PathBounds {
+
+	/**
+	 * Finds the {@link PathBounds} of a path.
+	 * @param segments The {@link PathSegment}s of the path, as produced by the {@link PathParser}.
+	 * @return The {@link PathBounds}, or {@code null} if the path has no segments.
+	 */
+	public static PathBounds of(List<PathSegment> segments) {
+		if (segments.isEmpty()) {
+			return null;
+		}
+
+		PathBounds bounds = new PathBounds();
+		double x = 0, y = 0, startX = 0, startY = 0;
+
+		for (PathSegment segment : segments) {
+			switch (segment.getType()) {
+				case CLOSE:
+					x = startX;
+					y = startY;
+					continue;
+				case CUBIC:
+					bounds.add(segment.get(0), segment.get(1));
+					bounds.add(segment.get(2), segment.get(3));
+					break;
+				case QUADRATIC:
+					bounds.add(segment.get(0), segment.get(1));
+					break;
+				case ARC:
+					double radius = radius(x, y, segment);
+					bounds.add(x - 2 * radius, y - 2 * radius);
+					bounds.add(x + 2 * radius, y + 2 * radius);
+					break;
+				default:
+					break;
+			}
+
+			x = segment.getX();
+			y = segment.getY();
+			bounds.add(x, y);
+
+			if (segment.getType() == PathSegment.Type.MOVE) {
+				startX = x;
+				startY = y;
+			}
+		}
+
+		return bounds;
+	}
+
+	/**
+	 * Finds the larger radius of the ellipse that an arc is drawn on, after radii that are too small to reach the end
+	 * point are scaled up as SVG requires. The arc lies within twice this radius of its start point.
+	 * @param x0 The x-coordinate of the start point.
+	 * @param y0 The y-coordinate of the start point.
+	 * @param arc The {@link PathSegment.Type#ARC}.
+	 * @return The radius, or {@code 0} if the arc is drawn as a line.
+	 */
+	private static double radius(double x0, double y0, PathSegment arc) {
+		double rx = Math.abs(arc.get(0));
+		double ry = Math.abs(arc.get(1));
+
+		if (rx == 0 || ry == 0) {
+			return 0;
+		}
+
+		double angle = Math.toRadians(arc.get(2));
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		double dx = (x0 - arc.getX()) / 2;
+		double dy = (y0 - arc.getY()) / 2;
+		double x1 = cos * dx + sin * dy;
+		double y1 = -sin * dx + cos * dy;
+		double lambda = x1 * x1 / (rx * rx) + y1 * y1 / (ry * ry);
+		double scale = lambda > 1 ? Math.sqrt(lambda) : 1;
+		return Math.max(rx, ry) * scale;
+	}
+
+	/**
+	 * The minimum x-coordinate.
+	 */
+	private double minX = Double.POSITIVE_INFINITY;
+
+	/**
+	 * The minimum y-coordinate.
+	 */
+	private double minY = Double.POSITIVE_INFINITY;
+
+	/**
+	 * The maximum x-coordinate.
+	 */
+	private double maxX = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * The maximum y-coordinate.
+	 */
+	private double maxY = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * Creates a new, empty {@link PathBounds}.
+	 */
+	private PathBounds() {
+		/* empty */
+	}
+
+	/**
+	 * Extends these bounds to contain a point.
+	 * @param x The x-coordinate.
+	 * @param y The y-coordinate.
+	 */
+	private void add(double x, double y) {
+		minX = Math.min(minX, x);
+		minY = Math.min(minY, y);
+		maxX = Math.max(maxX, x);
+		maxY = Math.max(maxY, y);
+	}
+
+	/**
+	 * A flag indicating whether these bounds overlap other bounds by more than a shared edge.
+	 * @param other The other {@link PathBounds}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean overlaps(PathBounds other) {
+		return minX < other.maxX && other.minX < maxX && minY < other.maxY && other.minY < maxY;
+	}
+
+	/**
+	 * Gets the minimum x-coordinate.
+	 * @return The minimum x-coordinate.
+	 */
+	public double getMinX() {
+		return minX;
+	}
+
+	/**
+	 * Gets the minimum y-coordinate.
+	 * @return The minimum y-coordinate.
+	 */
+	public double getMinY() {
+		return minY;
+	}
+
+	/**
+	 * Gets the maximum x-coordinate.
+	 * @return The maximum x-coordinate.
+	 */
+	public double getMaxX() {
+		return maxX;
+	}
+
+	/**
+	 * Gets the maximum y-coordinate.
+	 * @return The maximum y-coordinate.
+	 */
+	public double getMaxY() {
+		return maxY;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("minX", minX)
+			.add("minY", minY)
+			.add("maxX", maxX)
+			.add("maxY", maxY)
+			.toString();
+	}
+}
@@ -0,0 +1,295 @@
+package com.mikebull94.stockpile.svg.path;
+
+import com.google.common.base.Preconditions;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+import com.mikebull94.stockpile.svg.SvgTransform;
+
+import java.math.BigDecimal;
+
+/**
+ * Contains utility methods for compacting the path data of the {@code d} attribute.
+ * <p>
+ * Numbers are compacted by {@link SvgNumbers}, separators are only written where the next number could not otherwise
+ * be told apart from the previous one, and a command letter that repeats the previous command is dropped in favour of
+ * the implicit repetition. The {@code large-arc-flag} and {@code sweep-flag} of an arc are read as single characters,
+ * as the grammar allows them to be written without separators.
+ * <p>
+ * Path data can also have an {@link SvgTransform} applied to it, baking the transform into the coordinates.
+ */
+public final class PathData {
+
+	/**
+	 * The number of arguments of an elliptical arc command.
+	 */
+	private static final int ARC_ARGUMENTS = 7;
+
+	/**
+	 * The index of the {@code large-arc-flag} within the arguments of an elliptical arc command.
+	 */
+	private static final int LARGE_ARC_FLAG = 3;
+
+	/**
+	 * The index of the {@code sweep-flag} within the arguments of an elliptical arc command.
+	 */
+	private static final int SWEEP_FLAG = 4;
+
+	/**
+	 * A flag indicating whether a character is a path command.
+	 * @param character The character.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public static boolean isCommand(char character) {
+		switch (Character.toLowerCase(character)) {
+			case 'm':
+			case 'z':
+			case 'l':
+			case 'h':
+			case 'v':
+			case 'c':
+			case 's':
+			case 'q':
+			case 't':
+			case 'a':
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * A flag indicating whether an argument of a command is an arc flag.
+	 * @param command The command.
+	 * @param argument The index of the argument since the command letter.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public static boolean isFlag(char command, int argument) {
+		int index = argument % ARC_ARGUMENTS;
+		return (command == 'a' || command == 'A') && (index == LARGE_ARC_FLAG || index == SWEEP_FLAG);
+	}
+
+	/**
+	 * Compacts path data.
+	 * @param data The path data.
+	 * @param precision The maximum number of fraction digits to keep, or {@link SvgNumbers#LOSSLESS}.
+	 * @return The compacted path data, or {@code data} itself if it could not be parsed.
+	 * @throws IllegalArgumentException If {@code precision} is less than {@link SvgNumbers#LOSSLESS}.
+	 */
+	public static String compact(String data, int precision) {
+		Preconditions.checkArgument(precision >= SvgNumbers.LOSSLESS, "Precision must be non-negative or LOSSLESS.");
+
+		int end = data.length();
+		PathWriter out = new PathWriter(end);
+		StringBuilder number = new StringBuilder();
+		char command = 0;
+		int argument = 0;
+		int index = 0;
+
+		while (index < end) {
+			char character = data.charAt(index);
+
+			if (SvgNumbers.isSeparator(character)) {
+				index++;
+			} else if (isCommand(character)) {
+				boolean repeated = character == command && out.lastWasNumber() && character != 'M' && character != 'm';
+
+				if (!repeated) {
+					out.command(character);
+					argument = 0;
+				}
+
+				command = character;
+				index++;
+			} else if (command == 0) {
+				return data;
+			} else {
+				int next = scanArgument(data, index, end, command, argument);
+
+				if (next == index) {
+					return data;
+				}
+
+				number.setLength(0);
+				SvgNumbers.appendCompact(data, index, next, precision, number);
+				out.number(number);
+				argument++;
+				index = next;
+			}
+		}
+
+		return out.toString();
+	}
+
+	/**
+	 * Scans the argument of a command.
+	 * @param data The path data.
+	 * @param start The index of the start of the argument.
+	 * @param end The index after the end of the path data.
+	 * @param command The command.
+	 * @param argument The index of the argument since the command letter.
+	 * @return The index after the end of the argument, or {@code start} if there is no valid argument.
+	 */
+	private static int scanArgument(String data, int start, int end, char command, int argument) {
+		if (isFlag(command, argument)) {
+			char flag = data.charAt(start);
+			return flag == '0' || flag == '1' ? start + 1 : start;
+		}
+
+		return SvgNumbers.scan(data, start, end);
+	}
+
+	/**
+	 * Applies an {@link SvgTransform} to path data, writing the result in its compacted form. Only
+	 * {@link SvgTransform#isAxisAligned() axis-aligned} transforms are applied, so that every command keeps its type and
+	 * the result is exact.
+	 * @param data The path data.
+	 * @param transform The {@link SvgTransform}.
+	 * @return The transformed path data, or {@code null} if the path data could not be parsed or the transform cannot be
+	 * applied exactly, such as a non-uniform scale of a rotated arc.
+	 */
+	public static String transform(String data, SvgTransform transform) {
+		if (!transform.isAxisAligned()) {
+			return null;
+		}
+
+		int end = data.length();
+		PathWriter out = new PathWriter(end);
+		BigDecimal[] arguments = new BigDecimal[ARC_ARGUMENTS];
+		char command = 0;
+		int argument = 0;
+		int index = 0;
+
+		while (index < end) {
+			char character = data.charAt(index);
+
+			if (SvgNumbers.isSeparator(character)) {
+				index++;
+			} else if (isCommand(character)) {
+				if (!complete(command, argument)) {
+					return null;
+				}
+
+				out.command(character);
+				command = character;
+				argument = 0;
+				index++;
+			} else if (command == 0 || arguments(command) == 0) {
+				return null;
+			} else {
+				int next = scanArgument(data, index, end, command, argument);
+
+				if (next == index) {
+					return null;
+				}
+
+				int count = arguments(command);
+				arguments[argument % count] = new BigDecimal(data.substring(index, next));
+				argument++;
+				index = next;
+
+				if (argument % count == 0 && !write(out, command, arguments, transform)) {
+					return null;
+				}
+			}
+		}
+
+		return complete(command, argument) ? out.toString() : null;
+	}
+
+	/**
+	 * A flag indicating whether a command has been given a whole number of repetitions of its arguments.
+	 * @param command The command.
+	 * @param argument The number of arguments given since the command letter.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean complete(char command, int argument) {
+		int count = arguments(command);
+		return count == 0 ? argument == 0 : argument % count == 0;
+	}
+
+	/**
+	 * Gets the number of arguments taken by each repetition of a command.
+	 * @param command The command.
+	 * @return The number of arguments.
+	 */
+	private static int arguments(char command) {
+		switch (Character.toLowerCase(command)) {
+			case 'z':
+				return 0;
+			case 'h':
+			case 'v':
+				return 1;
+			case 'm':
+			case 'l':
+			case 't':
+				return 2;
+			case 's':
+			case 'q':
+				return 4;
+			case 'c':
+				return 6;
+			case 'a':
+				return ARC_ARGUMENTS;
+			default:
+				return 1;
+		}
+	}
+
+	/**
+	 * Transforms and writes the arguments of one repetition of a command.
+	 * @param out The {@link PathWriter}.
+	 * @param command The command.
+	 * @param arguments The arguments.
+	 * @param transform The axis-aligned {@link SvgTransform}.
+	 * @return {@code true} if the arguments could be transformed exactly, {@code false} otherwise.
+	 */
+	private static boolean write(PathWriter out, char command, BigDecimal[] arguments, SvgTransform transform) {
+		boolean relative = Character.isLowerCase(command);
+
+		switch (Character.toLowerCase(command)) {
+			case 'h':
+				out.number(SvgNumbers.format(relative ? transform.dx(arguments[0]) : transform.x(arguments[0])));
+				return true;
+			case 'v':
+				out.number(SvgNumbers.format(relative ? transform.dy(arguments[0]) : transform.y(arguments[0])));
+				return true;
+			case 'a':
+				BigDecimal angle = arguments[2];
+
+				if (!transform.isUniform() && angle.remainder(BigDecimal.valueOf(180)).signum() != 0) {
+					return false;
+				}
+
+				boolean reflected = transform.isReflection();
+				out.number(SvgNumbers.format(transform.dx(arguments[0]).abs()));
+				out.number(SvgNumbers.format(transform.dy(arguments[1]).abs()));
+				out.number(SvgNumbers.format(reflected ? angle.negate() : angle));
+				out.number(SvgNumbers.format(arguments[3]));
+				out.number(reflected ? (arguments[4].signum() == 0 ? "1" : "0") : SvgNumbers.format(arguments[4]));
+				writePoint(out, relative, arguments[5], arguments[6], transform);
+				return true;
+			default:
+				for (int index = 0; index < arguments(command); index += 2) {
+					writePoint(out, relative, arguments[index], arguments[index + 1], transform);
+				}
+
+				return true;
+		}
+	}
+
+	/**
+	 * Transforms and writes a point.
+	 * @param out The {@link PathWriter}.
+	 * @param relative A flag indicating whether the point is relative to the current point.
+	 * @param x The x-coordinate.
+	 * @param y The y-coordinate.
+	 * @param transform The axis-aligned {@link SvgTransform}.
+	 */
+	private static void writePoint(PathWriter out, boolean relative, BigDecimal x, BigDecimal y, SvgTransform transform) {
+		out.number(SvgNumbers.format(relative ? transform.dx(x) : transform.x(x)));
+		out.number(SvgNumbers.format(relative ? transform.dy(y) : transform.y(y)));
+	}
+
+	private PathData() {
+		/* empty */
+	}
+}
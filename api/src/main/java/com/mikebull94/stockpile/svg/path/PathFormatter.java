@@ -0,0 +1,382 @@
+package com.mikebull94.stockpile.svg.path;
+
+import com.google.common.base.Preconditions;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+
+import java.util.List;
+
+/**
+ * Formats {@link PathSegment}s as the shortest path data it can find at a fixed precision.
+ * <p>
+ * Coordinates are rounded to fixed-point integers before anything is written, and the current point is tracked in
+ * those integers, so relative coordinates never accumulate rounding errors. Each segment is written with whichever of
+ * its absolute and relative forms is shorter, using the horizontal, vertical and smooth forms of commands wherever
+ * they describe the same segment and leaving out repeated command letters.
+ */
+public final class PathFormatter {
+
+	/**
+	 * The largest fixed-point integer that a coordinate may be rounded to, beyond which it is no longer exact.
+	 */
+	private static final double MAX_UNITS = 1e15;
+
+	/**
+	 * The maximum precision.
+	 */
+	private static final int MAX_PRECISION = 15;
+
+	/**
+	 * Formats {@link PathSegment}s.
+	 * @param segments The {@link PathSegment}s.
+	 * @param precision The number of fraction digits to round coordinates to.
+	 * @return The path data.
+	 * @throws IllegalArgumentException If {@code precision} is negative or too large, or a coordinate is too large to
+	 * be rounded exactly at that precision.
+	 */
+	public static String format(List<PathSegment> segments, int precision) {
+		Preconditions.checkArgument(precision >= 0 && precision <= MAX_PRECISION, "Precision must be between 0 and %s.", MAX_PRECISION);
+		return new PathFormatter(precision, segments.size()).write(segments);
+	}
+
+	/**
+	 * The number of fraction digits to round coordinates to.
+	 */
+	private final int precision;
+
+	/**
+	 * The factor coordinates are multiplied by before they are rounded.
+	 */
+	private final double scale;
+
+	/**
+	 * The {@link PathWriter} the path data is written to.
+	 */
+	private final PathWriter writer;
+
+	/**
+	 * The {@link PathWriter} the absolute form of each segment is measured in.
+	 */
+	private final PathWriter absolute = new PathWriter(64);
+
+	/**
+	 * The {@link PathWriter} the relative form of each segment is measured in.
+	 */
+	private final PathWriter relative = new PathWriter(64);
+
+	/**
+	 * The {@link StringBuilder} numbers are formatted in before they are written.
+	 */
+	private final StringBuilder number = new StringBuilder(24);
+
+	/**
+	 * The last command letter written, or {@code 0} if none has been written.
+	 */
+	private char command;
+
+	/**
+	 * The {@link PathSegment.Type} of the previous segment, or {@code null} if there is none.
+	 */
+	private PathSegment.Type previous;
+
+	/**
+	 * The rounded x-coordinate of the current point.
+	 */
+	private long x;
+
+	/**
+	 * The rounded y-coordinate of the current point.
+	 */
+	private long y;
+
+	/**
+	 * The rounded x-coordinate of the start of the current subpath.
+	 */
+	private long startX;
+
+	/**
+	 * The rounded y-coordinate of the start of the current subpath.
+	 */
+	private long startY;
+
+	/**
+	 * The rounded x-coordinate of the last control point of the previous segment.
+	 */
+	private long controlX;
+
+	/**
+	 * The rounded y-coordinate of the last control point of the previous segment.
+	 */
+	private long controlY;
+
+	/**
+	 * Creates a new {@link PathFormatter}.
+	 * @param precision The number of fraction digits to round coordinates to.
+	 * @param segments The number of segments, used to size the output.
+	 */
+	private PathFormatter(int precision, int segments) {
+		this.precision = precision;
+		this.scale = Math.pow(10, precision);
+		this.writer = new PathWriter(segments * 8);
+	}
+
+	/**
+	 * Writes {@link PathSegment}s.
+	 * @param segments The {@link PathSegment}s.
+	 * @return The path data.
+	 */
+	private String write(List<PathSegment> segments) {
+		for (PathSegment segment : segments) {
+			PathSegment.Type type = segment.getType();
+
+			switch (type) {
+				case MOVE:
+					move(segment);
+					break;
+				case LINE:
+					line(segment);
+					break;
+				case CUBIC:
+					cubic(segment);
+					break;
+				case QUADRATIC:
+					quadratic(segment);
+					break;
+				case ARC:
+					arc(segment);
+					break;
+				default:
+					writer.command('z');
+					command = 'z';
+					x = startX;
+					y = startY;
+					break;
+			}
+
+			previous = type;
+		}
+
+		return writer.toString();
+	}
+
+	/**
+	 * Writes a {@link PathSegment.Type#MOVE}.
+	 * @param segment The {@link PathSegment}.
+	 */
+	private void move(PathSegment segment) {
+		long endX = round(segment.getX());
+		long endY = round(segment.getY());
+
+		start(absolute, 'M');
+		number(absolute, endX);
+		number(absolute, endY);
+
+		start(relative, 'm');
+		number(relative, endX - x);
+		number(relative, endY - y);
+
+		choose();
+		x = startX = endX;
+		y = startY = endY;
+	}
+
+	/**
+	 * Writes a {@link PathSegment.Type#LINE}, as a horizontal or vertical line where possible.
+	 * @param segment The {@link PathSegment}.
+	 */
+	private void line(PathSegment segment) {
+		long endX = round(segment.getX());
+		long endY = round(segment.getY());
+		if (endY == y) {
+			start(absolute, 'H');
+			number(absolute, endX);
+			start(relative, 'h');
+			number(relative, endX - x);
+		} else if (endX == x) {
+			start(absolute, 'V');
+			number(absolute, endY);
+			start(relative, 'v');
+			number(relative, endY - y);
+		} else {
+			start(absolute, 'L');
+			number(absolute, endX);
+			number(absolute, endY);
+			start(relative, 'l');
+			number(relative, endX - x);
+			number(relative, endY - y);
+		}
+
+		choose();
+		x = endX;
+		y = endY;
+	}
+
+	/**
+	 * Writes a {@link PathSegment.Type#CUBIC}, as a smooth curve where possible.
+	 * @param segment The {@link PathSegment}.
+	 */
+	private void cubic(PathSegment segment) {
+		long x1 = round(segment.get(0));
+		long y1 = round(segment.get(1));
+		long x2 = round(segment.get(2));
+		long y2 = round(segment.get(3));
+		long endX = round(segment.getX());
+		long endY = round(segment.getY());
+		boolean smooth = isReflection(PathSegment.Type.CUBIC, x1, y1);
+
+		start(absolute, smooth ? 'S' : 'C');
+		start(relative, smooth ? 's' : 'c');
+
+		if (!smooth) {
+			point(x1, y1);
+		}
+
+		point(x2, y2);
+		point(endX, endY);
+
+		choose();
+		controlX = x2;
+		controlY = y2;
+		x = endX;
+		y = endY;
+	}
+
+	/**
+	 * Writes a {@link PathSegment.Type#QUADRATIC}, as a smooth curve where possible.
+	 * @param segment The {@link PathSegment}.
+	 */
+	private void quadratic(PathSegment segment) {
+		long x1 = round(segment.get(0));
+		long y1 = round(segment.get(1));
+		long endX = round(segment.getX());
+		long endY = round(segment.getY());
+		boolean smooth = isReflection(PathSegment.Type.QUADRATIC, x1, y1);
+
+		start(absolute, smooth ? 'T' : 'Q');
+		start(relative, smooth ? 't' : 'q');
+
+		if (!smooth) {
+			point(x1, y1);
+		}
+
+		point(endX, endY);
+
+		choose();
+		controlX = x1;
+		controlY = y1;
+		x = endX;
+		y = endY;
+	}
+
+	/**
+	 * Writes a {@link PathSegment.Type#ARC}.
+	 * @param segment The {@link PathSegment}.
+	 */
+	private void arc(PathSegment segment) {
+		long endX = round(segment.getX());
+		long endY = round(segment.getY());
+		start(absolute, 'A');
+		start(relative, 'a');
+
+		for (int index = 0; index < 2; index++) {
+			long radius = round(segment.get(index));
+			number(absolute, radius);
+			number(relative, radius);
+		}
+
+		/* the rotation is in degrees, so is not rounded like a coordinate */
+		String rotation = SvgNumbers.compactNumber(Double.toString(segment.get(2)), SvgNumbers.LOSSLESS);
+		absolute.number(rotation);
+		relative.number(rotation);
+
+		for (int index = 3; index < 5; index++) {
+			String flag = segment.get(index) == 0 ? "0" : "1";
+			absolute.number(flag);
+			relative.number(flag);
+		}
+
+		point(endX, endY);
+
+		choose();
+		x = endX;
+		y = endY;
+	}
+
+	/**
+	 * A flag indicating whether a control point is the reflection of the last control point of the previous segment,
+	 * so that the smooth form of a command can be written.
+	 * @param type The {@link PathSegment.Type} of the segment.
+	 * @param x1 The rounded x-coordinate of the control point.
+	 * @param y1 The rounded y-coordinate of the control point.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private boolean isReflection(PathSegment.Type type, long x1, long y1) {
+		if (previous == type) {
+			return x1 == 2 * x - controlX && y1 == 2 * y - controlY;
+		}
+
+		return x1 == x && y1 == y;
+	}
+
+	/**
+	 * Starts writing one form of a segment, leaving out the command letter if it would be implied.
+	 * @param form The {@link PathWriter} to write the form to.
+	 * @param letter The command letter.
+	 */
+	private void start(PathWriter form, char letter) {
+		form.reset(writer);
+		boolean implied = letter == command || command == 'M' && letter == 'L' || command == 'm' && letter == 'l';
+
+		if (!implied || !writer.lastWasNumber() || letter == 'M' || letter == 'm') {
+			form.command(letter);
+		}
+	}
+
+	/**
+	 * Writes a point in both the absolute and the relative forms of a segment.
+	 * @param pointX The rounded x-coordinate.
+	 * @param pointY The rounded y-coordinate.
+	 */
+	private void point(long pointX, long pointY) {
+		number(absolute, pointX);
+		number(absolute, pointY);
+		number(relative, pointX - x);
+		number(relative, pointY - y);
+	}
+
+	/**
+	 * Writes a rounded number.
+	 * @param form The {@link PathWriter} to write to.
+	 * @param units The rounded number.
+	 */
+	private void number(PathWriter form, long units) {
+		number.setLength(0);
+		SvgNumbers.appendFixed(units, precision, number);
+		form.number(number);
+	}
+
+	/**
+	 * Appends the shorter of the absolute and the relative forms of a segment, preferring the absolute form.
+	 */
+	private void choose() {
+		PathWriter chosen = relative.length() < absolute.length() ? relative : absolute;
+		writer.append(chosen);
+
+		char letter = chosen.charAt(0);
+
+		if (PathData.isCommand(letter)) {
+			command = letter;
+		}
+	}
+
+	/**
+	 * Rounds a coordinate to a fixed-point integer.
+	 * @param value The coordinate.
+	 * @return The fixed-point integer.
+	 * @throws IllegalArgumentException If the coordinate is too large to be rounded exactly.
+	 */
+	private long round(double value) {
+		double scaled = value * scale;
+		Preconditions.checkArgument(Math.abs(scaled) < MAX_UNITS, "Coordinate out of range: %s", value);
+		return Math.round(scaled);
+	}
+}
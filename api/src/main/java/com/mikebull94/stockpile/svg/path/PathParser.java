@@ -0,0 +1,285 @@
+package com.mikebull94.stockpile.svg.path;
+
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+
+/**
+ * Parses path data into {@link PathSegment}s in absolute coordinates.
+ */
+public final class PathParser {
+
+	/**
+	 * Parses path data.
+	 * @param data The path data.
+	 * @return An {@link ImmutableList} of {@link PathSegment}s.
+	 * @throws IllegalArgumentException If the path data is malformed.
+	 */
+	public static ImmutableList<PathSegment> parse(String data) {
+		return new PathParser(data).parse();
+	}
+
+	/**
+	 * The path data.
+	 */
+	private final String data;
+
+	/**
+	 * The parsed {@link PathSegment}s.
+	 */
+	private final ImmutableList.Builder<PathSegment> segments = ImmutableList.builder();
+
+	/**
+	 * The arguments of the current repetition of the current command.
+	 */
+	private final double[] arguments = new double[PathSegment.Type.ARC.getValues()];
+
+	/**
+	 * The x-coordinate of the current point.
+	 */
+	private double x;
+
+	/**
+	 * The y-coordinate of the current point.
+	 */
+	private double y;
+
+	/**
+	 * The x-coordinate of the start of the current subpath.
+	 */
+	private double startX;
+
+	/**
+	 * The y-coordinate of the start of the current subpath.
+	 */
+	private double startY;
+
+	/**
+	 * The x-coordinate of the last control point of the previous segment, which is reflected by smooth curves.
+	 */
+	private double controlX;
+
+	/**
+	 * The y-coordinate of the last control point of the previous segment, which is reflected by smooth curves.
+	 */
+	private double controlY;
+
+	/**
+	 * The {@link PathSegment.Type} of the previous segment, or {@code null} if there is none.
+	 */
+	private PathSegment.Type previous;
+
+	/**
+	 * Creates a new {@link PathParser}.
+	 * @param data The path data.
+	 */
+	private PathParser(String data) {
+		this.data = data;
+	}
+
+	/**
+	 * Parses the path data.
+	 * @return An {@link ImmutableList} of {@link PathSegment}s.
+	 * @throws IllegalArgumentException If the path data is malformed.
+	 */
+	private ImmutableList<PathSegment> parse() {
+		int end = data.length();
+		char command = 0;
+		int argument = 0;
+		int index = 0;
+
+		while (index < end) {
+			char character = data.charAt(index);
+
+			if (SvgNumbers.isSeparator(character)) {
+				index++;
+			} else if (PathData.isCommand(character)) {
+				if (command != 0 && argument % Math.max(count(command), 1) != 0) {
+					throw new IllegalArgumentException("Incomplete arguments for command: " + command);
+				}
+
+				command = character;
+				argument = 0;
+				index++;
+
+				if (command == 'z' || command == 'Z') {
+					close();
+				}
+			} else if (command == 0 || count(command) == 0) {
+				throw new IllegalArgumentException("Unexpected number at index: " + index);
+			} else {
+				int next;
+
+				if (PathData.isFlag(command, argument)) {
+					if (character != '0' && character != '1') {
+						throw new IllegalArgumentException("Invalid arc flag at index: " + index);
+					}
+
+					arguments[argument % count(command)] = character - '0';
+					next = index + 1;
+				} else {
+					next = SvgNumbers.scan(data, index, end);
+
+					if (next == index) {
+						throw new IllegalArgumentException("Invalid number at index: " + index);
+					}
+
+					arguments[argument % count(command)] = SvgNumbers.parseDouble(data, index, next);
+				}
+
+				argument++;
+				index = next;
+
+				if (argument % count(command) == 0) {
+					segment(command, argument / count(command) > 1);
+				}
+			}
+		}
+
+		if (command != 0 && argument % Math.max(count(command), 1) != 0) {
+			throw new IllegalArgumentException("Incomplete arguments for command: " + command);
+		}
+
+		return segments.build();
+	}
+
+	/**
+	 * Gets the number of arguments taken by each repetition of a command.
+	 * @param command The command.
+	 * @return The number of arguments.
+	 */
+	private static int count(char command) {
+		switch (Character.toLowerCase(command)) {
+			case 'z':
+				return 0;
+			case 'h':
+			case 'v':
+				return 1;
+			case 'm':
+			case 'l':
+			case 't':
+				return 2;
+			case 's':
+			case 'q':
+				return 4;
+			case 'c':
+				return 6;
+			default:
+				return PathSegment.Type.ARC.getValues();
+		}
+	}
+
+	/**
+	 * Adds the {@link PathSegment} for one repetition of a command.
+	 * @param command The command.
+	 * @param repeated A flag indicating whether this is not the first repetition since the command letter.
+	 */
+	private void segment(char command, boolean repeated) {
+		boolean relative = Character.isLowerCase(command);
+		double dx = relative ? x : 0;
+		double dy = relative ? y : 0;
+
+		switch (Character.toLowerCase(command)) {
+			case 'm':
+				if (repeated) {
+					line(arguments[0] + dx, arguments[1] + dy);
+				} else {
+					x = startX = arguments[0] + dx;
+					y = startY = arguments[1] + dy;
+					add(PathSegment.Type.MOVE, x, y);
+				}
+				break;
+			case 'l':
+				line(arguments[0] + dx, arguments[1] + dy);
+				break;
+			case 'h':
+				line(arguments[0] + dx, y);
+				break;
+			case 'v':
+				line(x, arguments[0] + dy);
+				break;
+			case 'c':
+				cubic(arguments[0] + dx, arguments[1] + dy, arguments[2] + dx, arguments[3] + dy, arguments[4] + dx, arguments[5] + dy);
+				break;
+			case 's':
+				double sx = previous == PathSegment.Type.CUBIC ? 2 * x - controlX : x;
+				double sy = previous == PathSegment.Type.CUBIC ? 2 * y - controlY : y;
+				cubic(sx, sy, arguments[0] + dx, arguments[1] + dy, arguments[2] + dx, arguments[3] + dy);
+				break;
+			case 'q':
+				quadratic(arguments[0] + dx, arguments[1] + dy, arguments[2] + dx, arguments[3] + dy);
+				break;
+			case 't':
+				double tx = previous == PathSegment.Type.QUADRATIC ? 2 * x - controlX : x;
+				double ty = previous == PathSegment.Type.QUADRATIC ? 2 * y - controlY : y;
+				quadratic(tx, ty, arguments[0] + dx, arguments[1] + dy);
+				break;
+			default:
+				x = arguments[5] + dx;
+				y = arguments[6] + dy;
+				add(PathSegment.Type.ARC, arguments[0], arguments[1], arguments[2], arguments[3], arguments[4], x, y);
+				break;
+		}
+	}
+
+	/**
+	 * Adds a {@link PathSegment.Type#LINE}.
+	 * @param endX The x-coordinate of the end point.
+	 * @param endY The y-coordinate of the end point.
+	 */
+	private void line(double endX, double endY) {
+		x = endX;
+		y = endY;
+		add(PathSegment.Type.LINE, x, y);
+	}
+
+	/**
+	 * Adds a {@link PathSegment.Type#CUBIC}.
+	 * @param x1 The x-coordinate of the first control point.
+	 * @param y1 The y-coordinate of the first control point.
+	 * @param x2 The x-coordinate of the second control point.
+	 * @param y2 The y-coordinate of the second control point.
+	 * @param endX The x-coordinate of the end point.
+	 * @param endY The y-coordinate of the end point.
+	 */
+	private void cubic(double x1, double y1, double x2, double y2, double endX, double endY) {
+		x = endX;
+		y = endY;
+		add(PathSegment.Type.CUBIC, x1, y1, x2, y2, x, y);
+		controlX = x2;
+		controlY = y2;
+	}
+
+	/**
+	 * Adds a {@link PathSegment.Type#QUADRATIC}.
+	 * @param x1 The x-coordinate of the control point.
+	 * @param y1 The y-coordinate of the control point.
+	 * @param endX The x-coordinate of the end point.
+	 * @param endY The y-coordinate of the end point.
+	 */
+	private void quadratic(double x1, double y1, double endX, double endY) {
+		x = endX;
+		y = endY;
+		add(PathSegment.Type.QUADRATIC, x1, y1, x, y);
+		controlX = x1;
+		controlY = y1;
+	}
+
+	/**
+	 * Adds a {@link PathSegment.Type#CLOSE}, returning to the start of the current subpath.
+	 */
+	private void close() {
+		x = startX;
+		y = startY;
+		add(PathSegment.Type.CLOSE);
+	}
+
+	/**
+	 * Adds a {@link PathSegment}.
+	 * @param type The {@link PathSegment.Type}.
+	 * @param values The values.
+	 */
+	private void add(PathSegment.Type type, double... values) {
+		segments.add(new PathSegment(type, values));
+		previous = type;
+	}
+}
@@ -0,0 +1,153 @@
+package com.mikebull94.stockpile.svg.path;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Represents a single segment of a path in absolute coordinates, as produced by the {@link PathParser}. Smooth curves
+ * are represented by their explicit control points and horizontal and vertical lines by lines.
+ */
+public final class PathSegment {
+
+	/**
+	 * The type of a {@link PathSegment}.
+	 */
+	public enum Type {
+
+		/**
+		 * Starts a new subpath at the end point.
+		 */
+		MOVE(2),
+
+		/**
+		 * Draws a straight line to the end point.
+		 */
+		LINE(2),
+
+		/**
+		 * Draws a cubic Bezier curve with two control points.
+		 */
+		CUBIC(6),
+
+		/**
+		 * Draws a quadratic Bezier curve with one control point.
+		 */
+		QUADRATIC(4),
+
+		/**
+		 * Draws an elliptical arc, with the radii, the x-axis rotation and the two flags before the end point.
+		 */
+		ARC(7),
+
+		/**
+		 * Closes the current subpath, returning to its start.
+		 */
+		CLOSE(0);
+
+		/**
+		 * The number of values of a {@link PathSegment} of this type.
+		 */
+		private final int values;
+
+		/**
+		 * Creates a new {@link Type}.
+		 * @param values The number of values of a {@link PathSegment} of this type.
+		 */
+		Type(int values) {
+			this.values = values;
+		}
+
+		/**
+		 * Gets the number of values of a {@link PathSegment} of this type.
+		 * @return The number of values.
+		 */
+		public int getValues() {
+			return values;
+		}
+	}
+
+	/**
+	 * The {@link Type} of this segment.
+	 */
+	private final Type type;
+
+	/**
+	 * The values of this segment, ending with the end point for every {@link Type} other than {@link Type#CLOSE}.
+	 */
+	private final double[] values;
+
+	/**
+	 * Creates a new {@link PathSegment}.
+	 * @param type The {@link Type}.
+	 * @param values The values, which must number {@link Type#getValues()}.
+	 * @throws NullPointerException If {@code type} is {@code null}.
+	 * @throws IllegalArgumentException If the wrong number of values are given.
+	 */
+	public PathSegment(Type type, double... values) {
+		this.type = Preconditions.checkNotNull(type);
+		Preconditions.checkArgument(values.length == type.values, "%s takes %s values.", type, type.values);
+		this.values = values.clone();
+	}
+
+	/**
+	 * Gets the {@link Type} of this segment.
+	 * @return The {@link Type}.
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Gets a value of this segment.
+	 * @param index The index of the value.
+	 * @return The value.
+	 */
+	public double get(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Gets the x-coordinate of the end point, which is not defined for a {@link Type#CLOSE}.
+	 * @return The x-coordinate.
+	 */
+	public double getX() {
+		return values[values.length - 2];
+	}
+
+	/**
+	 * Gets the y-coordinate of the end point, which is not defined for a {@link Type#CLOSE}.
+	 * @return The y-coordinate.
+	 */
+	public double getY() {
+		return values[values.length - 1];
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+
+		PathSegment that = (PathSegment) o;
+		return type == that.type && Arrays.equals(values, that.values);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * type.hashCode() + Arrays.hashCode(values);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("type", type)
+			.add("values", Arrays.toString(values))
+			.toString();
+	}
+}
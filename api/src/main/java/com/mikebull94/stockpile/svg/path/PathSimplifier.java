@@ -0,0 +1,386 @@
+package com.mikebull94.stockpile.svg.path;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Simplifies the geometry of a path within a tolerance in user units.
+ * <p>
+ * Curves whose control points lie within half of the tolerance of their chord are replaced by lines, consecutive
+ * cubic curves that join smoothly are joined into one where a single curve stays within the tolerance of both, and
+ * runs of lines are reduced by the Ramer-Douglas-Peucker algorithm within the other half of the tolerance, which
+ * also merges collinear lines. No point of the simplified outline is therefore further than the tolerance from the
+ * original outline.
+ */
+public final class PathSimplifier {
+
+	/**
+	 * The parameters at which a joined curve is compared to the curves it replaces.
+	 */
+	private static final double[] SAMPLES = { 0.125, 0.25, 0.375, 0.5, 0.625, 0.75, 0.875 };
+
+	/**
+	 * The maximum sine of the angle between the tangents of two curves for them to be considered smoothly joined.
+	 */
+	private static final double SMOOTH_JOIN = 1e-3;
+
+	/**
+	 * The tolerance in user units.
+	 */
+	private final double tolerance;
+
+	/**
+	 * Creates a new {@link PathSimplifier}.
+	 * @param tolerance The tolerance in user units.
+	 * @throws IllegalArgumentException If {@code tolerance} is negative or not finite.
+	 */
+	public PathSimplifier(double tolerance) {
+		Preconditions.checkArgument(tolerance >= 0 && !Double.isInfinite(tolerance), "Tolerance must be non-negative.");
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Simplifies a path.
+	 * @param segments The {@link PathSegment}s of the path, as produced by the {@link PathParser}.
+	 * @return An {@link ImmutableList} of the simplified {@link PathSegment}s.
+	 */
+	public ImmutableList<PathSegment> simplify(List<PathSegment> segments) {
+		List<PathSegment> simplified = straighten(segments);
+		simplified = joinCurves(simplified);
+		simplified = reduceLines(simplified);
+		return ImmutableList.copyOf(simplified);
+	}
+
+	/**
+	 * Replaces curves that are within half of the tolerance of their chord with lines.
+	 * @param segments The {@link PathSegment}s.
+	 * @return The straightened {@link PathSegment}s.
+	 */
+	private List<PathSegment> straighten(List<PathSegment> segments) {
+		List<PathSegment> straightened = new ArrayList<>(segments.size());
+		double limit = tolerance / 2;
+		double x = 0, y = 0, startX = 0, startY = 0;
+
+		for (PathSegment segment : segments) {
+			PathSegment.Type type = segment.getType();
+			boolean straight;
+
+			switch (type) {
+				case CUBIC:
+					straight = distance(segment.get(0), segment.get(1), x, y, segment.getX(), segment.getY()) <= limit
+						&& distance(segment.get(2), segment.get(3), x, y, segment.getX(), segment.getY()) <= limit;
+					break;
+				case QUADRATIC:
+					straight = distance(segment.get(0), segment.get(1), x, y, segment.getX(), segment.getY()) <= limit;
+					break;
+				case ARC:
+					straight = segment.get(0) == 0 || segment.get(1) == 0;
+					break;
+				default:
+					straight = false;
+					break;
+			}
+
+			straightened.add(straight ? new PathSegment(PathSegment.Type.LINE, segment.getX(), segment.getY()) : segment);
+
+			if (type == PathSegment.Type.CLOSE) {
+				x = startX;
+				y = startY;
+			} else {
+				x = segment.getX();
+				y = segment.getY();
+
+				if (type == PathSegment.Type.MOVE) {
+					startX = x;
+					startY = y;
+				}
+			}
+		}
+
+		return straightened;
+	}
+
+	/**
+	 * Joins consecutive cubic curves that join smoothly, where a single curve stays within the tolerance of them.
+	 * @param segments The {@link PathSegment}s.
+	 * @return The joined {@link PathSegment}s.
+	 */
+	private List<PathSegment> joinCurves(List<PathSegment> segments) {
+		List<PathSegment> joined = new ArrayList<>(segments.size());
+		double x = 0, y = 0, startX = 0, startY = 0;
+		double joinedX = 0, joinedY = 0;
+		double error = 0;
+
+		for (PathSegment segment : segments) {
+			PathSegment.Type type = segment.getType();
+			int last = joined.size() - 1;
+
+			if (type == PathSegment.Type.CUBIC && last >= 0 && joined.get(last).getType() == PathSegment.Type.CUBIC) {
+				PathSegment previous = joined.get(last);
+				double[] candidate = join(joinedX, joinedY, previous, segment);
+
+				if (candidate != null) {
+					double deviation = deviation(joinedX, joinedY, previous, segment, candidate);
+
+					if (error + deviation <= tolerance) {
+						joined.set(last, new PathSegment(PathSegment.Type.CUBIC, candidate[2], candidate[3], candidate[4],
+							candidate[5], candidate[6], candidate[7]));
+						error += deviation;
+						x = segment.getX();
+						y = segment.getY();
+						continue;
+					}
+				}
+			}
+
+			joined.add(segment);
+			joinedX = x;
+			joinedY = y;
+			error = 0;
+
+			if (type == PathSegment.Type.CLOSE) {
+				x = startX;
+				y = startY;
+			} else {
+				x = segment.getX();
+				y = segment.getY();
+
+				if (type == PathSegment.Type.MOVE) {
+					startX = x;
+					startY = y;
+				}
+			}
+		}
+
+		return joined;
+	}
+
+	/**
+	 * Finds the single cubic curve that two smoothly joined cubic curves would be split from.
+	 * @param x0 The x-coordinate of the start of the first curve.
+	 * @param y0 The y-coordinate of the start of the first curve.
+	 * @param first The first curve.
+	 * @param second The second curve, which starts at the end of the first.
+	 * @return The start, control and end points of the joined curve, followed by the parameter at which it meets the
+	 * end of the first curve, or {@code null} if the curves do not join smoothly.
+	 */
+	private static double[] join(double x0, double y0, PathSegment first, PathSegment second) {
+		double inX = first.getX() - first.get(2);
+		double inY = first.getY() - first.get(3);
+		double outX = second.get(0) - first.getX();
+		double outY = second.get(1) - first.getY();
+		double in = length(inX, inY);
+		double out = length(outX, outY);
+
+		if (in == 0 || out == 0) {
+			return null;
+		}
+
+		double sine = (inX * outY - inY * outX) / (in * out);
+		double cosine = (inX * outX + inY * outY) / (in * out);
+
+		if (Math.abs(sine) > SMOOTH_JOIN || cosine <= 0) {
+			return null;
+		}
+
+		double t = in / (in + out);
+		return new double[] {
+			x0, y0,
+			x0 + (first.get(0) - x0) / t, y0 + (first.get(1) - y0) / t,
+			second.getX() + (second.get(2) - second.getX()) / (1 - t), second.getY() + (second.get(3) - second.getY()) / (1 - t),
+			second.getX(), second.getY(),
+			t
+		};
+	}
+
+	/**
+	 * Measures how far a joined curve strays from the two curves it replaces, by sampling corresponding points.
+	 * @param x0 The x-coordinate of the start of the first curve.
+	 * @param y0 The y-coordinate of the start of the first curve.
+	 * @param first The first curve.
+	 * @param second The second curve.
+	 * @param joined The joined curve, as returned by {@link #join(double, double, PathSegment, PathSegment)}.
+	 * @return The largest distance between corresponding points.
+	 */
+	private static double deviation(double x0, double y0, PathSegment first, PathSegment second, double[] joined) {
+		double t = joined[8];
+		double deviation = 0;
+
+		for (double sample : SAMPLES) {
+			double u = t * sample;
+			double v = t + (1 - t) * sample;
+
+			deviation = Math.max(deviation, length(
+				cubic(joined[0], joined[2], joined[4], joined[6], u) - cubic(x0, first.get(0), first.get(2), first.getX(), sample),
+				cubic(joined[1], joined[3], joined[5], joined[7], u) - cubic(y0, first.get(1), first.get(3), first.getY(), sample)));
+
+			deviation = Math.max(deviation, length(
+				cubic(joined[0], joined[2], joined[4], joined[6], v) - cubic(first.getX(), second.get(0), second.get(2), second.getX(), sample),
+				cubic(joined[1], joined[3], joined[5], joined[7], v) - cubic(first.getY(), second.get(1), second.get(3), second.getY(), sample)));
+		}
+
+		return deviation;
+	}
+
+	/**
+	 * Evaluates one coordinate of a cubic Bezier curve.
+	 * @param p0 The coordinate of the start point.
+	 * @param p1 The coordinate of the first control point.
+	 * @param p2 The coordinate of the second control point.
+	 * @param p3 The coordinate of the end point.
+	 * @param t The parameter.
+	 * @return The coordinate.
+	 */
+	private static double cubic(double p0, double p1, double p2, double p3, double t) {
+		double s = 1 - t;
+		return s * s * s * p0 + 3 * s * s * t * p1 + 3 * s * t * t * p2 + t * t * t * p3;
+	}
+
+	/**
+	 * Reduces runs of lines with the Ramer-Douglas-Peucker algorithm within half of the tolerance.
+	 * @param segments The {@link PathSegment}s.
+	 * @return The reduced {@link PathSegment}s.
+	 */
+	private List<PathSegment> reduceLines(List<PathSegment> segments) {
+		List<PathSegment> reduced = new ArrayList<>(segments.size());
+		List<PathSegment> run = new ArrayList<>();
+		double runX = 0, runY = 0, startX = 0, startY = 0;
+		double x = 0, y = 0;
+
+		for (PathSegment segment : segments) {
+			PathSegment.Type type = segment.getType();
+
+			if (type == PathSegment.Type.LINE) {
+				if (run.isEmpty()) {
+					runX = x;
+					runY = y;
+				}
+
+				run.add(segment);
+				x = segment.getX();
+				y = segment.getY();
+				continue;
+			}
+
+			boolean closing = type == PathSegment.Type.CLOSE;
+			reduce(runX, runY, run, closing, startX, startY, reduced);
+			run.clear();
+			reduced.add(segment);
+
+			if (closing) {
+				x = startX;
+				y = startY;
+			} else {
+				x = segment.getX();
+				y = segment.getY();
+
+				if (type == PathSegment.Type.MOVE) {
+					startX = x;
+					startY = y;
+				}
+			}
+		}
+
+		reduce(runX, runY, run, false, startX, startY, reduced);
+		return reduced;
+	}
+
+	/**
+	 * Reduces a run of lines with the Ramer-Douglas-Peucker algorithm.
+	 * @param x0 The x-coordinate of the start of the run.
+	 * @param y0 The y-coordinate of the start of the run.
+	 * @param run The lines.
+	 * @param closing A flag indicating whether the run is followed by a {@link PathSegment.Type#CLOSE}.
+	 * @param startX The x-coordinate of the start of the subpath.
+	 * @param startY The y-coordinate of the start of the subpath.
+	 * @param reduced The {@link List} to add the kept lines to.
+	 */
+	private void reduce(double x0, double y0, List<PathSegment> run, boolean closing, double startX, double startY, List<PathSegment> reduced) {
+		if (run.isEmpty()) {
+			return;
+		}
+
+		double limit = tolerance / 2;
+		int count = run.size();
+		boolean[] kept = new boolean[count];
+		kept[count - 1] = true;
+
+		Deque<int[]> ranges = new ArrayDeque<>();
+		ranges.push(new int[] { -1, count - 1 });
+
+		while (!ranges.isEmpty()) {
+			int[] range = ranges.pop();
+			int from = range[0];
+			int to = range[1];
+			double fromX = from < 0 ? x0 : run.get(from).getX();
+			double fromY = from < 0 ? y0 : run.get(from).getY();
+			PathSegment end = run.get(to);
+			double furthest = -1;
+			int index = -1;
+
+			for (int point = from + 1; point < to; point++) {
+				PathSegment segment = run.get(point);
+				double distance = distance(segment.getX(), segment.getY(), fromX, fromY, end.getX(), end.getY());
+
+				if (distance > furthest) {
+					furthest = distance;
+					index = point;
+				}
+			}
+
+			if (index >= 0 && furthest > limit) {
+				kept[index] = true;
+				ranges.push(new int[] { from, index });
+				ranges.push(new int[] { index, to });
+			}
+		}
+
+		PathSegment last = run.get(count - 1);
+		boolean redundant = closing && length(last.getX() - startX, last.getY() - startY) <= limit;
+
+		for (int index = 0; index < count; index++) {
+			if (kept[index] && !(redundant && index == count - 1)) {
+				reduced.add(run.get(index));
+			}
+		}
+	}
+
+	/**
+	 * Measures the length of a vector, without the overflow protection of {@link Math#hypot(double, double)} that
+	 * coordinates do not need.
+	 * @param dx The x-component.
+	 * @param dy The y-component.
+	 * @return The length.
+	 */
+	private static double length(double dx, double dy) {
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/**
+	 * Measures the distance from a point to a line segment.
+	 * @param px The x-coordinate of the point.
+	 * @param py The y-coordinate of the point.
+	 * @param ax The x-coordinate of the start of the line segment.
+	 * @param ay The y-coordinate of the start of the line segment.
+	 * @param bx The x-coordinate of the end of the line segment.
+	 * @param by The y-coordinate of the end of the line segment.
+	 * @return The distance.
+	 */
+	private static double distance(double px, double py, double ax, double ay, double bx, double by) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double length = dx * dx + dy * dy;
+
+		if (length == 0) {
+			return length(px - ax, py - ay);
+		}
+
+		double t = Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / length));
+		return length(px - ax - t * dx, py - ay - t * dy);
+	}
+}
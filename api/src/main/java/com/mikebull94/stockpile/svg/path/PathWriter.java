@@ -0,0 +1,118 @@
+package com.mikebull94.stockpile.svg.path;
+
+/**
+ * Writes path data, only separating numbers where the next number could not otherwise be told apart from the
+ * previous one.
+ */
+final class PathWriter {
+
+	/**
+	 * The {@link StringBuilder} the path data is written to.
+	 */
+	private final StringBuilder out;
+
+	/**
+	 * A flag indicating whether the last thing written was a number.
+	 */
+	private boolean lastWasNumber;
+
+	/**
+	 * A flag indicating whether the last number written has a decimal point and no exponent.
+	 */
+	private boolean lastHasPoint;
+
+	/**
+	 * Creates a new {@link PathWriter}.
+	 * @param capacity The initial capacity.
+	 */
+	PathWriter(int capacity) {
+		this.out = new StringBuilder(capacity);
+	}
+
+	/**
+	 * Writes a command.
+	 * @param command The command.
+	 */
+	void command(char command) {
+		out.append(command);
+		lastWasNumber = false;
+	}
+
+	/**
+	 * Writes a number that is already in its compacted form.
+	 * @param number The number.
+	 */
+	void number(CharSequence number) {
+		char first = number.charAt(0);
+
+		if (lastWasNumber && first != '-' && (first != '.' || !lastHasPoint)) {
+			out.append(' ');
+		}
+
+		out.append(number);
+		lastWasNumber = true;
+		lastHasPoint = false;
+
+		for (int index = 0; index < number.length(); index++) {
+			char character = number.charAt(index);
+
+			if (character == 'e') {
+				lastHasPoint = false;
+				break;
+			}
+
+			lastHasPoint |= character == '.';
+		}
+	}
+
+	/**
+	 * A flag indicating whether the last thing written was a number.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	boolean lastWasNumber() {
+		return lastWasNumber;
+	}
+
+	/**
+	 * Clears this {@link PathWriter} and makes it separate the next number as another one would, so that the length
+	 * of alternative path data can be measured before it is written.
+	 * @param writer The other {@link PathWriter}.
+	 */
+	void reset(PathWriter writer) {
+		out.setLength(0);
+		lastWasNumber = writer.lastWasNumber;
+		lastHasPoint = writer.lastHasPoint;
+	}
+
+	/**
+	 * Appends everything written to another {@link PathWriter} since it was {@link #reset(PathWriter)} to this one.
+	 * @param fork The {@link PathWriter}.
+	 */
+	void append(PathWriter fork) {
+		out.append(fork.out);
+		lastWasNumber = fork.lastWasNumber;
+		lastHasPoint = fork.lastHasPoint;
+	}
+
+	/**
+	 * Gets a character of the path data written so far.
+	 * @param index The index of the character.
+	 * @return The character.
+	 */
+	char charAt(int index) {
+		return out.charAt(index);
+	}
+
+	/**
+	 * Gets the length of the path data written so far.
+	 * @return The length.
+	 */
+	int length() {
+		return out.length();
+	}
+
+	@Override
+	public String toString() {
+		return out.toString();
+	}
+}
@@ -0,0 +1,5 @@
+/**
+ * Contains classes related to the path data of the {@code d} attribute of an SVG {@code <path>}.
+ * @see <a href="https://www.w3.org/TR/SVG/paths.html#PathData">Path data</a>
+ */
+package com.mikebull94.stockpile.svg.path;
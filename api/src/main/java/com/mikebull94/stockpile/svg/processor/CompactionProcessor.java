@@ -0,0 +1,296 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.svg.SvgColors;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+import com.mikebull94.stockpile.svg.SvgReferences;
+import com.mikebull94.stockpile.svg.path.PathData;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link XmlDocumentProcessor} that shortens the values of SVG attributes and removes the attributes whose value is
+ * the default.
+ * <p>
+ * Numbers in lengths, number lists and transforms are compacted by {@link SvgNumbers}, path data by {@link PathData}
+ * and colours by {@link SvgColors}. An attribute is then removed if it equals the default for its element, which is
+ * looked up in a table built once per element, or if it is an inherited property that equals the value the element
+ * would inherit anyway.
+ * <p>
+ * Inherited properties are only removed where the inherited value is known: not in a document with a
+ * {@code <style>} element, not below an element with a {@code style} attribute, and not inside content that is
+ * rendered where it is referenced, such as a {@code <symbol>} or a {@code <clipPath>}. An {@code <svg>} or
+ * {@code <g>} passes nothing down, as the {@link SvgTagProcessor} and {@link StartElementProcessor} drop its
+ * attributes when the document is stockpiled.
+ */
+public final class CompactionProcessor implements XmlDocumentProcessor {
+
+	/**
+	 * Used to create the compacted {@link Attribute}s.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The attributes whose value is a number, a length or a list of them.
+	 */
+	private static final ImmutableSet<String> NUMERIC_ATTRIBUTES = ImmutableSet.of(
+		"x", "y", "x1", "y1", "x2", "y2", "cx", "cy", "r", "rx", "ry", "fx", "fy", "fr", "dx", "dy", "width", "height",
+		"offset", "opacity", "fill-opacity", "stroke-opacity", "stop-opacity", "flood-opacity", "stroke-width",
+		"stroke-miterlimit", "stroke-dashoffset", "stroke-dasharray", "font-size", "letter-spacing", "points",
+		"viewBox", "refX", "refY", "markerWidth", "markerHeight", "stdDeviation", "transform", "gradientTransform",
+		"patternTransform"
+	);
+
+	/**
+	 * The attributes whose value is a colour.
+	 */
+	private static final ImmutableSet<String> COLOUR_ATTRIBUTES = ImmutableSet.of(
+		"fill", "stroke", "stop-color", "flood-color", "lighting-color", "color"
+	);
+
+	/**
+	 * The attribute containing path data.
+	 */
+	private static final String PATH_DATA_ATTRIBUTE = "d";
+
+	/**
+	 * The attribute containing inline style declarations.
+	 */
+	private static final String STYLE_ATTRIBUTE = "style";
+
+	/**
+	 * The initial values of the inherited properties, in their compacted form.
+	 */
+	private static final ImmutableMap<String, String> INHERITED = ImmutableMap.<String, String>builder()
+		.put("fill", "#000")
+		.put("fill-opacity", "1")
+		.put("fill-rule", "nonzero")
+		.put("clip-rule", "nonzero")
+		.put("stroke", "none")
+		.put("stroke-opacity", "1")
+		.put("stroke-width", "1")
+		.put("stroke-linecap", "butt")
+		.put("stroke-linejoin", "miter")
+		.put("stroke-miterlimit", "4")
+		.put("stroke-dasharray", "none")
+		.put("stroke-dashoffset", "0")
+		.put("visibility", "visible")
+		.put("color-interpolation-filters", "linearRGB")
+		.build();
+
+	/**
+	 * The defaults of the attributes that apply to every element, in their compacted form.
+	 */
+	private static final ImmutableMap<String, String> COMMON_DEFAULTS = ImmutableMap.of("opacity", "1");
+
+	/**
+	 * The defaults of the non-inherited attributes of each element, in their compacted form.
+	 */
+	private static final ImmutableMap<String, ImmutableMap<String, String>> DEFAULTS = ImmutableMap.<String, ImmutableMap<String, String>>builder()
+		.put("svg", defaults("x", "0", "y", "0", "preserveAspectRatio", "xMidYMid meet"))
+		.put("rect", defaults("x", "0", "y", "0"))
+		.put("circle", defaults("cx", "0", "cy", "0"))
+		.put("ellipse", defaults("cx", "0", "cy", "0"))
+		.put("line", defaults("x1", "0", "y1", "0", "x2", "0", "y2", "0"))
+		.put("image", defaults("x", "0", "y", "0", "preserveAspectRatio", "xMidYMid meet"))
+		.put("use", defaults("x", "0", "y", "0"))
+		.put("foreignObject", defaults("x", "0", "y", "0"))
+		.put("linearGradient", defaults("x1", "0", "y1", "0", "x2", "100%", "y2", "0",
+			"gradientUnits", "objectBoundingBox", "spreadMethod", "pad"))
+		.put("radialGradient", defaults("cx", "50%", "cy", "50%", "r", "50%", "fr", "0",
+			"gradientUnits", "objectBoundingBox", "spreadMethod", "pad"))
+		.put("stop", defaults("offset", "0", "stop-color", "#000", "stop-opacity", "1"))
+		.put("pattern", defaults("x", "0", "y", "0", "patternUnits", "objectBoundingBox",
+			"patternContentUnits", "userSpaceOnUse", "preserveAspectRatio", "xMidYMid meet"))
+		.put("clipPath", defaults("clipPathUnits", "userSpaceOnUse"))
+		.put("mask", defaults("maskUnits", "objectBoundingBox", "maskContentUnits", "userSpaceOnUse"))
+		.put("marker", defaults("refX", "0", "refY", "0", "markerUnits", "strokeWidth", "markerWidth", "3",
+			"markerHeight", "3", "orient", "0", "preserveAspectRatio", "xMidYMid meet"))
+		.put("feFlood", defaults("flood-color", "#000", "flood-opacity", "1"))
+		.build();
+
+	/**
+	 * The elements whose content is rendered where it is referenced, and so inherits from the referencing element.
+	 */
+	private static final ImmutableSet<String> REFERENCED_CONTENT = ImmutableSet.of(
+		"defs", "symbol", "clipPath", "mask", "pattern", "marker", "linearGradient", "radialGradient", "filter"
+	);
+
+	/**
+	 * The {@code <style>} tag.
+	 */
+	private static final QName STYLE_TAG = new QName(SvgDocument.NAMESPACE_URI, "style");
+
+	/**
+	 * The elements whose attributes are dropped when the document is stockpiled, so pass nothing down.
+	 */
+	private static final ImmutableSet<QName> UNWRAPPED = ImmutableSet.of(SvgDocument.SVG_TAG, SvgDocument.GROUP_TAG);
+
+	/**
+	 * Marks that the inherited values below an element are not known.
+	 */
+	private static final Map<String, String> UNKNOWN = ImmutableMap.of();
+
+	/**
+	 * Creates the table of defaults for an element, including the {@link #COMMON_DEFAULTS}.
+	 * @param entries Alternating attribute names and default values.
+	 * @return An {@link ImmutableMap} of attribute names to default values.
+	 */
+	private static ImmutableMap<String, String> defaults(String... entries) {
+		ImmutableMap.Builder<String, String> defaults = ImmutableMap.builder();
+		defaults.putAll(COMMON_DEFAULTS);
+
+		for (int index = 0; index < entries.length; index += 2) {
+			defaults.put(entries[index], entries[index + 1]);
+		}
+
+		return defaults.build();
+	}
+
+	/**
+	 * The maximum number of fraction digits to keep, or {@link SvgNumbers#LOSSLESS}.
+	 */
+	private final int precision;
+
+	/**
+	 * Creates a new {@link CompactionProcessor} that compacts numbers without rounding them.
+	 */
+	public CompactionProcessor() {
+		this(SvgNumbers.LOSSLESS);
+	}
+
+	/**
+	 * Creates a new {@link CompactionProcessor}.
+	 * @param precision The maximum number of fraction digits to keep, or {@link SvgNumbers#LOSSLESS}.
+	 * @throws IllegalArgumentException If {@code precision} is less than {@link SvgNumbers#LOSSLESS}.
+	 */
+	public CompactionProcessor(int precision) {
+		Preconditions.checkArgument(precision >= SvgNumbers.LOSSLESS, "Precision must be non-negative or LOSSLESS.");
+		this.precision = precision;
+	}
+
+	/**
+	 * Compacts the value of an attribute.
+	 * @param name The local name of the attribute.
+	 * @param value The value.
+	 * @return The compacted value.
+	 */
+	private String compact(String name, String value) {
+		if (COLOUR_ATTRIBUTES.contains(name)) {
+			return SvgColors.compact(value);
+		} else if (NUMERIC_ATTRIBUTES.contains(name)) {
+			return SvgNumbers.compact(value.trim(), precision);
+		} else if (name.equals(PATH_DATA_ATTRIBUTE)) {
+			return PathData.compact(value, precision);
+		}
+
+		return value;
+	}
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> document) {
+		boolean styled = document.stream().anyMatch(event -> XmlEvents.isStartElement(event, STYLE_TAG));
+		Deque<Map<String, String>> inherited = new ArrayDeque<>();
+		inherited.push(styled ? UNKNOWN : INHERITED);
+
+		ImmutableList.Builder<XMLEvent> processed = ImmutableList.builder();
+
+		for (XMLEvent event : document) {
+			if (event.isStartElement()) {
+				StartElement element = event.asStartElement();
+
+				if (element.getName().getNamespaceURI().equals(SvgDocument.NAMESPACE_URI)) {
+					processed.add(compact(element, inherited));
+				} else {
+					inherited.push(UNKNOWN);
+					processed.add(event);
+				}
+			} else {
+				if (event.isEndElement()) {
+					inherited.pop();
+				}
+
+				processed.add(event);
+			}
+		}
+
+		return processed.build();
+	}
+
+	/**
+	 * Compacts the {@link Attribute}s of a {@link StartElement} and pushes the values its children inherit.
+	 * @param element The {@link StartElement}.
+	 * @param inherited The values inherited by each of the open elements, innermost first.
+	 * @return The compacted {@link StartElement}.
+	 */
+	private StartElement compact(StartElement element, Deque<Map<String, String>> inherited) {
+		String name = element.getName().getLocalPart();
+		Map<String, String> parent = inherited.peek();
+		ImmutableList<Attribute> attributes = XmlEvents.attributes(element);
+		boolean referencing = attributes.stream().anyMatch(attribute -> SvgReferences.isHref(attribute.getName()));
+		boolean styled = attributes.stream().anyMatch(attribute -> attribute.getName().getLocalPart().equals(STYLE_ATTRIBUTE));
+		ImmutableMap<String, String> defaults = referencing ? ImmutableMap.of() : DEFAULTS.getOrDefault(name, COMMON_DEFAULTS);
+
+		List<Attribute> compacted = new ArrayList<>(attributes.size());
+		Map<String, String> inheritedByChildren = parent;
+		boolean unwrapped = UNWRAPPED.contains(element.getName());
+		boolean changed = false;
+
+		for (Attribute attribute : attributes) {
+			QName attributeName = attribute.getName();
+
+			if (!attributeName.getNamespaceURI().isEmpty()) {
+				compacted.add(attribute);
+				continue;
+			}
+
+			String key = attributeName.getLocalPart();
+			String value = compact(key, attribute.getValue());
+
+			if (value.equals(defaults.get(key)) || !styled && INHERITED.containsKey(key) && value.equals(parent.get(key))) {
+				changed = true;
+				continue;
+			}
+
+			if (!unwrapped && parent != UNKNOWN && INHERITED.containsKey(key)) {
+				if (inheritedByChildren == parent) {
+					inheritedByChildren = new HashMap<>(parent);
+				}
+
+				inheritedByChildren.put(key, value);
+			}
+
+			if (value.equals(attribute.getValue())) {
+				compacted.add(attribute);
+			} else {
+				compacted.add(events.createAttribute(attributeName, value));
+				changed = true;
+			}
+		}
+
+		inherited.push(styled || REFERENCED_CONTENT.contains(name) ? UNKNOWN : inheritedByChildren);
+		return changed ? XmlEvents.withAttributes(element, compacted) : element;
+	}
+
+	@Override
+	public String describeOptions() {
+		return "precision=" + precision;
+	}
+}
@@ -0,0 +1,485 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+import com.mikebull94.stockpile.svg.SvgReferences;
+import com.mikebull94.stockpile.svg.path.PathParser;
+import com.mikebull94.stockpile.svg.path.PathSegment;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An {@link XmlDocumentProcessor} that removes elements, along with their children, that cannot be seen.
+ * <p>
+ * An element is removed if it has {@code display="none"} or {@code opacity="0"}, or is clipped or masked by a
+ * {@code <clipPath>} or {@code <mask>} with no content. A shape is also removed if it has no geometry, such as a
+ * {@code <path>} without any drawing commands or a {@code <rect>} without width, or if it is neither filled nor
+ * stroked. A {@code <g>} whose children have all been removed is then removed too.
+ * <p>
+ * Nothing is removed from a document with a {@code <style>} element, which may override any of these attributes, nor
+ * from the content of elements that are only rendered where they are referenced, such as {@code <defs>}. An element is
+ * kept if it or any of its children has an {@code id} that the document references, which includes the target of an
+ * animation's {@code href}, or if it contains an animation, such as a {@code <set>} that changes its
+ * {@code display}. A shape is also kept if it has children or may have markers or a filter. The number of elements
+ * removed from each document is counted by its id.
+ * <p>
+ * This processor does not stream: it needs the whole document, as references may come after the elements they
+ * reference, and it scans the subtree of each element it visits, taking time proportional to the size of the document
+ * times its depth.
+ */
+public final class DeadElementProcessor implements XmlDocumentProcessor {
+
+	/**
+	 * The {@code <style>} tag.
+	 */
+	private static final QName STYLE_TAG = new QName(SvgDocument.NAMESPACE_URI, "style");
+
+	/**
+	 * The {@code <g>} tag.
+	 */
+	private static final QName GROUP_TAG = new QName(SvgDocument.NAMESPACE_URI, "g");
+
+	/**
+	 * The {@code id} attribute.
+	 */
+	private static final QName ID = new QName("id");
+
+	/**
+	 * The {@code display} attribute.
+	 */
+	private static final String DISPLAY_ATTRIBUTE = "display";
+
+	/**
+	 * The value of the {@code display} attribute that disables rendering.
+	 */
+	private static final String NO_DISPLAY = "none";
+
+	/**
+	 * The {@code opacity} attribute.
+	 */
+	private static final String OPACITY_ATTRIBUTE = "opacity";
+
+	/**
+	 * The attributes that reference a {@code <clipPath>} or {@code <mask>}.
+	 */
+	private static final ImmutableSet<String> CONTAINER_REFERENCE_ATTRIBUTES = ImmutableSet.of("clip-path", "mask");
+
+	/**
+	 * The local names of the elements that clip or mask other elements to their content.
+	 */
+	private static final ImmutableSet<String> CONTAINERS = ImmutableSet.of("clipPath", "mask");
+
+	/**
+	 * The local names of the elements that are never rendered where they are, only where they are referenced.
+	 */
+	private static final ImmutableSet<String> NEVER_RENDERED = ImmutableSet.of(
+		"defs", "symbol", "clipPath", "mask", "pattern", "marker", "linearGradient", "radialGradient", "filter"
+	);
+
+	/**
+	 * The local names of the animation elements, which may make an element visible or change its geometry and paint.
+	 */
+	private static final ImmutableSet<String> ANIMATIONS = ImmutableSet.of(
+		"animate", "set", "animateTransform", "animateMotion"
+	);
+
+	/**
+	 * The local names of the shapes, which are only rendered if they have geometry and paint.
+	 */
+	private static final ImmutableSet<String> SHAPES = ImmutableSet.of(
+		"path", "rect", "circle", "ellipse", "polyline", "polygon", "line"
+	);
+
+	/**
+	 * An element that has been written and not yet ended.
+	 */
+	private static final class Open {
+
+		/**
+		 * The index of the element's {@link StartElement} in the output.
+		 */
+		private final int start;
+
+		/**
+		 * A flag indicating whether the element may be removed if it has no content.
+		 */
+		private final boolean removable;
+
+		/**
+		 * The {@link InheritedPaint} of the element.
+		 */
+		private final InheritedPaint paint;
+
+		/**
+		 * A flag indicating whether any content of the element has been kept.
+		 */
+		private boolean content;
+
+		/**
+		 * Creates a new {@link Open} element.
+		 * @param start The index of the element's {@link StartElement} in the output.
+		 * @param removable A flag indicating whether the element may be removed if it has no content.
+		 * @param paint The {@link InheritedPaint} of the element.
+		 */
+		Open(int start, boolean removable, InheritedPaint paint) {
+			this.start = start;
+			this.removable = removable;
+			this.paint = paint;
+		}
+	}
+
+	/**
+	 * Finds the index of the {@link javax.xml.stream.events.EndElement} that ends an element.
+	 * @param document The {@link XMLEvent}s of the document.
+	 * @param start The index of the element's {@link StartElement}.
+	 * @return The index of its end.
+	 */
+	private static int end(List<XMLEvent> document, int start) {
+		int depth = 0;
+
+		for (int index = start; index < document.size(); index++) {
+			XMLEvent event = document.get(index);
+
+			if (event.isStartElement()) {
+				depth++;
+			} else if (event.isEndElement() && --depth == 0) {
+				return index;
+			}
+		}
+
+		throw new IllegalArgumentException("Unbalanced document.");
+	}
+
+	/**
+	 * Counts the elements between two indices.
+	 * @param document The {@link XMLEvent}s of the document.
+	 * @param start The first index, inclusive.
+	 * @param end The last index, inclusive.
+	 * @return The number of {@link StartElement}s.
+	 */
+	private static int elements(List<XMLEvent> document, int start, int end) {
+		int elements = 0;
+
+		for (int index = start; index <= end; index++) {
+			if (document.get(index).isStartElement()) {
+				elements++;
+			}
+		}
+
+		return elements;
+	}
+
+	/**
+	 * A flag indicating whether a value is a number that is zero or less.
+	 * @param value The value, or {@code null} if it is not set.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isNonPositive(String value) {
+		BigDecimal number = value == null ? null : SvgNumbers.parseDecimal(value.trim());
+		return number != null && number.signum() <= 0;
+	}
+
+	/**
+	 * A flag indicating whether a value is missing or blank.
+	 * @param value The value, or {@code null} if it is not set.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isBlank(String value) {
+		return value == null || value.trim().isEmpty();
+	}
+
+	/**
+	 * A flag indicating whether a shape has no geometry to render.
+	 * @param name The local name of the shape.
+	 * @param attributes The unqualified attributes of the shape.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean hasNoGeometry(String name, Map<String, String> attributes) {
+		switch (name) {
+			case "path":
+				return onlyMoves(attributes.get("d"));
+			case "rect":
+				return isNonPositive(attributes.get("width")) || isNonPositive(attributes.get("height"));
+			case "circle":
+				return isNonPositive(attributes.get("r"));
+			case "ellipse":
+				return isNonPositive(attributes.get("rx")) || isNonPositive(attributes.get("ry"));
+			case "polyline":
+			case "polygon":
+				return isBlank(attributes.get("points"));
+			default:
+				/* a line of no length may still be drawn as a dot by its line caps */
+				return false;
+		}
+	}
+
+	/**
+	 * A flag indicating whether path data draws nothing, as it is empty or only moves the current point.
+	 * @param data The path data, or {@code null} if it is not set.
+	 * @return {@code true} if so, {@code false} if it draws something or is malformed.
+	 */
+	private static boolean onlyMoves(String data) {
+		if (isBlank(data)) {
+			return true;
+		}
+
+		try {
+			return PathParser.parse(data).stream().allMatch(segment -> segment.getType() == PathSegment.Type.MOVE);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * The number of elements removed from each document, by the id of the document.
+	 */
+	private final ConcurrentMap<String, Integer> removed = new ConcurrentHashMap<>();
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> document) {
+		Preconditions.checkNotNull(id);
+
+		if (document.stream().anyMatch(event -> XmlEvents.isStartElement(event, STYLE_TAG))) {
+			return document;
+		}
+
+		Set<String> referenced = new HashSet<>();
+		Set<String> empty = new HashSet<>();
+		findReferences(document, referenced, empty);
+
+		List<XMLEvent> processed = new ArrayList<>(document.size());
+		Deque<Open> open = new ArrayDeque<>();
+		open.push(new Open(0, false, InheritedPaint.ROOT));
+		int count = 0;
+
+		for (int index = 0; index < document.size(); index++) {
+			XMLEvent event = document.get(index);
+			Open parent = open.peek();
+
+			if (event.isEndElement()) {
+				open.pop();
+
+				if (parent.removable && !parent.content) {
+					processed.subList(parent.start, processed.size()).clear();
+					count++;
+				} else {
+					processed.add(event);
+					open.peek().content = true;
+				}
+
+				continue;
+			} else if (!event.isStartElement()) {
+				processed.add(event);
+				parent.content |= event.isCharacters() && !event.asCharacters().isWhiteSpace();
+				continue;
+			}
+
+			StartElement element = event.asStartElement();
+			QName name = element.getName();
+			String localName = name.getLocalPart();
+			Map<String, String> attributes = XmlEvents.unqualifiedAttributes(element);
+
+			if (!name.getNamespaceURI().equals(SvgDocument.NAMESPACE_URI)) {
+				processed.add(event);
+				open.push(new Open(processed.size() - 1, false, InheritedPaint.UNKNOWN));
+				continue;
+			}
+
+			InheritedPaint paint = parent.paint.of(localName, attributes);
+
+			if (open.size() == 1) {
+				processed.add(event);
+				open.push(new Open(processed.size() - 1, false, paint));
+				continue;
+			}
+
+			int end = end(document, index);
+
+			if (NEVER_RENDERED.contains(localName)) {
+				processed.addAll(document.subList(index, end + 1));
+				parent.content = true;
+				index = end;
+			} else if (isInvisible(localName, attributes, paint, empty, document.subList(index + 1, end))
+				&& !hasReferencedId(document, index, end, referenced) && !isAnimated(document, index, end)) {
+				count += elements(document, index, end);
+				index = end;
+			} else {
+				processed.add(event);
+				boolean removable = name.equals(GROUP_TAG) && !hasReferencedId(document, index, index, referenced);
+				open.push(new Open(processed.size() - 1, removable, paint));
+			}
+		}
+
+		if (count > 0) {
+			removed.merge(id, count, Integer::sum);
+		}
+
+		return ImmutableList.copyOf(processed);
+	}
+
+	/**
+	 * Finds the ids referenced by a document, and the ids of its {@code <clipPath>} and {@code <mask>} elements that
+	 * have no content.
+	 * @param document The {@link XMLEvent}s of the document.
+	 * @param referenced The {@link Set} to add the referenced ids to.
+	 * @param empty The {@link Set} to add the ids of the empty elements to.
+	 */
+	private static void findReferences(List<XMLEvent> document, Set<String> referenced, Set<String> empty) {
+		for (int index = 0; index < document.size(); index++) {
+			XMLEvent event = document.get(index);
+
+			if (!event.isStartElement()) {
+				continue;
+			}
+
+			StartElement element = event.asStartElement();
+
+			for (Attribute attribute : XmlEvents.attributes(element)) {
+				if (!attribute.getName().equals(ID)) {
+					SvgReferences.forEachReference(attribute.getName(), attribute.getValue(), referenced::add);
+				}
+			}
+
+			boolean container = element.getName().getNamespaceURI().equals(SvgDocument.NAMESPACE_URI)
+				&& CONTAINERS.contains(element.getName().getLocalPart());
+			Attribute id = element.getAttributeByName(ID);
+
+			if (container && id != null && elements(document, index, end(document, index)) == 1) {
+				empty.add(id.getValue());
+			}
+		}
+	}
+
+	/**
+	 * A flag indicating whether an element cannot be seen.
+	 * @param name The local name of the element.
+	 * @param attributes The unqualified attributes of the element.
+	 * @param paint The {@link InheritedPaint} of the element.
+	 * @param empty The ids of the {@code <clipPath>} and {@code <mask>} elements that have no content.
+	 * @param children The {@link XMLEvent}s between the start and end of the element.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isInvisible(String name, Map<String, String> attributes, InheritedPaint paint, Set<String> empty, List<XMLEvent> children) {
+		String display = attributes.get(DISPLAY_ATTRIBUTE);
+
+		if (display != null && display.trim().equals(NO_DISPLAY) || isNonPositive(attributes.get(OPACITY_ATTRIBUTE))) {
+			return true;
+		}
+
+		for (String attribute : CONTAINER_REFERENCE_ATTRIBUTES) {
+			String value = attributes.get(attribute);
+
+			if (value != null) {
+				List<String> ids = new ArrayList<>();
+				SvgReferences.forEachReference(new QName(attribute), value, ids::add);
+
+				if (ids.stream().anyMatch(empty::contains)) {
+					return true;
+				}
+			}
+		}
+
+		if (!SHAPES.contains(name) || paint.isReferenced() || children.stream().anyMatch(XMLEvent::isStartElement)) {
+			return false;
+		}
+
+		return hasNoGeometry(name, attributes) || !paint.isFilled() && !paint.isStroked();
+	}
+
+	/**
+	 * A flag indicating whether any element between two indices has an id that is referenced.
+	 * @param document The {@link XMLEvent}s of the document.
+	 * @param start The first index, inclusive.
+	 * @param end The last index, inclusive.
+	 * @param referenced The ids referenced by the document.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean hasReferencedId(List<XMLEvent> document, int start, int end, Set<String> referenced) {
+		for (int index = start; index <= end; index++) {
+			XMLEvent event = document.get(index);
+
+			if (event.isStartElement()) {
+				Attribute id = event.asStartElement().getAttributeByName(ID);
+
+				if (id != null && referenced.contains(id.getValue())) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * A flag indicating whether any element between two indices is an animation.
+	 * @param document The {@link XMLEvent}s of the document.
+	 * @param start The first index, inclusive.
+	 * @param end The last index, inclusive.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isAnimated(List<XMLEvent> document, int start, int end) {
+		for (int index = start; index <= end; index++) {
+			XMLEvent event = document.get(index);
+
+			if (event.isStartElement()) {
+				QName name = event.asStartElement().getName();
+
+				if (name.getNamespaceURI().equals(SvgDocument.NAMESPACE_URI) && ANIMATIONS.contains(name.getLocalPart())) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets the number of elements removed from each document that had any removed.
+	 * @return An {@link ImmutableMap} of document ids to the number of elements removed.
+	 */
+	public ImmutableMap<String, Integer> getRemoved() {
+		return ImmutableMap.copyOf(removed);
+	}
+
+	/**
+	 * Gets the number of elements removed from a document.
+	 * @param id The id of the document.
+	 * @return The number of elements removed.
+	 */
+	public int getRemoved(String id) {
+		return removed.getOrDefault(id, 0);
+	}
+
+	@Override
+	public String describeOptions() {
+		return "";
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("documents", removed.size())
+			.add("removed", removed.values().stream().mapToInt(Integer::intValue).sum())
+			.toString();
+	}
+}
@@ -0,0 +1,470 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgReferences;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * An {@link XmlDocumentProcessor} that moves paint servers, clipping paths, masks and filters out of each document and
+ * into a single {@code <svg:defs>} shared by the whole stockpile, emitting each distinct definition only once.
+ * <p>
+ * Each definition is canonicalised by removing its {@code id}s, non-SVG attributes and insignificant whitespace and by
+ * sorting its attributes, then hashed. Definitions with the same hash are given the same shared id, and every
+ * {@code url(#...)} and {@code href} reference in the document is rewritten to it, with each {@code xlink:href} kept
+ * as an unqualified {@code href}. The shared definitions are returned
+ * by {@link #sharedEvents()}, and must be added to the stockpile for the references to resolve.
+ * <p>
+ * A definition may reference another definition in the same document, such as a gradient that inherits the stops of
+ * another, in which case the referenced definition is shared first, wherever it appears in the document, so that the
+ * reference is rewritten before the definition is canonicalised. A reference that is part of a cycle is left as it is.
+ * <p>
+ * A shared id is never the same as the fragment identifier of a document that has already been processed. A document
+ * whose fragment identifier is the same as a shared id that has already been generated is rejected, as it would make
+ * the references ambiguous, in which case a different prefix must be chosen.
+ */
+public final class DefinitionProcessor implements XmlDocumentProcessor {
+
+	/**
+	 * Used to create the shared definitions.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The {@link QName}s of the elements that are shared as definitions.
+	 */
+	private static final ImmutableSet<QName> DEFINITION_TAGS = ImmutableSet.of(
+		new QName(SvgDocument.NAMESPACE_URI, "linearGradient"),
+		new QName(SvgDocument.NAMESPACE_URI, "radialGradient"),
+		new QName(SvgDocument.NAMESPACE_URI, "pattern"),
+		new QName(SvgDocument.NAMESPACE_URI, "clipPath"),
+		new QName(SvgDocument.NAMESPACE_URI, "mask"),
+		new QName(SvgDocument.NAMESPACE_URI, "filter")
+	);
+
+	/**
+	 * The default prefix of the shared ids.
+	 */
+	private static final String DEFAULT_PREFIX = "d";
+
+	/**
+	 * The {@code id} attribute.
+	 */
+	private static final QName ID = new QName("id");
+
+	/**
+	 * The unqualified {@code href} attribute.
+	 */
+	private static final QName HREF = new QName("href");
+
+	/**
+	 * The {@code <style>} tag, whose contents may also reference definitions.
+	 */
+	private static final QName STYLE_TAG = new QName(SvgDocument.NAMESPACE_URI, "style");
+
+	/**
+	 * The radix of the counter from which shared ids are generated.
+	 */
+	private static final int RADIX = 36;
+
+	/**
+	 * A flag indicating whether an {@link XMLEvent} starts a definition.
+	 * @param event The {@link XMLEvent}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isDefinition(XMLEvent event) {
+		return event.isStartElement() && DEFINITION_TAGS.contains(event.asStartElement().getName());
+	}
+
+	/**
+	 * A flag indicating whether an {@link Attribute} may be kept in a shared definition.
+	 * @param name The {@link QName} of the {@link Attribute}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isSvgAttribute(QName name) {
+		String namespaceUri = name.getNamespaceURI();
+		return namespaceUri.isEmpty() || namespaceUri.equals(SvgDocument.NAMESPACE_URI);
+	}
+
+	/**
+	 * The prefix of the shared ids.
+	 */
+	private final String prefix;
+
+	/**
+	 * The shared id of each distinct definition, keyed by the hash of its canonical form.
+	 */
+	private final Map<HashCode, String> sharedIds = new HashMap<>();
+
+	/**
+	 * The {@link XMLEvent}s of each distinct definition, keyed by its shared id, in the order they were first seen.
+	 */
+	private final Map<String, ImmutableList<XMLEvent>> definitions = new LinkedHashMap<>();
+
+	/**
+	 * The fragment identifiers of the documents processed so far, which are never generated as shared ids.
+	 */
+	private final Set<String> fragmentIds = new HashSet<>();
+
+	/**
+	 * The index of the next shared id to generate.
+	 */
+	private int next;
+
+	/**
+	 * Creates a new {@link DefinitionProcessor} whose shared ids are prefixed with {@code d}.
+	 */
+	public DefinitionProcessor() {
+		this(DEFAULT_PREFIX);
+	}
+
+	/**
+	 * Creates a new {@link DefinitionProcessor}.
+	 * @param prefix The prefix of the shared ids, which must not be the prefix of any other id in the stockpile.
+	 * @throws NullPointerException If {@code prefix} is {@code null}.
+	 * @throws IllegalArgumentException If {@code prefix} is empty.
+	 */
+	public DefinitionProcessor(String prefix) {
+		Preconditions.checkArgument(!prefix.isEmpty(), "Prefix must not be empty.");
+		this.prefix = prefix;
+	}
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> document) {
+		reserve(Preconditions.checkNotNull(id));
+
+		Map<String, String> mapping = new HashMap<>();
+		Function<String, String> rewrite = mapping::get;
+		boolean[] removed = new boolean[document.size()];
+		List<List<XMLEvent>> subtrees = new ArrayList<>();
+		Map<String, Integer> byId = new HashMap<>();
+
+		for (int index = 0; index < document.size(); index++) {
+			if (isDefinition(document.get(index))) {
+				int end = endOf(document, index);
+				List<XMLEvent> subtree = document.subList(index, end);
+				String definitionId = XmlEvents.attribute(subtree.get(0).asStartElement(), ID.getLocalPart());
+
+				if (definitionId != null) {
+					byId.putIfAbsent(definitionId, subtrees.size());
+				}
+
+				subtrees.add(subtree);
+
+				for (int event = index; event < end; event++) {
+					removed[event] = true;
+				}
+
+				index = end - 1;
+			}
+		}
+
+		for (int definition : dependencyOrder(subtrees, byId)) {
+			share(subtrees.get(definition), mapping);
+		}
+
+		if (mapping.isEmpty() && !contains(removed)) {
+			return document;
+		}
+
+		ImmutableList.Builder<XMLEvent> processed = ImmutableList.builder();
+		boolean style = false;
+
+		for (int index = 0; index < document.size(); index++) {
+			XMLEvent event = document.get(index);
+
+			if (removed[index]) {
+				continue;
+			}
+
+			if (event.isStartElement()) {
+				style = event.asStartElement().getName().equals(STYLE_TAG);
+				processed.add(rewrite(event.asStartElement(), rewrite, false));
+			} else if (style && event.isCharacters()) {
+				String data = event.asCharacters().getData();
+				processed.add(events.createCharacters(SvgReferences.rewriteUrls(data, rewrite)));
+			} else {
+				style &= !event.isEndElement();
+				processed.add(event);
+			}
+		}
+
+		return processed.build();
+	}
+
+	@Override
+	public synchronized ImmutableList<XMLEvent> sharedEvents() {
+		if (definitions.isEmpty()) {
+			return ImmutableList.of();
+		}
+
+		ImmutableList.Builder<XMLEvent> shared = ImmutableList.builder();
+		shared.add(events.createStartElement(SvgDocument.EMBEDDED_DEFS_TAG, emptyIterator(), emptyIterator()));
+
+		for (ImmutableList<XMLEvent> definition : definitions.values()) {
+			shared.addAll(definition);
+		}
+
+		shared.add(events.createEndElement(SvgDocument.EMBEDDED_DEFS_TAG, emptyIterator()));
+		return shared.build();
+	}
+
+	/**
+	 * Orders the definitions of a document so that each comes after the definitions it references, so that the whole
+	 * mapping from their ids to shared ids is known before any of them is rewritten.
+	 * @param subtrees The {@link XMLEvent}s of each definition, in document order.
+	 * @param byId The index of the definition with each id.
+	 * @return The indices of the definitions, in the order they are to be shared.
+	 */
+	private static List<Integer> dependencyOrder(List<List<XMLEvent>> subtrees, Map<String, Integer> byId) {
+		List<Integer> order = new ArrayList<>(subtrees.size());
+		boolean[] visited = new boolean[subtrees.size()];
+
+		for (int definition = 0; definition < subtrees.size(); definition++) {
+			visit(definition, subtrees, byId, visited, order);
+		}
+
+		return order;
+	}
+
+	/**
+	 * Visits a definition, adding the definitions it references and then the definition itself to an order, unless it
+	 * has already been visited, which also stops at cycles.
+	 * @param definition The index of the definition.
+	 * @param subtrees The {@link XMLEvent}s of each definition, in document order.
+	 * @param byId The index of the definition with each id.
+	 * @param visited A flag for each definition indicating whether it has been visited.
+	 * @param order The order to add the definitions to.
+	 */
+	private static void visit(int definition, List<List<XMLEvent>> subtrees, Map<String, Integer> byId, boolean[] visited, List<Integer> order) {
+		if (visited[definition]) {
+			return;
+		}
+
+		visited[definition] = true;
+		List<Integer> referenced = new ArrayList<>();
+
+		for (XMLEvent event : subtrees.get(definition)) {
+			if (event.isStartElement()) {
+				for (Attribute attribute : XmlEvents.attributes(event.asStartElement())) {
+					SvgReferences.forEachReference(attribute.getName(), attribute.getValue(), reference -> {
+						Integer index = byId.get(reference);
+
+						if (index != null) {
+							referenced.add(index);
+						}
+					});
+				}
+			}
+		}
+
+		referenced.forEach(index -> visit(index, subtrees, byId, visited, order));
+		order.add(definition);
+	}
+
+	/**
+	 * Finds the end of the subtree that starts at an index.
+	 * @param events The {@link XMLEvent}s.
+	 * @param start The index of the {@link StartElement} of the subtree.
+	 * @return The index immediately after the matching end element.
+	 */
+	private static int endOf(List<XMLEvent> events, int start) {
+		int depth = 0;
+
+		for (int index = start; index < events.size(); index++) {
+			XMLEvent event = events.get(index);
+
+			if (event.isStartElement()) {
+				depth++;
+			} else if (event.isEndElement() && --depth == 0) {
+				return index + 1;
+			}
+		}
+
+		return events.size();
+	}
+
+	/**
+	 * A flag indicating whether any element of an array is {@code true}.
+	 * @param flags The array.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean contains(boolean[] flags) {
+		for (boolean flag : flags) {
+			if (flag) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Canonicalises a definition, registering it if it has not been seen before, and maps its id to the shared id. A
+	 * definition without an id cannot be referenced, so is dropped.
+	 * @param subtree The {@link XMLEvent}s of the definition.
+	 * @param mapping The mapping from the document's ids to shared ids.
+	 */
+	private void share(List<XMLEvent> subtree, Map<String, String> mapping) {
+		Function<String, String> rewrite = mapping::get;
+		List<XMLEvent> cleaned = new ArrayList<>();
+		StringBuilder canonical = new StringBuilder();
+		int skipped = 0;
+
+		for (XMLEvent event : subtree) {
+			if (event.isStartElement()) {
+				StartElement element = event.asStartElement();
+
+				if (skipped > 0 || !element.getName().getNamespaceURI().equals(SvgDocument.NAMESPACE_URI)) {
+					skipped++;
+					continue;
+				}
+
+				StartElement rewritten = rewrite(element, rewrite, true);
+				cleaned.add(rewritten);
+				canonicalise(rewritten, canonical);
+			} else if (event.isEndElement()) {
+				if (skipped > 0) {
+					skipped--;
+					continue;
+				}
+
+				cleaned.add(event);
+				canonical.append("</").append(event.asEndElement().getName().getLocalPart()).append('>');
+			} else if (skipped == 0 && event.isCharacters() && !XmlEvents.isWhitespace(event)) {
+				cleaned.add(event);
+				canonical.append(event.asCharacters().getData().trim());
+			}
+		}
+
+		String id = XmlEvents.attribute(subtree.get(0).asStartElement(), ID.getLocalPart());
+
+		if (id != null) {
+			mapping.put(id, register(Hashing.murmur3_128().hashString(canonical, StandardCharsets.UTF_8), cleaned));
+		}
+	}
+
+	/**
+	 * Records the fragment identifier of a document, so that it is never generated as a shared id.
+	 * @param fragmentId The fragment identifier.
+	 * @throws IllegalArgumentException If a shared id that is the same as {@code fragmentId} has already been
+	 * generated.
+	 */
+	private synchronized void reserve(String fragmentId) {
+		Preconditions.checkArgument(!definitions.containsKey(fragmentId), "Fragment identifier " + fragmentId
+			+ " is already a shared definition id, so the definitions must be shared with a different prefix.");
+		fragmentIds.add(fragmentId);
+	}
+
+	/**
+	 * Registers a canonicalised definition.
+	 * @param hash The hash of the definition's canonical form.
+	 * @param cleaned The {@link XMLEvent}s of the definition, without any {@code id}s.
+	 * @return The shared id of the definition.
+	 */
+	private synchronized String register(HashCode hash, List<XMLEvent> cleaned) {
+		String sharedId = sharedIds.get(hash);
+
+		if (sharedId == null) {
+			do {
+				sharedId = prefix + Integer.toString(next++, RADIX);
+			} while (fragmentIds.contains(sharedId));
+
+			sharedIds.put(hash, sharedId);
+
+			List<Attribute> attributes = new ArrayList<>(XmlEvents.attributes(cleaned.get(0).asStartElement()));
+			attributes.add(events.createAttribute(ID, sharedId));
+
+			ImmutableList.Builder<XMLEvent> definition = ImmutableList.builder();
+			definition.add(XmlEvents.withAttributes(cleaned.get(0).asStartElement(), attributes));
+			definition.addAll(cleaned.subList(1, cleaned.size()));
+			definitions.put(sharedId, definition.build());
+		}
+
+		return sharedId;
+	}
+
+	/**
+	 * Rewrites the references an element makes to definitions.
+	 * @param element The {@link StartElement}.
+	 * @param rewrite Maps an id to its shared id, or to {@code null} if it is not a definition.
+	 * @param definition {@code true} if the element is part of a definition, in which case its {@code id} and non-SVG
+	 * attributes are removed. In any element an {@code xlink:href} is replaced with an {@code href}, so that the
+	 * reference is not removed with the other non-SVG attributes.
+	 * @return The rewritten {@link StartElement}, which is {@code element} itself if nothing was rewritten.
+	 */
+	private static StartElement rewrite(StartElement element, Function<String, String> rewrite, boolean definition) {
+		List<Attribute> attributes = new ArrayList<>();
+		boolean changed = false;
+
+		for (Attribute attribute : XmlEvents.attributes(element)) {
+			QName name = attribute.getName();
+			String value = attribute.getValue();
+			String rewritten = SvgReferences.rewrite(name, value, rewrite);
+
+			if (definition && (name.equals(ID) || !isSvgAttribute(name) && !SvgReferences.isHref(name))) {
+				changed = true;
+			} else if (SvgReferences.isHref(name) && (definition || !name.equals(HREF))) {
+				if (name.equals(HREF) || element.getAttributeByName(HREF) == null) {
+					attributes.add(events.createAttribute(HREF, rewritten));
+				}
+
+				changed = true;
+			} else if (rewritten.equals(value)) {
+				attributes.add(attribute);
+			} else {
+				attributes.add(events.createAttribute(name, rewritten));
+				changed = true;
+			}
+		}
+
+		return changed ? XmlEvents.withAttributes(element, attributes) : element;
+	}
+
+	/**
+	 * Appends the canonical form of a {@link StartElement} to a {@link StringBuilder}.
+	 * @param element The {@link StartElement}, without any {@code id}.
+	 * @param canonical The {@link StringBuilder} to append to.
+	 */
+	private static void canonicalise(StartElement element, StringBuilder canonical) {
+		List<Attribute> attributes = new ArrayList<>(XmlEvents.attributes(element));
+		attributes.sort(Comparator.comparing(attribute -> attribute.getName().toString()));
+
+		canonical.append('<').append(element.getName().getLocalPart());
+
+		for (Attribute attribute : attributes) {
+			canonical.append(' ').append(attribute.getName()).append("=\"").append(attribute.getValue()).append('"');
+		}
+
+		canonical.append('>');
+	}
+
+	@Override
+	public String describeOptions() {
+		return "prefix=" + prefix;
+	}
+}
@@ -0,0 +1,317 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgIds;
+import com.mikebull94.stockpile.svg.SvgReferences;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link XmlDocumentProcessor} that renames the ids within each document, such as those of gradients and clipping
+ * paths, to the shortest ids that are unique across the stockpile.
+ * <p>
+ * The short ids are generated by {@link SvgIds} from a counter shared by every document processed. Within a document,
+ * the most frequently referenced ids are renamed first, so they are given the shortest ids. Every {@code url(#...)} and
+ * {@code href} reference to a renamed id is rewritten, while references to ids the document does not define, such as
+ * those shared by a {@link DefinitionProcessor}, are left as they are.
+ * <p>
+ * Ids that the document does not reference are left as they are, as a page that embeds the stockpile may still link
+ * to or style them. They may instead be removed by a processor created with {@code removeUnreferenced} set.
+ * <p>
+ * No id is changed in a document that may reference its ids in ways that are not rewritten: by a selector in a
+ * {@code <style>} element, the timing of an animation, or an ARIA relationship.
+ */
+public final class IdProcessor implements XmlDocumentProcessor {
+
+	/**
+	 * Used to create the rewritten {@link Attribute}s.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The default prefix of the short ids.
+	 */
+	private static final String DEFAULT_PREFIX = "_";
+
+	/**
+	 * The {@code id} attribute.
+	 */
+	private static final QName ID = new QName("id");
+
+	/**
+	 * The {@code <style>} tag.
+	 */
+	private static final QName STYLE_TAG = new QName(SvgDocument.NAMESPACE_URI, "style");
+
+	/**
+	 * The number of characters an attribute adds beyond its name and value: the space before it, the equals sign and
+	 * the quotes.
+	 */
+	private static final int ATTRIBUTE_OVERHEAD = 4;
+
+	/**
+	 * The attributes that may reference an id by name, rather than by a {@code url(#...)} or {@code href}.
+	 */
+	private static final ImmutableSet<String> NAMED_REFERENCE_ATTRIBUTES = ImmutableSet.of("begin", "end");
+
+	/**
+	 * The prefix of the attributes that express ARIA relationships by id.
+	 */
+	private static final String ARIA_PREFIX = "aria-";
+
+	/**
+	 * A flag indicating whether a document may reference its ids in ways that are not rewritten.
+	 * @param document The {@link XMLEvent}s of the document.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean hasUnknownReferences(List<XMLEvent> document) {
+		for (XMLEvent event : document) {
+			if (!event.isStartElement()) {
+				continue;
+			} else if (event.asStartElement().getName().equals(STYLE_TAG)) {
+				return true;
+			}
+
+			for (Attribute attribute : XmlEvents.attributes(event.asStartElement())) {
+				String name = attribute.getName().getLocalPart();
+
+				if (NAMED_REFERENCE_ATTRIBUTES.contains(name) || name.startsWith(ARIA_PREFIX)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * The prefix of the short ids.
+	 */
+	private final String prefix;
+
+	/**
+	 * A flag indicating whether ids that the document does not reference are removed.
+	 */
+	private final boolean removeUnreferenced;
+
+	/**
+	 * The index of the next short id.
+	 */
+	private final AtomicInteger next = new AtomicInteger();
+
+	/**
+	 * The number of ids renamed.
+	 */
+	private final AtomicLong renamed = new AtomicLong();
+
+	/**
+	 * The number of ids removed.
+	 */
+	private final AtomicLong removed = new AtomicLong();
+
+	/**
+	 * The number of characters saved by renaming and removing ids.
+	 */
+	private final AtomicLong charactersSaved = new AtomicLong();
+
+	/**
+	 * Creates a new {@link IdProcessor} whose short ids are prefixed with an underscore, and which keeps ids that are
+	 * not referenced.
+	 */
+	public IdProcessor() {
+		this(DEFAULT_PREFIX);
+	}
+
+	/**
+	 * Creates a new {@link IdProcessor} which keeps ids that are not referenced.
+	 * @param prefix The prefix of the short ids, which must not be the prefix of any other id in the stockpile.
+	 * @throws NullPointerException If {@code prefix} is {@code null}.
+	 * @throws IllegalArgumentException If {@code prefix} is not valid as per {@link SvgIds#checkPrefix(String)}.
+	 */
+	public IdProcessor(String prefix) {
+		this(prefix, false);
+	}
+
+	/**
+	 * Creates a new {@link IdProcessor}.
+	 * @param prefix The prefix of the short ids, which must not be the prefix of any other id in the stockpile.
+	 * @param removeUnreferenced A flag indicating whether ids that the document does not reference are removed, which
+	 * breaks any link to or style of them from outside the stockpile.
+	 * @throws NullPointerException If {@code prefix} is {@code null}.
+	 * @throws IllegalArgumentException If {@code prefix} is not valid as per {@link SvgIds#checkPrefix(String)}.
+	 */
+	public IdProcessor(String prefix, boolean removeUnreferenced) {
+		this.prefix = SvgIds.checkPrefix(prefix);
+		this.removeUnreferenced = removeUnreferenced;
+	}
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> document) {
+		Preconditions.checkNotNull(id);
+
+		if (hasUnknownReferences(document)) {
+			return document;
+		}
+
+		Set<String> defined = new LinkedHashSet<>();
+		Map<String, Integer> references = new HashMap<>();
+		boolean root = true;
+
+		for (XMLEvent event : document) {
+			if (!event.isStartElement()) {
+				continue;
+			}
+
+			StartElement element = event.asStartElement();
+			Attribute elementId = element.getAttributeByName(ID);
+
+			/* the id of the root element is replaced by the fragment identifier when it is embedded */
+			if (elementId != null && !root) {
+				defined.add(elementId.getValue());
+			}
+
+			for (Attribute attribute : XmlEvents.attributes(element)) {
+				SvgReferences.forEachReference(attribute.getName(), attribute.getValue(), reference -> references.merge(reference, 1, Integer::sum));
+			}
+
+			root = false;
+		}
+
+		Map<String, String> mapping = shorten(defined, references);
+
+		if (mapping.isEmpty()) {
+			return document;
+		}
+
+		ImmutableList.Builder<XMLEvent> processed = ImmutableList.builder();
+
+		for (XMLEvent event : document) {
+			processed.add(event.isStartElement() ? rewrite(event.asStartElement(), mapping) : event);
+		}
+
+		return processed.build();
+	}
+
+	/**
+	 * Gives a short id to each id a document defines, in descending order of how often it is referenced.
+	 * @param defined The ids the document defines, in document order.
+	 * @param references The number of references to each id.
+	 * @return A {@link Map} of ids to their short ids, or to an empty {@link String} if they are to be removed. Ids that
+	 * are kept as they are, as they are not referenced, are not mapped.
+	 */
+	private Map<String, String> shorten(Set<String> defined, Map<String, Integer> references) {
+		Map<String, String> mapping = new HashMap<>();
+		List<String> referenced = new ArrayList<>();
+
+		for (String elementId : defined) {
+			if (references.containsKey(elementId)) {
+				referenced.add(elementId);
+			} else if (removeUnreferenced) {
+				mapping.put(elementId, "");
+				removed.incrementAndGet();
+				charactersSaved.addAndGet(ID.getLocalPart().length() + elementId.length() + ATTRIBUTE_OVERHEAD);
+			}
+		}
+
+		/* the sort is stable, so ids that are referenced equally often keep their document order */
+		referenced.sort(Comparator.comparing(references::get, Comparator.reverseOrder()));
+		int first = next.getAndAdd(referenced.size());
+
+		for (int index = 0; index < referenced.size(); index++) {
+			String elementId = referenced.get(index);
+			String shortId = SvgIds.shortId(prefix, first + index);
+			mapping.put(elementId, shortId);
+			renamed.incrementAndGet();
+			charactersSaved.addAndGet((long) (elementId.length() - shortId.length()) * (references.get(elementId) + 1));
+		}
+
+		return mapping;
+	}
+
+	/**
+	 * Renames or removes the id of an element, and rewrites its references to renamed ids.
+	 * @param element The {@link StartElement}.
+	 * @param mapping Maps ids to their short ids, or to an empty {@link String} if they are to be removed.
+	 * @return The rewritten {@link StartElement}, which is {@code element} itself if nothing was rewritten.
+	 */
+	private static StartElement rewrite(StartElement element, Map<String, String> mapping) {
+		List<Attribute> attributes = new ArrayList<>();
+		boolean changed = false;
+
+		for (Attribute attribute : XmlEvents.attributes(element)) {
+			QName name = attribute.getName();
+			String value = attribute.getValue();
+			String rewritten = name.equals(ID) ? mapping.getOrDefault(value, value) : SvgReferences.rewrite(name, value, mapping::get);
+
+			if (rewritten.equals(value)) {
+				attributes.add(attribute);
+			} else {
+				changed = true;
+
+				if (!rewritten.isEmpty()) {
+					attributes.add(events.createAttribute(name, rewritten));
+				}
+			}
+		}
+
+		return changed ? XmlEvents.withAttributes(element, attributes) : element;
+	}
+
+	/**
+	 * Gets the number of ids renamed.
+	 * @return The number of ids.
+	 */
+	public long getRenamed() {
+		return renamed.get();
+	}
+
+	/**
+	 * Gets the number of ids removed, as they were never referenced and removal was enabled.
+	 * @return The number of ids.
+	 */
+	public long getRemoved() {
+		return removed.get();
+	}
+
+	/**
+	 * Gets the number of characters saved by renaming and removing ids.
+	 * @return The number of characters.
+	 */
+	public long getCharactersSaved() {
+		return charactersSaved.get();
+	}
+
+	@Override
+	public String describeOptions() {
+		return "prefix=" + prefix + ",removeUnreferenced=" + removeUnreferenced;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("renamed", getRenamed())
+			.add("removed", getRemoved())
+			.add("charactersSaved", getCharactersSaved())
+			.toString();
+	}
+}
@@ -0,0 +1,176 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * What is known about the paint an element inherits from its ancestors, which decides whether processors may change
+ * its geometry or remove it.
+ */
+final class InheritedPaint {
+
+	/**
+	 * The {@link InheritedPaint} of the root element of a document.
+	 */
+	static final InheritedPaint ROOT = new InheritedPaint(true, true, false, false);
+
+	/**
+	 * The {@link InheritedPaint} of an element whose paint is not known, such as in a document with a {@code <style>}
+	 * element.
+	 */
+	static final InheritedPaint UNKNOWN = new InheritedPaint(true, true, true, true);
+
+	/**
+	 * The {@code style} attribute.
+	 */
+	private static final String STYLE_ATTRIBUTE = "style";
+
+	/**
+	 * The {@code fill} attribute.
+	 */
+	private static final String FILL_ATTRIBUTE = "fill";
+
+	/**
+	 * The {@code fill-opacity} attribute.
+	 */
+	private static final String FILL_OPACITY_ATTRIBUTE = "fill-opacity";
+
+	/**
+	 * The {@code stroke} attribute.
+	 */
+	private static final String STROKE_ATTRIBUTE = "stroke";
+
+	/**
+	 * The value of the {@code fill} and {@code stroke} attributes that disables painting.
+	 */
+	private static final String NO_PAINT = "none";
+
+	/**
+	 * The attributes whose value may reference another element that depends on the coordinate system.
+	 */
+	private static final ImmutableSet<String> REFERENCE_ATTRIBUTES = ImmutableSet.of(
+		"fill", "stroke", "clip-path", "mask", "filter", "marker-start", "marker-mid", "marker-end"
+	);
+
+	/**
+	 * The elements whose content is rendered where it is referenced, and so inherits paint that is not known here.
+	 */
+	private static final ImmutableSet<String> REFERENCED_CONTENT = ImmutableSet.of(
+		"defs", "symbol", "clipPath", "mask", "pattern", "marker"
+	);
+
+	/**
+	 * A flag indicating whether any attributes reference another element.
+	 * @param attributes The unqualified attributes.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	static boolean references(Map<String, String> attributes) {
+		for (String name : REFERENCE_ATTRIBUTES) {
+			String value = attributes.get(name);
+
+			if (value != null && value.contains("url(")) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * A flag indicating whether an opacity is zero or less, which is clamped to zero.
+	 * @param opacity The opacity, or {@code null} if it is not set.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isTransparent(String opacity) {
+		BigDecimal value = opacity == null ? null : SvgNumbers.parseDecimal(opacity.trim());
+		return value != null && value.signum() <= 0;
+	}
+
+	/**
+	 * A flag indicating whether an element may have a fill paint other than {@code none}.
+	 */
+	private final boolean fillPainted;
+
+	/**
+	 * A flag indicating whether an element may have a fill opacity other than zero.
+	 */
+	private final boolean fillOpaque;
+
+	/**
+	 * A flag indicating whether an element may be stroked.
+	 */
+	private final boolean stroked;
+
+	/**
+	 * A flag indicating whether an element may be painted by reference.
+	 */
+	private final boolean referenced;
+
+	/**
+	 * Creates a new {@link InheritedPaint}.
+	 * @param fillPainted A flag indicating whether an element may have a fill paint other than {@code none}.
+	 * @param fillOpaque A flag indicating whether an element may have a fill opacity other than zero.
+	 * @param stroked A flag indicating whether an element may be stroked.
+	 * @param referenced A flag indicating whether an element may be painted by reference.
+	 */
+	private InheritedPaint(boolean fillPainted, boolean fillOpaque, boolean stroked, boolean referenced) {
+		this.fillPainted = fillPainted;
+		this.fillOpaque = fillOpaque;
+		this.stroked = stroked;
+		this.referenced = referenced;
+	}
+
+	/**
+	 * Gets the {@link InheritedPaint} of an element, which is also what its children inherit.
+	 * @param name The local name of the element.
+	 * @param attributes The unqualified attributes of the element.
+	 * @return The {@link InheritedPaint}.
+	 */
+	InheritedPaint of(String name, Map<String, String> attributes) {
+		if (this == UNKNOWN || attributes.containsKey(STYLE_ATTRIBUTE) || REFERENCED_CONTENT.contains(name)) {
+			return UNKNOWN;
+		}
+
+		String fill = attributes.get(FILL_ATTRIBUTE);
+		String fillOpacity = attributes.get(FILL_OPACITY_ATTRIBUTE);
+		String stroke = attributes.get(STROKE_ATTRIBUTE);
+		boolean ownFillPainted = fill == null ? fillPainted : !fill.trim().equals(NO_PAINT);
+		boolean ownFillOpaque = fillOpacity == null ? fillOpaque : !isTransparent(fillOpacity);
+		boolean ownStroked = stroke == null ? stroked : !stroke.trim().equals(NO_PAINT);
+		boolean ownReferenced = referenced || references(attributes);
+
+		if (ownFillPainted == fillPainted && ownFillOpaque == fillOpaque && ownStroked == stroked
+			&& ownReferenced == referenced) {
+			return this;
+		}
+
+		return new InheritedPaint(ownFillPainted, ownFillOpaque, ownStroked, ownReferenced);
+	}
+
+	/**
+	 * A flag indicating whether an element may be filled.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	boolean isFilled() {
+		return fillPainted && fillOpaque;
+	}
+
+	/**
+	 * A flag indicating whether an element may be stroked.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	boolean isStroked() {
+		return stroked;
+	}
+
+	/**
+	 * A flag indicating whether an element may be painted by reference.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	boolean isReferenced() {
+		return referenced;
+	}
+}
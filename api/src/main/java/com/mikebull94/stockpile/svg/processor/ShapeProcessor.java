@@ -0,0 +1,863 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+import com.mikebull94.stockpile.svg.path.PathBounds;
+import com.mikebull94.stockpile.svg.path.PathData;
+import com.mikebull94.stockpile.svg.path.PathParser;
+import com.mikebull94.stockpile.svg.path.PathSegment;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link XmlDocumentProcessor} that writes each basic shape and path in whichever of its equivalent forms is
+ * shortest, and merges adjacent paths that are painted alike into a single element.
+ * <p>
+ * A {@code <rect>} without rounded corners, a {@code <circle>}, an {@code <ellipse>}, a {@code <line>}, a
+ * {@code <polyline>} and a {@code <polygon>} can each be written as a {@code <path>} that starts at the same point and
+ * runs in the same direction, and a path that draws an axis-aligned rectangle, a circle or an ellipse can be written as
+ * that shape if it is not stroked. The length of each form is measured and the shortest is kept.
+ * <p>
+ * Sibling paths are then merged into one when their attributes other than their path data are identical, and their
+ * bounds do not overlap, so that merging cannot change how they are filled. Only paths that are not stroked, have no
+ * {@code id} and are not painted by reference are merged, as each of these would otherwise depend on the individual
+ * elements.
+ * <p>
+ * No element is changed in a document with a {@code <style>} element, whose selectors may depend on the names and
+ * number of elements, nor an element that has children, a {@code style} or a {@code pathLength}, or may inherit
+ * markers.
+ */
+public final class ShapeProcessor implements XmlDocumentProcessor {
+
+	/**
+	 * Used to create the converted {@link Attribute}s.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The local name of the {@code <path>} tag.
+	 */
+	private static final String PATH = "path";
+
+	/**
+	 * The attribute containing path data.
+	 */
+	private static final String PATH_DATA_ATTRIBUTE = "d";
+
+	/**
+	 * The attribute that identifies an element.
+	 */
+	private static final String ID_ATTRIBUTE = "id";
+
+	/**
+	 * The attribute that scales the distances along a path, and so depends on its form.
+	 */
+	private static final String PATH_LENGTH_ATTRIBUTE = "pathLength";
+
+	/**
+	 * The {@code <style>} tag.
+	 */
+	private static final QName STYLE_TAG = new QName(SvgDocument.NAMESPACE_URI, "style");
+
+	/**
+	 * The attributes that hold the geometry of each shape and of a path.
+	 */
+	private static final ImmutableMap<String, ImmutableSet<String>> GEOMETRY = ImmutableMap.<String, ImmutableSet<String>>builder()
+		.put("rect", ImmutableSet.of("x", "y", "width", "height", "rx", "ry"))
+		.put("circle", ImmutableSet.of("cx", "cy", "r"))
+		.put("ellipse", ImmutableSet.of("cx", "cy", "rx", "ry"))
+		.put("line", ImmutableSet.of("x1", "y1", "x2", "y2"))
+		.put("polyline", ImmutableSet.of("points"))
+		.put("polygon", ImmutableSet.of("points"))
+		.put(PATH, ImmutableSet.of(PATH_DATA_ATTRIBUTE))
+		.build();
+
+	/**
+	 * The largest number of fraction digits in path data that is converted to a shape.
+	 */
+	private static final int MAX_PRECISION = 10;
+
+	/**
+	 * An equivalent form of a shape or path: the local name of an element and its geometry attributes.
+	 */
+	private static final class Form {
+
+		/**
+		 * The local name of the element.
+		 */
+		private final String name;
+
+		/**
+		 * The geometry attributes, in order.
+		 */
+		private final Map<String, String> geometry;
+
+		/**
+		 * Creates a new {@link Form}.
+		 * @param name The local name of the element.
+		 * @param geometry The geometry attributes, in order.
+		 */
+		Form(String name, Map<String, String> geometry) {
+			this.name = name;
+			this.geometry = geometry;
+		}
+
+		/**
+		 * Measures the serialized length of this form, counting the name in both the start and the end tag.
+		 * @return The length.
+		 */
+		int length() {
+			int length = name.length() * 2;
+
+			for (Map.Entry<String, String> attribute : geometry.entrySet()) {
+				length += attribute.getKey().length() + attribute.getValue().length() + 4;
+			}
+
+			return length;
+		}
+	}
+
+	/**
+	 * A run of sibling paths being merged into the first of them.
+	 */
+	private static final class Merge {
+
+		/**
+		 * The {@link StartElement} of the first path.
+		 */
+		private final StartElement start;
+
+		/**
+		 * The {@link EndElement} of the first path.
+		 */
+		private final EndElement end;
+
+		/**
+		 * The {@link Attribute}s shared by every path, by name, excluding the path data.
+		 */
+		private final Map<QName, String> shared;
+
+		/**
+		 * The merged path data.
+		 */
+		private final StringBuilder data;
+
+		/**
+		 * The {@link PathBounds} of each merged path.
+		 */
+		private final List<PathBounds> bounds = new ArrayList<>();
+
+		/**
+		 * Creates a new {@link Merge}.
+		 * @param start The {@link StartElement} of the first path.
+		 * @param end The {@link EndElement} of the first path.
+		 * @param data The path data of the first path.
+		 * @param bounds The {@link PathBounds} of the first path.
+		 */
+		Merge(StartElement start, EndElement end, String data, PathBounds bounds) {
+			this.start = start;
+			this.end = end;
+			this.shared = shared(start);
+			this.data = new StringBuilder(data);
+			this.bounds.add(bounds);
+		}
+
+		/**
+		 * A flag indicating whether a path may be merged into this run.
+		 * @param element The {@link StartElement} of the path.
+		 * @param other The {@link PathBounds} of the path.
+		 * @return {@code true} if so, {@code false} otherwise.
+		 */
+		boolean accepts(StartElement element, PathBounds other) {
+			return shared.equals(shared(element)) && bounds.stream().noneMatch(other::overlaps);
+		}
+
+		/**
+		 * Merges a path into this run.
+		 * @param pathData The path data of the path.
+		 * @param other The {@link PathBounds} of the path.
+		 */
+		void add(String pathData, PathBounds other) {
+			data.append(absoluteStart(pathData));
+			bounds.add(other);
+		}
+
+		/**
+		 * Writes the merged path.
+		 * @param out The {@link List} to add the {@link XMLEvent}s to.
+		 */
+		void writeTo(List<XMLEvent> out) {
+			if (bounds.size() == 1) {
+				out.add(start);
+			} else {
+				List<Attribute> attributes = new ArrayList<>();
+
+				for (Attribute attribute : XmlEvents.attributes(start)) {
+					boolean pathData = attribute.getName().getNamespaceURI().isEmpty()
+						&& attribute.getName().getLocalPart().equals(PATH_DATA_ATTRIBUTE);
+					attributes.add(pathData ? events.createAttribute(attribute.getName(), data.toString()) : attribute);
+				}
+
+				out.add(XmlEvents.withAttributes(start, attributes));
+			}
+
+			out.add(end);
+		}
+
+		/**
+		 * Gets the {@link Attribute}s of a path other than its path data.
+		 * @param element The {@link StartElement} of the path.
+		 * @return A {@link Map} of names to values.
+		 */
+		private static Map<QName, String> shared(StartElement element) {
+			Map<QName, String> shared = new HashMap<>();
+
+			for (Attribute attribute : XmlEvents.attributes(element)) {
+				if (!attribute.getName().equals(new QName(PATH_DATA_ATTRIBUTE))) {
+					shared.put(attribute.getName(), attribute.getValue());
+				}
+			}
+
+			return shared;
+		}
+	}
+
+	/**
+	 * Rewrites path data so that it starts with an absolute move, as a path that is appended to another must.
+	 * @param data The path data.
+	 * @return The rewritten path data.
+	 */
+	private static String absoluteStart(String data) {
+		int end = data.length();
+		int index = 0;
+
+		while (index < end && SvgNumbers.isSeparator(data.charAt(index))) {
+			index++;
+		}
+
+		if (index == end || data.charAt(index) != 'm') {
+			return data.substring(index);
+		}
+
+		/* the first pair of a relative move is absolute, but any further pairs are relative lines */
+		int next = index + 1;
+
+		for (int coordinate = 0; coordinate < 2; coordinate++) {
+			while (next < end && SvgNumbers.isSeparator(data.charAt(next))) {
+				next++;
+			}
+
+			next = SvgNumbers.scan(data, next, end);
+		}
+
+		int following = next;
+
+		while (following < end && SvgNumbers.isSeparator(data.charAt(following))) {
+			following++;
+		}
+
+		if (following == end || PathData.isCommand(data.charAt(following))) {
+			return "M" + data.substring(index + 1);
+		}
+
+		return "M" + data.substring(index + 1, next) + "l" + data.substring(following);
+	}
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> document) {
+		Preconditions.checkNotNull(id);
+
+		if (document.stream().anyMatch(event -> XmlEvents.isStartElement(event, STYLE_TAG))) {
+			return document;
+		}
+
+		Deque<InheritedPaint> paints = new ArrayDeque<>();
+		paints.push(InheritedPaint.ROOT);
+
+		List<XMLEvent> processed = new ArrayList<>(document.size());
+		List<XMLEvent> gap = new ArrayList<>();
+		Merge merge = null;
+
+		for (int index = 0; index < document.size(); index++) {
+			XMLEvent event = document.get(index);
+
+			if (merge != null && XmlEvents.isWhitespace(event)) {
+				gap.add(event);
+				continue;
+			}
+
+			boolean empty = event.isStartElement() && index + 1 < document.size() && document.get(index + 1).isEndElement();
+
+			if (!empty || !event.asStartElement().getName().getNamespaceURI().equals(SvgDocument.NAMESPACE_URI)) {
+				merge = flush(merge, gap, processed);
+
+				if (event.isStartElement()) {
+					StartElement element = event.asStartElement();
+					paints.push(paints.peek().of(element.getName().getLocalPart(), XmlEvents.unqualifiedAttributes(element)));
+				} else if (event.isEndElement()) {
+					paints.pop();
+				}
+
+				processed.add(event);
+				continue;
+			}
+
+			StartElement start = event.asStartElement();
+			EndElement end = document.get(++index).asEndElement();
+			Map<String, String> attributes = XmlEvents.unqualifiedAttributes(start);
+			InheritedPaint paint = paints.peek().of(start.getName().getLocalPart(), attributes);
+
+			Form form = shortest(start.getName().getLocalPart(), attributes, paint);
+
+			if (form != null) {
+				start = XmlEvents.renamed(start, form.name, replaceGeometry(start, form));
+				end = XmlEvents.renamed(end, form.name);
+				attributes = XmlEvents.unqualifiedAttributes(start);
+			}
+
+			PathBounds bounds = mergeable(start, attributes, paint) ? bounds(attributes.get(PATH_DATA_ATTRIBUTE)) : null;
+
+			if (bounds != null && merge != null && merge.accepts(start, bounds)) {
+				merge.add(attributes.get(PATH_DATA_ATTRIBUTE), bounds);
+				gap.clear();
+			} else {
+				merge = flush(merge, gap, processed);
+
+				if (bounds != null) {
+					merge = new Merge(start, end, attributes.get(PATH_DATA_ATTRIBUTE), bounds);
+				} else {
+					processed.add(start);
+					processed.add(end);
+				}
+			}
+		}
+
+		flush(merge, gap, processed);
+		return ImmutableList.copyOf(processed);
+	}
+
+	/**
+	 * Writes a run of merged paths, followed by the whitespace after it.
+	 * @param merge The {@link Merge}, or {@code null} if there is none.
+	 * @param gap The whitespace after the run.
+	 * @param processed The {@link List} to add the {@link XMLEvent}s to.
+	 * @return {@code null}, as there is no longer a run.
+	 */
+	private static Merge flush(Merge merge, List<XMLEvent> gap, List<XMLEvent> processed) {
+		if (merge != null) {
+			merge.writeTo(processed);
+		}
+
+		processed.addAll(gap);
+		gap.clear();
+		return null;
+	}
+
+	/**
+	 * A flag indicating whether an element is a path that may be merged with others.
+	 * @param element The {@link StartElement}.
+	 * @param attributes The unqualified attributes of the element.
+	 * @param paint The {@link InheritedPaint} of the element.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean mergeable(StartElement element, Map<String, String> attributes, InheritedPaint paint) {
+		return element.getName().getLocalPart().equals(PATH) && attributes.containsKey(PATH_DATA_ATTRIBUTE)
+			&& !attributes.containsKey(ID_ATTRIBUTE) && !attributes.containsKey(PATH_LENGTH_ATTRIBUTE)
+			&& !paint.isStroked() && !paint.isReferenced();
+	}
+
+	/**
+	 * Finds the {@link PathBounds} of path data.
+	 * @param data The path data.
+	 * @return The {@link PathBounds}, or {@code null} if the path data is malformed or empty.
+	 */
+	private static PathBounds bounds(String data) {
+		try {
+			return PathBounds.of(PathParser.parse(data));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Finds the shortest form of a shape or path.
+	 * @param name The local name of the element.
+	 * @param attributes The unqualified attributes of the element.
+	 * @param paint The {@link InheritedPaint} of the element.
+	 * @return The shortest {@link Form}, or {@code null} if it is the current form.
+	 */
+	private static Form shortest(String name, Map<String, String> attributes, InheritedPaint paint) {
+		ImmutableSet<String> geometry = GEOMETRY.get(name);
+
+		if (geometry == null || paint.isReferenced() || attributes.containsKey(PATH_LENGTH_ATTRIBUTE)) {
+			return null;
+		}
+
+		Map<String, String> current = new LinkedHashMap<>();
+
+		for (String attribute : geometry) {
+			if (attributes.containsKey(attribute)) {
+				current.put(attribute, attributes.get(attribute));
+			}
+		}
+
+		List<Form> forms = new ArrayList<>();
+
+		if (name.equals(PATH)) {
+			if (!paint.isStroked()) {
+				String data = attributes.get(PATH_DATA_ATTRIBUTE);
+				Form shape = data == null ? null : shape(data);
+
+				if (shape != null) {
+					forms.add(shape);
+				}
+			}
+		} else {
+			String data = pathData(name, attributes);
+
+			if (data != null) {
+				forms.add(new Form(PATH, ImmutableMap.of(PATH_DATA_ATTRIBUTE, data)));
+			}
+		}
+
+		Form shortest = null;
+		int length = new Form(name, current).length();
+
+		for (Form form : forms) {
+			boolean collides = form.geometry.keySet().stream()
+				.anyMatch(attribute -> attributes.containsKey(attribute) && !geometry.contains(attribute));
+
+			if (!collides && form.length() < length) {
+				shortest = form;
+				length = form.length();
+			}
+		}
+
+		return shortest;
+	}
+
+	/**
+	 * Replaces the geometry attributes of an element with those of another {@link Form}, in the place of the first of
+	 * them.
+	 * @param element The {@link StartElement}.
+	 * @param form The {@link Form}.
+	 * @return The {@link Attribute}s of the converted element.
+	 */
+	private static List<Attribute> replaceGeometry(StartElement element, Form form) {
+		ImmutableSet<String> geometry = GEOMETRY.get(element.getName().getLocalPart());
+		List<Attribute> attributes = new ArrayList<>();
+		boolean replaced = false;
+
+		for (Attribute attribute : XmlEvents.attributes(element)) {
+			QName name = attribute.getName();
+
+			if (!name.getNamespaceURI().isEmpty() || !geometry.contains(name.getLocalPart())) {
+				attributes.add(attribute);
+			} else if (!replaced) {
+				form.geometry.forEach((key, value) -> attributes.add(events.createAttribute(key, value)));
+				replaced = true;
+			}
+		}
+
+		if (!replaced) {
+			form.geometry.forEach((key, value) -> attributes.add(events.createAttribute(key, value)));
+		}
+
+		return attributes;
+	}
+
+	/**
+	 * Writes a basic shape as path data that starts at the same point and runs in the same direction.
+	 * @param name The local name of the shape.
+	 * @param attributes The unqualified attributes of the shape.
+	 * @return The shortest path data found, or {@code null} if the shape cannot be written as path data.
+	 */
+	private static String pathData(String name, Map<String, String> attributes) {
+		switch (name) {
+			case "rect":
+				return rectPathData(attributes);
+			case "circle":
+				return ellipsePathData(attributes, "r", "r");
+			case "ellipse":
+				return ellipsePathData(attributes, "rx", "ry");
+			case "line":
+				return linePathData(attributes);
+			default:
+				return pointsPathData(attributes.get("points"), name.equals("polygon"));
+		}
+	}
+
+	/**
+	 * Writes a {@code <rect>} without rounded corners as path data.
+	 * @param attributes The unqualified attributes of the {@code <rect>}.
+	 * @return The path data, or {@code null} if the {@code <rect>} has rounded corners or is not rendered.
+	 */
+	private static String rectPathData(Map<String, String> attributes) {
+		BigDecimal x = number(attributes, "x", BigDecimal.ZERO);
+		BigDecimal y = number(attributes, "y", BigDecimal.ZERO);
+		BigDecimal width = number(attributes, "width", null);
+		BigDecimal height = number(attributes, "height", null);
+		BigDecimal rx = number(attributes, "rx", BigDecimal.ZERO);
+		BigDecimal ry = number(attributes, "ry", BigDecimal.ZERO);
+
+		if (x == null || y == null || width == null || height == null || rx == null || ry == null
+			|| width.signum() <= 0 || height.signum() <= 0 || rx.signum() != 0 || ry.signum() != 0) {
+			return null;
+		}
+
+		return shorter(
+			path("M", x, y, "H", x.add(width), "V", y.add(height), "H", x, "z"),
+			path("M", x, y, "h", width, "v", height, "h", width.negate(), "z")
+		);
+	}
+
+	/**
+	 * Writes a {@code <circle>} or an {@code <ellipse>} as path data of two arcs, starting from its rightmost point in
+	 * the positive angle direction.
+	 * @param attributes The unqualified attributes of the shape.
+	 * @param radiusX The attribute of the radius along the x-axis.
+	 * @param radiusY The attribute of the radius along the y-axis.
+	 * @return The path data, or {@code null} if the shape is not rendered.
+	 */
+	private static String ellipsePathData(Map<String, String> attributes, String radiusX, String radiusY) {
+		BigDecimal cx = number(attributes, "cx", BigDecimal.ZERO);
+		BigDecimal cy = number(attributes, "cy", BigDecimal.ZERO);
+		BigDecimal rx = number(attributes, radiusX, null);
+		BigDecimal ry = number(attributes, radiusY, null);
+
+		if (cx == null || cy == null || rx == null || ry == null || rx.signum() <= 0 || ry.signum() <= 0) {
+			return null;
+		}
+
+		BigDecimal diameter = rx.add(rx);
+		return shorter(
+			path("M", cx.add(rx), cy, "A", rx, ry, 0, 0, 1, cx.subtract(rx), cy, rx, ry, 0, 0, 1, cx.add(rx), cy, "z"),
+			path("M", cx.add(rx), cy, "a", rx, ry, 0, 0, 1, diameter.negate(), 0, rx, ry, 0, 0, 1, diameter, 0, "z")
+		);
+	}
+
+	/**
+	 * Writes a {@code <line>} as path data.
+	 * @param attributes The unqualified attributes of the {@code <line>}.
+	 * @return The path data, or {@code null} if a coordinate is not a plain number.
+	 */
+	private static String linePathData(Map<String, String> attributes) {
+		BigDecimal x1 = number(attributes, "x1", BigDecimal.ZERO);
+		BigDecimal y1 = number(attributes, "y1", BigDecimal.ZERO);
+		BigDecimal x2 = number(attributes, "x2", BigDecimal.ZERO);
+		BigDecimal y2 = number(attributes, "y2", BigDecimal.ZERO);
+
+		if (x1 == null || y1 == null || x2 == null || y2 == null) {
+			return null;
+		}
+
+		return shorter(
+			path("M", x1, y1, "L", x2, y2),
+			path("M", x1, y1, "l", x2.subtract(x1), y2.subtract(y1))
+		);
+	}
+
+	/**
+	 * Writes the {@code points} of a {@code <polyline>} or a {@code <polygon>} as path data.
+	 * @param points The {@code points}, or {@code null} if there are none.
+	 * @param closed A flag indicating whether the shape is a closed {@code <polygon>}.
+	 * @return The path data, or {@code null} if there are no points or they are malformed.
+	 */
+	private static String pointsPathData(String points, boolean closed) {
+		if (points == null) {
+			return null;
+		}
+
+		List<Object> parts = new ArrayList<>();
+		int end = points.length();
+		int index = 0;
+
+		while (index < end) {
+			if (SvgNumbers.isSeparator(points.charAt(index))) {
+				index++;
+				continue;
+			}
+
+			int next = SvgNumbers.scan(points, index, end);
+
+			if (next == index) {
+				return null;
+			}
+
+			if (parts.size() == 0) {
+				parts.add("M");
+			} else if (parts.size() == 3) {
+				parts.add("L");
+			}
+
+			parts.add(points.substring(index, next));
+			index = next;
+		}
+
+		/* a polyline needs two points, and a trailing odd coordinate is an error */
+		if (parts.size() < 6 || parts.size() % 2 != 0) {
+			return null;
+		}
+
+		if (closed) {
+			parts.add("z");
+		}
+
+		return path(parts.toArray());
+	}
+
+	/**
+	 * Finds the shape that path data draws, if it is not stroked.
+	 * @param data The path data.
+	 * @return The {@link Form} of the shape, or {@code null} if the path data does not draw an axis-aligned rectangle,
+	 * a circle or an ellipse.
+	 */
+	private static Form shape(String data) {
+		int precision = precision(data);
+		ImmutableList<PathSegment> segments;
+
+		try {
+			segments = PathParser.parse(data);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+
+		int count = segments.size();
+
+		if (precision < 0 || count < 3 || segments.get(0).getType() != PathSegment.Type.MOVE) {
+			return null;
+		}
+
+		if (segments.get(count - 1).getType() == PathSegment.Type.CLOSE) {
+			count--;
+		}
+
+		List<PathSegment> drawn = segments.subList(1, count);
+
+		if (drawn.stream().allMatch(segment -> segment.getType() == PathSegment.Type.LINE)) {
+			return rect(segments.get(0), drawn, precision);
+		} else if (drawn.size() == 2 && drawn.stream().allMatch(segment -> segment.getType() == PathSegment.Type.ARC)) {
+			return ellipse(segments.get(0), drawn.get(0), drawn.get(1), precision);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Finds the {@code <rect>} that the lines of a path draw.
+	 * @param move The {@link PathSegment.Type#MOVE} that starts the path.
+	 * @param lines The {@link PathSegment.Type#LINE}s of the path.
+	 * @param precision The number of fraction digits in the path data.
+	 * @return The {@link Form} of the {@code <rect>}, or {@code null} if the lines do not draw an axis-aligned
+	 * rectangle.
+	 */
+	private static Form rect(PathSegment move, List<PathSegment> lines, int precision) {
+		int sides = lines.size();
+
+		if (sides != 3 && sides != 4) {
+			return null;
+		}
+
+		BigDecimal[] xs = new BigDecimal[sides + 1];
+		BigDecimal[] ys = new BigDecimal[sides + 1];
+		xs[0] = decimal(move.getX(), precision);
+		ys[0] = decimal(move.getY(), precision);
+
+		for (int corner = 1; corner <= sides; corner++) {
+			xs[corner] = decimal(lines.get(corner - 1).getX(), precision);
+			ys[corner] = decimal(lines.get(corner - 1).getY(), precision);
+		}
+
+		/* a fourth line may return to the start explicitly rather than by closing the path */
+		if (sides == 4 && !(equal(xs[4], xs[0]) && equal(ys[4], ys[0]))) {
+			return null;
+		}
+
+		boolean horizontalFirst = equal(ys[0], ys[1]) && equal(xs[1], xs[2]) && equal(ys[2], ys[3]) && equal(xs[3], xs[0]);
+		boolean verticalFirst = equal(xs[0], xs[1]) && equal(ys[1], ys[2]) && equal(xs[2], xs[3]) && equal(ys[3], ys[0]);
+		BigDecimal width = xs[2].subtract(xs[0]).abs();
+		BigDecimal height = ys[2].subtract(ys[0]).abs();
+
+		if (!horizontalFirst && !verticalFirst || width.signum() == 0 || height.signum() == 0) {
+			return null;
+		}
+
+		Map<String, String> geometry = new LinkedHashMap<>();
+		putUnlessZero(geometry, "x", xs[0].min(xs[2]));
+		putUnlessZero(geometry, "y", ys[0].min(ys[2]));
+		geometry.put("width", SvgNumbers.format(width));
+		geometry.put("height", SvgNumbers.format(height));
+		return new Form("rect", geometry);
+	}
+
+	/**
+	 * Finds the {@code <circle>} or {@code <ellipse>} that two arcs of a path draw.
+	 * @param move The {@link PathSegment.Type#MOVE} that starts the path.
+	 * @param first The first {@link PathSegment.Type#ARC}.
+	 * @param second The second {@link PathSegment.Type#ARC}.
+	 * @param precision The number of fraction digits in the path data.
+	 * @return The {@link Form} of the shape, or {@code null} if the arcs are not the two halves of an ellipse that is
+	 * split along one of its axes.
+	 */
+	private static Form ellipse(PathSegment move, PathSegment first, PathSegment second, int precision) {
+		BigDecimal rx = decimal(Math.abs(first.get(0)), precision);
+		BigDecimal ry = decimal(Math.abs(first.get(1)), precision);
+		BigDecimal x0 = decimal(move.getX(), precision);
+		BigDecimal y0 = decimal(move.getY(), precision);
+		BigDecimal x1 = decimal(first.getX(), precision);
+		BigDecimal y1 = decimal(first.getY(), precision);
+		boolean circle = equal(rx, ry);
+		boolean aligned = circle || first.get(2) % 180 == 0 && second.get(2) % 180 == 0;
+
+		boolean halves = aligned && rx.signum() > 0 && ry.signum() > 0
+			&& equal(rx, decimal(Math.abs(second.get(0)), precision))
+			&& equal(ry, decimal(Math.abs(second.get(1)), precision))
+			&& first.get(4) == second.get(4)
+			&& equal(x0, decimal(second.getX(), precision)) && equal(y0, decimal(second.getY(), precision));
+
+		BigDecimal dx = x1.subtract(x0).abs();
+		BigDecimal dy = y1.subtract(y0).abs();
+		boolean diameter = dy.signum() == 0 && equal(dx, rx.add(rx)) || dx.signum() == 0 && equal(dy, ry.add(ry));
+
+		if (!halves || !diameter) {
+			return null;
+		}
+
+		BigDecimal two = BigDecimal.valueOf(2);
+		Map<String, String> geometry = new LinkedHashMap<>();
+		putUnlessZero(geometry, "cx", x0.add(x1).divide(two));
+		putUnlessZero(geometry, "cy", y0.add(y1).divide(two));
+
+		if (circle) {
+			geometry.put("r", SvgNumbers.format(rx));
+			return new Form("circle", geometry);
+		}
+
+		geometry.put("rx", SvgNumbers.format(rx));
+		geometry.put("ry", SvgNumbers.format(ry));
+		return new Form("ellipse", geometry);
+	}
+
+	/**
+	 * Finds the largest number of fraction digits of the numbers in path data.
+	 * @param data The path data.
+	 * @return The number of fraction digits, or {@code -1} if there are too many to convert exactly.
+	 */
+	private static int precision(String data) {
+		int precision = 0;
+		int end = data.length();
+		int index = 0;
+
+		while (index < end) {
+			int next = SvgNumbers.scan(data, index, end);
+
+			if (next == index) {
+				index++;
+				continue;
+			}
+
+			precision = Math.max(precision, new BigDecimal(data.substring(index, next)).scale());
+			index = next;
+		}
+
+		return precision > MAX_PRECISION ? -1 : precision;
+	}
+
+	/**
+	 * Rounds a coordinate of parsed path data back to the decimal it was written as.
+	 * @param value The coordinate.
+	 * @param precision The number of fraction digits in the path data.
+	 * @return The {@link BigDecimal}.
+	 */
+	private static BigDecimal decimal(double value, int precision) {
+		return BigDecimal.valueOf(value).setScale(precision, RoundingMode.HALF_UP);
+	}
+
+	/**
+	 * A flag indicating whether two {@link BigDecimal}s are numerically equal.
+	 * @param first The first {@link BigDecimal}.
+	 * @param second The second {@link BigDecimal}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean equal(BigDecimal first, BigDecimal second) {
+		return first.compareTo(second) == 0;
+	}
+
+	/**
+	 * Adds a geometry attribute unless it is zero, which is its default.
+	 * @param geometry The geometry attributes.
+	 * @param name The name of the attribute.
+	 * @param value The value.
+	 */
+	private static void putUnlessZero(Map<String, String> geometry, String name, BigDecimal value) {
+		if (value.signum() != 0) {
+			geometry.put(name, SvgNumbers.format(value));
+		}
+	}
+
+	/**
+	 * Parses a numeric attribute.
+	 * @param attributes The attributes.
+	 * @param name The name of the attribute.
+	 * @param defaultValue The value if the attribute is absent, or {@code null} if it is required.
+	 * @return The value, or {@code null} if it is absent and required or is not a plain number.
+	 */
+	private static BigDecimal number(Map<String, String> attributes, String name, BigDecimal defaultValue) {
+		String value = attributes.get(name);
+		return value == null ? defaultValue : SvgNumbers.parseDecimal(value);
+	}
+
+	/**
+	 * Writes path data from commands and numbers, in its compacted form.
+	 * @param parts The command letters and numbers, which are {@link BigDecimal}s, {@link Integer}s or the text of a
+	 * number.
+	 * @return The path data.
+	 */
+	private static String path(Object... parts) {
+		Object[] formatted = new Object[parts.length];
+
+		for (int index = 0; index < parts.length; index++) {
+			Object part = parts[index];
+			formatted[index] = part instanceof BigDecimal ? SvgNumbers.format((BigDecimal) part) : part;
+		}
+
+		return PathData.compact(Joiner.on(' ').join(formatted), SvgNumbers.LOSSLESS);
+	}
+
+	/**
+	 * Chooses the shorter of two alternative path data.
+	 * @param first The first path data, which is preferred.
+	 * @param second The second path data.
+	 * @return The shorter path data.
+	 */
+	private static String shorter(String first, String second) {
+		return second.length() < first.length() ? second : first;
+	}
+
+	@Override
+	public String describeOptions() {
+		return "";
+	}
+}
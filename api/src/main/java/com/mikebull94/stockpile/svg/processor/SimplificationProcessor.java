@@ -0,0 +1,221 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.path.PathFormatter;
+import com.mikebull94.stockpile.svg.path.PathParser;
+import com.mikebull94.stockpile.svg.path.PathSimplifier;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link XmlDocumentProcessor} that simplifies the geometry of {@code <path>} elements within a tolerance in user
+ * units.
+ * <p>
+ * Half of the tolerance is given to the {@link PathSimplifier} and the other half to rounding, so the precision is
+ * chosen such that no rounded point moves further than that. The simplified path data is only used where it is
+ * shorter, and path data that cannot be parsed is left as it is. The number of characters of path data before and
+ * after simplification are counted across every document processed, as a report of the reduction.
+ */
+public final class SimplificationProcessor implements XmlDocumentProcessor {
+
+	/**
+	 * Used to create the simplified {@link Attribute}s.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The {@code <path>} tag.
+	 */
+	private static final QName PATH_TAG = new QName(SvgDocument.NAMESPACE_URI, "path");
+
+	/**
+	 * The attribute containing path data.
+	 */
+	private static final String PATH_DATA_ATTRIBUTE = "d";
+
+	/**
+	 * Chooses the precision at which rounding moves no point further than half of a tolerance.
+	 * @param tolerance The tolerance in user units.
+	 * @return The number of fraction digits.
+	 */
+	private static int precision(double tolerance) {
+		return Math.max(0, (int) Math.ceil(-Math.log10(tolerance / 2)));
+	}
+
+	/**
+	 * The {@link PathSimplifier}.
+	 */
+	private final PathSimplifier simplifier;
+
+	/**
+	 * The number of fraction digits to round coordinates to.
+	 */
+	private final int precision;
+
+	/**
+	 * The tolerance in user units.
+	 */
+	private final double tolerance;
+
+	/**
+	 * The number of paths processed.
+	 */
+	private final AtomicLong paths = new AtomicLong();
+
+	/**
+	 * The number of characters of path data before simplification.
+	 */
+	private final AtomicLong charactersBefore = new AtomicLong();
+
+	/**
+	 * The number of characters of path data after simplification.
+	 */
+	private final AtomicLong charactersAfter = new AtomicLong();
+
+	/**
+	 * Creates a new {@link SimplificationProcessor}, choosing the precision from the tolerance.
+	 * @param tolerance The tolerance in user units.
+	 * @throws IllegalArgumentException If {@code tolerance} is not positive and finite.
+	 */
+	public SimplificationProcessor(double tolerance) {
+		this(tolerance, precision(tolerance));
+	}
+
+	/**
+	 * Creates a new {@link SimplificationProcessor}.
+	 * @param tolerance The tolerance in user units, which the {@link PathSimplifier} is given half of.
+	 * @param precision The number of fraction digits to round coordinates to.
+	 * @throws IllegalArgumentException If {@code tolerance} is not positive and finite, or {@code precision} is
+	 * negative.
+	 */
+	public SimplificationProcessor(double tolerance, int precision) {
+		Preconditions.checkArgument(tolerance > 0 && !Double.isInfinite(tolerance), "Tolerance must be positive.");
+		Preconditions.checkArgument(precision >= 0, "Precision must be non-negative.");
+		this.simplifier = new PathSimplifier(tolerance / 2);
+		this.precision = precision;
+		this.tolerance = tolerance;
+	}
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> document) {
+		ImmutableList.Builder<XMLEvent> processed = ImmutableList.builder();
+
+		for (XMLEvent event : document) {
+			if (XmlEvents.isStartElement(event, PATH_TAG)) {
+				processed.add(simplify(event.asStartElement()));
+			} else {
+				processed.add(event);
+			}
+		}
+
+		return processed.build();
+	}
+
+	/**
+	 * Simplifies the path data of a {@code <path>} element.
+	 * @param element The {@link StartElement}.
+	 * @return The simplified {@link StartElement}.
+	 */
+	private StartElement simplify(StartElement element) {
+		String data = XmlEvents.attribute(element, PATH_DATA_ATTRIBUTE);
+
+		if (data == null) {
+			return element;
+		}
+
+		String simplified = simplify(data);
+		paths.incrementAndGet();
+		charactersBefore.addAndGet(data.length());
+		charactersAfter.addAndGet(simplified.length());
+
+		if (simplified.equals(data)) {
+			return element;
+		}
+
+		List<Attribute> attributes = new ArrayList<>();
+
+		for (Attribute attribute : XmlEvents.attributes(element)) {
+			QName name = attribute.getName();
+			boolean pathData = name.getNamespaceURI().isEmpty() && name.getLocalPart().equals(PATH_DATA_ATTRIBUTE);
+			attributes.add(pathData ? events.createAttribute(name, simplified) : attribute);
+		}
+
+		return XmlEvents.withAttributes(element, attributes);
+	}
+
+	/**
+	 * Simplifies path data.
+	 * @param data The path data.
+	 * @return The simplified path data, or {@code data} itself if it is malformed or the simplified path data is not
+	 * shorter.
+	 */
+	private String simplify(String data) {
+		try {
+			String simplified = PathFormatter.format(simplifier.simplify(PathParser.parse(data)), precision);
+			return simplified.length() < data.length() ? simplified : data;
+		} catch (IllegalArgumentException e) {
+			return data;
+		}
+	}
+
+	/**
+	 * Gets the number of paths processed.
+	 * @return The number of paths.
+	 */
+	public long getPaths() {
+		return paths.get();
+	}
+
+	/**
+	 * Gets the number of characters of path data before simplification.
+	 * @return The number of characters.
+	 */
+	public long getCharactersBefore() {
+		return charactersBefore.get();
+	}
+
+	/**
+	 * Gets the number of characters of path data after simplification.
+	 * @return The number of characters.
+	 */
+	public long getCharactersAfter() {
+		return charactersAfter.get();
+	}
+
+	/**
+	 * Gets the fraction of the characters of path data removed by simplification.
+	 * @return The fraction, between {@code 0} and {@code 1}.
+	 */
+	public double getReduction() {
+		long before = charactersBefore.get();
+		return before == 0 ? 0 : 1 - (double) charactersAfter.get() / before;
+	}
+
+	@Override
+	public String describeOptions() {
+		return "tolerance=" + tolerance + ",precision=" + precision;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("paths", getPaths())
+			.add("charactersBefore", getCharactersBefore())
+			.add("charactersAfter", getCharactersAfter())
+			.add("reduction", String.format("%.1f%%", getReduction() * 100))
+			.toString();
+	}
+}
@@ -0,0 +1,124 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.svg.SpriteSheet;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.xml.XmlEventProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static com.mikebull94.stockpile.svg.SvgDocument.EMBEDDED_SVG_TAG;
+import static java.util.Collections.emptyIterator;
+
+/**
+ * An {@link XmlEventProcessor} that accepts {@link StartElement}s and {@link EndElement}s whose {@link QName} equals
+ * {@link SvgDocument#SVG_TAG}, placing each embedded SVG at its region of a {@link SpriteSheet}.
+ * <p>
+ * If the {@link XMLEvent} is a {@link StartElement} then the processing returns an {@link ImmutableList} containing an
+ * embedded SVG positioned at its region, which keeps the {@code viewBox} and
+ * {@code preserveAspectRatio} of the provided {@link StartElement} so that its content is scaled as before. The
+ * embedded SVG has no id, as its fragment identifier is given to the {@code <view>} element of its region instead.
+ * <p>
+ * If the {@link XMLEvent} is an {@link EndElement} then the processing returns an {@link ImmutableList} containing
+ * the {@link EndElement} itself.
+ */
+public final class SpriteTagProcessor implements XmlEventProcessor {
+
+	/**
+	 * Used to create {@link StartElement}s and {@link EndElement}s.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The attributes of the provided {@link StartElement} that are kept.
+	 */
+	private static final ImmutableList<String> KEPT_ATTRIBUTES = ImmutableList.of("viewBox", "preserveAspectRatio");
+
+	/**
+	 * The result of processing an {@link EndElement}, shared by every embedded SVG.
+	 */
+	private static final ImmutableList<XMLEvent> EMBEDDED_SVG_END = ImmutableList.of(SvgDocument.endEmbeddedSvg());
+
+	/**
+	 * The {@link SpriteSheet} on which the embedded SVGs are placed.
+	 */
+	private final SpriteSheet sheet;
+
+	/**
+	 * Creates a new {@link SpriteTagProcessor}.
+	 * @param sheet The {@link SpriteSheet} on which the embedded SVGs are placed.
+	 * @throws NullPointerException If {@code sheet} is {@code null}.
+	 */
+	public SpriteTagProcessor(SpriteSheet sheet) {
+		this.sheet = Preconditions.checkNotNull(sheet);
+	}
+
+	/**
+	 * Creates a {@link StartElement} with the {@link SvgDocument#EMBEDDED_SVG_TAG}, positioned at a
+	 * region.
+	 * @param id The fragment identifier of the embedded SVG.
+	 * @param element The provided {@link StartElement}.
+	 * @return The {@link StartElement}.
+	 * @throws IllegalArgumentException If the embedded SVG is not on the {@link SpriteSheet}.
+	 */
+	private XMLEvent embeddedSvgStartElement(String id, StartElement element) {
+		SvgViewBox region = sheet.getRegion(id);
+		Preconditions.checkArgument(region != null, "SVG '%s' is not on the sprite-sheet.", id);
+
+		Collection<Attribute> attributes = new ArrayList<>(4 + KEPT_ATTRIBUTES.size());
+		attributes.add(events.createAttribute("x", SvgNumbers.format(region.getMinX())));
+		attributes.add(events.createAttribute("y", SvgNumbers.format(region.getMinY())));
+		attributes.add(events.createAttribute("width", SvgNumbers.format(region.getWidth())));
+		attributes.add(events.createAttribute("height", SvgNumbers.format(region.getHeight())));
+
+		for (String name : KEPT_ATTRIBUTES) {
+			String value = XmlEvents.attribute(element, name);
+
+			if (value != null) {
+				attributes.add(events.createAttribute(name, value));
+			}
+		}
+
+		return events.createStartElement(EMBEDDED_SVG_TAG, attributes.iterator(), emptyIterator());
+	}
+
+	@Override
+	public boolean accepts(XMLEvent event) {
+		QName name;
+
+		if (event.isStartElement()) {
+			name = event.asStartElement().getName();
+		} else if (event.isEndElement()) {
+			name = event.asEndElement().getName();
+		} else {
+			return false;
+		}
+
+		return SvgDocument.optimized(name) && name.equals(SvgDocument.SVG_TAG);
+	}
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, XMLEvent event) {
+		Preconditions.checkNotNull(id);
+
+		if (event.isStartElement()) {
+			return ImmutableList.of(embeddedSvgStartElement(id, event.asStartElement()));
+		} else if (event.isEndElement()) {
+			return EMBEDDED_SVG_END;
+		} else {
+			throw new IllegalArgumentException("Event must be start or end element.");
+		}
+	}
+}
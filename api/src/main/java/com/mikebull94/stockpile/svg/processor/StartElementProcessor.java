@@ -2,7 +2,9 @@ package com.mikebull94.stockpile.svg.processor;
 
 import com.google.common.collect.ImmutableList;
 import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgReferences;
 import com.mikebull94.stockpile.xml.XmlEventProcessor;
+import com.mikebull94.stockpile.xml.XmlFactories;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventFactory;
@@ -16,22 +18,51 @@ import java.util.Iterator;
 /**
  * An {@link XmlEventProcessor} that accepts {@link StartElement}s whose {@link QName} does not equal
  * {@link SvgDocument#SVG_TAG} or {@link SvgDocument#GROUP_TAG}.
+ * <p>
+ * By default an {@code xlink:href} attribute is removed along with every other non-SVG attribute. It can instead be
+ * kept as an unqualified {@code href} attribute, which SVG 2 renderers resolve but older renderers do not.
  */
 public final class StartElementProcessor implements XmlEventProcessor {
 
 	/**
 	 * Used to create {@link StartElement}s with non-SVG {@link Attribute}s removed.
 	 */
-	private static final XMLEventFactory events = XMLEventFactory.newFactory();
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The unqualified {@code href} attribute, which replaces the {@code xlink:href} attribute in SVG 2.
+	 */
+	private static final QName HREF = new QName("href");
+
+	/**
+	 * A flag indicating whether an {@code xlink:href} attribute is kept as an unqualified {@code href} attribute.
+	 */
+	private final boolean keepHrefs;
+
+	/**
+	 * Creates a new {@link StartElementProcessor} that removes {@code xlink:href} attributes.
+	 */
+	public StartElementProcessor() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new {@link StartElementProcessor}.
+	 * @param keepHrefs A flag indicating whether an {@code xlink:href} attribute is kept as an unqualified
+	 * {@code href} attribute, so that references between elements survive without declaring the XLink namespace.
+	 */
+	public StartElementProcessor(boolean keepHrefs) {
+		this.keepHrefs = keepHrefs;
+	}
 
 	/**
 	 * Modifies a {@link StartElement}, removing attributes that do not have a {@link QName#getNamespaceURI()} that
-	 * equals {@link SvgDocument#NAMESPACE_URI}.
+	 * equals {@link SvgDocument#NAMESPACE_URI}, unless it is an {@code xlink:href} attribute that is kept.
 	 * @param element The {@link StartElement} to remove attributes from.
 	 * @return The modified {@link StartElement}.
 	 */
 	@SuppressWarnings("unchecked")
-	private static XMLEvent removeNonSvgAttributes(StartElement element) {
+	private XMLEvent removeNonSvgAttributes(StartElement element) {
 		Iterator<Attribute> original = element.getAttributes();
 		Collection<Attribute> modified = new ArrayList<>();
 
@@ -42,6 +73,8 @@ public final class StartElementProcessor implements XmlEventProcessor {
 
 			if (namespaceUri.isEmpty() || namespaceUri.equals(SvgDocument.NAMESPACE_URI)) {
 				modified.add(attribute);
+			} else if (keepHrefs && SvgReferences.isHref(qName) && element.getAttributeByName(HREF) == null) {
+				modified.add(events.createAttribute(HREF, attribute.getValue()));
 			}
 		}
 
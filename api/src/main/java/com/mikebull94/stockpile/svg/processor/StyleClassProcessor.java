@@ -0,0 +1,470 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * An {@link XmlDocumentProcessor} that replaces the presentation attributes and {@code style} declarations that
+ * elements repeat across the stockpile with a generated class, and emits a single {@code <svg:style>} block that
+ * declares every class.
+ * <p>
+ * The declarations of each element are collected into a set, in which a {@code style} declaration overrides a
+ * presentation attribute of the same property just as it does when rendered. A set is given a class once it has been
+ * seen a minimum number of times across every document processed, so that sets that are only used once do not cost a
+ * rule, and only replaces the declarations of an element if the class reference is shorter. The first uses of a set
+ * before it reaches the minimum keep their declarations. The rule of a class has a lower precedence than a
+ * {@code style} attribute, but no other rule matches the element, so the element is rendered the same.
+ * <p>
+ * No element is changed in a document with a {@code <style>} element, whose rules the generated ones could override,
+ * nor the root element of a document, which is replaced when it is embedded. A presentation attribute is kept where
+ * moving it into a rule could change its meaning, such as one that references another element, which may be rewritten
+ * by another processor, or a unitless length that is not valid in a style sheet. The declarations of an element are all
+ * kept if its {@code style} attribute cannot be split into declarations without parsing strings or comments, or it
+ * uses a shorthand property whose order relative to other declarations matters.
+ * <p>
+ * The rules are returned by {@link #sharedEvents()}, and must be added to the stockpile for the classes to apply. The
+ * number of characters removed from and added to documents is counted, as a report of the saving.
+ */
+public final class StyleClassProcessor implements XmlDocumentProcessor {
+
+	/**
+	 * Used to create the rewritten {@link Attribute}s and the shared {@code <svg:style>} block.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The {@code <style>} tag.
+	 */
+	private static final QName STYLE_TAG = new QName(SvgDocument.NAMESPACE_URI, "style");
+
+	/**
+	 * The {@code style} attribute.
+	 */
+	private static final QName STYLE_ATTRIBUTE = new QName("style");
+
+	/**
+	 * The {@code class} attribute.
+	 */
+	private static final QName CLASS_ATTRIBUTE = new QName("class");
+
+	/**
+	 * The default prefix of the generated class names.
+	 */
+	private static final String DEFAULT_PREFIX = "c";
+
+	/**
+	 * The default number of times a set of declarations must be seen before it is given a class.
+	 */
+	private static final int DEFAULT_MINIMUM_USES = 2;
+
+	/**
+	 * The radix of the counter from which class names are generated.
+	 */
+	private static final int RADIX = 36;
+
+	/**
+	 * The number of characters an attribute adds beyond its name and value: the space before it, the equals sign and
+	 * the quotes.
+	 */
+	private static final int ATTRIBUTE_OVERHEAD = 4;
+
+	/**
+	 * The presentation attributes that may be moved into a rule.
+	 */
+	private static final ImmutableSet<String> PRESENTATION_ATTRIBUTES = ImmutableSet.of(
+		"alignment-baseline", "baseline-shift", "clip-path", "clip-rule", "color", "color-interpolation",
+		"color-interpolation-filters", "color-rendering", "cursor", "direction", "display", "dominant-baseline",
+		"fill", "fill-opacity", "fill-rule", "filter", "flood-color", "flood-opacity", "font-family", "font-size",
+		"font-size-adjust", "font-stretch", "font-style", "font-variant", "font-weight", "image-rendering",
+		"letter-spacing", "lighting-color", "marker-end", "marker-mid", "marker-start", "mask", "opacity",
+		"overflow", "pointer-events", "shape-rendering", "stop-color", "stop-opacity", "stroke", "stroke-dasharray",
+		"stroke-dashoffset", "stroke-linecap", "stroke-linejoin", "stroke-miterlimit", "stroke-opacity",
+		"stroke-width", "text-anchor", "text-decoration", "text-rendering", "unicode-bidi", "visibility",
+		"word-spacing", "writing-mode"
+	);
+
+	/**
+	 * The presentation attributes whose unitless lengths are not valid in a style sheet.
+	 */
+	private static final ImmutableSet<String> LENGTH_ATTRIBUTES = ImmutableSet.of(
+		"baseline-shift", "font-size", "letter-spacing", "word-spacing"
+	);
+
+	/**
+	 * The shorthand properties, which set other properties and so depend on the order of declarations.
+	 */
+	private static final ImmutableSet<String> SHORTHAND_PROPERTIES = ImmutableSet.of(
+		"animation", "background", "border", "font", "margin", "marker", "mask", "outline", "overflow", "padding",
+		"text-decoration", "transition"
+	);
+
+	/**
+	 * Joins declarations into the body of a rule.
+	 */
+	private static final Joiner.MapJoiner DECLARATIONS = Joiner.on(';').withKeyValueSeparator(":");
+
+	/**
+	 * A flag indicating whether a value may be moved from an attribute or a {@code style} declaration into a rule
+	 * without parsing it.
+	 * @param value The value.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isPlain(String value) {
+		if (value.isEmpty() || value.contains("url(") || value.contains("/*")) {
+			return false;
+		}
+
+		for (int index = 0; index < value.length(); index++) {
+			switch (value.charAt(index)) {
+				case '"':
+				case '\'':
+				case '\\':
+				case '{':
+				case '}':
+				case ';':
+				case '<':
+					return false;
+				default:
+					break;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * A flag indicating whether a presentation attribute may be moved into a rule.
+	 * @param name The name of the attribute.
+	 * @param value The trimmed value of the attribute.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isMovable(String name, String value) {
+		if (!PRESENTATION_ATTRIBUTES.contains(name) || !isPlain(value)) {
+			return false;
+		}
+
+		return !LENGTH_ATTRIBUTES.contains(name) || SvgNumbers.parseDecimal(value) == null;
+	}
+
+	/**
+	 * Splits a {@code style} attribute into declarations.
+	 * @param style The value of the {@code style} attribute.
+	 * @return A {@link Map} of lower-case property names to values, in order, or {@code null} if the declarations
+	 * cannot be moved into a rule.
+	 */
+	private static Map<String, String> declarations(String style) {
+		if (style.contains("/*") || style.contains("url(")) {
+			return null;
+		}
+
+		Map<String, String> declarations = new LinkedHashMap<>();
+
+		for (String declaration : style.split(";")) {
+			if (declaration.trim().isEmpty()) {
+				continue;
+			}
+
+			int colon = declaration.indexOf(':');
+
+			if (colon < 0) {
+				return null;
+			}
+
+			String property = declaration.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+			String value = declaration.substring(colon + 1).trim();
+
+			if (property.isEmpty() || !isPlain(value) || SHORTHAND_PROPERTIES.contains(property)
+				|| declarations.put(property, value) != null) {
+				return null;
+			}
+		}
+
+		return declarations;
+	}
+
+	/**
+	 * Measures the serialized length of an attribute.
+	 * @param attribute The {@link Attribute}.
+	 * @return The length.
+	 */
+	private static int length(Attribute attribute) {
+		return attribute.getName().getLocalPart().length() + attribute.getValue().length() + ATTRIBUTE_OVERHEAD;
+	}
+
+	/**
+	 * The prefix of the generated class names.
+	 */
+	private final String prefix;
+
+	/**
+	 * The number of times a set of declarations must be seen before it is given a class.
+	 */
+	private final int minimumUses;
+
+	/**
+	 * The number of times each set of declarations has been seen, keyed by the body of its rule.
+	 */
+	private final Map<String, Integer> uses = new HashMap<>();
+
+	/**
+	 * The class name of each set of declarations that has been given one, keyed by the body of its rule, in the order
+	 * they were given.
+	 */
+	private final Map<String, String> classNames = new LinkedHashMap<>();
+
+	/**
+	 * The number of characters of attributes removed from documents.
+	 */
+	private long charactersRemoved;
+
+	/**
+	 * The number of characters of class references added to documents.
+	 */
+	private long charactersAdded;
+
+	/**
+	 * Creates a new {@link StyleClassProcessor} whose class names are prefixed with {@code c}, giving a class to each
+	 * set of declarations that is seen at least twice.
+	 */
+	public StyleClassProcessor() {
+		this(DEFAULT_PREFIX, DEFAULT_MINIMUM_USES);
+	}
+
+	/**
+	 * Creates a new {@link StyleClassProcessor}.
+	 * @param prefix The prefix of the generated class names, which must start with a letter and must not be the prefix
+	 * of any other class name in the stockpile.
+	 * @param minimumUses The number of times a set of declarations must be seen before it is given a class.
+	 * @throws NullPointerException If {@code prefix} is {@code null}.
+	 * @throws IllegalArgumentException If {@code prefix} does not start with a letter, or {@code minimumUses} is not
+	 * positive.
+	 */
+	public StyleClassProcessor(String prefix, int minimumUses) {
+		Preconditions.checkArgument(!prefix.isEmpty() && Character.isLetter(prefix.charAt(0)), "Prefix must start with a letter.");
+		Preconditions.checkArgument(minimumUses > 0, "Minimum uses must be positive.");
+		this.prefix = prefix;
+		this.minimumUses = minimumUses;
+	}
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> document) {
+		Preconditions.checkNotNull(id);
+
+		if (document.stream().anyMatch(event -> XmlEvents.isStartElement(event, STYLE_TAG))) {
+			return document;
+		}
+
+		ImmutableList.Builder<XMLEvent> processed = ImmutableList.builder();
+		boolean root = true;
+
+		for (XMLEvent event : document) {
+			if (event.isStartElement() && !root) {
+				processed.add(replaceDeclarations(event.asStartElement()));
+			} else {
+				root &= !event.isStartElement();
+				processed.add(event);
+			}
+		}
+
+		return processed.build();
+	}
+
+	/**
+	 * Replaces the declarations of an element with a class, if its set of declarations has been given one.
+	 * @param element The {@link StartElement}.
+	 * @return The rewritten {@link StartElement}, which is {@code element} itself if nothing was replaced.
+	 */
+	private StartElement replaceDeclarations(StartElement element) {
+		if (!element.getName().getNamespaceURI().equals(SvgDocument.NAMESPACE_URI)) {
+			return element;
+		}
+
+		Map<String, String> declarations = new TreeMap<>();
+		List<Attribute> kept = new ArrayList<>();
+		Attribute classes = null;
+		int removed = 0;
+
+		for (Attribute attribute : XmlEvents.attributes(element)) {
+			QName name = attribute.getName();
+			String value = attribute.getValue().trim();
+
+			if (name.equals(STYLE_ATTRIBUTE)) {
+				continue;
+			} else if (name.equals(CLASS_ATTRIBUTE)) {
+				classes = attribute;
+			} else if (name.getNamespaceURI().isEmpty() && isMovable(name.getLocalPart(), value)) {
+				declarations.put(name.getLocalPart(), value);
+				removed += length(attribute);
+				continue;
+			}
+
+			kept.add(attribute);
+		}
+
+		Attribute style = element.getAttributeByName(STYLE_ATTRIBUTE);
+
+		if (style != null) {
+			Map<String, String> styleDeclarations = declarations(style.getValue());
+
+			if (styleDeclarations == null) {
+				return element;
+			}
+
+			declarations.putAll(styleDeclarations);
+			removed += length(style);
+		}
+
+		if (declarations.isEmpty()) {
+			return element;
+		}
+
+		String rule = DECLARATIONS.join(declarations);
+		String className = register(rule, removed, classes);
+
+		if (className == null) {
+			return element;
+		}
+
+		if (classes == null) {
+			kept.add(events.createAttribute(CLASS_ATTRIBUTE, className));
+		} else {
+			kept.set(kept.indexOf(classes), events.createAttribute(CLASS_ATTRIBUTE, classes.getValue() + " " + className));
+		}
+
+		return XmlEvents.withAttributes(element, kept);
+	}
+
+	/**
+	 * Registers a use of a set of declarations, giving it a class if it has been seen enough times.
+	 * @param rule The body of the rule that declares the set.
+	 * @param removed The number of characters of attributes the class would replace.
+	 * @param classes The {@code class} attribute of the element, or {@code null} if it has none.
+	 * @return The class name, or {@code null} if the declarations should be kept.
+	 */
+	private synchronized String register(String rule, int removed, Attribute classes) {
+		int count = uses.merge(rule, 1, Integer::sum);
+		String className = classNames.get(rule);
+
+		if (className == null && count >= minimumUses) {
+			className = prefix + Integer.toString(classNames.size(), RADIX);
+		}
+
+		if (className == null) {
+			return null;
+		}
+
+		int added = className.length() + (classes == null ? CLASS_ATTRIBUTE.getLocalPart().length() + ATTRIBUTE_OVERHEAD : 1);
+
+		if (added >= removed) {
+			return null;
+		}
+
+		classNames.putIfAbsent(rule, className);
+		charactersRemoved += removed;
+		charactersAdded += added;
+		return className;
+	}
+
+	@Override
+	public synchronized ImmutableList<XMLEvent> sharedEvents() {
+		if (classNames.isEmpty()) {
+			return ImmutableList.of();
+		}
+
+		return ImmutableList.of(
+			events.createStartElement(SvgDocument.STYLE_TAG, emptyIterator(), emptyIterator()),
+			events.createCharacters(rules()),
+			events.createEndElement(SvgDocument.STYLE_TAG, emptyIterator())
+		);
+	}
+
+	/**
+	 * Writes the rule of every class.
+	 * @return The rules.
+	 */
+	private String rules() {
+		StringBuilder rules = new StringBuilder();
+
+		for (Map.Entry<String, String> entry : classNames.entrySet()) {
+			rules.append('.').append(entry.getValue()).append('{').append(entry.getKey()).append('}');
+		}
+
+		return rules.toString();
+	}
+
+	/**
+	 * Gets the number of classes given to sets of declarations.
+	 * @return The number of classes.
+	 */
+	public synchronized int getClasses() {
+		return classNames.size();
+	}
+
+	/**
+	 * Gets the number of characters of attributes removed from documents.
+	 * @return The number of characters.
+	 */
+	public synchronized long getCharactersRemoved() {
+		return charactersRemoved;
+	}
+
+	/**
+	 * Gets the number of characters added to the stockpile, both by class references and by the rules that declare
+	 * them.
+	 * @return The number of characters.
+	 */
+	public synchronized long getCharactersAdded() {
+		if (classNames.isEmpty()) {
+			return 0;
+		}
+
+		String tag = SvgDocument.STYLE_TAG.getPrefix() + ":" + SvgDocument.STYLE_TAG.getLocalPart();
+		return charactersAdded + rules().length() + tag.length() * 2 + "<></>".length();
+	}
+
+	/**
+	 * Gets the number of characters saved, which is negative if the rules cost more than the classes replace.
+	 * @return The number of characters.
+	 */
+	public synchronized long getSaving() {
+		return getCharactersRemoved() - getCharactersAdded();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("classes", getClasses())
+			.add("charactersRemoved", getCharactersRemoved())
+			.add("charactersAdded", getCharactersAdded())
+			.add("saving", getSaving())
+			.toString();
+	}
+
+	@Override
+	public String describeOptions() {
+		return "prefix=" + prefix + ",minimumUses=" + minimumUses;
+	}
+}
@@ -3,7 +3,10 @@ package com.mikebull94.stockpile.svg.processor;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
 import com.mikebull94.stockpile.xml.XmlEventProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventFactory;
@@ -23,7 +26,9 @@ import static java.util.Collections.emptyIterator;
  * <p>
  * If the {@link XMLEvent} is a {@link StartElement} then the processing returns an {@link ImmutableList} containing a
  * modified version of the provided {@link StartElement} with a CSS class {@link Attribute} which will prevent it from
- * being rendered unless accessed by a fragment identifier.
+ * being rendered unless accessed by a fragment identifier. If view-boxes are preserved, the {@link SvgViewBox} and
+ * {@code preserveAspectRatio} of the provided {@link StartElement} are kept, so that each embedded SVG is scaled to fit
+ * the document rather than being drawn in the coordinates of the document's {@link SvgViewBox}.
  * <p>
  * If the {@link XMLEvent} is an {@link EndElement} then the processing returns an {@link ImmutableList} containing
  * the {@link EndElement} itself.
@@ -33,7 +38,7 @@ public final class SvgTagProcessor implements XmlEventProcessor {
 	/**
 	 * Used to create {@link StartElement}s and {@link EndElement}s.
 	 */
-	private static final XMLEventFactory events = XMLEventFactory.newFactory();
+	private static final XMLEventFactory events = XmlFactories.events();
 
 	/**
 	 * The attribute key for the {@code id} {@link Attribute}.
@@ -50,24 +55,72 @@ public final class SvgTagProcessor implements XmlEventProcessor {
 	 */
 	private static final String HIDDEN_CLASS_VALUE = "i";
 
+	/**
+	 * The attribute key for the {@code viewBox} {@link Attribute}.
+	 */
+	private static final String VIEW_BOX_KEY = "viewBox";
+
+	/**
+	 * The attribute key for the {@code preserveAspectRatio} {@link Attribute}.
+	 */
+	private static final String PRESERVE_ASPECT_RATIO_KEY = "preserveAspectRatio";
+
+	/**
+	 * The hidden {@code class} {@link Attribute}, shared by every embedded SVG.
+	 */
+	private static final Attribute HIDDEN_CLASS = events.createAttribute(HIDDEN_CLASS_KEY, HIDDEN_CLASS_VALUE);
+
+	/**
+	 * The result of processing an {@link EndElement}, shared by every embedded SVG.
+	 */
+	private static final ImmutableList<XMLEvent> EMBEDDED_SVG_END = ImmutableList.of(SvgDocument.endEmbeddedSvg());
+
+	/**
+	 * A flag indicating whether the {@code viewBox} of each embedded SVG is preserved.
+	 */
+	private final boolean preserveViewBox;
+
+	/**
+	 * Creates a new {@link SvgTagProcessor} that discards the {@code viewBox} of each embedded SVG, so that they are
+	 * drawn in the coordinates of the document.
+	 */
+	public SvgTagProcessor() {
+		this(false);
+	}
+
+	/**
+	 * Creates a new {@link SvgTagProcessor}.
+	 * @param preserveViewBox A flag indicating whether the {@code viewBox} of each embedded SVG is preserved.
+	 */
+	public SvgTagProcessor(boolean preserveViewBox) {
+		this.preserveViewBox = preserveViewBox;
+	}
+
 	/**
 	 * Creates a {@link StartElement} with the {@link SvgDocument#EMBEDDED_SVG_TAG}.
 	 * @param id The id {@link Attribute} value.
+	 * @param element The provided {@link StartElement}.
 	 * @return The {@link StartElement}.
 	 */
-	private static XMLEvent embeddedSvgStartElement(String id) {
-		Collection<Attribute> attributes = new ArrayList<>();
+	private XMLEvent embeddedSvgStartElement(String id, StartElement element) {
+		Collection<Attribute> attributes = new ArrayList<>(preserveViewBox ? 4 : 2);
 		attributes.add(events.createAttribute(ID_KEY, id));
-		attributes.add(events.createAttribute(HIDDEN_CLASS_KEY, HIDDEN_CLASS_VALUE));
-		return events.createStartElement(EMBEDDED_SVG_TAG, attributes.iterator(), emptyIterator());
-	}
+		attributes.add(HIDDEN_CLASS);
 
-	/**
-	 * Creates an {@link EndElement} with the {@link SvgDocument#EMBEDDED_SVG_TAG}.
-	 * @return The {@link EndElement}.
-	 */
-	private static XMLEvent embeddedSvgEndElement() {
-		return events.createEndElement(EMBEDDED_SVG_TAG, emptyIterator());
+		if (preserveViewBox) {
+			SvgViewBox viewBox = SvgViewBox.of(element);
+			String preserveAspectRatio = XmlEvents.attribute(element, PRESERVE_ASPECT_RATIO_KEY);
+
+			if (viewBox != null) {
+				attributes.add(events.createAttribute(VIEW_BOX_KEY, viewBox.toAttributeValue()));
+			}
+
+			if (preserveAspectRatio != null) {
+				attributes.add(events.createAttribute(PRESERVE_ASPECT_RATIO_KEY, preserveAspectRatio));
+			}
+		}
+
+		return events.createStartElement(EMBEDDED_SVG_TAG, attributes.iterator(), emptyIterator());
 	}
 
 	@Override
@@ -90,9 +143,9 @@ public final class SvgTagProcessor implements XmlEventProcessor {
 		Preconditions.checkNotNull(id);
 
 		if (event.isStartElement()) {
-			return ImmutableList.of(embeddedSvgStartElement(id));
+			return ImmutableList.of(embeddedSvgStartElement(id, event.asStartElement()));
 		} else if (event.isEndElement()) {
-			return ImmutableList.of(embeddedSvgEndElement());
+			return EMBEDDED_SVG_END;
 		} else {
 			throw new IllegalArgumentException("Event must be start or end element.");
 		}
@@ -0,0 +1,501 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgNumbers;
+import com.mikebull94.stockpile.svg.SvgTransform;
+import com.mikebull94.stockpile.svg.path.PathData;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link XmlDocumentProcessor} that flattens the {@code transform} attributes of a document.
+ * <p>
+ * The transforms of {@code <g>} elements, which are unwrapped by the {@link StartElementProcessor}, are composed with
+ * the transforms of their children so that they are not lost. The composed transform of a path or basic shape is then
+ * baked into its coordinates where the result is exact and shorter, which is when the transform neither rotates nor
+ * skews. Any other transform is kept as the shortest equivalent {@code transform} attribute.
+ * <p>
+ * Transforms that scale are only baked into unstroked elements, as baking would otherwise change the width of the
+ * stroke, and no transform is baked into an element that is painted by reference, or in a document with a
+ * {@code <style>} element, where the effect of a transform is not known.
+ * <p>
+ * Baked coordinates are exact by default. A precision may be given instead, to which they are rounded before deciding
+ * whether baking is shorter, so that transforms whose factors have many digits, such as those that fit one view-box
+ * into another, are still baked.
+ */
+public final class TransformProcessor implements XmlDocumentProcessor {
+
+	/**
+	 * Used to create the flattened {@link StartElement}s.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The {@code transform} attribute.
+	 */
+	private static final QName TRANSFORM = new QName("transform");
+
+	/**
+	 * The {@code style} attribute.
+	 */
+	private static final String STYLE_ATTRIBUTE = "style";
+
+	/**
+	 * The {@code <style>} tag.
+	 */
+	private static final QName STYLE_TAG = new QName(SvgDocument.NAMESPACE_URI, "style");
+
+	/**
+	 * The transform and paint inherited by an element from its ancestors.
+	 */
+	private static final class Context {
+
+		/**
+		 * The {@link Context} of the root element of a document.
+		 */
+		static final Context ROOT = new Context("", SvgTransform.IDENTITY, InheritedPaint.ROOT);
+
+		/**
+		 * The {@link Context} of the root element of a document with a {@code <style>} element.
+		 */
+		static final Context STYLED = new Context("", SvgTransform.IDENTITY, InheritedPaint.UNKNOWN);
+
+		/**
+		 * The transforms of the unwrapped {@code <g>} ancestors, as a transform list that is empty if there are none.
+		 */
+		private final String transform;
+
+		/**
+		 * The composition of {@link #transform}, or {@code null} if it cannot be represented exactly.
+		 */
+		private final SvgTransform matrix;
+
+		/**
+		 * The {@link InheritedPaint}.
+		 */
+		private final InheritedPaint paint;
+
+		/**
+		 * Creates a new {@link Context}.
+		 * @param transform The transforms of the unwrapped {@code <g>} ancestors.
+		 * @param matrix The composition of {@code transform}, or {@code null}.
+		 * @param paint The {@link InheritedPaint}.
+		 */
+		Context(String transform, SvgTransform matrix, InheritedPaint paint) {
+			this.transform = transform;
+			this.matrix = matrix;
+			this.paint = paint;
+		}
+
+		/**
+		 * Creates the {@link Context} of the children of an element.
+		 * @param name The local name of the element.
+		 * @param attributes The {@link Attribute}s of the element.
+		 * @param transform The transform inherited by the children.
+		 * @param matrix The composition of {@code transform}, or {@code null}.
+		 * @return The {@link Context}.
+		 */
+		Context children(String name, Map<String, String> attributes, String transform, SvgTransform matrix) {
+			return new Context(transform, matrix, paint.of(name, attributes));
+		}
+	}
+
+	/**
+	 * Composes the transform list inherited from ancestors with the transform of an element.
+	 * @param inherited The inherited transform list, which may be empty.
+	 * @param own The transform of the element, or {@code null} if it has none.
+	 * @return The composed transform list.
+	 */
+	private static String compose(String inherited, String own) {
+		if (own == null || own.trim().isEmpty()) {
+			return inherited;
+		}
+
+		return inherited.isEmpty() ? own.trim() : inherited + " " + own.trim();
+	}
+
+	/**
+	 * Composes the transform matrix inherited from ancestors with the transform of an element.
+	 * @param inherited The inherited {@link SvgTransform}, or {@code null}.
+	 * @param own The transform of the element, or {@code null} if it has none.
+	 * @return The composed {@link SvgTransform}, or {@code null} if it cannot be represented exactly.
+	 */
+	private static SvgTransform compose(SvgTransform inherited, String own) {
+		if (inherited == null || own == null) {
+			return inherited;
+		}
+
+		SvgTransform transform = SvgTransform.parse(own);
+		return transform == null ? null : inherited.multiply(transform);
+	}
+
+	/**
+	 * Parses a numeric attribute.
+	 * @param attributes The attributes.
+	 * @param name The name of the attribute.
+	 * @param defaultValue The value if the attribute is absent, or {@code null} if it is required.
+	 * @return The value, or {@code null} if it is absent and required or is not a plain number.
+	 */
+	private static BigDecimal number(Map<String, String> attributes, String name, BigDecimal defaultValue) {
+		String value = attributes.get(name);
+
+		return value == null ? defaultValue : SvgNumbers.parseDecimal(value);
+	}
+
+	/**
+	 * Bakes an {@link SvgTransform} into the coordinates of a path or basic shape.
+	 * @param name The local name of the element.
+	 * @param attributes The attributes of the element.
+	 * @param transform The axis-aligned {@link SvgTransform}.
+	 * @return A {@link Map} of the attributes to replace, or {@code null} if the transform cannot be baked exactly.
+	 */
+	private static Map<String, String> bake(String name, Map<String, String> attributes, SvgTransform transform) {
+		Map<String, String> baked = new LinkedHashMap<>();
+
+		switch (name) {
+			case "path":
+				String data = attributes.get("d");
+
+				if (data != null) {
+					String transformed = PathData.transform(data, transform);
+
+					if (transformed == null) {
+						return null;
+					}
+
+					baked.put("d", transformed);
+				}
+
+				return baked;
+			case "rect":
+				return bakeRect(attributes, transform);
+			case "circle":
+				return transform.isUniform() ? bakeEllipse(attributes, transform, "r", "r") : null;
+			case "ellipse":
+				return bakeEllipse(attributes, transform, "rx", "ry");
+			case "line":
+				return bakePoints(attributes, transform, "x1", "y1", "x2", "y2");
+			case "polyline":
+			case "polygon":
+				return bakePointList(attributes, transform);
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Bakes an {@link SvgTransform} into the coordinates of a {@code <rect>}.
+	 * @param attributes The attributes of the element.
+	 * @param transform The axis-aligned {@link SvgTransform}.
+	 * @return A {@link Map} of the attributes to replace, or {@code null} if the transform cannot be baked exactly.
+	 */
+	private static Map<String, String> bakeRect(Map<String, String> attributes, SvgTransform transform) {
+		BigDecimal x = number(attributes, "x", BigDecimal.ZERO);
+		BigDecimal y = number(attributes, "y", BigDecimal.ZERO);
+		BigDecimal width = number(attributes, "width", null);
+		BigDecimal height = number(attributes, "height", null);
+		BigDecimal rx = number(attributes, "rx", BigDecimal.ZERO);
+		BigDecimal ry = number(attributes, "ry", BigDecimal.ZERO);
+
+		if (x == null || y == null || width == null || height == null || rx == null || ry == null) {
+			return null;
+		}
+
+		Map<String, String> baked = new LinkedHashMap<>();
+		baked.put("x", SvgNumbers.format(transform.x(x).min(transform.x(x.add(width)))));
+		baked.put("y", SvgNumbers.format(transform.y(y).min(transform.y(y.add(height)))));
+		baked.put("width", SvgNumbers.format(transform.dx(width).abs()));
+		baked.put("height", SvgNumbers.format(transform.dy(height).abs()));
+
+		boolean hasRx = attributes.containsKey("rx");
+		boolean hasRy = attributes.containsKey("ry");
+
+		if (hasRx || hasRy) {
+			BigDecimal radiusX = hasRx ? rx : ry;
+			BigDecimal radiusY = hasRy ? ry : rx;
+			baked.put("rx", SvgNumbers.format(transform.dx(radiusX).abs()));
+			baked.put("ry", SvgNumbers.format(transform.dy(radiusY).abs()));
+		}
+
+		return baked;
+	}
+
+	/**
+	 * Bakes an {@link SvgTransform} into the coordinates of a {@code <circle>} or {@code <ellipse>}.
+	 * @param attributes The attributes of the element.
+	 * @param transform The axis-aligned {@link SvgTransform}.
+	 * @param radiusX The attribute of the radius along the x-axis.
+	 * @param radiusY The attribute of the radius along the y-axis.
+	 * @return A {@link Map} of the attributes to replace, or {@code null} if the transform cannot be baked exactly.
+	 */
+	private static Map<String, String> bakeEllipse(Map<String, String> attributes, SvgTransform transform, String radiusX, String radiusY) {
+		Map<String, String> baked = bakePoints(attributes, transform, "cx", "cy");
+		BigDecimal rx = number(attributes, radiusX, BigDecimal.ZERO);
+		BigDecimal ry = number(attributes, radiusY, BigDecimal.ZERO);
+
+		if (baked == null || rx == null || ry == null) {
+			return null;
+		}
+
+		baked.put(radiusX, SvgNumbers.format(transform.dx(rx).abs()));
+
+		if (!radiusX.equals(radiusY)) {
+			baked.put(radiusY, SvgNumbers.format(transform.dy(ry).abs()));
+		}
+
+		return baked;
+	}
+
+	/**
+	 * Bakes an {@link SvgTransform} into coordinates held by pairs of attributes, which default to zero.
+	 * @param attributes The attributes of the element.
+	 * @param transform The axis-aligned {@link SvgTransform}.
+	 * @param names Alternating the names of the x-coordinate and the y-coordinate attributes.
+	 * @return A {@link Map} of the attributes to replace, or {@code null} if the transform cannot be baked exactly.
+	 */
+	private static Map<String, String> bakePoints(Map<String, String> attributes, SvgTransform transform, String... names) {
+		Map<String, String> baked = new LinkedHashMap<>();
+
+		for (int index = 0; index < names.length; index += 2) {
+			BigDecimal x = number(attributes, names[index], BigDecimal.ZERO);
+			BigDecimal y = number(attributes, names[index + 1], BigDecimal.ZERO);
+
+			if (x == null || y == null) {
+				return null;
+			}
+
+			baked.put(names[index], SvgNumbers.format(transform.x(x)));
+			baked.put(names[index + 1], SvgNumbers.format(transform.y(y)));
+		}
+
+		return baked;
+	}
+
+	/**
+	 * Bakes an {@link SvgTransform} into the {@code points} of a {@code <polyline>} or {@code <polygon>}.
+	 * @param attributes The attributes of the element.
+	 * @param transform The axis-aligned {@link SvgTransform}.
+	 * @return A {@link Map} of the attributes to replace, or {@code null} if the transform cannot be baked exactly.
+	 */
+	private static Map<String, String> bakePointList(Map<String, String> attributes, SvgTransform transform) {
+		String points = attributes.getOrDefault("points", "");
+		StringBuilder out = new StringBuilder(points.length());
+		int end = points.length();
+		int coordinate = 0;
+		int index = 0;
+
+		while (index < end) {
+			if (SvgNumbers.isSeparator(points.charAt(index))) {
+				index++;
+				continue;
+			}
+
+			int next = SvgNumbers.scan(points, index, end);
+
+			if (next == index) {
+				return null;
+			}
+
+			BigDecimal value = new BigDecimal(points.substring(index, next));
+
+			if (out.length() > 0) {
+				out.append(coordinate % 2 == 0 ? ' ' : ',');
+			}
+
+			out.append(SvgNumbers.format(coordinate % 2 == 0 ? transform.x(value) : transform.y(value)));
+			coordinate++;
+			index = next;
+		}
+
+		Map<String, String> baked = new LinkedHashMap<>();
+		baked.put("points", out.toString());
+		return baked;
+	}
+
+	/**
+	 * Measures the serialized length of some attributes.
+	 * @param attributes The attributes.
+	 * @param names The names of the attributes to measure.
+	 * @return The length.
+	 */
+	private static int length(Map<String, String> attributes, Iterable<String> names) {
+		int length = 0;
+
+		for (String name : names) {
+			String value = attributes.get(name);
+
+			if (value != null) {
+				length += name.length() + value.length() + 4;
+			}
+		}
+
+		return length;
+	}
+
+	/**
+	 * The maximum number of fraction digits to keep in baked coordinates, or {@link SvgNumbers#LOSSLESS}.
+	 */
+	private final int precision;
+
+	/**
+	 * Creates a new {@link TransformProcessor} that bakes coordinates exactly.
+	 */
+	public TransformProcessor() {
+		this(SvgNumbers.LOSSLESS);
+	}
+
+	/**
+	 * Creates a new {@link TransformProcessor}.
+	 * @param precision The maximum number of fraction digits to keep in baked coordinates, or
+	 * {@link SvgNumbers#LOSSLESS}.
+	 * @throws IllegalArgumentException If {@code precision} is less than {@link SvgNumbers#LOSSLESS}.
+	 */
+	public TransformProcessor(int precision) {
+		Preconditions.checkArgument(precision >= SvgNumbers.LOSSLESS, "Precision must be non-negative or LOSSLESS.");
+		this.precision = precision;
+	}
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> document) {
+		Preconditions.checkNotNull(id);
+
+		boolean styled = document.stream().anyMatch(event -> XmlEvents.isStartElement(event, STYLE_TAG));
+		Deque<Context> contexts = new ArrayDeque<>();
+		contexts.push(styled ? Context.STYLED : Context.ROOT);
+
+		ImmutableList.Builder<XMLEvent> processed = ImmutableList.builder();
+
+		for (XMLEvent event : document) {
+			if (event.isStartElement()) {
+				StartElement element = event.asStartElement();
+				Context context = contexts.peek();
+
+				if (element.getName().getNamespaceURI().equals(SvgDocument.NAMESPACE_URI)) {
+					processed.add(flatten(element, context, contexts));
+				} else {
+					contexts.push(new Context("", SvgTransform.IDENTITY, context.paint));
+					processed.add(event);
+				}
+			} else {
+				if (event.isEndElement()) {
+					contexts.pop();
+				}
+
+				processed.add(event);
+			}
+		}
+
+		return processed.build();
+	}
+
+	/**
+	 * Flattens the transform of a {@link StartElement} and pushes the {@link Context} of its children.
+	 * @param element The {@link StartElement}.
+	 * @param context The {@link Context} of the element.
+	 * @param contexts The {@link Context}s of each of the open elements, innermost first.
+	 * @return The flattened {@link StartElement}.
+	 */
+	private StartElement flatten(StartElement element, Context context, Deque<Context> contexts) {
+		Map<String, String> attributes = XmlEvents.unqualifiedAttributes(element);
+		String own = attributes.get(TRANSFORM.getLocalPart());
+		String transform = compose(context.transform, own);
+		SvgTransform matrix = compose(context.matrix, own);
+
+		String name = element.getName().getLocalPart();
+
+		if (element.getName().equals(SvgDocument.GROUP_TAG)) {
+			contexts.push(context.children(name, attributes, transform, matrix));
+			return own == null ? element : withAttributes(element, attributes, null);
+		}
+
+		Context children = context.children(name, attributes, "", SvgTransform.IDENTITY);
+		contexts.push(children);
+
+		if (transform.isEmpty()) {
+			return element;
+		}
+
+		boolean bakeable = matrix != null && matrix.isAxisAligned() && !children.paint.isReferenced()
+			&& !attributes.containsKey(STYLE_ATTRIBUTE) && (matrix.isTranslation() || !children.paint.isStroked());
+
+		if (bakeable) {
+			Map<String, String> baked = bake(name, attributes, matrix);
+
+			if (baked != null) {
+				if (precision != SvgNumbers.LOSSLESS) {
+					baked.replaceAll((attribute, value) -> attribute.equals("d") ? PathData.compact(value, precision) : SvgNumbers.compact(value, precision));
+				}
+
+				/* the transform may be inherited from a group, so it is measured as it would be written */
+				int unbaked = length(attributes, baked.keySet()) + TRANSFORM.getLocalPart().length() + transform.length() + 4;
+
+				if (length(baked, baked.keySet()) <= unbaked) {
+					attributes.putAll(baked);
+					return withAttributes(element, attributes, null);
+				}
+			}
+		}
+
+		String value = transform;
+
+		if (matrix != null) {
+			String shortest = matrix.toAttributeValue();
+
+			if (shortest.length() <= value.length()) {
+				value = shortest;
+			}
+		}
+
+		return withAttributes(element, attributes, value.isEmpty() ? null : value);
+	}
+
+	/**
+	 * Creates a copy of a {@link StartElement} with different unqualified {@link Attribute}s and {@code transform}.
+	 * @param element The {@link StartElement}.
+	 * @param attributes The unqualified attributes, in order, excluding the {@code transform}.
+	 * @param transform The {@code transform}, or {@code null} for none.
+	 * @return The copied {@link StartElement}.
+	 */
+	private static StartElement withAttributes(StartElement element, Map<String, String> attributes, String transform) {
+		List<Attribute> copied = new ArrayList<>(attributes.size() + 1);
+
+		for (Attribute attribute : XmlEvents.attributes(element)) {
+			if (!attribute.getName().getNamespaceURI().isEmpty()) {
+				copied.add(attribute);
+			}
+		}
+
+		for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+			if (!attribute.getKey().equals(TRANSFORM.getLocalPart())) {
+				copied.add(events.createAttribute(attribute.getKey(), attribute.getValue()));
+			}
+		}
+
+		if (transform != null) {
+			copied.add(events.createAttribute(TRANSFORM, transform));
+		}
+
+		return XmlEvents.withAttributes(element, copied);
+	}
+
+	@Override
+	public String describeOptions() {
+		return "precision=" + precision;
+	}
+}
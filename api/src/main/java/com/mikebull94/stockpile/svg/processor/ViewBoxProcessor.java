@@ -0,0 +1,354 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgTransform;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import com.mikebull94.stockpile.xml.XmlFactories;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.emptyIterator;
+
+/**
+ * An {@link XmlDocumentProcessor} that normalizes the view-box of each document into a target {@link SvgViewBox}, by
+ * rewriting its coordinates so that it fits the target as its own {@code viewBox} and {@code preserveAspectRatio}
+ * would have fitted it. The normalized document has no {@code viewBox} of its own, so nothing is scaled when it is
+ * rendered.
+ * <p>
+ * The transform that fits the document is applied to its content by a {@link TransformProcessor}, rounding the
+ * rewritten coordinates to a precision. As with any {@link TransformProcessor}, an element whose coordinates cannot be
+ * rewritten, such as a stroked element that would need its stroke scaled, is given an equivalent {@code transform}.
+ * <p>
+ * Only documents made of paths, basic shapes and groups are normalized, as the coordinates of other elements, such as
+ * gradients, patterns and text, would not be rewritten consistently. Any other document keeps its {@code viewBox},
+ * which is embedded if the {@link SvgTagProcessor} preserves view-boxes.
+ */
+public final class ViewBoxProcessor implements XmlDocumentProcessor {
+
+	/**
+	 * Used to create the {@code <g>} element that carries the transform.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * The default maximum number of fraction digits to keep in the rewritten coordinates.
+	 */
+	private static final int DEFAULT_PRECISION = 3;
+
+	/**
+	 * The {@link MathContext} of the scale factors, which need not terminate.
+	 */
+	private static final MathContext SCALE_CONTEXT = MathContext.DECIMAL64;
+
+	/**
+	 * The value of {@code preserveAspectRatio} that fits the view-box without preserving its aspect ratio.
+	 */
+	private static final String NO_ALIGNMENT = "none";
+
+	/**
+	 * The default value of {@code preserveAspectRatio}.
+	 */
+	private static final String DEFAULT_ALIGNMENT = "xMidYMid";
+
+	/**
+	 * The value of {@code preserveAspectRatio} that scales the view-box to cover the viewport.
+	 */
+	private static final String SLICE = "slice";
+
+	/**
+	 * The value of {@code preserveAspectRatio} that is ignored by any element other than an {@code <image>}.
+	 */
+	private static final String DEFER = "defer";
+
+	/**
+	 * Splits the value of a {@code preserveAspectRatio} attribute into its keywords.
+	 */
+	private static final Splitter KEYWORD_SPLITTER = Splitter.on(' ').trimResults().omitEmptyStrings();
+
+	/**
+	 * The {@code transform} attribute.
+	 */
+	private static final QName TRANSFORM = new QName("transform");
+
+	/**
+	 * The attributes of the root element that size its view-box, which are removed once it is normalized.
+	 */
+	private static final ImmutableSet<String> VIEW_BOX_ATTRIBUTES = ImmutableSet.of(
+		"viewBox", "preserveAspectRatio", "width", "height", "x", "y"
+	);
+
+	/**
+	 * The local names of the elements whose coordinates are rewritten consistently.
+	 */
+	private static final ImmutableSet<String> NORMALIZABLE_ELEMENTS = ImmutableSet.of(
+		"g", "path", "rect", "circle", "ellipse", "line", "polyline", "polygon", "title", "desc", "metadata"
+	);
+
+	/**
+	 * The prefix of a reference to another element, whose coordinates may be relative to the referencing element.
+	 */
+	private static final String REFERENCE = "url(";
+
+	/**
+	 * A flag indicating whether the coordinates of a document can be rewritten consistently.
+	 * @param document The {@link XMLEvent}s of the document.
+	 * @param root The index of the root element.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isNormalizable(List<XMLEvent> document, int root) {
+		for (int index = root + 1; index < document.size(); index++) {
+			XMLEvent event = document.get(index);
+
+			if (!event.isStartElement()) {
+				continue;
+			}
+
+			StartElement element = event.asStartElement();
+			QName name = element.getName();
+
+			if (name.getNamespaceURI().equals(SvgDocument.NAMESPACE_URI) && !NORMALIZABLE_ELEMENTS.contains(name.getLocalPart())) {
+				return false;
+			}
+
+			for (Attribute attribute : XmlEvents.attributes(element)) {
+				if (attribute.getValue().contains(REFERENCE)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Computes the transform that fits one view-box into another.
+	 * @param source The {@link SvgViewBox} to fit.
+	 * @param target The {@link SvgViewBox} to fit it into.
+	 * @param preserveAspectRatio The value of the {@code preserveAspectRatio} attribute, or {@code null} if absent.
+	 * @return The {@link SvgTransform}, or {@code null} if the view-box cannot be fitted.
+	 */
+	private static SvgTransform fit(SvgViewBox source, SvgViewBox target, String preserveAspectRatio) {
+		if (source.getWidth() <= 0 || source.getHeight() <= 0) {
+			return null;
+		}
+
+		List<String> keywords = new ArrayList<>(KEYWORD_SPLITTER.splitToList(preserveAspectRatio == null ? "" : preserveAspectRatio));
+
+		if (!keywords.isEmpty() && keywords.get(0).equals(DEFER)) {
+			keywords.remove(0);
+		}
+
+		String alignment = keywords.isEmpty() ? DEFAULT_ALIGNMENT : keywords.get(0);
+		boolean slice = keywords.size() > 1 && keywords.get(1).equals(SLICE);
+
+		BigDecimal sourceWidth = BigDecimal.valueOf(source.getWidth());
+		BigDecimal sourceHeight = BigDecimal.valueOf(source.getHeight());
+		BigDecimal targetWidth = BigDecimal.valueOf(target.getWidth());
+		BigDecimal targetHeight = BigDecimal.valueOf(target.getHeight());
+		BigDecimal scaleX = targetWidth.divide(sourceWidth, SCALE_CONTEXT);
+		BigDecimal scaleY = targetHeight.divide(sourceHeight, SCALE_CONTEXT);
+		BigDecimal offsetX = BigDecimal.ZERO;
+		BigDecimal offsetY = BigDecimal.ZERO;
+
+		if (!alignment.equals(NO_ALIGNMENT)) {
+			if (alignment.length() != DEFAULT_ALIGNMENT.length() || alignment.charAt(0) != 'x' || alignment.charAt(4) != 'Y') {
+				return null;
+			}
+
+			BigDecimal scale = slice ? scaleX.max(scaleY) : scaleX.min(scaleY);
+			scaleX = scale;
+			scaleY = scale;
+			offsetX = align(alignment.substring(1, 4), targetWidth.subtract(sourceWidth.multiply(scale)));
+			offsetY = align(alignment.substring(5), targetHeight.subtract(sourceHeight.multiply(scale)));
+
+			if (offsetX == null || offsetY == null) {
+				return null;
+			}
+		}
+
+		BigDecimal translateX = BigDecimal.valueOf(target.getMinX())
+			.subtract(BigDecimal.valueOf(source.getMinX()).multiply(scaleX))
+			.add(offsetX)
+			.round(SCALE_CONTEXT);
+		BigDecimal translateY = BigDecimal.valueOf(target.getMinY())
+			.subtract(BigDecimal.valueOf(source.getMinY()).multiply(scaleY))
+			.add(offsetY)
+			.round(SCALE_CONTEXT);
+		return new SvgTransform(scaleX, BigDecimal.ZERO, BigDecimal.ZERO, scaleY, translateX, translateY);
+	}
+
+	/**
+	 * Computes the offset that aligns a view-box along one axis.
+	 * @param alignment The alignment: {@code Min}, {@code Mid} or {@code Max}.
+	 * @param space The space left along the axis once the view-box is scaled.
+	 * @return The offset, or {@code null} if the alignment is not valid.
+	 */
+	private static BigDecimal align(String alignment, BigDecimal space) {
+		switch (alignment) {
+			case "Min":
+				return BigDecimal.ZERO;
+			case "Mid":
+				return space.divide(BigDecimal.valueOf(2));
+			case "Max":
+				return space;
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Creates a copy of the root element without the attributes that size its view-box.
+	 * @param element The root {@link StartElement}.
+	 * @return The copied {@link StartElement}.
+	 */
+	private static StartElement withoutViewBox(StartElement element) {
+		List<Attribute> attributes = new ArrayList<>();
+
+		for (Attribute attribute : XmlEvents.attributes(element)) {
+			QName name = attribute.getName();
+
+			if (!name.getNamespaceURI().isEmpty() || !VIEW_BOX_ATTRIBUTES.contains(name.getLocalPart())) {
+				attributes.add(attribute);
+			}
+		}
+
+		return XmlEvents.withAttributes(element, attributes);
+	}
+
+	/**
+	 * The {@link SvgViewBox} to normalize each document into.
+	 */
+	private final SvgViewBox target;
+
+	/**
+	 * Applies the transforms that fit each document.
+	 */
+	private final TransformProcessor transforms;
+
+	/**
+	 * The number of documents normalized.
+	 */
+	private final AtomicLong normalized = new AtomicLong();
+
+	/**
+	 * The number of documents that kept their view-box.
+	 */
+	private final AtomicLong preserved = new AtomicLong();
+
+	/**
+	 * Creates a new {@link ViewBoxProcessor} that keeps three fraction digits in the rewritten coordinates.
+	 * @param target The {@link SvgViewBox} to normalize each document into.
+	 * @throws NullPointerException If {@code target} is {@code null}.
+	 */
+	public ViewBoxProcessor(SvgViewBox target) {
+		this(target, DEFAULT_PRECISION);
+	}
+
+	/**
+	 * Creates a new {@link ViewBoxProcessor}.
+	 * @param target The {@link SvgViewBox} to normalize each document into.
+	 * @param precision The maximum number of fraction digits to keep in the rewritten coordinates, or
+	 * {@link com.mikebull94.stockpile.svg.SvgNumbers#LOSSLESS}.
+	 * @throws NullPointerException If {@code target} is {@code null}.
+	 * @throws IllegalArgumentException If {@code precision} is less than
+	 * {@link com.mikebull94.stockpile.svg.SvgNumbers#LOSSLESS}.
+	 */
+	public ViewBoxProcessor(SvgViewBox target, int precision) {
+		this.target = Preconditions.checkNotNull(target);
+		this.transforms = new TransformProcessor(precision);
+	}
+
+	@Override
+	public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> document) {
+		Preconditions.checkNotNull(id);
+
+		int root = -1;
+		int end = -1;
+
+		for (int index = 0; index < document.size(); index++) {
+			XMLEvent event = document.get(index);
+
+			if (event.isStartElement() && root < 0) {
+				root = index;
+			} else if (event.isEndElement()) {
+				end = index;
+			}
+		}
+
+		if (root < 0 || end < 0 || !document.get(root).asStartElement().getName().equals(SvgDocument.SVG_TAG)) {
+			return document;
+		}
+
+		StartElement element = document.get(root).asStartElement();
+		SvgViewBox source = SvgViewBox.of(element);
+		SvgTransform transform = source == null ? null : fit(source, target, XmlEvents.attribute(element, "preserveAspectRatio"));
+
+		if (transform == null || !isNormalizable(document, root)) {
+			preserved.incrementAndGet();
+			return document;
+		}
+
+		ImmutableList.Builder<XMLEvent> wrapped = ImmutableList.builder();
+		wrapped.addAll(document.subList(0, root));
+		wrapped.add(withoutViewBox(element));
+
+		if (transform.isIdentity()) {
+			wrapped.addAll(document.subList(root + 1, document.size()));
+		} else {
+			ImmutableList<Attribute> attributes = ImmutableList.of(events.createAttribute(TRANSFORM, transform.toAttributeValue()));
+			wrapped.add(events.createStartElement(SvgDocument.GROUP_TAG, attributes.iterator(), emptyIterator()));
+			wrapped.addAll(document.subList(root + 1, end));
+			wrapped.add(events.createEndElement(SvgDocument.GROUP_TAG, emptyIterator()));
+			wrapped.addAll(document.subList(end, document.size()));
+		}
+
+		normalized.incrementAndGet();
+		return transform.isIdentity() ? wrapped.build() : transforms.process(id, wrapped.build());
+	}
+
+	/**
+	 * Gets the number of documents normalized.
+	 * @return The number of documents.
+	 */
+	public long getNormalized() {
+		return normalized.get();
+	}
+
+	/**
+	 * Gets the number of documents that kept their view-box, as they could not be normalized.
+	 * @return The number of documents.
+	 */
+	public long getPreserved() {
+		return preserved.get();
+	}
+
+	@Override
+	public String describeOptions() {
+		return "target=" + target.toAttributeValue() + "," + transforms.describeOptions();
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("target", target)
+			.add("normalized", getNormalized())
+			.add("preserved", getPreserved())
+			.toString();
+	}
+}
@@ -0,0 +1,102 @@
+package com.mikebull94.stockpile.usage;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Ordering;
+import com.mikebull94.stockpile.util.PathUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The result of a {@link UsageScanner#scan(Iterable)}, partitioning fragment identifiers into those that are referenced
+ * by an application's source files and those that are not.
+ */
+public final class IconUsage {
+
+	/**
+	 * The fragment identifiers that are referenced.
+	 */
+	private final ImmutableSet<String> used;
+
+	/**
+	 * The fragment identifiers that are not referenced.
+	 */
+	private final ImmutableSet<String> unused;
+
+	/**
+	 * Creates a new {@link IconUsage}.
+	 * @param used The fragment identifiers that are referenced.
+	 * @param unused The fragment identifiers that are not referenced.
+	 * @throws NullPointerException If {@code used} or {@code unused} are {@code null}.
+	 */
+	public IconUsage(ImmutableSet<String> used, ImmutableSet<String> unused) {
+		this.used = Preconditions.checkNotNull(used);
+		this.unused = Preconditions.checkNotNull(unused);
+	}
+
+	/**
+	 * Gets the fragment identifiers that are referenced.
+	 * @return An {@link ImmutableSet} of fragment identifiers.
+	 */
+	public ImmutableSet<String> getUsed() {
+		return used;
+	}
+
+	/**
+	 * Gets the fragment identifiers that are not referenced.
+	 * @return An {@link ImmutableSet} of fragment identifiers.
+	 */
+	public ImmutableSet<String> getUnused() {
+		return unused;
+	}
+
+	/**
+	 * A flag indicating whether a fragment identifier is referenced.
+	 * @param id The fragment identifier.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean isUsed(String id) {
+		return used.contains(id);
+	}
+
+	/**
+	 * Filters the {@link Path}s of SVG documents down to those whose fragment identifier is referenced, so that only
+	 * they are read into a {@link com.mikebull94.stockpile.StockpileBuilder}.
+	 * @param svgs The {@link Path}s of the SVG documents.
+	 * @return An {@link ImmutableList} of the referenced {@link Path}s, in their original order.
+	 * @throws IllegalArgumentException If {@link Path#getFileName()} on any of the {@code svgs} returns {@code null}.
+	 */
+	public ImmutableList<Path> referenced(Iterable<Path> svgs) {
+		ImmutableList.Builder<Path> referenced = ImmutableList.builder();
+
+		for (Path svg : svgs) {
+			if (isUsed(PathUtils.fragmentId(svg))) {
+				referenced.add(svg);
+			}
+		}
+
+		return referenced.build();
+	}
+
+	/**
+	 * Writes a report of the unused fragment identifiers to a file, one per line in sorted order.
+	 * @param path The {@link Path} of the file to write to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void writeUnusedReport(Path path) throws IOException {
+		Files.write(path, Ordering.natural().sortedCopy(unused), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("used", used.size())
+			.add("unused", unused.size())
+			.toString();
+	}
+}
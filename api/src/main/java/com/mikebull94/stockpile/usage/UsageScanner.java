@@ -0,0 +1,204 @@
+package com.mikebull94.stockpile.usage;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.util.AhoCorasickMatcher;
+import com.mikebull94.stockpile.util.PathUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+import static com.google.common.io.Files.getFileExtension;
+
+/**
+ * Scans an application's source files for references to the fragment identifiers of embedded SVGs, such as
+ * {@code sheet.svg#id} in HTML and CSS, or {@code 'id'} in JavaScript and templates.
+ * <p>
+ * All of the identifiers are searched for at once by an {@link AhoCorasickMatcher} over memory-mapped files, so the
+ * cost of a scan depends on the size of the sources rather than the number of identifiers. An identifier is deemed
+ * referenced wherever it occurs as a whole word, meaning it is neither preceded nor followed by a letter, digit,
+ * underscore, hyphen or dot, so that {@code arrow} is not referenced by {@code arrow-left}. It may still be followed by
+ * the SVG file extension, as in {@code icons/arrow.svg}. This deliberately errs towards keeping an embedded SVG that is
+ * not really used rather than dropping one that is.
+ */
+public final class UsageScanner {
+
+	/**
+	 * The file extensions of the source files that are scanned by default.
+	 */
+	public static final ImmutableSet<String> SOURCE_EXTENSIONS = ImmutableSet.of(
+		"html", "htm", "xhtml",
+		"css", "scss", "sass", "less",
+		"js", "jsx", "mjs", "ts", "tsx",
+		"vue", "svelte",
+		"hbs", "handlebars", "mustache", "ejs", "erb", "jsp", "php", "twig", "njk"
+	);
+
+	/**
+	 * The extension of an SVG file, including the dot, which may follow a reference to it.
+	 */
+	private static final byte[] SVG_EXTENSION = ("." + SvgDocument.FILE_EXTENSION).getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * A flag indicating whether a {@link Path} is suffixed with one of the {@link #SOURCE_EXTENSIONS}.
+	 * @param path The {@link Path}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public static boolean hasSourceExtension(Path path) {
+		Path fileName = path.getFileName();
+		return fileName != null && SOURCE_EXTENSIONS.contains(getFileExtension(fileName.toString()).toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * A flag indicating whether a byte may form part of a word, and therefore cannot delimit a reference. Hyphens and
+	 * dots are part of a word, as they join the words of fragment identifiers such as {@code arrow-left}.
+	 * @param b The byte.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isWordByte(byte b) {
+		return b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b >= '0' && b <= '9' || b == '_' || b == '-' || b == '.';
+	}
+
+	/**
+	 * The distinct fragment identifiers being searched for.
+	 */
+	private final ImmutableList<String> ids;
+
+	/**
+	 * The {@link AhoCorasickMatcher} built from the UTF-8 encoded {@link #ids}.
+	 */
+	private final AhoCorasickMatcher matcher;
+
+	/**
+	 * Creates a new {@link UsageScanner}.
+	 * @param ids The fragment identifiers to search for.
+	 * @throws NullPointerException If {@code ids} or any of its elements are {@code null}.
+	 */
+	public UsageScanner(Iterable<String> ids) {
+		this.ids = ImmutableSet.copyOf(ids).asList();
+
+		List<byte[]> patterns = new ArrayList<>(this.ids.size());
+
+		for (String id : this.ids) {
+			patterns.add(id.getBytes(StandardCharsets.UTF_8));
+		}
+
+		this.matcher = new AhoCorasickMatcher(patterns);
+	}
+
+	/**
+	 * Creates a new {@link UsageScanner} that searches for the fragment identifiers of SVG documents.
+	 * @param svgs The {@link Path}s of the SVG documents.
+	 * @return The {@link UsageScanner}.
+	 * @throws IllegalArgumentException If {@link Path#getFileName()} on any of the {@code svgs} returns {@code null}.
+	 */
+	public static UsageScanner forPaths(Iterable<Path> svgs) {
+		ImmutableSet.Builder<String> ids = ImmutableSet.builder();
+
+		for (Path svg : svgs) {
+			ids.add(PathUtils.fragmentId(svg));
+		}
+
+		return new UsageScanner(ids.build());
+	}
+
+	/**
+	 * Scans source files for references to the fragment identifiers.
+	 * @param sources The {@link Path}s of the source files.
+	 * @return The {@link IconUsage} found in the source files.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public IconUsage scan(Iterable<Path> sources) throws IOException {
+		BitSet referenced = new BitSet(ids.size());
+
+		for (Path source : sources) {
+			if (referenced.cardinality() == ids.size()) {
+				break;
+			}
+
+			scan(source, referenced);
+		}
+
+		ImmutableSet.Builder<String> used = ImmutableSet.builder();
+		ImmutableSet.Builder<String> unused = ImmutableSet.builder();
+
+		for (int index = 0; index < ids.size(); index++) {
+			(referenced.get(index) ? used : unused).add(ids.get(index));
+		}
+
+		return new IconUsage(used.build(), unused.build());
+	}
+
+	/**
+	 * Scans a single memory-mapped source file for references to the fragment identifiers.
+	 * @param source The {@link Path} of the source file.
+	 * @param referenced The indices of the identifiers that have been referenced so far.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private void scan(Path source, BitSet referenced) throws IOException {
+		try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+			long size = channel.size();
+
+			if (size == 0) {
+				return;
+			}
+
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Source file " + source + " is too large to scan.");
+			}
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			matcher.match(buffer, (pattern, end) -> {
+				if (isWholeWord(buffer, end - matcher.length(pattern), end)) {
+					referenced.set(pattern);
+				}
+			});
+		}
+	}
+
+	/**
+	 * A flag indicating whether the bytes between two indices of a {@link ByteBuffer} form a whole word.
+	 * @param buffer The {@link ByteBuffer}.
+	 * @param start The index of the first byte.
+	 * @param end The index immediately after the last byte.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isWholeWord(ByteBuffer buffer, int start, int end) {
+		boolean startDelimited = start == 0 || !isWordByte(buffer.get(start - 1));
+		boolean endDelimited = end == buffer.limit() || !isWordByte(buffer.get(end)) || isSvgExtension(buffer, end);
+		return startDelimited && endDelimited;
+	}
+
+	/**
+	 * A flag indicating whether the bytes at an index of a {@link ByteBuffer} are the SVG file extension, as a whole
+	 * word.
+	 * @param buffer The {@link ByteBuffer}.
+	 * @param start The index of the dot.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private static boolean isSvgExtension(ByteBuffer buffer, int start) {
+		int end = start + SVG_EXTENSION.length;
+
+		if (end > buffer.limit()) {
+			return false;
+		}
+
+		for (int index = 0; index < SVG_EXTENSION.length; index++) {
+			if (Character.toLowerCase(buffer.get(start + index)) != SVG_EXTENSION[index]) {
+				return false;
+			}
+		}
+
+		return end == buffer.limit() || !isWordByte(buffer.get(end));
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * Contains classes for determining which embedded SVGs are referenced by an application's source files.
+ */
+package com.mikebull94.stockpile.usage;
@@ -0,0 +1,281 @@
+package com.mikebull94.stockpile.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Finds every occurrence of a fixed set of byte patterns in a single pass over the input, regardless of how many
+ * patterns there are, using the <a href="https://en.wikipedia.org/wiki/Aho%E2%80%93Corasick_algorithm">Aho-Corasick</a>
+ * algorithm.
+ * <p>
+ * The automaton is immutable once built, so a single matcher may be shared between threads.
+ */
+public final class AhoCorasickMatcher {
+
+	/**
+	 * Receives the matches found by an {@link AhoCorasickMatcher}.
+	 */
+	@FunctionalInterface
+	public interface Listener {
+
+		/**
+		 * Called when a pattern has been found.
+		 * @param pattern The index of the pattern that was found.
+		 * @param end The index in the input immediately after the last byte of the match.
+		 */
+		void matched(int pattern, int end);
+	}
+
+	/**
+	 * The state that every search starts in.
+	 */
+	private static final int ROOT = 0;
+
+	/**
+	 * Indicates the absence of a state.
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The number of distinct byte values.
+	 */
+	private static final int ALPHABET = 256;
+
+	/**
+	 * The patterns being searched for.
+	 */
+	private final ImmutableList<byte[]> patterns;
+
+	/**
+	 * The transitions from the {@link #ROOT} state, indexed by unsigned byte value.
+	 */
+	private final int[] rootTransitions = new int[ALPHABET];
+
+	/**
+	 * The unsigned byte values that have a transition from each state, in ascending order.
+	 */
+	private final int[][] labels;
+
+	/**
+	 * The state reached by each of the {@link #labels}.
+	 */
+	private final int[][] targets;
+
+	/**
+	 * The state to fall back to in each state when no transition exists for the next byte.
+	 */
+	private final int[] failures;
+
+	/**
+	 * The index of the pattern that ends in each state, or {@link #NONE}.
+	 */
+	private final int[] outputs;
+
+	/**
+	 * The nearest state reachable by following failures from each state that has an output, or {@link #NONE}.
+	 */
+	private final int[] dictionary;
+
+	/**
+	 * Creates a new {@link AhoCorasickMatcher}.
+	 * @param patterns The non-empty patterns to search for.
+	 * @throws NullPointerException If {@code patterns} or any of its elements are {@code null}.
+	 * @throws IllegalArgumentException If any of the patterns are empty.
+	 */
+	public AhoCorasickMatcher(List<byte[]> patterns) {
+		this.patterns = ImmutableList.copyOf(patterns);
+
+		Map<Long, Integer> trie = new HashMap<>();
+		List<Integer> outputList = new ArrayList<>();
+		outputList.add(NONE);
+
+		for (int index = 0; index < this.patterns.size(); index++) {
+			byte[] pattern = this.patterns.get(index);
+			Preconditions.checkArgument(pattern.length > 0, "Patterns must not be empty.");
+
+			int state = ROOT;
+
+			for (byte b : pattern) {
+				long key = ((long) state << 8) | (b & 0xFF);
+				Integer next = trie.get(key);
+
+				if (next == null) {
+					next = outputList.size();
+					outputList.add(NONE);
+					trie.put(key, next);
+				}
+
+				state = next;
+			}
+
+			if (outputList.get(state) == NONE) {
+				outputList.set(state, index);
+			}
+		}
+
+		int states = outputList.size();
+		labels = new int[states][];
+		targets = new int[states][];
+		failures = new int[states];
+		outputs = new int[states];
+		dictionary = new int[states];
+
+		compileTransitions(trie, states);
+
+		for (int state = 0; state < states; state++) {
+			outputs[state] = outputList.get(state);
+		}
+
+		compileFailures();
+	}
+
+	/**
+	 * Converts the trie's transitions into sorted per-state arrays.
+	 * @param trie The transitions, keyed by their source state and unsigned byte value.
+	 * @param states The number of states.
+	 */
+	private void compileTransitions(Map<Long, Integer> trie, int states) {
+		int[] counts = new int[states];
+
+		for (Long key : trie.keySet()) {
+			counts[(int) (key >>> 8)]++;
+		}
+
+		for (int state = 0; state < states; state++) {
+			labels[state] = new int[counts[state]];
+			targets[state] = new int[counts[state]];
+		}
+
+		long[] keys = new long[trie.size()];
+		int index = 0;
+
+		for (Long key : trie.keySet()) {
+			keys[index++] = key;
+		}
+
+		Arrays.sort(keys);
+		Arrays.fill(counts, 0);
+
+		for (long key : keys) {
+			int state = (int) (key >>> 8);
+			int position = counts[state]++;
+			labels[state][position] = (int) (key & 0xFF);
+			targets[state][position] = trie.get(key);
+		}
+
+		for (int position = 0; position < labels[ROOT].length; position++) {
+			rootTransitions[labels[ROOT][position]] = targets[ROOT][position];
+		}
+	}
+
+	/**
+	 * Computes the {@link #failures} and {@link #dictionary} of every state with a breadth-first traversal.
+	 */
+	private void compileFailures() {
+		Queue<Integer> queue = new ArrayDeque<>();
+		failures[ROOT] = ROOT;
+		dictionary[ROOT] = NONE;
+
+		for (int child : targets[ROOT]) {
+			failures[child] = ROOT;
+			dictionary[child] = NONE;
+			queue.add(child);
+		}
+
+		while (!queue.isEmpty()) {
+			int state = queue.remove();
+
+			for (int position = 0; position < labels[state].length; position++) {
+				int label = labels[state][position];
+				int child = targets[state][position];
+				int failure = failures[state];
+
+				while (failure != ROOT && transition(failure, label) == NONE) {
+					failure = failures[failure];
+				}
+
+				int next = transition(failure, label);
+				failures[child] = next == NONE || next == child ? ROOT : next;
+				dictionary[child] = outputs[failures[child]] == NONE ? dictionary[failures[child]] : failures[child];
+				queue.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Gets the state reached from a state by a byte.
+	 * @param state The current state.
+	 * @param label The unsigned byte value.
+	 * @return The next state, or {@link #NONE} if there is no such transition from a state other than the
+	 * {@link #ROOT}.
+	 */
+	private int transition(int state, int label) {
+		if (state == ROOT) {
+			return rootTransitions[label];
+		}
+
+		int position = Arrays.binarySearch(labels[state], label);
+		return position < 0 ? NONE : targets[state][position];
+	}
+
+	/**
+	 * Gets the number of patterns.
+	 * @return The number of patterns.
+	 */
+	public int size() {
+		return patterns.size();
+	}
+
+	/**
+	 * Gets the pattern at an index.
+	 * @param index The index of the pattern.
+	 * @return The pattern.
+	 */
+	public byte[] pattern(int index) {
+		return patterns.get(index).clone();
+	}
+
+	/**
+	 * Gets the length of the pattern at an index.
+	 * @param index The index of the pattern.
+	 * @return The length of the pattern.
+	 */
+	public int length(int index) {
+		return patterns.get(index).length;
+	}
+
+	/**
+	 * Searches the remaining bytes of a {@link ByteBuffer} without modifying its position, reporting every match to a
+	 * {@link Listener}. Patterns that are identical to an earlier pattern are reported under the earlier index.
+	 * @param buffer The {@link ByteBuffer} to search.
+	 * @param listener The {@link Listener} to report matches to.
+	 */
+	public void match(ByteBuffer buffer, Listener listener) {
+		int state = ROOT;
+
+		for (int index = buffer.position(); index < buffer.limit(); index++) {
+			int label = buffer.get(index) & 0xFF;
+			int next = transition(state, label);
+
+			while (next == NONE) {
+				state = failures[state];
+				next = transition(state, label);
+			}
+
+			state = next;
+
+			for (int found = outputs[state] == NONE ? dictionary[state] : state; found != NONE; found = dictionary[found]) {
+				listener.matched(outputs[found], index + 1);
+			}
+		}
+	}
+}
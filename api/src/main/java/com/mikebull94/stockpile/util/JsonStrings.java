@@ -0,0 +1,35 @@
+package com.mikebull94.stockpile.util;
+
+/**
+ * Contains utility methods for writing JSON string literals.
+ */
+public final class JsonStrings {
+
+	/**
+	 * Appends a {@link String} to a {@link StringBuilder} as a JSON string literal, escaping quotes, backslashes and
+	 * control characters.
+	 * @param value The {@link String}.
+	 * @param json The {@link StringBuilder}.
+	 */
+	public static void append(String value, StringBuilder json) {
+		json.append('"');
+
+		for (int index = 0; index < value.length(); index++) {
+			char character = value.charAt(index);
+
+			if (character == '"' || character == '\\') {
+				json.append('\\').append(character);
+			} else if (character < ' ') {
+				json.append(String.format("\\u%04x", (int) character));
+			} else {
+				json.append(character);
+			}
+		}
+
+		json.append('"');
+	}
+
+	private JsonStrings() {
+		/* empty */
+	}
+}
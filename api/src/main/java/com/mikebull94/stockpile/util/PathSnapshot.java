@@ -0,0 +1,356 @@
+package com.mikebull94.stockpile.util;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Sets;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable record of the directories and files found beneath a root {@link Path}, as created by
+ * {@link PathUtils#snapshot(Path, java.util.function.Predicate, PathSnapshot)}.
+ * <p>
+ * Every {@link Path} in a snapshot is relative to its root, allowing a snapshot written by {@link #write(Path)} to be
+ * {@link #read(Path, Path) read} and compared against on a later run, even if the root has since moved.
+ */
+public final class PathSnapshot {
+
+	/**
+	 * The first line of a persisted snapshot, identifying the format.
+	 */
+	private static final String HEADER = "# svg-stockpile snapshot v1";
+
+	/**
+	 * The separator between the fields of a persisted entry.
+	 */
+	private static final String SEPARATOR = "\t";
+
+	/**
+	 * The kind of a persisted directory entry.
+	 */
+	private static final String DIRECTORY = "d";
+
+	/**
+	 * The kind of a persisted file entry.
+	 */
+	private static final String FILE = "f";
+
+	/**
+	 * The name used to persist the root directory, whose relative {@link Path} is empty.
+	 */
+	private static final String ROOT = ".";
+
+	/**
+	 * Reads a snapshot previously written by {@link #write(Path)}.
+	 * @param root The root {@link Path} that the snapshot's relative {@link Path}s should be resolved against.
+	 * @param file The {@link Path} of the persisted snapshot.
+	 * @return The {@link PathSnapshot}.
+	 * @throws IOException If an I/O error occurs, or the file is not a persisted snapshot.
+	 */
+	public static PathSnapshot read(Path root, Path file) throws IOException {
+		Preconditions.checkNotNull(root);
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+		if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+			throw new IOException("File " + file + " is not a snapshot.");
+		}
+
+		ImmutableMap.Builder<Path, Long> directories = ImmutableMap.builder();
+		ImmutableMap.Builder<Path, Entry> files = ImmutableMap.builder();
+
+		for (String line : lines.subList(1, lines.size())) {
+			String[] fields = line.split(SEPARATOR, -1);
+
+			if (fields.length == 3 && fields[0].equals(DIRECTORY)) {
+				directories.put(relative(root, fields[2]), Long.parseLong(fields[1]));
+			} else if (fields.length == 5 && fields[0].equals(FILE)) {
+				Entry entry = new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[3]);
+				files.put(relative(root, fields[4]), entry);
+			} else {
+				throw new IOException("Malformed snapshot entry: " + line);
+			}
+		}
+
+		return new PathSnapshot(root, directories.build(), files.build());
+	}
+
+	/**
+	 * Converts a persisted name into a {@link Path} relative to the root.
+	 * @param root The root {@link Path}.
+	 * @param name The persisted name.
+	 * @return The relative {@link Path}.
+	 */
+	private static Path relative(Path root, String name) {
+		Path empty = root.relativize(root);
+		return name.equals(ROOT) ? empty : empty.resolve(name.replace("/", root.getFileSystem().getSeparator()));
+	}
+
+	/**
+	 * Converts a {@link Path} relative to the root into its persisted name.
+	 * @param path The relative {@link Path}.
+	 * @return The persisted name.
+	 */
+	private static String name(Path path) {
+		String name = path.toString();
+		return name.isEmpty() ? ROOT : name.replace(path.getFileSystem().getSeparator(), "/");
+	}
+
+	/**
+	 * The root {@link Path} that every other {@link Path} in this snapshot is relative to.
+	 */
+	private final Path root;
+
+	/**
+	 * The last modified time, in nanoseconds, of every directory beneath the {@link #root}.
+	 */
+	private final ImmutableSortedMap<Path, Long> directories;
+
+	/**
+	 * The {@link Entry} of every file beneath the {@link #root}.
+	 */
+	private final ImmutableSortedMap<Path, Entry> files;
+
+	/**
+	 * The directories and files contained directly within each directory.
+	 */
+	private final ImmutableListMultimap<Path, Path> children;
+
+	/**
+	 * Creates a new {@link PathSnapshot}.
+	 * @param root The root {@link Path}.
+	 * @param directories The last modified time of every directory, keyed by their relative {@link Path}.
+	 * @param files The {@link Entry} of every file, keyed by their relative {@link Path}.
+	 * @throws NullPointerException If any of the arguments are {@code null}.
+	 */
+	PathSnapshot(Path root, Map<Path, Long> directories, Map<Path, Entry> files) {
+		this.root = Preconditions.checkNotNull(root);
+		this.directories = ImmutableSortedMap.copyOf(directories);
+		this.files = ImmutableSortedMap.copyOf(files);
+
+		ImmutableListMultimap.Builder<Path, Path> children = ImmutableListMultimap.builder();
+		Path empty = root.relativize(root);
+
+		for (Path path : Sets.union(this.directories.keySet(), this.files.keySet())) {
+			if (!path.equals(empty)) {
+				Path parent = path.getParent();
+				children.put(parent == null ? empty : parent, path);
+			}
+		}
+
+		this.children = children.build();
+	}
+
+	/**
+	 * Gets the root {@link Path}.
+	 * @return The root {@link Path}.
+	 */
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * Gets the absolute {@link Path} of every file in this snapshot, in a stable sorted order.
+	 * @return An {@link ImmutableList} of {@link Path}s.
+	 */
+	public ImmutableList<Path> paths() {
+		ImmutableList.Builder<Path> paths = ImmutableList.builder();
+
+		for (Path path : files.keySet()) {
+			paths.add(root.resolve(path));
+		}
+
+		return paths.build();
+	}
+
+	/**
+	 * Gets the relative {@link Path}s of every file that has been added, removed or whose contents have changed since
+	 * a previous snapshot.
+	 * @param previous The previous {@link PathSnapshot}.
+	 * @return An {@link ImmutableSet} of relative {@link Path}s.
+	 */
+	public ImmutableSet<Path> changedSince(PathSnapshot previous) {
+		ImmutableSet.Builder<Path> changed = ImmutableSet.builder();
+
+		for (Path path : Sets.union(files.keySet(), previous.files.keySet())) {
+			Entry current = files.get(path);
+			Entry before = previous.files.get(path);
+
+			if (current == null || before == null || !current.hash.equals(before.hash)) {
+				changed.add(path);
+			}
+		}
+
+		return changed.build();
+	}
+
+	/**
+	 * A flag indicating whether no file has been added, removed or had its contents changed since a previous snapshot.
+	 * @param previous The previous {@link PathSnapshot}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean unchangedSince(PathSnapshot previous) {
+		return changedSince(previous).isEmpty();
+	}
+
+	/**
+	 * Writes this snapshot to a file so that it may be {@link #read(Path, Path) read} on a later run.
+	 * @param file The {@link Path} to write the snapshot to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public void write(Path file) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.write(HEADER);
+			writer.newLine();
+
+			for (Map.Entry<Path, Long> directory : directories.entrySet()) {
+				writer.write(DIRECTORY + SEPARATOR + directory.getValue() + SEPARATOR + name(directory.getKey()));
+				writer.newLine();
+			}
+
+			for (Map.Entry<Path, Entry> path : files.entrySet()) {
+				Entry entry = path.getValue();
+				writer.write(FILE + SEPARATOR + entry.lastModified + SEPARATOR + entry.size + SEPARATOR + entry.hash
+					+ SEPARATOR + name(path.getKey()));
+				writer.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Gets the last modified time of a directory in this snapshot.
+	 * @param directory The relative {@link Path} of the directory.
+	 * @return The last modified time in nanoseconds, or {@code null} if the directory is not in this snapshot.
+	 */
+	Long directory(Path directory) {
+		return directories.get(directory);
+	}
+
+	/**
+	 * Gets the {@link Entry} of a file in this snapshot.
+	 * @param file The relative {@link Path} of the file.
+	 * @return The {@link Entry}, or {@code null} if the file is not in this snapshot.
+	 */
+	Entry file(Path file) {
+		return files.get(file);
+	}
+
+	/**
+	 * Gets the relative {@link Path}s of the directories and files contained directly within a directory.
+	 * @param directory The relative {@link Path} of the directory.
+	 * @return An {@link ImmutableList} of relative {@link Path}s.
+	 */
+	ImmutableList<Path> children(Path directory) {
+		return children.get(directory);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		PathSnapshot that = (PathSnapshot) o;
+		return directories.equals(that.directories)
+			&& files.equals(that.files);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(directories, files);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("root", root)
+			.add("directories", directories.size())
+			.add("files", files.size())
+			.toString();
+	}
+
+	/**
+	 * The recorded state of a single file in a {@link PathSnapshot}.
+	 */
+	static final class Entry {
+
+		/**
+		 * The last modified time in nanoseconds.
+		 */
+		private final long lastModified;
+
+		/**
+		 * The size in bytes.
+		 */
+		private final long size;
+
+		/**
+		 * The hash of the file's contents.
+		 */
+		private final String hash;
+
+		/**
+		 * Creates a new {@link Entry}.
+		 * @param lastModified The last modified time in nanoseconds.
+		 * @param size The size in bytes.
+		 * @param hash The hash of the file's contents.
+		 * @throws NullPointerException If {@code hash} is {@code null}.
+		 */
+		Entry(long lastModified, long size, String hash) {
+			this.lastModified = lastModified;
+			this.size = size;
+			this.hash = Preconditions.checkNotNull(hash);
+		}
+
+		/**
+		 * A flag indicating whether a file with the given attributes can be assumed to still have this entry's
+		 * contents without being read again.
+		 * @param lastModified The file's last modified time in nanoseconds.
+		 * @param size The file's size in bytes.
+		 * @return {@code true} if so, {@code false} otherwise.
+		 */
+		boolean matches(long lastModified, long size) {
+			return this.lastModified == lastModified && this.size == size;
+		}
+
+		/**
+		 * Gets the hash of the file's contents.
+		 * @return The hash.
+		 */
+		String getHash() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Entry that = (Entry) o;
+			return lastModified == that.lastModified
+				&& size == that.size
+				&& hash.equals(that.hash);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(lastModified, size, hash);
+		}
+	}
+}
@@ -1,18 +1,29 @@
 package com.mikebull94.stockpile.util;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.google.common.hash.Hashing;
 import com.mikebull94.stockpile.svg.SvgDocument;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import static com.google.common.io.Files.getFileExtension;
+import static com.google.common.io.Files.getNameWithoutExtension;
 import static java.nio.file.Files.readAllBytes;
 
 /**
@@ -49,6 +60,23 @@ public final class PathUtils {
 		return getFileExtension(fileName).equalsIgnoreCase(SvgDocument.FILE_EXTENSION);
 	}
 
+	/**
+	 * Gets the fragment identifier of the embedded SVG read from a {@link Path}, which is its file name without the
+	 * extension.
+	 * @param path The {@link Path}.
+	 * @return The fragment identifier.
+	 * @throws IllegalArgumentException If {@link Path#getFileName()} on {@code path} returns {@code null}.
+	 */
+	public static String fragmentId(Path path) {
+		Path fileName = path.getFileName();
+
+		if (fileName == null) {
+			throw new IllegalArgumentException("Path " + path + " has zero elements.");
+		}
+
+		return getNameWithoutExtension(fileName.toString());
+	}
+
 	/**
 	 * Recursively lists all {@link Path}s.
 	 * @param start The {@link Path} to start at.
@@ -60,14 +88,16 @@ public final class PathUtils {
 	}
 
 	/**
-	 * Recursively lists all {@link Path}s that satisfy a {@link Predicate}.
+	 * Recursively lists all {@link Path}s that satisfy a {@link Predicate}. The {@link Path}s are sorted, rather than
+	 * listed in the order of the file system, so that the same files are always read in the same order.
 	 * @param start The {@link Path} to start at.
 	 * @param filter The {@link Predicate} to filter {@link Path}s with.
-	 * @return An {@link ImmutableList} of filtered {@link Path}s in the directory and all sub-directories.
+	 * @return An {@link ImmutableList} of filtered {@link Path}s in the directory and all sub-directories, in
+	 * lexicographic order.
 	 * @throws IOException If an I/O error occurs.
 	 */
 	public static ImmutableList<Path> filterPathsIn(Path start, Predicate<Path> filter) throws IOException {
-		ImmutableList.Builder<Path> filtered = ImmutableList.builder();
+		List<Path> filtered = new ArrayList<>();
 
 		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
 			@Override
@@ -79,7 +109,140 @@ public final class PathUtils {
 			}
 		});
 
-		return filtered.build();
+		return Ordering.natural().immutableSortedCopy(filtered);
+	}
+
+	/**
+	 * Recursively records the state of all files that satisfy a {@link Predicate} in a {@link PathSnapshot}, hashing the
+	 * contents of every file.
+	 * @param start The {@link Path} to start at.
+	 * @param filter The {@link Predicate} to filter files with.
+	 * @return The {@link PathSnapshot}.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static PathSnapshot snapshot(Path start, Predicate<Path> filter) throws IOException {
+		return snapshot(start, filter, null);
+	}
+
+	/**
+	 * Recursively records the state of all files that satisfy a {@link Predicate} in a {@link PathSnapshot}, reusing
+	 * as much of a previous {@link PathSnapshot} as can be proven to still be accurate.
+	 * <p>
+	 * A directory whose last modified time is unchanged has had no entries added, removed or renamed, so its entries
+	 * are taken from the previous snapshot rather than listed again. A file whose size and last modified time are
+	 * unchanged keeps its previous hash rather than being read again. A scan in which nothing has changed therefore
+	 * costs a single stat call per directory and file. The same {@link Predicate} should be used for every scan of a
+	 * given directory.
+	 * @param start The {@link Path} to start at.
+	 * @param filter The {@link Predicate} to filter files with.
+	 * @param previous The previous {@link PathSnapshot} of {@code start}, or {@code null} if there is none.
+	 * @return The {@link PathSnapshot}.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static PathSnapshot snapshot(Path start, Predicate<Path> filter, PathSnapshot previous) throws IOException {
+		Map<Path, Long> directories = new HashMap<>();
+		Map<Path, PathSnapshot.Entry> files = new HashMap<>();
+		scanDirectory(start, start, filter, previous, directories, files);
+		return new PathSnapshot(start, directories, files);
+	}
+
+	/**
+	 * Records the state of a directory and, recursively, its contents.
+	 * @param start The {@link Path} the scan started at.
+	 * @param directory The {@link Path} of the directory.
+	 * @param filter The {@link Predicate} to filter files with.
+	 * @param previous The previous {@link PathSnapshot}, or {@code null} if there is none.
+	 * @param directories The last modified times of the directories recorded so far.
+	 * @param files The {@link PathSnapshot.Entry entries} of the files recorded so far.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void scanDirectory(Path start, Path directory, Predicate<Path> filter, PathSnapshot previous,
+	                                  Map<Path, Long> directories, Map<Path, PathSnapshot.Entry> files) throws IOException {
+		Path relative = start.relativize(directory);
+		long lastModified = lastModified(Files.readAttributes(directory, BasicFileAttributes.class));
+		directories.put(relative, lastModified);
+
+		Long previousLastModified = previous == null ? null : previous.directory(relative);
+		List<Path> children;
+
+		if (previousLastModified != null && previousLastModified == lastModified) {
+			children = new ArrayList<>();
+
+			for (Path child : previous.children(relative)) {
+				children.add(start.resolve(child));
+			}
+		} else {
+			children = list(directory);
+		}
+
+		for (Path child : children) {
+			BasicFileAttributes attributes;
+
+			try {
+				attributes = Files.readAttributes(child, BasicFileAttributes.class);
+			} catch (NoSuchFileException e) {
+				/* removed without the directory's last modified time changing, so force the next scan to list it */
+				directories.put(relative, -1L);
+				continue;
+			}
+
+			if (attributes.isDirectory()) {
+				scanDirectory(start, child, filter, previous, directories, files);
+			} else if (attributes.isRegularFile() && filter.test(child)) {
+				files.put(start.relativize(child), scanFile(start, child, attributes, previous));
+			}
+		}
+	}
+
+	/**
+	 * Records the state of a file, only reading its contents if they may have changed.
+	 * @param start The {@link Path} the scan started at.
+	 * @param file The {@link Path} of the file.
+	 * @param attributes The file's {@link BasicFileAttributes}.
+	 * @param previous The previous {@link PathSnapshot}, or {@code null} if there is none.
+	 * @return The {@link PathSnapshot.Entry}.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static PathSnapshot.Entry scanFile(Path start, Path file, BasicFileAttributes attributes,
+	                                           PathSnapshot previous) throws IOException {
+		long lastModified = lastModified(attributes);
+		long size = attributes.size();
+		PathSnapshot.Entry entry = previous == null ? null : previous.file(start.relativize(file));
+
+		if (entry != null && entry.matches(lastModified, size)) {
+			return entry;
+		}
+
+		String hash = com.google.common.io.Files.asByteSource(file.toFile()).hash(Hashing.murmur3_128()).toString();
+		return new PathSnapshot.Entry(lastModified, size, hash);
+	}
+
+	/**
+	 * Lists the entries of a directory in a stable sorted order.
+	 * @param directory The {@link Path} of the directory.
+	 * @return A {@link List} of {@link Path}s.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static List<Path> list(Path directory) throws IOException {
+		List<Path> children = new ArrayList<>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path child : stream) {
+				children.add(child);
+			}
+		}
+
+		Collections.sort(children);
+		return children;
+	}
+
+	/**
+	 * Gets the last modified time of a file in nanoseconds.
+	 * @param attributes The file's {@link BasicFileAttributes}.
+	 * @return The last modified time in nanoseconds.
+	 */
+	private static long lastModified(BasicFileAttributes attributes) {
+		return attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
 	}
 
 	/**
@@ -0,0 +1,57 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.base.MoreObjects;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+
+/**
+ * An {@link XmlInputEngine} that creates its {@link XMLEventReader}s with an {@link XMLInputFactory}.
+ */
+final class FactoryInputEngine implements XmlInputEngine {
+
+	/**
+	 * The engine that uses the parser built into the JRE.
+	 */
+	static final FactoryInputEngine JDK = new FactoryInputEngine(XmlInputEngine.JDK, XmlFactories.input());
+
+	/**
+	 * The name.
+	 */
+	private final String name;
+
+	/**
+	 * Used to create {@link XMLEventReader}s.
+	 */
+	private final XMLInputFactory factory;
+
+	/**
+	 * Creates a new {@link FactoryInputEngine}.
+	 * @param name The name.
+	 * @param factory Used to create {@link XMLEventReader}s.
+	 */
+	FactoryInputEngine(String name, XMLInputFactory factory) {
+		this.name = name;
+		this.factory = factory;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public XMLEventReader createReader(InputStream inputStream) throws XMLStreamException {
+		return factory.createXMLEventReader(inputStream);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("name", name)
+			.add("factory", factory.getClass().getName())
+			.toString();
+	}
+}
@@ -0,0 +1,257 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.base.MoreObjects;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.util.EventReaderDelegate;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link XmlInputEngine} that reads each {@link XmlDocument} with another engine, within {@link XmlInputLimits}.
+ * Every limit is checked as the document is streamed, so a document that exceeds one is rejected without reading the
+ * rest of it.
+ */
+final class LimitedInputEngine implements XmlInputEngine {
+
+	/**
+	 * An {@link InputStream} that ends once one byte more than a maximum has been read, recording that it did so.
+	 */
+	private static final class BoundedInputStream extends FilterInputStream {
+
+		/**
+		 * The maximum number of bytes.
+		 */
+		private final long maxBytes;
+
+		/**
+		 * The number of bytes that have been read.
+		 */
+		private long count;
+
+		/**
+		 * Creates a new {@link BoundedInputStream}.
+		 * @param in The {@link InputStream} to read.
+		 * @param maxBytes The maximum number of bytes.
+		 */
+		private BoundedInputStream(InputStream in, long maxBytes) {
+			super(in);
+			this.maxBytes = maxBytes;
+		}
+
+		/**
+		 * A flag indicating whether more than the maximum number of bytes have been read.
+		 * @return {@code true} if so, {@code false} otherwise.
+		 */
+		private boolean exceeded() {
+			return count > maxBytes;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (exceeded()) {
+				return -1;
+			}
+
+			int read = in.read();
+
+			if (read >= 0) {
+				count++;
+			}
+
+			return read;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (exceeded()) {
+				return -1;
+			}
+
+			long allowed = maxBytes - count;
+			int read = in.read(b, off, allowed >= len ? len : (int) allowed + 1);
+
+			if (read > 0) {
+				count += read;
+			}
+
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			byte[] skipped = new byte[(int) Math.min(n, 8192)];
+			int read = read(skipped, 0, skipped.length);
+			return Math.max(read, 0);
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+
+	/**
+	 * An {@link XMLEventReader} that checks each {@link XMLEvent} against the {@link XmlInputLimits}.
+	 */
+	private static final class LimitedEventReader extends EventReaderDelegate {
+
+		/**
+		 * The stream the document is read from.
+		 */
+		private final BoundedInputStream stream;
+
+		/**
+		 * The maximum number of bytes of the document.
+		 */
+		private final long maxBytes;
+
+		/**
+		 * Checks the depth, events and attribute values of the document.
+		 */
+		private final XmlLimitGuard guard;
+
+		/**
+		 * Creates a new {@link LimitedEventReader}.
+		 * @param reader The {@link XMLEventReader} to check.
+		 * @param stream The stream the document is read from.
+		 * @param limits The {@link XmlInputLimits}.
+		 */
+		private LimitedEventReader(XMLEventReader reader, BoundedInputStream stream, XmlInputLimits limits) {
+			super(reader);
+			this.stream = stream;
+			this.maxBytes = limits.getMaxDocumentBytes();
+			this.guard = new XmlLimitGuard(limits);
+		}
+
+		/**
+		 * Throws an {@link XmlLimitException} if the document has more than the maximum number of bytes.
+		 * @throws XmlLimitException If the document has more than the maximum number of bytes.
+		 */
+		private void checkBytes() throws XmlLimitException {
+			if (stream.exceeded()) {
+				throw new XmlLimitException("Document exceeds the maximum of " + maxBytes + " bytes.");
+			}
+		}
+
+		/**
+		 * Reports that there is a next event once the maximum number of bytes is exceeded, even if the parser has
+		 * stopped at the truncated input, so that {@link #nextEvent()} throws rather than the document appearing to
+		 * end early.
+		 */
+		@Override
+		public boolean hasNext() {
+			return stream.exceeded() || super.hasNext();
+		}
+
+		@Override
+		public XMLEvent nextEvent() throws XMLStreamException {
+			checkBytes();
+			XMLEvent event;
+
+			try {
+				event = super.nextEvent();
+			} catch (XMLStreamException e) {
+				checkBytes();
+				throw e;
+			}
+
+			guard.accept(event);
+			return event;
+		}
+
+		@Override
+		public Object next() {
+			try {
+				return nextEvent();
+			} catch (XMLStreamException e) {
+				NoSuchElementException failure = new NoSuchElementException(e.getMessage());
+				failure.initCause(e);
+				throw failure;
+			}
+		}
+
+		@Override
+		public XMLEvent nextTag() throws XMLStreamException {
+			XMLEvent event = nextEvent();
+
+			while (event.isCharacters() && event.asCharacters().isWhiteSpace()
+				|| event.getEventType() == XMLEvent.COMMENT
+				|| event.getEventType() == XMLEvent.PROCESSING_INSTRUCTION) {
+				event = nextEvent();
+			}
+
+			if (!event.isStartElement() && !event.isEndElement()) {
+				throw new XMLStreamException("Expected a start or end tag.", event.getLocation());
+			}
+
+			return event;
+		}
+
+		@Override
+		public String getElementText() throws XMLStreamException {
+			StringBuilder text = new StringBuilder();
+			XMLEvent event = nextEvent();
+
+			while (!event.isEndElement()) {
+				if (event.isCharacters()) {
+					text.append(event.asCharacters().getData());
+				} else if (event.isStartElement()) {
+					throw new XMLStreamException("Element text must not contain elements.", event.getLocation());
+				}
+
+				event = nextEvent();
+			}
+
+			return text.toString();
+		}
+	}
+
+	/**
+	 * The {@link XmlInputEngine} to read each {@link XmlDocument} with.
+	 */
+	private final XmlInputEngine engine;
+
+	/**
+	 * The {@link XmlInputLimits}.
+	 */
+	private final XmlInputLimits limits;
+
+	/**
+	 * Creates a new {@link LimitedInputEngine}.
+	 * @param engine The {@link XmlInputEngine} to read each {@link XmlDocument} with.
+	 * @param limits The {@link XmlInputLimits}.
+	 */
+	LimitedInputEngine(XmlInputEngine engine, XmlInputLimits limits) {
+		this.engine = engine;
+		this.limits = limits;
+	}
+
+	@Override
+	public String getName() {
+		return engine.getName();
+	}
+
+	@Override
+	public XMLEventReader createReader(InputStream inputStream) throws XMLStreamException {
+		BoundedInputStream stream = new BoundedInputStream(inputStream, limits.getMaxDocumentBytes());
+		return new LimitedEventReader(engine.createReader(stream), stream, limits);
+	}
+
+	@Override
+	public XmlInputEngine limit(XmlInputLimits limits) {
+		return engine.limit(limits);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("engine", engine)
+			.add("limits", limits)
+			.toString();
+	}
+}
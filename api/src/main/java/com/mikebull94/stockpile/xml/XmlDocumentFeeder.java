@@ -0,0 +1,206 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Collects the bytes of an {@link XmlDocument} as they arrive, such as from the completion handler of an asynchronous
+ * read or a network buffer, and parses them with an {@link XmlInputEngine} once the last byte has been fed.
+ * <p>
+ * A feeder is not thread-safe, but it may be fed by one thread after another as long as each feed happens-before the
+ * next, as is the case for successive completion handlers.
+ */
+public final class XmlDocumentFeeder {
+
+	/**
+	 * The size of the buffer each asynchronous read fills.
+	 */
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	/**
+	 * The options each file is opened with.
+	 */
+	private static final ImmutableSet<OpenOption> READ_OPTIONS = ImmutableSet.of(StandardOpenOption.READ);
+
+	/**
+	 * A {@link ByteArrayOutputStream} that can be read without copying its bytes.
+	 */
+	private static final class FeedBuffer extends ByteArrayOutputStream {
+
+		/**
+		 * Creates a new {@link FeedBuffer}.
+		 * @param size The initial capacity.
+		 */
+		private FeedBuffer(int size) {
+			super(size);
+		}
+
+		/**
+		 * Appends the remaining bytes of a {@link ByteBuffer}, consuming them.
+		 * @param bytes The {@link ByteBuffer}.
+		 */
+		private void write(ByteBuffer bytes) {
+			int length = bytes.remaining();
+
+			if (bytes.hasArray()) {
+				write(bytes.array(), bytes.arrayOffset() + bytes.position(), length);
+				bytes.position(bytes.limit());
+			} else {
+				byte[] copy = new byte[length];
+				bytes.get(copy);
+				write(copy, 0, length);
+			}
+		}
+
+		/**
+		 * Creates an {@link InputStream} of the bytes written so far.
+		 * @return The {@link InputStream}.
+		 */
+		private InputStream toInputStream() {
+			return new ByteArrayInputStream(buf, 0, count);
+		}
+	}
+
+	/**
+	 * Reads and parses a file without blocking the calling thread: each chunk of the file is fed to an
+	 * {@link XmlDocumentFeeder} by the completion handler of an {@link AsynchronousFileChannel}, and the document is
+	 * parsed by the thread that completes the last read.
+	 * <p>
+	 * The reads and the parse run on the threads of {@code executor}. File channels are not truly asynchronous on most
+	 * platforms, so each read occupies one of those threads until it completes: the size of {@code executor} bounds the
+	 * number of threads that are blocked on files, or busy parsing them, at once.
+	 * @param path The {@link Path} of the file.
+	 * @param engine The {@link XmlInputEngine} to parse the file with.
+	 * @param executor The {@link ExecutorService} that performs the reads and the parse.
+	 * @return A {@link CompletableFuture} of the {@link XMLEvent}s of the file, which completes exceptionally with an
+	 * {@link IOException} or {@link XMLStreamException} if the file cannot be read or parsed.
+	 * @throws NullPointerException If {@code path}, {@code engine} or {@code executor} is {@code null}.
+	 */
+	public static CompletableFuture<ImmutableList<XMLEvent>> read(Path path, XmlInputEngine engine, ExecutorService executor) {
+		Preconditions.checkNotNull(path);
+		Preconditions.checkNotNull(engine);
+		Preconditions.checkNotNull(executor);
+		CompletableFuture<ImmutableList<XMLEvent>> future = new CompletableFuture<>();
+		AsynchronousFileChannel channel;
+
+		try {
+			channel = AsynchronousFileChannel.open(path, READ_OPTIONS, executor);
+		} catch (IOException e) {
+			future.completeExceptionally(e);
+			return future;
+		}
+
+		XmlDocumentFeeder feeder = new XmlDocumentFeeder(engine);
+		ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+		channel.read(buffer, 0L, 0L, new CompletionHandler<Integer, Long>() {
+			@Override
+			public void completed(Integer read, Long position) {
+				if (read < 0) {
+					close();
+
+					try {
+						future.complete(feeder.end());
+					} catch (XMLStreamException | RuntimeException e) {
+						future.completeExceptionally(e);
+					}
+
+					return;
+				}
+
+				buffer.flip();
+				feeder.feed(buffer);
+				buffer.clear();
+
+				long next = position + read;
+				channel.read(buffer, next, next, this);
+			}
+
+			@Override
+			public void failed(Throwable cause, Long position) {
+				close();
+				future.completeExceptionally(cause);
+			}
+
+			/**
+			 * Closes the {@link AsynchronousFileChannel}, recording a failure to do so on the {@link CompletableFuture}.
+			 */
+			private void close() {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					future.completeExceptionally(e);
+				}
+			}
+		});
+
+		return future;
+	}
+
+	/**
+	 * The {@link XmlInputEngine} to parse the document with.
+	 */
+	private final XmlInputEngine engine;
+
+	/**
+	 * The bytes that have been fed.
+	 */
+	private final FeedBuffer bytes = new FeedBuffer(READ_BUFFER_SIZE);
+
+	/**
+	 * A flag indicating whether the last byte has been fed.
+	 */
+	private boolean ended;
+
+	/**
+	 * Creates a new {@link XmlDocumentFeeder}.
+	 * @param engine The {@link XmlInputEngine} to parse the document with.
+	 * @throws NullPointerException If {@code engine} is {@code null}.
+	 */
+	public XmlDocumentFeeder(XmlInputEngine engine) {
+		this.engine = Preconditions.checkNotNull(engine);
+	}
+
+	/**
+	 * Feeds the remaining bytes of a {@link ByteBuffer}, consuming them. The {@link ByteBuffer} may be reused once this
+	 * method returns.
+	 * @param buffer The {@link ByteBuffer}.
+	 * @return The {@link XmlDocumentFeeder} instance for chaining.
+	 * @throws NullPointerException If {@code buffer} is {@code null}.
+	 * @throws IllegalStateException If the document has ended.
+	 */
+	public XmlDocumentFeeder feed(ByteBuffer buffer) {
+		Preconditions.checkNotNull(buffer);
+		Preconditions.checkState(!ended, "Document has ended.");
+		bytes.write(buffer);
+		return this;
+	}
+
+	/**
+	 * Ends the document and parses the bytes that have been fed.
+	 * @return An {@link ImmutableList} of the {@link XMLEvent}s of the document.
+	 * @throws IllegalStateException If the document has already ended.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public ImmutableList<XMLEvent> end() throws XMLStreamException {
+		Preconditions.checkState(!ended, "Document has ended.");
+		ended = true;
+		return engine.read(bytes.toInputStream());
+	}
+}
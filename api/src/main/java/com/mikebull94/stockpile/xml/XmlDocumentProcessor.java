@@ -0,0 +1,40 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * Processes all of the {@link XMLEvent}s of an {@link XmlDocument} at once, allowing decisions that depend on more than
+ * a single {@link XMLEvent}. Document processors run on the {@link XMLEvent}s as they were read, before they are passed
+ * to any {@link XmlEventProcessor}.
+ */
+public interface XmlDocumentProcessor {
+
+	/**
+	 * Processes the {@link XMLEvent}s of an {@link XmlDocument}.
+	 * @param id The id of the {@link XmlDocument}.
+	 * @param events The {@link XMLEvent}s of the {@link XmlDocument}, in document order.
+	 * @return An {@link ImmutableList} of {@link XMLEvent}s that represent the result of the processing.
+	 */
+	ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> events);
+
+	/**
+	 * Gets the {@link XMLEvent}s shared by all of the {@link XmlDocument}s processed so far, which are to be added to
+	 * the output once, after every {@link XmlDocument} has been processed.
+	 * @return An {@link ImmutableList} of {@link XMLEvent}s, which is empty by default.
+	 */
+	default ImmutableList<XMLEvent> sharedEvents() {
+		return ImmutableList.of();
+	}
+
+	/**
+	 * Describes the options this processor was created with, such as a tolerance or a prefix, so that a build can tell
+	 * whether it would process documents the same way as before.
+	 * @return The description, which is empty if the processor has no options, or {@code null} if the options cannot
+	 * be described, which is the default.
+	 */
+	default String describeOptions() {
+		return null;
+	}
+}
@@ -0,0 +1,121 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contains {@link XMLEvent} related utility methods.
+ */
+public final class XmlEvents {
+
+	/**
+	 * Used to create modified {@link StartElement}s.
+	 */
+	private static final XMLEventFactory events = XmlFactories.events();
+
+	/**
+	 * Gets the {@link Attribute}s of a {@link StartElement}.
+	 * @param element The {@link StartElement}.
+	 * @return An {@link ImmutableList} of {@link Attribute}s.
+	 */
+	@SuppressWarnings("unchecked")
+	public static ImmutableList<Attribute> attributes(StartElement element) {
+		Iterator<Attribute> attributes = element.getAttributes();
+		return ImmutableList.copyOf(attributes);
+	}
+
+	/**
+	 * Gets the value of an {@link Attribute} that has no namespace.
+	 * @param element The {@link StartElement}.
+	 * @param localName The local name of the {@link Attribute}.
+	 * @return The value, or {@code null} if the {@link StartElement} has no such {@link Attribute}.
+	 */
+	public static String attribute(StartElement element, String localName) {
+		Attribute attribute = element.getAttributeByName(new QName(localName));
+		return attribute == null ? null : attribute.getValue();
+	}
+
+	/**
+	 * Gets the local names and values of the unqualified {@link Attribute}s of a {@link StartElement}.
+	 * @param element The {@link StartElement}.
+	 * @return A new, modifiable {@link Map} of local names to values, in document order.
+	 */
+	public static Map<String, String> unqualifiedAttributes(StartElement element) {
+		Map<String, String> attributes = new LinkedHashMap<>();
+
+		for (Attribute attribute : attributes(element)) {
+			if (attribute.getName().getNamespaceURI().isEmpty()) {
+				attributes.put(attribute.getName().getLocalPart(), attribute.getValue());
+			}
+		}
+
+		return attributes;
+	}
+
+	/**
+	 * Creates a copy of a {@link StartElement} with different {@link Attribute}s.
+	 * @param element The {@link StartElement}.
+	 * @param attributes The {@link Attribute}s of the copy.
+	 * @return The copied {@link StartElement}.
+	 */
+	public static StartElement withAttributes(StartElement element, Iterable<Attribute> attributes) {
+		return events.createStartElement(element.getName(), attributes.iterator(), element.getNamespaces());
+	}
+
+	/**
+	 * Creates a copy of a {@link StartElement} with a different local name and different {@link Attribute}s.
+	 * @param element The {@link StartElement}.
+	 * @param localName The local name of the copy, in the same namespace and with the same prefix.
+	 * @param attributes The {@link Attribute}s of the copy.
+	 * @return The copied {@link StartElement}.
+	 */
+	public static StartElement renamed(StartElement element, String localName, Iterable<Attribute> attributes) {
+		QName name = element.getName();
+		return events.createStartElement(new QName(name.getNamespaceURI(), localName, name.getPrefix()),
+			attributes.iterator(), element.getNamespaces());
+	}
+
+	/**
+	 * Creates a copy of an {@link EndElement} with a different local name.
+	 * @param element The {@link EndElement}.
+	 * @param localName The local name of the copy, in the same namespace and with the same prefix.
+	 * @return The copied {@link EndElement}.
+	 */
+	public static EndElement renamed(EndElement element, String localName) {
+		QName name = element.getName();
+		return events.createEndElement(new QName(name.getNamespaceURI(), localName, name.getPrefix()),
+			element.getNamespaces());
+	}
+
+	/**
+	 * A flag indicating whether an {@link XMLEvent} is a {@link StartElement} with a given {@link QName}.
+	 * @param event The {@link XMLEvent}.
+	 * @param name The {@link QName}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public static boolean isStartElement(XMLEvent event, QName name) {
+		return event.isStartElement() && event.asStartElement().getName().equals(name);
+	}
+
+	/**
+	 * A flag indicating whether an {@link XMLEvent} is whitespace-only character data.
+	 * @param event The {@link XMLEvent}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public static boolean isWhitespace(XMLEvent event) {
+		return event.isCharacters() && event.asCharacters().getData().trim().isEmpty();
+	}
+
+	private XmlEvents() {
+		/* empty */
+	}
+}
@@ -0,0 +1,174 @@
+package com.mikebull94.stockpile.xml;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * Holds the StAX factories shared by the whole library, so that each is created once rather than once per class.
+ * <p>
+ * Creating a factory with {@code newFactory()} looks for an implementation in system properties, the JRE's
+ * configuration and every {@code META-INF/services} file on the class path, which is a large part of the startup time
+ * of a short-lived process. Instead, each factory is created directly: from the implementation named by a system
+ * property, such as {@value #INPUT_PROPERTY}, or else as the implementation built into the JRE. On Java 9 and later the
+ * built-in implementation is created with the public {@code newDefaultFactory()}, which is found reflectively as the
+ * library targets Java 8, and on Java 8 its class is instantiated by name. The {@code newFactory()} lookup is only used
+ * if neither can be created.
+ */
+public final class XmlFactories {
+
+	/**
+	 * The system property that names the {@link XMLInputFactory} implementation.
+	 */
+	public static final String INPUT_PROPERTY = "com.mikebull94.stockpile.xml.inputFactory";
+
+	/**
+	 * The system property that names the {@link XMLOutputFactory} implementation.
+	 */
+	public static final String OUTPUT_PROPERTY = "com.mikebull94.stockpile.xml.outputFactory";
+
+	/**
+	 * The system property that names the {@link XMLEventFactory} implementation.
+	 */
+	public static final String EVENT_PROPERTY = "com.mikebull94.stockpile.xml.eventFactory";
+
+	/**
+	 * The name of the method that creates the implementation built into the JRE, from Java 9.
+	 */
+	private static final String DEFAULT_FACTORY_METHOD = "newDefaultFactory";
+
+	/**
+	 * The {@link XMLInputFactory} implementation that is built into Java 8.
+	 */
+	private static final String DEFAULT_INPUT = "com.sun.xml.internal.stream.XMLInputFactoryImpl";
+
+	/**
+	 * The {@link XMLOutputFactory} implementation that is built into Java 8.
+	 */
+	private static final String DEFAULT_OUTPUT = "com.sun.xml.internal.stream.XMLOutputFactoryImpl";
+
+	/**
+	 * The {@link XMLEventFactory} implementation that is built into Java 8.
+	 */
+	private static final String DEFAULT_EVENT = "com.sun.xml.internal.stream.events.XMLEventFactoryImpl";
+
+	/**
+	 * The shared {@link XMLInputFactory}.
+	 */
+	private static final XMLInputFactory input = secure(create(XMLInputFactory.class, INPUT_PROPERTY, DEFAULT_INPUT,
+		XMLInputFactory::newFactory));
+
+	/**
+	 * The shared {@link XMLOutputFactory}.
+	 */
+	private static final XMLOutputFactory output = create(XMLOutputFactory.class, OUTPUT_PROPERTY, DEFAULT_OUTPUT,
+		XMLOutputFactory::newFactory);
+
+	/**
+	 * The shared {@link XMLEventFactory}.
+	 */
+	private static final XMLEventFactory events = create(XMLEventFactory.class, EVENT_PROPERTY, DEFAULT_EVENT,
+		XMLEventFactory::newFactory);
+
+	/**
+	 * Creates a factory without the {@code newFactory()} lookup, unless neither the named nor the built-in
+	 * implementation can be created.
+	 * @param type The type of the factory.
+	 * @param property The system property that names the implementation.
+	 * @param java8Implementation The implementation built into Java 8, used if the system property is not set and there
+	 * is no {@code newDefaultFactory()} method.
+	 * @param lookup Creates a factory with the {@code newFactory()} lookup.
+	 * @param <T> The type of the factory.
+	 * @return The factory.
+	 */
+	private static <T> T create(Class<T> type, String property, String java8Implementation, Supplier<T> lookup) {
+		try {
+			String implementation = System.getProperty(property);
+
+			if (implementation != null) {
+				return instantiate(type, implementation);
+			}
+
+			Method defaultFactory = defaultFactoryMethod(type);
+			return defaultFactory == null ? instantiate(type, java8Implementation) : type.cast(defaultFactory.invoke(null));
+		} catch (ReflectiveOperationException | LinkageError | ClassCastException | SecurityException e) {
+			return lookup.get();
+		}
+	}
+
+	/**
+	 * Gets the static {@code newDefaultFactory()} method of a factory type, which was added in Java 9.
+	 * @param type The type of the factory.
+	 * @return The {@link Method}, or {@code null} on Java 8.
+	 */
+	private static Method defaultFactoryMethod(Class<?> type) {
+		try {
+			return type.getMethod(DEFAULT_FACTORY_METHOD);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates an instance of a named class with its public no-argument constructor.
+	 * @param type The type of the instance.
+	 * @param implementation The name of the class.
+	 * @param <T> The type of the instance.
+	 * @return The instance.
+	 * @throws ReflectiveOperationException If the class cannot be found or instantiated.
+	 * @throws ClassCastException If the class is not a subclass of {@code type}.
+	 */
+	static <T> T instantiate(Class<T> type, String implementation) throws ReflectiveOperationException {
+		return Class.forName(implementation).asSubclass(type).getDeclaredConstructor().newInstance();
+	}
+
+	/**
+	 * Disables DTDs and external entities on an {@link XMLInputFactory}, so that a document cannot make the parser
+	 * fetch other resources or expand entities without bound. A {@code DOCTYPE} declaration is still read, but not
+	 * processed, so a document that refers to an entity it declares fails to parse.
+	 * @param factory The {@link XMLInputFactory}.
+	 * @return The {@link XMLInputFactory}.
+	 */
+	static XMLInputFactory secure(XMLInputFactory factory) {
+		if (factory.isPropertySupported(XMLInputFactory.SUPPORT_DTD)) {
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		}
+
+		if (factory.isPropertySupported(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES)) {
+			factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		}
+
+		return factory;
+	}
+
+	/**
+	 * Gets the shared {@link XMLInputFactory}, which must not be reconfigured. DTDs and external entities are disabled
+	 * on it.
+	 * @return The {@link XMLInputFactory}.
+	 */
+	public static XMLInputFactory input() {
+		return input;
+	}
+
+	/**
+	 * Gets the shared {@link XMLOutputFactory}, which must not be reconfigured.
+	 * @return The {@link XMLOutputFactory}.
+	 */
+	public static XMLOutputFactory output() {
+		return output;
+	}
+
+	/**
+	 * Gets the shared {@link XMLEventFactory}.
+	 * @return The {@link XMLEventFactory}.
+	 */
+	public static XMLEventFactory events() {
+		return events;
+	}
+
+	private XmlFactories() {
+		/* empty */
+	}
+}
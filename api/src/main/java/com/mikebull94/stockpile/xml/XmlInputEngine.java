@@ -0,0 +1,125 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.InputStream;
+
+/**
+ * A StAX parser that {@link XmlDocument}s are read with, such as the parser built into the JRE, Woodstox or Aalto.
+ * <p>
+ * An engine may be used by several threads at once, as every {@link XMLEventReader} it creates is independent.
+ */
+public interface XmlInputEngine {
+
+	/**
+	 * The name of the engine that uses the parser built into the JRE.
+	 */
+	String JDK = "jdk";
+
+	/**
+	 * The class name of the Woodstox {@link XMLInputFactory}.
+	 */
+	String WOODSTOX = "com.ctc.wstx.stax.WstxInputFactory";
+
+	/**
+	 * The class name of the Aalto {@link XMLInputFactory}.
+	 */
+	String AALTO = "com.fasterxml.aalto.stax.InputFactoryImpl";
+
+	/**
+	 * Gets the engine that uses the parser built into the JRE, through the shared {@link XmlFactories#input()}.
+	 * @return The {@link XmlInputEngine}.
+	 */
+	static XmlInputEngine jdk() {
+		return FactoryInputEngine.JDK;
+	}
+
+	/**
+	 * Creates an engine that uses an {@link XMLInputFactory}, which must not be reconfigured once the engine is in use.
+	 * The factory is used as it is given, so DTDs and external entities are only disabled if it is configured to do so.
+	 * @param name The name of the engine.
+	 * @param factory The {@link XMLInputFactory}.
+	 * @return The {@link XmlInputEngine}.
+	 * @throws NullPointerException If {@code name} or {@code factory} is {@code null}.
+	 */
+	static XmlInputEngine of(String name, XMLInputFactory factory) {
+		return new FactoryInputEngine(Preconditions.checkNotNull(name), Preconditions.checkNotNull(factory));
+	}
+
+	/**
+	 * Gets an engine by name: {@value #JDK}, {@code woodstox}, {@code aalto} or the class name of an
+	 * {@link XMLInputFactory} on the class path, which is created directly rather than looked up.
+	 * @param name The name of the engine.
+	 * @return The {@link XmlInputEngine}.
+	 * @throws NullPointerException If {@code name} is {@code null}.
+	 * @throws IllegalArgumentException If the {@link XMLInputFactory} of the engine cannot be created.
+	 */
+	static XmlInputEngine forName(String name) {
+		ImmutableMap<String, String> aliases = ImmutableMap.of("woodstox", WOODSTOX, "aalto", AALTO);
+
+		if (Preconditions.checkNotNull(name).equals(JDK)) {
+			return jdk();
+		}
+
+		String implementation = aliases.getOrDefault(name, name);
+
+		try {
+			return of(name, XmlFactories.secure(XmlFactories.instantiate(XMLInputFactory.class, implementation)));
+		} catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+			throw new IllegalArgumentException("Cannot create the XML input engine '" + name + "'.", e);
+		}
+	}
+
+	/**
+	 * Gets the name.
+	 * @return The name.
+	 */
+	String getName();
+
+	/**
+	 * Creates an {@link XMLEventReader} that reads an {@link InputStream}.
+	 * @param inputStream The {@link InputStream}.
+	 * @return The {@link XMLEventReader}.
+	 * @throws XMLStreamException If the {@link XMLEventReader} cannot be created.
+	 */
+	XMLEventReader createReader(InputStream inputStream) throws XMLStreamException;
+
+	/**
+	 * Creates an engine that reads each {@link XmlDocument} with this engine, within {@link XmlInputLimits}. A document
+	 * that exceeds a limit fails with an {@link XmlLimitException} as soon as it does so.
+	 * @param limits The {@link XmlInputLimits}.
+	 * @return The {@link XmlInputEngine}, which is this engine if {@code limits} are {@link XmlInputLimits#UNLIMITED}.
+	 * @throws NullPointerException If {@code limits} is {@code null}.
+	 */
+	default XmlInputEngine limit(XmlInputLimits limits) {
+		return Preconditions.checkNotNull(limits).equals(XmlInputLimits.UNLIMITED) ? this : new LimitedInputEngine(this, limits);
+	}
+
+	/**
+	 * Reads all of the {@link XMLEvent}s of an {@link InputStream}, which is not closed.
+	 * @param inputStream The {@link InputStream}.
+	 * @return An {@link ImmutableList} of {@link XMLEvent}s.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	default ImmutableList<XMLEvent> read(InputStream inputStream) throws XMLStreamException {
+		XMLEventReader reader = createReader(inputStream);
+
+		try {
+			ImmutableList.Builder<XMLEvent> events = ImmutableList.builder();
+
+			while (reader.hasNext()) {
+				events.add(reader.nextEvent());
+			}
+
+			return events.build();
+		} finally {
+			reader.close();
+		}
+	}
+}
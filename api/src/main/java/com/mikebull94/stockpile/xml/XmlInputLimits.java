@@ -0,0 +1,212 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import javax.xml.stream.events.XMLEvent;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The limits that each {@link XmlDocument} is read within, so that a malformed or hostile document is rejected as soon
+ * as it exceeds one rather than once it has been read. Limits are {@link Serializable}, so that they can be recorded as
+ * the inputs of a build.
+ * <p>
+ * Every limit is unlimited until it is set, and each {@code with} method returns a copy with one limit changed.
+ */
+public final class XmlInputLimits implements Serializable {
+
+	/**
+	 * The {@link XmlInputLimits} that do not limit a document.
+	 */
+	public static final XmlInputLimits UNLIMITED = new XmlInputLimits(Long.MAX_VALUE, Integer.MAX_VALUE,
+		Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+	/**
+	 * The version of the serialized form.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The maximum number of bytes of each document.
+	 */
+	private final long maxDocumentBytes;
+
+	/**
+	 * The maximum number of elements each element of a document may be nested in, counting the root element.
+	 */
+	private final int maxDepth;
+
+	/**
+	 * The maximum number of {@link XMLEvent}s of each document.
+	 */
+	private final int maxEvents;
+
+	/**
+	 * The maximum number of characters of each attribute value.
+	 */
+	private final int maxAttributeLength;
+
+	/**
+	 * The maximum number of bytes of all of the documents read into one stockpile.
+	 */
+	private final long maxTotalBytes;
+
+	/**
+	 * Creates a new {@link XmlInputLimits}.
+	 * @param maxDocumentBytes The maximum number of bytes of each document.
+	 * @param maxDepth The maximum depth of the elements of each document.
+	 * @param maxEvents The maximum number of {@link XMLEvent}s of each document.
+	 * @param maxAttributeLength The maximum number of characters of each attribute value.
+	 * @param maxTotalBytes The maximum number of bytes of all of the documents read into one stockpile.
+	 */
+	private XmlInputLimits(long maxDocumentBytes, int maxDepth, int maxEvents, int maxAttributeLength,
+			long maxTotalBytes) {
+		this.maxDocumentBytes = maxDocumentBytes;
+		this.maxDepth = maxDepth;
+		this.maxEvents = maxEvents;
+		this.maxAttributeLength = maxAttributeLength;
+		this.maxTotalBytes = maxTotalBytes;
+	}
+
+	/**
+	 * Creates a copy of these limits with a maximum number of bytes of each document.
+	 * @param maxDocumentBytes The maximum number of bytes.
+	 * @return The {@link XmlInputLimits}.
+	 * @throws IllegalArgumentException If {@code maxDocumentBytes} is negative.
+	 */
+	public XmlInputLimits withMaxDocumentBytes(long maxDocumentBytes) {
+		Preconditions.checkArgument(maxDocumentBytes >= 0, "Maximum document bytes must not be negative.");
+		return new XmlInputLimits(maxDocumentBytes, maxDepth, maxEvents, maxAttributeLength, maxTotalBytes);
+	}
+
+	/**
+	 * Creates a copy of these limits with a maximum depth of the elements of each document.
+	 * @param maxDepth The maximum number of elements an element may be nested in, counting the root element.
+	 * @return The {@link XmlInputLimits}.
+	 * @throws IllegalArgumentException If {@code maxDepth} is negative.
+	 */
+	public XmlInputLimits withMaxDepth(int maxDepth) {
+		Preconditions.checkArgument(maxDepth >= 0, "Maximum depth must not be negative.");
+		return new XmlInputLimits(maxDocumentBytes, maxDepth, maxEvents, maxAttributeLength, maxTotalBytes);
+	}
+
+	/**
+	 * Creates a copy of these limits with a maximum number of {@link XMLEvent}s of each document.
+	 * @param maxEvents The maximum number of {@link XMLEvent}s.
+	 * @return The {@link XmlInputLimits}.
+	 * @throws IllegalArgumentException If {@code maxEvents} is negative.
+	 */
+	public XmlInputLimits withMaxEvents(int maxEvents) {
+		Preconditions.checkArgument(maxEvents >= 0, "Maximum events must not be negative.");
+		return new XmlInputLimits(maxDocumentBytes, maxDepth, maxEvents, maxAttributeLength, maxTotalBytes);
+	}
+
+	/**
+	 * Creates a copy of these limits with a maximum number of characters of each attribute value.
+	 * @param maxAttributeLength The maximum number of characters.
+	 * @return The {@link XmlInputLimits}.
+	 * @throws IllegalArgumentException If {@code maxAttributeLength} is negative.
+	 */
+	public XmlInputLimits withMaxAttributeLength(int maxAttributeLength) {
+		Preconditions.checkArgument(maxAttributeLength >= 0, "Maximum attribute length must not be negative.");
+		return new XmlInputLimits(maxDocumentBytes, maxDepth, maxEvents, maxAttributeLength, maxTotalBytes);
+	}
+
+	/**
+	 * Creates a copy of these limits with a maximum number of bytes of all of the documents read into one stockpile.
+	 * @param maxTotalBytes The maximum number of bytes.
+	 * @return The {@link XmlInputLimits}.
+	 * @throws IllegalArgumentException If {@code maxTotalBytes} is negative.
+	 */
+	public XmlInputLimits withMaxTotalBytes(long maxTotalBytes) {
+		Preconditions.checkArgument(maxTotalBytes >= 0, "Maximum total bytes must not be negative.");
+		return new XmlInputLimits(maxDocumentBytes, maxDepth, maxEvents, maxAttributeLength, maxTotalBytes);
+	}
+
+	/**
+	 * Gets the maximum number of bytes of each document.
+	 * @return The maximum number of bytes.
+	 */
+	public long getMaxDocumentBytes() {
+		return maxDocumentBytes;
+	}
+
+	/**
+	 * Gets the maximum depth of the elements of each document.
+	 * @return The maximum number of elements an element may be nested in, counting the root element.
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Gets the maximum number of {@link XMLEvent}s of each document.
+	 * @return The maximum number of {@link XMLEvent}s.
+	 */
+	public int getMaxEvents() {
+		return maxEvents;
+	}
+
+	/**
+	 * Gets the maximum number of characters of each attribute value.
+	 * @return The maximum number of characters.
+	 */
+	public int getMaxAttributeLength() {
+		return maxAttributeLength;
+	}
+
+	/**
+	 * Gets the maximum number of bytes of all of the documents read into one stockpile.
+	 * @return The maximum number of bytes.
+	 */
+	public long getMaxTotalBytes() {
+		return maxTotalBytes;
+	}
+
+	/**
+	 * Checks the {@link XMLEvent}s of a document that has already been read against the limits on its depth, events
+	 * and attribute values.
+	 * @param document The {@link XMLEvent}s of the document.
+	 * @throws XmlLimitException If the document exceeds a limit.
+	 */
+	public void check(Iterable<XMLEvent> document) throws XmlLimitException {
+		XmlLimitGuard guard = new XmlLimitGuard(this);
+
+		for (XMLEvent event : document) {
+			guard.accept(event);
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		XmlInputLimits that = (XmlInputLimits) o;
+		return maxDocumentBytes == that.maxDocumentBytes
+			&& maxDepth == that.maxDepth
+			&& maxEvents == that.maxEvents
+			&& maxAttributeLength == that.maxAttributeLength
+			&& maxTotalBytes == that.maxTotalBytes;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(maxDocumentBytes, maxDepth, maxEvents, maxAttributeLength, maxTotalBytes);
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("maxDocumentBytes", maxDocumentBytes)
+			.add("maxDepth", maxDepth)
+			.add("maxEvents", maxEvents)
+			.add("maxAttributeLength", maxAttributeLength)
+			.add("maxTotalBytes", maxTotalBytes)
+			.toString();
+	}
+}
@@ -0,0 +1,33 @@
+package com.mikebull94.stockpile.xml;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Thrown when an {@link XmlDocument} exceeds one of its {@link XmlInputLimits}. It is thrown as soon as the limit is
+ * exceeded, so the rest of the document is not read.
+ */
+public final class XmlLimitException extends XMLStreamException {
+
+	/**
+	 * The version of the serialized form.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Creates a new {@link XmlLimitException}.
+	 * @param message The description of the limit that was exceeded.
+	 */
+	public XmlLimitException(String message) {
+		super(message);
+	}
+
+	/**
+	 * Creates a new {@link XmlLimitException}.
+	 * @param message The description of the limit that was exceeded.
+	 * @param location The {@link Location} at which the limit was exceeded.
+	 */
+	public XmlLimitException(String message, Location location) {
+		super(message, location);
+	}
+}
@@ -0,0 +1,69 @@
+package com.mikebull94.stockpile.xml;
+
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.XMLEvent;
+import java.util.Iterator;
+
+/**
+ * Checks the {@link XMLEvent}s of one {@link XmlDocument}, in order, against the limits on its depth, events and
+ * attribute values.
+ */
+final class XmlLimitGuard {
+
+	/**
+	 * The {@link XmlInputLimits}.
+	 */
+	private final XmlInputLimits limits;
+
+	/**
+	 * The number of elements that have been started and not ended.
+	 */
+	private int depth;
+
+	/**
+	 * The number of {@link XMLEvent}s that have been checked.
+	 */
+	private int events;
+
+	/**
+	 * Creates a new {@link XmlLimitGuard}.
+	 * @param limits The {@link XmlInputLimits}.
+	 */
+	XmlLimitGuard(XmlInputLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Checks the next {@link XMLEvent} of the document.
+	 * @param event The {@link XMLEvent}.
+	 * @throws XmlLimitException If the document exceeds a limit.
+	 */
+	void accept(XMLEvent event) throws XmlLimitException {
+		if (++events > limits.getMaxEvents()) {
+			throw new XmlLimitException("Document exceeds the maximum of " + limits.getMaxEvents() + " events.",
+				event.getLocation());
+		}
+
+		if (event.isStartElement()) {
+			if (++depth > limits.getMaxDepth()) {
+				throw new XmlLimitException("Document exceeds the maximum depth of " + limits.getMaxDepth() + ".",
+					event.getLocation());
+			}
+
+			@SuppressWarnings("unchecked")
+			Iterator<Attribute> attributes = event.asStartElement().getAttributes();
+
+			while (attributes.hasNext()) {
+				Attribute attribute = attributes.next();
+
+				if (attribute.getValue().length() > limits.getMaxAttributeLength()) {
+					throw new XmlLimitException("Attribute '" + attribute.getName().getLocalPart()
+						+ "' exceeds the maximum length of " + limits.getMaxAttributeLength() + " characters.",
+						event.getLocation());
+				}
+			}
+		} else if (event.isEndElement()) {
+			depth--;
+		}
+	}
+}
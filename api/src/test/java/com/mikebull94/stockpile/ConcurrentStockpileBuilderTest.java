@@ -0,0 +1,181 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains stress tests for {@link ConcurrentStockpileBuilder}.
+ */
+public final class ConcurrentStockpileBuilderTest {
+	private static final int THREADS = 16;
+	private static final int DOCUMENTS = 2_000;
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 24 24\">"
+		+ "<path d=\"M%1$d 0L24 24\"/><g><circle r=\"%1$d\"/></g></svg>";
+
+	private static final ImmutableList<XMLEvent> BEFORE = ImmutableList.<XMLEvent>builder()
+		.add(SvgDocument.startSvg(new SvgViewBox(0, 0, 24, 24)))
+		.addAll(SvgDocument.hideEmbeddedSvgs())
+		.build();
+
+	private static final ImmutableList<XMLEvent> AFTER = ImmutableList.of(SvgDocument.endSvg());
+
+	private static byte[] document(int index) {
+		return String.format(SVG, index).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String id(int index) {
+		return String.format("icon-%05d", index);
+	}
+
+	private static String serialize(Stockpile stockpile) throws XMLStreamException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		stockpile.write(output);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<T>> futures = new ArrayList<>();
+
+		try {
+			for (Callable<T> task : tasks) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+
+			start.countDown();
+			List<T> results = new ArrayList<>();
+
+			for (Future<T> future : futures) {
+				results.add(future.get(1, TimeUnit.MINUTES));
+			}
+
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void buildIsDeterministicUnderContention() throws Exception {
+		StockpileBuilder sequential = Stockpile.builder().add(BEFORE);
+
+		for (int index = 0; index < DOCUMENTS; index++) {
+			sequential.read(id(index), new ByteArrayInputStream(document(index)));
+		}
+
+		String expected = serialize(sequential.add(AFTER).build());
+
+		for (long seed = 0; seed < 3; seed++) {
+			List<Integer> indices = new ArrayList<>();
+
+			for (int index = 0; index < DOCUMENTS; index++) {
+				indices.add(index);
+			}
+
+			Collections.shuffle(indices, new Random(seed));
+			ConcurrentStockpileBuilder builder = Stockpile.concurrentBuilder(false);
+			List<Callable<Integer>> tasks = new ArrayList<>();
+
+			for (int thread = 0; thread < THREADS; thread++) {
+				List<Integer> slice = indices.subList(thread * DOCUMENTS / THREADS, (thread + 1) * DOCUMENTS / THREADS);
+
+				tasks.add(() -> {
+					for (int index : slice) {
+						builder.read(id(index), new ByteArrayInputStream(document(index)));
+					}
+
+					return slice.size();
+				});
+			}
+
+			runConcurrently(tasks);
+			assertEquals(DOCUMENTS, builder.size());
+			assertEquals(expected, serialize(builder.build(BEFORE, AFTER)));
+		}
+	}
+
+	@Test
+	public void ordersByOrderKeyThenId() throws XMLStreamException {
+		String stockpile = serialize(Stockpile.concurrentBuilder(false)
+			.read(2, "a", new ByteArrayInputStream(document(1)))
+			.read(1, "c", new ByteArrayInputStream(document(2)))
+			.read(1, "b", new ByteArrayInputStream(document(3)))
+			.build(BEFORE, AFTER));
+
+		int a = stockpile.indexOf("id=\"a\"");
+		int b = stockpile.indexOf("id=\"b\"");
+		int c = stockpile.indexOf("id=\"c\"");
+
+		assertTrue(b < c);
+		assertTrue(c < a);
+	}
+
+	@Test
+	public void acceptsOneOfManyDuplicatesInAnyOrder() throws Exception {
+		ConcurrentStockpileBuilder builder = Stockpile.concurrentBuilder(false);
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+
+		for (int thread = 0; thread < THREADS * 4; thread++) {
+			int index = thread;
+
+			tasks.add(() -> {
+				try {
+					builder.read(index % 3, "same", new ByteArrayInputStream(document(index)));
+					return true;
+				} catch (IllegalArgumentException e) {
+					return false;
+				}
+			});
+		}
+
+		assertEquals(1, Collections.frequency(runConcurrently(tasks), true));
+		assertEquals(1, builder.size());
+	}
+
+	@Test
+	public void buildsWhileReading() throws Exception {
+		ConcurrentStockpileBuilder builder = Stockpile.concurrentBuilder(false);
+		List<Callable<Integer>> tasks = new ArrayList<>();
+
+		for (int thread = 0; thread < THREADS; thread++) {
+			int first = thread * 100;
+
+			tasks.add(() -> {
+				for (int index = first; index < first + 100; index++) {
+					builder.read(id(index), new ByteArrayInputStream(document(index)));
+					builder.build(BEFORE, AFTER);
+				}
+
+				return 100;
+			});
+		}
+
+		runConcurrently(tasks);
+		assertEquals(THREADS * 100, builder.size());
+	}
+}
@@ -0,0 +1,105 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.xml.XmlInputEngine;
+import com.mikebull94.stockpile.xml.XmlInputLimits;
+import com.mikebull94.stockpile.xml.XmlLimitException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for reading {@link Stockpile}s within {@link XmlInputLimits}.
+ */
+public final class StockpileLimitsTest {
+	private static final String FLAT = "<svg xmlns=\"http://www.w3.org/2000/svg\"><path d=\"M0 0L24 24\"/></svg>";
+
+	private static final String NESTED = "<svg xmlns=\"http://www.w3.org/2000/svg\"><g><g><path d=\"M1 1\"/></g></g></svg>";
+
+	private static final XmlInputLimits SHALLOW = XmlInputLimits.UNLIMITED.withMaxDepth(2);
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private static InputStream stream(String xml) {
+		return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String written(StockpileBuilder builder) throws XMLStreamException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		builder.add(SvgDocument.endSvg()).build().write(output);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static StockpileBuilder builder(XmlInputLimits limits, boolean skipRejected) {
+		return Stockpile.builder()
+			.withInputLimits(limits, skipRejected)
+			.add(SvgDocument.startSvg(new SvgViewBox(0, 0, 24, 24)));
+	}
+
+	@Test
+	public void skipsAndReportsRejectedDocuments() throws XMLStreamException {
+		StockpileBuilder builder = builder(SHALLOW, true)
+			.read("flat", stream(FLAT))
+			.read("nested", stream(NESTED));
+
+		assertEquals(ImmutableSet.of("nested"), builder.getRejected().keySet());
+		assertTrue(builder.getRejected().get("nested").contains("depth"));
+
+		String svg = written(builder);
+		assertTrue(svg.contains("id=\"flat\""));
+		assertFalse(svg.contains("id=\"nested\""));
+	}
+
+	@Test(expected = XmlLimitException.class)
+	public void failsOnRejectedDocuments() throws XMLStreamException {
+		builder(SHALLOW, false).read("nested", stream(NESTED));
+	}
+
+	@Test
+	public void limitsTheTotalBytes() throws XMLStreamException {
+		XmlInputLimits limits = XmlInputLimits.UNLIMITED.withMaxTotalBytes(FLAT.length() * 2);
+		StockpileBuilder builder = builder(limits, true)
+			.read("first", stream(FLAT))
+			.read("second", stream(FLAT))
+			.read("third", stream(FLAT));
+
+		assertEquals(ImmutableSet.of("third"), builder.getRejected().keySet());
+	}
+
+	@Test
+	public void rejectsLargeFilesWithoutReadingThem() throws IOException, XMLStreamException {
+		Path flat = folder.newFile("flat.svg").toPath();
+		Path large = folder.newFile("large.svg").toPath();
+		Files.write(flat, FLAT.getBytes(StandardCharsets.UTF_8));
+		Files.write(large, ("<svg>" + Strings.repeat("<g/>", 1000) + "</svg>").getBytes(StandardCharsets.UTF_8));
+
+		XmlInputLimits limits = XmlInputLimits.UNLIMITED.withMaxDocumentBytes(1024);
+		StockpileBuilder builder = builder(limits, true).read(ImmutableList.of(flat, large));
+
+		assertEquals(ImmutableSet.of("large"), builder.getRejected().keySet());
+		assertTrue(written(builder).contains("id=\"flat\""));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void failsOnRejectedParsedDocuments() throws XMLStreamException {
+		builder(SHALLOW, false).read("nested", XmlInputEngine.jdk().read(stream(NESTED)));
+	}
+}
@@ -0,0 +1,205 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.flow.ChunkSubscriber;
+import com.mikebull94.stockpile.flow.ChunkSubscription;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Contains unit tests for the {@link com.mikebull94.stockpile.flow.ChunkPublisher} of a {@link Stockpile}.
+ */
+public final class StockpilePublisherTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\"><path d=\"M%1$d 0L24 24\"/></svg>";
+
+	private static class RecordingSubscriber implements ChunkSubscriber {
+		private final List<ByteBuffer> chunks = new ArrayList<>();
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final CountDownLatch terminated = new CountDownLatch(1);
+		private ChunkSubscription subscription;
+		private Throwable error;
+		private boolean complete;
+		private int depth;
+		private int maxDepth;
+
+		@Override
+		public void onSubscribe(ChunkSubscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(ByteBuffer chunk) {
+			maxDepth = Math.max(maxDepth, ++depth);
+			chunks.add(chunk);
+			bytes.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+			depth--;
+		}
+
+		@Override
+		public void onError(Throwable cause) {
+			error = cause;
+			terminated.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			complete = true;
+			terminated.countDown();
+		}
+	}
+
+	private Stockpile stockpile;
+
+	private byte[] expected;
+
+	@Before
+	public void setUp() throws XMLStreamException {
+		StockpileBuilder builder = Stockpile.builder()
+			.add(SvgDocument.startSvg(new SvgViewBox(0, 0, 24, 24)))
+			.add(SvgDocument.hideEmbeddedSvgs());
+
+		for (int index = 0; index < 200; index++) {
+			builder.read("icon" + index, new ByteArrayInputStream(String.format(SVG, index).getBytes(StandardCharsets.UTF_8)));
+		}
+
+		stockpile = builder.add(SvgDocument.endSvg()).build();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		stockpile.write(output);
+		expected = output.toByteArray();
+	}
+
+	@Test
+	public void publishesOnlyRequestedChunks() {
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		stockpile.publisher(100).subscribe(subscriber);
+		assertEquals(0, subscriber.chunks.size());
+
+		subscriber.subscription.request(3);
+		assertEquals(3, subscriber.chunks.size());
+
+		for (ByteBuffer chunk : subscriber.chunks) {
+			assertEquals(100, chunk.remaining());
+		}
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertTrue(subscriber.complete);
+		assertArrayEquals(expected, subscriber.bytes.toByteArray());
+	}
+
+	@Test
+	public void requestsFromOnNextDoNotRecurse() {
+		RecordingSubscriber subscriber = new RecordingSubscriber() {
+			@Override
+			public void onNext(ByteBuffer chunk) {
+				super.onNext(chunk);
+				super.subscription.request(1);
+			}
+		};
+
+		stockpile.publisher(64).subscribe(subscriber);
+		subscriber.subscription.request(1);
+
+		assertTrue(subscriber.complete);
+		assertEquals(1, subscriber.maxDepth);
+		assertArrayEquals(expected, subscriber.bytes.toByteArray());
+	}
+
+	@Test
+	public void stopsWhenCancelled() {
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		stockpile.publisher(100).subscribe(subscriber);
+		subscriber.subscription.request(2);
+		subscriber.subscription.cancel();
+		subscriber.subscription.request(10);
+
+		assertEquals(2, subscriber.chunks.size());
+		assertFalse(subscriber.complete);
+	}
+
+	@Test
+	public void reportsInvalidRequests() {
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		stockpile.publisher(100).subscribe(subscriber);
+		subscriber.subscription.request(0);
+
+		assertTrue(subscriber.error instanceof IllegalArgumentException);
+		subscriber.subscription.request(1);
+		assertEquals(0, subscriber.chunks.size());
+	}
+
+	@Test
+	public void reportsUncheckedFailuresOfTheSource() {
+		XMLEvent broken = mock(XMLEvent.class);
+		when(broken.getEventType()).thenThrow(new IllegalStateException("Broken event."));
+
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		new StockpilePublisher(ImmutableList.of(broken), 100).subscribe(subscriber);
+		subscriber.subscription.request(1);
+
+		assertTrue(subscriber.error instanceof IllegalStateException);
+		assertEquals(0, subscriber.chunks.size());
+	}
+
+	@Test
+	public void cancelsWhenOnNextThrows() {
+		RecordingSubscriber subscriber = new RecordingSubscriber() {
+			@Override
+			public void onNext(ByteBuffer chunk) {
+				super.onNext(chunk);
+				throw new IllegalStateException("Broken subscriber.");
+			}
+		};
+
+		stockpile.publisher(100).subscribe(subscriber);
+		subscriber.subscription.request(10);
+		subscriber.subscription.request(10);
+
+		assertEquals(1, subscriber.chunks.size());
+		assertFalse(subscriber.complete);
+		assertNull(subscriber.error);
+	}
+
+	@Test
+	public void publishesInOrderWhenRequestedConcurrently() throws InterruptedException {
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		stockpile.publisher(32).subscribe(subscriber);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			for (int request = 0; request < 10_000; request++) {
+				executor.execute(() -> subscriber.subscription.request(1));
+			}
+
+			assertTrue(subscriber.terminated.await(1, TimeUnit.MINUTES));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertTrue(subscriber.complete);
+		assertArrayEquals(expected, subscriber.bytes.toByteArray());
+	}
+}
@@ -0,0 +1,105 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for {@link StockpileService}.
+ */
+public final class StockpileServiceTest {
+	private static final SvgViewBox VIEW_BOX = new SvgViewBox(0, 0, 24, 24);
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 24 24\">"
+		+ "<path d=\"M%1$d 0L24 24\"/><g fill=\"#333\"><circle r=\"%1$d\"/></g></svg>";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private Path directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = folder.getRoot().toPath();
+
+		for (int index = 0; index < 10; index++) {
+			Files.write(directory.resolve("icon" + index + ".svg"), String.format(SVG, index).getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void assemblesTheSameBytesAsABuilder() throws IOException, XMLStreamException {
+		StockpileBuilder builder = Stockpile.builder().add(SvgDocument.startSvg(VIEW_BOX)).add(SvgDocument.hideEmbeddedSvgs());
+		builder.read(directory.resolve("icon1.svg"), directory.resolve("icon3.svg"), directory.resolve("icon7.svg"));
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		builder.add(SvgDocument.endSvg()).build().write(expected);
+
+		StockpileService service = StockpileService.builder(directory, VIEW_BOX).build();
+		assertArrayEquals(expected.toByteArray(), service.sheet(ImmutableList.of("icon7", "icon1", "icon3", "icon1")).read());
+	}
+
+	@Test
+	public void cachesSheetsByCanonicalKey() throws IOException, XMLStreamException {
+		StockpileService service = StockpileService.builder(directory, VIEW_BOX).build();
+		service.sheet(ImmutableList.of("icon1", "icon2"));
+		service.sheet(ImmutableList.of("icon2", "icon1"));
+		service.sheet(ImmutableList.of("icon2", "icon3"));
+
+		assertEquals(1, service.sheetStats().hitCount());
+		assertEquals(2, service.sheetStats().missCount());
+		assertEquals(1, service.fragmentStats().hitCount());
+		assertEquals(3, service.fragmentStats().missCount());
+	}
+
+	@Test
+	public void restoresEvictedFragmentsFromSoftOverflow() throws IOException, XMLStreamException {
+		StockpileService service = StockpileService.builder(directory, VIEW_BOX)
+			.maxFragmentBytes(0)
+			.maxSheetBytes(0)
+			.softOverflow(true)
+			.build();
+
+		service.sheet(ImmutableList.of("icon1"));
+		service.sheet(ImmutableList.of("icon1"));
+
+		assertEquals(0, service.sheetStats().hitCount());
+		assertTrue(service.fragmentStats().evictionCount() > 0);
+		assertEquals(1, service.overflowStats().hitCount());
+	}
+
+	@Test
+	public void discardsEvictedFragmentsWithoutSoftOverflow() throws IOException, XMLStreamException {
+		StockpileService service = StockpileService.builder(directory, VIEW_BOX).maxFragmentBytes(0).build();
+		service.sheet(ImmutableList.of("icon1"));
+		service.invalidateAll();
+		service.sheet(ImmutableList.of("icon1"));
+
+		assertEquals(0, service.overflowStats().requestCount());
+		assertEquals(2, service.fragmentStats().missCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsPathsOutsideOfTheDirectory() throws IOException, XMLStreamException {
+		StockpileService.builder(directory, VIEW_BOX).build().sheet(ImmutableList.of("../icon1"));
+	}
+
+	@Test(expected = NoSuchFileException.class)
+	public void missingSvg() throws IOException, XMLStreamException {
+		StockpileService.builder(directory, VIEW_BOX).build().sheet(ImmutableList.of("missing"));
+	}
+}
@@ -0,0 +1,109 @@
+package com.mikebull94.stockpile;
+
+import com.mikebull94.stockpile.report.FragmentSize;
+import com.mikebull94.stockpile.report.SizeReport;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.svg.processor.DeadElementProcessor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for measuring the size of each embedded SVG of a {@link Stockpile}.
+ */
+public final class StockpileSizeTest {
+	private static final String SMALL = "<svg xmlns=\"http://www.w3.org/2000/svg\"><path d=\"M0 0L24 24\"/></svg>";
+
+	private static final String LARGE = "<svg xmlns=\"http://www.w3.org/2000/svg\">\n"
+		+ "<!-- A comment that is removed. -->\n"
+		+ "<metadata>Removed</metadata>\n"
+		+ "<path d=\"M0 0L24 24L0 24L24 0L12 12L0 12L24 12\"/>\n"
+		+ "<circle cx=\"12\" cy=\"12\" r=\"6\"/>\n"
+		+ "</svg>";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private static StockpileBuilder read(StockpileBuilder builder) throws XMLStreamException {
+		return builder.measureSizes()
+			.add(SvgDocument.startSvg(new SvgViewBox(0, 0, 24, 24)))
+			.add(SvgDocument.hideEmbeddedSvgs())
+			.read("small", new ByteArrayInputStream(SMALL.getBytes(StandardCharsets.UTF_8)))
+			.read("large", new ByteArrayInputStream(LARGE.getBytes(StandardCharsets.UTF_8)))
+			.add(SvgDocument.endSvg());
+	}
+
+	private static String written(Stockpile stockpile) throws XMLStreamException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		stockpile.write(output);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void measuresEachFragment() throws XMLStreamException {
+		Stockpile stockpile = read(Stockpile.builder()).build();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		SizeReport report = stockpile.writeMeasured(output);
+
+		assertEquals(written(stockpile), new String(output.toByteArray(), StandardCharsets.UTF_8));
+		assertEquals(output.size(), report.getTotalBytes());
+		assertEquals(2, report.getFragments().size());
+
+		FragmentSize large = report.getFragments().get(0);
+		assertEquals("large", large.getId());
+		assertEquals(LARGE.length(), large.getInputBytes());
+		assertTrue(large.getOutputEvents() < large.getInputEvents());
+		assertTrue(large.getSavedEvents().get(FragmentSize.UNPROCESSED) > 0);
+
+		FragmentSize small = report.getFragments().get(1);
+		assertEquals("small", small.getId());
+		assertEquals(SMALL.length(), small.getInputBytes());
+		assertTrue(output.toString().contains("<svg:svg id=\"small\" class=\"i\"><path d=\"M0 0L24 24\"></path></svg:svg>"));
+		assertEquals("<svg:svg id=\"small\" class=\"i\"><path d=\"M0 0L24 24\"></path></svg:svg>".length(),
+			small.getOutputBytes());
+	}
+
+	@Test
+	public void measuresDocumentProcessors() throws XMLStreamException {
+		Stockpile stockpile = read(Stockpile.builder().with(new DeadElementProcessor())).build();
+		SizeReport report = stockpile.writeMeasured(new ByteArrayOutputStream());
+
+		assertTrue(report.getFragments().get(0).getSavedEvents().containsKey("DeadElementProcessor"));
+	}
+
+	@Test
+	public void measuresSpilledStockpiles() throws IOException, XMLStreamException {
+		SizeReport expected = read(Stockpile.builder()).build().writeMeasured(new ByteArrayOutputStream());
+		Path output = folder.newFile("spilled.svg").toPath();
+
+		try (Stockpile spilled = read(Stockpile.builder().spillTo(folder.getRoot().toPath(), 64)).build()) {
+			SizeReport report = spilled.writeMeasured(output);
+
+			assertEquals(Files.size(output), report.getTotalBytes());
+			assertEquals(expected.toJson(), report.toJson());
+		}
+	}
+
+	@Test
+	public void unmeasuredStockpilesReportTheirTotal() throws XMLStreamException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		SizeReport report = Stockpile.builder().add(SvgDocument.startSvg(new SvgViewBox(0, 0, 24, 24)))
+			.add(SvgDocument.endSvg()).build().writeMeasured(output);
+
+		assertEquals(output.size(), report.getTotalBytes());
+		assertTrue(report.getFragments().isEmpty());
+	}
+}
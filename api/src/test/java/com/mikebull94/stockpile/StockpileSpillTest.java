@@ -0,0 +1,132 @@
+package com.mikebull94.stockpile;
+
+import com.mikebull94.stockpile.flow.ChunkSubscriber;
+import com.mikebull94.stockpile.flow.ChunkSubscription;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.xml.XmlFactories;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for building a {@link Stockpile} with a {@link StockpileBuilder} that spills to disk.
+ */
+public final class StockpileSpillTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\"><path d=\"M%1$d 0L24 24\"/></svg>";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private static Stockpile build(StockpileBuilder builder) throws XMLStreamException {
+		builder.add(SvgDocument.startSvg(new SvgViewBox(0, 0, 24, 24))).add(SvgDocument.hideEmbeddedSvgs());
+
+		for (int index = 0; index < 500; index++) {
+			builder.read("icon" + index, new ByteArrayInputStream(String.format(SVG, index).getBytes(StandardCharsets.UTF_8)));
+		}
+
+		return builder.add(SvgDocument.endSvg()).build();
+	}
+
+	private static byte[] bytes(Stockpile stockpile) throws XMLStreamException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		stockpile.write(output);
+		return output.toByteArray();
+	}
+
+	private long spillFiles() throws IOException {
+		try (Stream<Path> paths = Files.list(folder.getRoot().toPath())) {
+			return paths.filter(path -> path.toString().endsWith(".spill")).count();
+		}
+	}
+
+	@Test
+	public void writesTheSameBytesAsAnInMemoryBuild() throws IOException, XMLStreamException {
+		Stockpile expected = build(Stockpile.builder());
+		Path output = folder.newFile("spilled.svg").toPath();
+
+		try (Stockpile spilled = build(Stockpile.builder().spillTo(folder.getRoot().toPath(), 1024))) {
+			assertEquals(expected.size(), spilled.size());
+			assertArrayEquals(bytes(expected), bytes(spilled));
+
+			spilled.write(output);
+			assertArrayEquals(bytes(expected), Files.readAllBytes(output));
+		}
+
+		assertEquals(0, spillFiles());
+	}
+
+	@Test
+	public void holdsSmallStockpilesInMemory() throws IOException, XMLStreamException {
+		try (Stockpile spilled = build(Stockpile.builder().spillTo(folder.getRoot().toPath(), 1024 * 1024))) {
+			assertArrayEquals(bytes(build(Stockpile.builder())), bytes(spilled));
+		}
+	}
+
+	@Test
+	public void readsEventsBackFromTheSpillFile() throws IOException, XMLStreamException {
+		try (Stockpile spilled = build(Stockpile.builder().spillTo(folder.getRoot().toPath(), 0))) {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			XMLEventWriter writer = XmlFactories.output().createXMLEventWriter(output);
+			spilled.addEventsTo(writer);
+			writer.close();
+
+			String svg = new String(output.toByteArray(), StandardCharsets.UTF_8);
+			assertTrue(svg.startsWith("<svg "));
+			assertTrue(svg.contains("id=\"icon0\""));
+			assertTrue(svg.contains("d=\"M499 0L24 24\""));
+			assertTrue(svg.endsWith("</svg:svg></svg>"));
+		}
+	}
+
+	@Test
+	public void publishesTheSpillFile() throws IOException, XMLStreamException {
+		try (Stockpile spilled = build(Stockpile.builder().spillTo(folder.getRoot().toPath(), 100))) {
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+			spilled.publisher(37).subscribe(new ChunkSubscriber() {
+				@Override
+				public void onSubscribe(ChunkSubscription subscription) {
+					subscription.request(Long.MAX_VALUE);
+				}
+
+				@Override
+				public void onNext(ByteBuffer chunk) {
+					output.write(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+				}
+
+				@Override
+				public void onError(Throwable cause) {
+					throw new AssertionError(cause);
+				}
+
+				@Override
+				public void onComplete() {
+					/* empty */
+				}
+			});
+
+			assertArrayEquals(bytes(spilled), output.toByteArray());
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void spillingAfterEventsAreAdded() {
+		Stockpile.builder().add(SvgDocument.endSvg()).spillTo(folder.getRoot().toPath(), 0);
+	}
+}
@@ -0,0 +1,180 @@
+package com.mikebull94.stockpile;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.svg.processor.DefinitionProcessor;
+import com.mikebull94.stockpile.svg.processor.SimplificationProcessor;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for building {@link StockpileVariant}s with a {@link StockpileBuilder}.
+ */
+public final class StockpileVariantTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\"><path d=\"M0 0\"/></svg>";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private static StockpileBuilder read(StockpileBuilder builder, String... ids) throws XMLStreamException {
+		for (String id : ids) {
+			builder.read(id, new ByteArrayInputStream(SVG.getBytes(StandardCharsets.UTF_8)));
+		}
+
+		return builder;
+	}
+
+	private static String serialize(Stockpile stockpile) throws XMLStreamException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		stockpile.write(output);
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void filtersEachVariant() throws IOException, XMLStreamException {
+		StockpileBuilder builder = Stockpile.builder()
+			.variant(new StockpileVariant("all", new SvgViewBox(0, 0, 24, 24)))
+			.variant(new StockpileVariant("core", new SvgViewBox(0, 0, 48, 48)).filter(id -> id.startsWith("core")));
+
+		ImmutableMap<String, Stockpile> variants = read(builder, "core-home", "extra-star").buildVariants();
+		assertEquals(ImmutableList.of("all", "core"), variants.keySet().asList());
+
+		String all = serialize(variants.get("all"));
+		assertTrue(all.contains("id=\"core-home\""));
+		assertTrue(all.contains("id=\"extra-star\""));
+		assertTrue(all.contains("viewBox=\"0 0 24 24\""));
+
+		String core = serialize(variants.get("core"));
+		assertTrue(core.contains("id=\"core-home\""));
+		assertFalse(core.contains("id=\"extra-star\""));
+		assertTrue(core.contains("viewBox=\"0 0 48 48\""));
+	}
+
+	@Test
+	public void parsesOnceAndRunsProcessorsPerVariant() throws IOException, XMLStreamException {
+		AtomicInteger shared = new AtomicInteger();
+		AtomicInteger dark = new AtomicInteger();
+		XmlDocumentProcessor countShared = (id, events) -> {
+			shared.incrementAndGet();
+			return events;
+		};
+		XmlDocumentProcessor countDark = (id, events) -> {
+			dark.incrementAndGet();
+			return events;
+		};
+
+		StockpileBuilder builder = Stockpile.builder()
+			.with(countShared)
+			.variant(new StockpileVariant("light", new SvgViewBox(0, 0, 24, 24)))
+			.variant(new StockpileVariant("dark", new SvgViewBox(0, 0, 24, 24)).with(countDark));
+
+		read(builder, "a", "b", "c").buildVariants();
+		assertEquals(3, shared.get());
+		assertEquals(3, dark.get());
+	}
+
+	@Test
+	public void addsSharedEventsOfVariantProcessors() throws IOException, XMLStreamException {
+		XmlDocumentProcessor styles = new XmlDocumentProcessor() {
+			@Override
+			public ImmutableList<XMLEvent> process(String id, ImmutableList<XMLEvent> events) {
+				return events;
+			}
+
+			@Override
+			public ImmutableList<XMLEvent> sharedEvents() {
+				return ImmutableList.of(XMLEventFactory.newFactory().createComment("shared"));
+			}
+		};
+
+		StockpileBuilder builder = Stockpile.builder()
+			.variant(new StockpileVariant("styled", new SvgViewBox(0, 0, 24, 24)).with(styles));
+
+		String styled = serialize(read(builder, "a").buildVariants().get("styled"));
+		assertTrue(styled.contains("<!--shared--></svg>"));
+	}
+
+	@Test
+	public void addsSharedEventsOfBuilderProcessors() throws IOException, XMLStreamException {
+		String gradient = "<svg xmlns=\"http://www.w3.org/2000/svg\"><defs><linearGradient id=\"g\">"
+			+ "<stop offset=\"1\"/></linearGradient></defs><path fill=\"url(#g)\" d=\"M0 0\"/></svg>";
+
+		StockpileBuilder builder = Stockpile.builder()
+			.with(new DefinitionProcessor())
+			.variant(new StockpileVariant("dark", new SvgViewBox(0, 0, 24, 24)))
+			.read("a", new ByteArrayInputStream(gradient.getBytes(StandardCharsets.UTF_8)));
+
+		String dark = serialize(builder.buildVariants().get("dark"));
+		assertTrue(dark.contains("fill=\"url(#d0)\""));
+		assertTrue(dark.contains("<svg:defs><linearGradient id=\"d0\">"));
+	}
+
+	@Test
+	public void writesVariantsToDirectory() throws IOException, XMLStreamException {
+		Path directory = folder.getRoot().toPath().resolve("variants");
+
+		StockpileBuilder builder = Stockpile.builder()
+			.variant(new StockpileVariant("light", new SvgViewBox(0, 0, 24, 24)))
+			.variant(new StockpileVariant("dark", new SvgViewBox(0, 0, 24, 24)));
+
+		read(builder, "a").writeVariants(directory);
+		assertTrue(Files.isRegularFile(directory.resolve("light.svg")));
+		assertTrue(Files.isRegularFile(directory.resolve("dark.svg")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void failsToRegisterDuplicateVariant() {
+		Stockpile.builder()
+			.variant(new StockpileVariant("a", new SvgViewBox(0, 0, 1, 1)))
+			.variant(new StockpileVariant("a", new SvgViewBox(0, 0, 1, 1)));
+	}
+
+	@Test
+	public void describesOptionsAndFilters() {
+		StockpileVariant variant = new StockpileVariant("a", new SvgViewBox(0, 0, 1, 1))
+			.with(new SimplificationProcessor(0.5))
+			.filter(id -> id.startsWith("core-"), "core-*");
+		StockpileVariant tolerant = new StockpileVariant("a", new SvgViewBox(0, 0, 1, 1))
+			.with(new SimplificationProcessor(1))
+			.filter(id -> id.startsWith("core-"), "core-*");
+
+		assertTrue(variant.describe().contains("core-*"));
+		assertFalse(variant.describe().equals(tolerant.describe()));
+	}
+
+	@Test
+	public void cannotDescribeUndescribedFilters() {
+		StockpileVariant variant = new StockpileVariant("a", new SvgViewBox(0, 0, 1, 1)).filter(id -> true);
+		assertNull(variant.describe());
+	}
+
+	@Test
+	public void cannotDescribeUndescribedProcessors() {
+		StockpileVariant variant = new StockpileVariant("a", new SvgViewBox(0, 0, 1, 1)).with((id, events) -> events);
+		assertNull(variant.describe());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void failsToBuildWithoutVariants() throws IOException, XMLStreamException {
+		Stockpile.builder().buildVariants();
+	}
+}
@@ -0,0 +1,62 @@
+package com.mikebull94.stockpile.report;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for the {@link SizeReport} and {@link SizeBudget}.
+ */
+public final class SizeReportTest {
+	private static final SizeReport REPORT = new SizeReport(1000, ImmutableList.of(
+		new FragmentSize("small", 200, 100, 10, 5, ImmutableMap.of("FilterXmlEventProcessor", 5)),
+		new FragmentSize("large\"", 900, 600, 40, 30, ImmutableMap.of()),
+		new FragmentSize("medium", -1, 250, 12, 12, ImmutableMap.of())
+	));
+
+	@Test
+	public void ordersLargestFirst() {
+		assertEquals("large\"", REPORT.getFragments().get(0).getId());
+		assertEquals("medium", REPORT.getFragments().get(1).getId());
+		assertEquals("small", REPORT.getFragments().get(2).getId());
+	}
+
+	@Test
+	public void formatsJson() {
+		String json = REPORT.toJson();
+		assertTrue(json.startsWith("{\n\t\"totalBytes\": 1000,\n\t\"fragments\": [\n\t\t{\"id\": \"large\\\"\","));
+		assertTrue(json.contains("{\"id\": \"small\", \"inputBytes\": 200, \"outputBytes\": 100, \"inputEvents\": 10, "
+			+ "\"outputEvents\": 5, \"savedEvents\": {\"FilterXmlEventProcessor\": 5}}\n\t]\n}\n"));
+	}
+
+	@Test
+	public void formatsEmptyJson() {
+		assertEquals("{\n\t\"totalBytes\": 0,\n\t\"fragments\": []\n}\n", new SizeReport(0, ImmutableList.of()).toJson());
+	}
+
+	@Test
+	public void formatsHtmlTreemap() {
+		String html = REPORT.toHtml();
+		assertTrue(html.contains("title=\"large&quot;: 600 bytes\""));
+		assertTrue(html.contains("left:0.000%;top:0.000%;width:63.158%;height:100.000%;"));
+		assertTrue(html.contains("<td>medium</td><td></td><td>250</td><td>25.0%</td>"));
+	}
+
+	@Test
+	public void withinBudget() {
+		assertTrue(new SizeBudget(1000, 600).violations(REPORT).isEmpty());
+		assertTrue(new SizeBudget(SizeBudget.UNLIMITED, SizeBudget.UNLIMITED).violations(REPORT).isEmpty());
+	}
+
+	@Test
+	public void exceedsBudget() {
+		assertEquals(ImmutableList.of(
+			"Stockpile is 1000 bytes, exceeding its budget of 999 bytes.",
+			"Embedded SVG 'large\"' is 600 bytes, exceeding its budget of 200 bytes.",
+			"Embedded SVG 'medium' is 250 bytes, exceeding its budget of 200 bytes."
+		), new SizeBudget(999, 200).violations(REPORT));
+	}
+}
@@ -0,0 +1,53 @@
+package com.mikebull94.stockpile.svg;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for the {@link FragmentIdMinifier} and {@link SvgIds}.
+ */
+public final class FragmentIdMinifierTest {
+	@Test
+	public void generatesBijectiveBase62Ids() {
+		assertEquals("_0", SvgIds.shortId("_", 0));
+		assertEquals("_Z", SvgIds.shortId("_", 61));
+		assertEquals("_00", SvgIds.shortId("_", 62));
+		assertEquals("_ZZ", SvgIds.shortId("_", 62 + 62 * 62 - 1));
+		assertEquals("_000", SvgIds.shortId("_", 62 + 62 * 62));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsPrefixesStartingWithDigit() {
+		SvgIds.checkPrefix("1");
+	}
+
+	@Test
+	public void mapsIdsInOrderOfAssignment() {
+		FragmentIdMinifier minifier = new FragmentIdMinifier().assign(ImmutableList.of("home", "search"));
+
+		assertEquals("f1", minifier.apply("search"));
+		assertEquals("f0", minifier.apply("home"));
+		assertEquals("f2", minifier.apply("settings"));
+	}
+
+	@Test
+	public void writesJsonManifest() throws IOException {
+		FragmentIdMinifier minifier = new FragmentIdMinifier().assign(ImmutableList.of("arrow \"left\"", "arrow\\right"));
+		Path manifest = Files.createTempFile("manifest", ".json");
+
+		try {
+			minifier.writeManifest(manifest);
+			assertEquals("{\n\t\"arrow \\\"left\\\"\": \"f0\",\n\t\"arrow\\\\right\": \"f1\"\n}\n",
+				new String(Files.readAllBytes(manifest), StandardCharsets.UTF_8));
+		} finally {
+			Files.delete(manifest);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.mikebull94.stockpile.svg;
+
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.svg.processor.XmlDocumentProcessorTester;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for the {@link SpriteSheet} and {@link SpriteSheetBuilder}.
+ */
+public final class SpriteSheetTest {
+	private static ByteArrayInputStream svg(String attributes) {
+		String document = "<svg xmlns=\"http://www.w3.org/2000/svg\" " + attributes + "><path d=\"M0 0h1\"/></svg>";
+		return new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static boolean overlap(SvgViewBox a, SvgViewBox b) {
+		return a.getMinX() < b.getMinX() + b.getWidth() && b.getMinX() < a.getMinX() + a.getWidth()
+			&& a.getMinY() < b.getMinY() + b.getHeight() && b.getMinY() < a.getMinY() + a.getHeight();
+	}
+
+	@Test
+	public void readsSizeFromViewBoxOrDimensions() throws XMLStreamException {
+		SpriteSheet sheet = SpriteSheet.builder()
+			.read("boxed", svg("viewBox=\"0,0 24 16\" width=\"48\" height=\"32\""))
+			.read("sized", svg("width=\"10px\" height=\"12.5\""))
+			.build();
+
+		assertEquals(24, sheet.getRegion("boxed").getWidth(), 0);
+		assertEquals(16, sheet.getRegion("boxed").getHeight(), 0);
+		assertEquals(10, sheet.getRegion("sized").getWidth(), 0);
+		assertEquals(12.5, sheet.getRegion("sized").getHeight(), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsSvgWithoutSize() throws XMLStreamException {
+		SpriteSheet.builder().read("unsized", svg("width=\"100%\" height=\"100%\""));
+	}
+
+	@Test
+	public void packsTallestSpritesOntoShelvesFirst() {
+		SpriteSheet sheet = SpriteSheet.builder()
+			.add("small", 10, 10)
+			.add("tall", 10, 20)
+			.add("wide", 20, 10)
+			.build();
+
+		assertEquals(new SvgViewBox(0, 0, 10, 20), sheet.getRegion("tall"));
+		assertEquals(new SvgViewBox(0, 21, 20, 10), sheet.getRegion("wide"));
+		assertEquals(new SvgViewBox(11, 0, 10, 10), sheet.getRegion("small"));
+		assertEquals(21, sheet.getWidth());
+		assertEquals(31, sheet.getHeight());
+		assertEquals(ImmutableList.of("small", "tall", "wide"), sheet.getRegions().keySet().asList());
+	}
+
+	@Test
+	public void packsManySpritesWithoutOverlap() {
+		SpriteSheetBuilder builder = SpriteSheet.builder();
+
+		for (int index = 0; index < 10_000; index++) {
+			builder.add("icon" + index, 16 + index % 5 * 8, 16 + index % 7 * 4);
+		}
+
+		SpriteSheet sheet = builder.build();
+		List<SvgViewBox> regions = sheet.getRegions().values().asList();
+		long area = 0;
+
+		for (SvgViewBox region : regions) {
+			assertTrue(region.getMinX() + region.getWidth() <= sheet.getWidth());
+			assertTrue(region.getMinY() + region.getHeight() <= sheet.getHeight());
+			area += (long) (region.getWidth() * region.getHeight());
+		}
+
+		for (int index = 1; index < regions.size(); index += 97) {
+			for (SvgViewBox other : regions) {
+				assertFalse(other != regions.get(index) && overlap(regions.get(index), other));
+			}
+		}
+
+		assertTrue((long) sheet.getWidth() * sheet.getHeight() < area * 2);
+	}
+
+	@Test
+	public void createsViewForEachRegion() {
+		SpriteSheet sheet = SpriteSheet.builder().add("home", 24, 24).add("half", 0.5, 24).build();
+		String views = XmlDocumentProcessorTester.serialize(sheet.views());
+
+		assertTrue(views.contains("id=\"home\""));
+		assertTrue(views.contains("viewBox=\"0 0 24 24\""));
+		assertTrue(views.contains("id=\"half\""));
+		assertTrue(views.contains("viewBox=\"25 0 .5 24\""));
+		assertEquals(new SvgViewBox(0, 0, 26, 24), sheet.getViewBox());
+	}
+}
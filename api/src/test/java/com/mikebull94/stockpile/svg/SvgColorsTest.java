@@ -0,0 +1,22 @@
+package com.mikebull94.stockpile.svg;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for {@link SvgColors}.
+ */
+public final class SvgColorsTest {
+	@Test
+	public void compactsColours() {
+		assertEquals("#fff", SvgColors.compact("#FFFFFF"));
+		assertEquals("#1a2b3c", SvgColors.compact("#1A2B3C"));
+		assertEquals("red", SvgColors.compact("#ff0000"));
+		assertEquals("#000", SvgColors.compact("black"));
+		assertEquals("#ff0", SvgColors.compact("Yellow"));
+		assertEquals("navy", SvgColors.compact("rgb(0, 0, 128)"));
+		assertEquals("none", SvgColors.compact(" none "));
+		assertEquals("url(#a)", SvgColors.compact("url(#a)"));
+	}
+}
@@ -0,0 +1,69 @@
+package com.mikebull94.stockpile.svg;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for {@link SvgNumbers}.
+ */
+public final class SvgNumbersTest {
+	@Test
+	public void removesRedundantZeros() {
+		assertEquals("1", SvgNumbers.compactNumber("1.000000", SvgNumbers.LOSSLESS));
+		assertEquals(".5", SvgNumbers.compactNumber("0.50", SvgNumbers.LOSSLESS));
+		assertEquals("-.25", SvgNumbers.compactNumber("-00.250", SvgNumbers.LOSSLESS));
+		assertEquals("120", SvgNumbers.compactNumber("+120.", SvgNumbers.LOSSLESS));
+	}
+
+	@Test
+	public void removesNegativeZero() {
+		assertEquals("0", SvgNumbers.compactNumber("-0.000", SvgNumbers.LOSSLESS));
+	}
+
+	@Test
+	public void choosesShortestNotation() {
+		assertEquals("1e-5", SvgNumbers.compactNumber("0.00001", SvgNumbers.LOSSLESS));
+		assertEquals("1e5", SvgNumbers.compactNumber("100000", SvgNumbers.LOSSLESS));
+		assertEquals("100", SvgNumbers.compactNumber("1e2", SvgNumbers.LOSSLESS));
+		assertEquals("1.5", SvgNumbers.compactNumber("15E-1", SvgNumbers.LOSSLESS));
+	}
+
+	@Test
+	public void formatsFixedPointNumbers() {
+		assertEquals("-1.25", fixed(-1250, 3));
+		assertEquals(".05", fixed(5, 2));
+		assertEquals("0", fixed(-0, 1));
+		assertEquals("1e3", fixed(10000, 1));
+		assertEquals("1e-5", fixed(1, 5));
+	}
+
+	@Test
+	public void parsesNumbers() {
+		assertEquals(0.1, SvgNumbers.parseDouble("0.1", 0, 3), 0);
+		assertEquals(-1.5e-3, SvgNumbers.parseDouble("-1.5e-3", 0, 7), 0);
+		assertEquals(12.5, SvgNumbers.parseDouble("M12.5", 1, 5), 0);
+	}
+
+	private static String fixed(long units, int precision) {
+		StringBuilder out = new StringBuilder();
+		SvgNumbers.appendFixed(units, precision, out);
+		return out.toString();
+	}
+
+	@Test
+	public void roundsToPrecision() {
+		assertEquals("1.235", SvgNumbers.compactNumber("1.23456", 3));
+		assertEquals("10", SvgNumbers.compactNumber("9.9996", 3));
+		assertEquals("0", SvgNumbers.compactNumber("-0.0004", 3));
+		assertEquals("1", SvgNumbers.compactNumber("0.6", 0));
+	}
+
+	@Test
+	public void compactsLists() {
+		assertEquals("0 0 24.5 24", SvgNumbers.compact("0.0  0.0\t24.50 24", SvgNumbers.LOSSLESS));
+		assertEquals("1.5px", SvgNumbers.compact("1.50px", SvgNumbers.LOSSLESS));
+		assertEquals("2em", SvgNumbers.compact("2.0em", SvgNumbers.LOSSLESS));
+		assertEquals("matrix(1,0,0,1,10.5,0) rotate(45)", SvgNumbers.compact("matrix( 1.0, 0, 0, 1.000, 10.50, 0 )  rotate(45)", SvgNumbers.LOSSLESS));
+	}
+}
@@ -0,0 +1,67 @@
+package com.mikebull94.stockpile.svg;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Contains unit tests for {@link SvgViewBox}.
+ */
+public final class SvgViewBoxTest {
+	@Test
+	public void parsesViewBox() {
+		assertEquals(new SvgViewBox(-1.5, 0, 24, 24), SvgViewBox.parse(" -1.5,0 24  24 "));
+		assertEquals(new SvgViewBox(0, 0, 1000, .5), SvgViewBox.parse("0 0 1e3 .5"));
+	}
+
+	@Test
+	public void rejectsInvalidViewBox() {
+		assertNull(SvgViewBox.parse("0 0 24"));
+		assertNull(SvgViewBox.parse("0 0 24 24 24"));
+		assertNull(SvgViewBox.parse("0 0 -24 24"));
+		assertNull(SvgViewBox.parse("0 0 auto 24"));
+	}
+
+	@Test
+	public void formatsAttributeValue() {
+		assertEquals("0 0 500 500", new SvgViewBox(0, 0, 500, 500).toAttributeValue());
+		assertEquals("-.5 0 23.75 .001", new SvgViewBox(-.5, 0, 23.75, .001).toAttributeValue());
+	}
+
+	@Test
+	public void serializesEqualViewBox() throws IOException, ClassNotFoundException {
+		SvgViewBox viewBox = new SvgViewBox(-.5, 0, 24, 24);
+		viewBox.attributes();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(viewBox);
+		}
+
+		try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertEquals(viewBox, input.readObject());
+		}
+	}
+
+	@Test
+	public void sharesAttributes() {
+		SvgViewBox viewBox = new SvgViewBox(0, 0, 500, 250);
+
+		assertSame(viewBox.attributes(), viewBox.attributes());
+		assertEquals("250", viewBox.attributes().get(1).getValue());
+		assertEquals("0 0 500 250", viewBox.attributes().get(2).getValue());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void failsToCreateInfiniteViewBox() {
+		new SvgViewBox(0, 0, Double.POSITIVE_INFINITY, 24);
+	}
+}
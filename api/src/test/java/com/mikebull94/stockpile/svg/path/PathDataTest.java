@@ -0,0 +1,43 @@
+package com.mikebull94.stockpile.svg.path;
+
+import com.mikebull94.stockpile.svg.SvgNumbers;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for {@link PathData}.
+ */
+public final class PathDataTest {
+	@Test
+	public void removesSeparators() {
+		assertEquals("M0 0L10-10.5.5", PathData.compact("M 0.0,0.0 L 10.0,-10.50 0.5", SvgNumbers.LOSSLESS));
+	}
+
+	@Test
+	public void separatesLeadingPoint() {
+		assertEquals("M1 .5", PathData.compact("M1 0.5", SvgNumbers.LOSSLESS));
+	}
+
+	@Test
+	public void dropsRepeatedCommands() {
+		assertEquals("M0 0L1 1 2 2M3 3M4 4z", PathData.compact("M0 0L1 1L2 2M3 3M4 4z", SvgNumbers.LOSSLESS));
+	}
+
+	@Test
+	public void readsCompactArcFlags() {
+		assertEquals("M0 0a10 10 0 0 1 5 5", PathData.compact("M0 0a10 10 0 015 5", SvgNumbers.LOSSLESS));
+		assertEquals("M0 0a10 10 0 1 0-5.5 5", PathData.compact("M0,0 a10,10,0,1,0,-5.50,5", SvgNumbers.LOSSLESS));
+	}
+
+	@Test
+	public void roundsToPrecision() {
+		assertEquals("M.333 1.667h10", PathData.compact("M0.33333 1.66666 h10.0001", 3));
+	}
+
+	@Test
+	public void leavesInvalidDataUnchanged() {
+		assertEquals("0 0L1 1", PathData.compact("0 0L1 1", SvgNumbers.LOSSLESS));
+		assertEquals("M0 0a1 1 0 2 0 1 1", PathData.compact("M0 0a1 1 0 2 0 1 1", SvgNumbers.LOSSLESS));
+	}
+}
@@ -0,0 +1,65 @@
+package com.mikebull94.stockpile.svg.path;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for the {@link PathParser}, {@link PathSimplifier} and {@link PathFormatter}.
+ */
+public final class PathSimplifierTest {
+	private static String simplify(String data, double tolerance, int precision) {
+		return PathFormatter.format(new PathSimplifier(tolerance).simplify(PathParser.parse(data)), precision);
+	}
+
+	@Test
+	public void parsesToAbsoluteSegments() {
+		assertEquals(PathParser.parse("M10 10L20 10L20 20C20 20 30 30 30 20Z"), PathParser.parse("m10 10h10v10s10 10 10 0z"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMalformedData() {
+		PathParser.parse("M0 0L1");
+	}
+
+	@Test
+	public void formatsShortestCommands() {
+		assertEquals("M10 10H20V20s10 10 10 0z", simplify("M10 10L20 10L20 20C20 20 30 30 30 20Z", 0, 0));
+		assertEquals("M100 100H10", simplify("M100 100L10 100", 0, 0));
+		assertEquals("M.1 0 .3 1", simplify("M0.1 0L0.3 1", 0, 1));
+	}
+
+	@Test
+	public void mergesCollinearLines() {
+		assertEquals("M0 0H30L40 10", simplify("M0 0L10 0L20 0L30 0L40 10", 0, 0));
+	}
+
+	@Test
+	public void reducesPolylinesWithinTolerance() {
+		assertEquals("M0 0H40", simplify("M0 0L10 0.1L20 -0.1L30 0.1L40 0", 0.5, 1));
+		assertEquals("M0 0 10 1 20 0", simplify("M0 0L10 1L20 0", 0.5, 1));
+	}
+
+	@Test
+	public void straightensNearLinearCurves() {
+		assertEquals("M0 0H30", simplify("M0 0C10 0.1 20 -0.1 30 0", 0.5, 1));
+		assertEquals("M0 0C10 5 20 5 30 0", simplify("M0 0C10 5 20 5 30 0", 0.5, 1));
+	}
+
+	@Test
+	public void joinsSplitCurves() {
+		/* the curve (0,0) (0,40) (40,40) (40,0) split at t=0.5 */
+		assertEquals("M0 0C0 40 40 40 40 0", simplify("M0 0C0 20 10 30 20 30C30 30 40 20 40 0", 0.01, 0));
+	}
+
+	@Test
+	public void dropsLineBackToStartBeforeClose() {
+		assertEquals("M0 0H10V10z", simplify("M0 0H10V10L0 0Z", 0, 0));
+	}
+
+	@Test
+	public void roundsWithoutAccumulatingError() {
+		/* every coordinate is rounded on its own, rather than every rounded delta being added up */
+		assertEquals("M.1 0 .3 1 .4 0 .5 1", simplify("M0.14 0L0.26 1L0.38 0L0.5 1", 0, 1));
+	}
+}
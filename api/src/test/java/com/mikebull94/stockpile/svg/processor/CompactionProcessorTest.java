@@ -0,0 +1,103 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputDoesNotContain;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.processDocument;
+
+/**
+ * Contains unit tests for the {@link CompactionProcessor}.
+ */
+public final class CompactionProcessorTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\">%s</svg>";
+
+	private XmlDocumentProcessorTester test;
+
+	@Before
+	public void setUp() {
+		test = XmlDocumentProcessorTester.test(new CompactionProcessor());
+	}
+
+	@Test
+	public void compactsNumbers() {
+		test.given(String.format(SVG, "<rect width=\"10.000\" height=\"0.50\" stroke-width=\"1.50\" transform=\"translate(1.0, 2.0)\"/>"))
+			.when(processDocument())
+			.then(outputContains("width=\"10\""))
+			.then(outputContains("height=\".5\""))
+			.then(outputContains("stroke-width=\"1.5\""))
+			.then(outputContains("transform=\"translate(1,2)\""));
+	}
+
+	@Test
+	public void compactsPathData() {
+		test.given(String.format(SVG, "<path d=\"M 10.0 20.0 L 30.0 -40.0\"/>"))
+			.when(processDocument())
+			.then(outputContains("d=\"M10 20L30-40\""));
+	}
+
+	@Test
+	public void compactsColours() {
+		test.given(String.format(SVG, "<rect fill=\"#FFFFFF\" stroke=\"#FF0000\"/>"))
+			.when(processDocument())
+			.then(outputContains("fill=\"#fff\""))
+			.then(outputContains("stroke=\"red\""));
+	}
+
+	@Test
+	public void removesElementDefaults() {
+		test.given(String.format(SVG, "<rect x=\"0\" y=\"0.0\" width=\"1\" opacity=\"1.0\"/><circle cx=\"0\" r=\"1\"/>"))
+			.when(processDocument())
+			.then(outputDoesNotContain("x=\""))
+			.then(outputDoesNotContain("y=\""))
+			.then(outputDoesNotContain("opacity"))
+			.then(outputContains("r=\"1\""));
+	}
+
+	@Test
+	public void removesInheritedDefaults() {
+		test.given(String.format(SVG, "<a fill=\"red\"><path fill=\"#f00\" stroke=\"none\"/><path fill=\"black\"/></a>"))
+			.when(processDocument())
+			.then(outputContains("<a fill=\"red\">"))
+			.then(outputContains("<path></path>"))
+			.then(outputContains("<path fill=\"#000\"></path>"));
+	}
+
+	@Test
+	public void keepsValuesInheritedFromUnwrappedElements() {
+		test.given("<svg xmlns=\"http://www.w3.org/2000/svg\" stroke=\"blue\"><g fill=\"red\">"
+			+ "<path fill=\"red\" stroke=\"blue\" d=\"M0 0h10v10z\"/></g></svg>")
+			.when(processDocument())
+			.then(outputContains("fill=\"red\" stroke=\"blue\"></path>"));
+	}
+
+	@Test
+	public void keepsInheritedValuesInReferencedContent() {
+		test.given(String.format(SVG, "<symbol id=\"s\"><path fill=\"#000\"/></symbol>"))
+			.when(processDocument())
+			.then(outputContains("fill=\"#000\""));
+	}
+
+	@Test
+	public void keepsInheritedValuesWhenStyled() {
+		test.given(String.format(SVG, "<style>path { fill: red; }</style><path fill=\"black\"/>"))
+			.when(processDocument())
+			.then(outputContains("fill=\"#000\""));
+	}
+
+	@Test
+	public void keepsDefaultsOfReferencingGradients() {
+		test.given(String.format(SVG, "<linearGradient id=\"b\" x2=\"50%\"/><linearGradient id=\"a\" href=\"#b\" x2=\"100%\"/>"))
+			.when(processDocument())
+			.then(outputContains("x2=\"100%\""));
+	}
+
+	@Test
+	public void roundsToPrecision() {
+		test = XmlDocumentProcessorTester.test(new CompactionProcessor(2));
+		test.given(String.format(SVG, "<circle r=\"1.23456\"/>"))
+			.when(processDocument())
+			.then(outputContains("r=\"1.23\""));
+	}
+}
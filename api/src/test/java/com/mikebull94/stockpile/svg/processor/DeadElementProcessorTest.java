@@ -0,0 +1,127 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputDoesNotContain;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.processDocument;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for the {@link DeadElementProcessor}.
+ */
+public final class DeadElementProcessorTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\">%s<path id=\"visible\" d=\"M9 9h1v1z\"/></svg>";
+
+	private DeadElementProcessor processor;
+
+	private XmlDocumentProcessorTester test;
+
+	@Before
+	public void setUp() {
+		processor = new DeadElementProcessor();
+		test = XmlDocumentProcessorTester.test(processor);
+	}
+
+	@Test
+	public void removesHiddenSubtrees() {
+		test.given(String.format(SVG, "<g display=\"none\"><path d=\"M0 0h1\"/></g><rect opacity=\"0\" width=\"1\" height=\"1\"/>"))
+			.when(processDocument("icon"))
+			.then(outputDoesNotContain("<g"))
+			.then(outputDoesNotContain("<rect"))
+			.then(outputContains("id=\"visible\""));
+
+		assertEquals(3, processor.getRemoved("icon"));
+	}
+
+	@Test
+	public void removesShapesWithoutGeometry() {
+		test.given(String.format(SVG, "<path d=\"\"/><path d=\"M5 5\"/><rect width=\"0\" height=\"5\"/><circle r=\"0\"/><polygon points=\" \"/>"))
+			.when(processDocument("icon"))
+			.then(outputDoesNotContain("d=\"M5 5\""))
+			.then(outputDoesNotContain("<rect"))
+			.then(outputDoesNotContain("<circle"))
+			.then(outputDoesNotContain("<polygon"));
+
+		assertEquals(5, processor.getRemoved("icon"));
+	}
+
+	@Test
+	public void removesUnpaintedShapes() {
+		test.given(String.format(SVG, "<g fill=\"none\"><path d=\"M0 0h1\"/><path d=\"M0 0h2\" stroke=\"red\"/></g>"
+			+ "<path d=\"M0 0h3\" fill-opacity=\"0\"/><g fill=\"none\"><path d=\"M0 0h4\" fill=\"red\"/></g>"))
+			.when(processDocument())
+			.then(outputDoesNotContain("M0 0h1"))
+			.then(outputContains("M0 0h2"))
+			.then(outputDoesNotContain("M0 0h3"))
+			.then(outputContains("M0 0h4"));
+	}
+
+	@Test
+	public void removesElementsClippedToNothing() {
+		test.given(String.format(SVG, "<defs><clipPath id=\"none\"/></defs><path d=\"M0 0h1\" clip-path=\"url(#none)\"/>"))
+			.when(processDocument())
+			.then(outputContains("<clipPath id=\"none\">"))
+			.then(outputDoesNotContain("M0 0h1"));
+	}
+
+	@Test
+	public void removesGroupsLeftEmpty() {
+		test.given(String.format(SVG, "<g fill=\"red\">\n\t<path d=\"\"/>\n</g><g><title>Kept</title></g>"))
+			.when(processDocument("icon"))
+			.then(outputDoesNotContain("fill=\"red\""))
+			.then(outputContains("<g><title>Kept</title></g>"));
+
+		assertEquals(2, processor.getRemoved("icon"));
+	}
+
+	@Test
+	public void keepsReferencedAndAnimatedElements() {
+		test.given(String.format(SVG, "<path id=\"hidden\" display=\"none\" d=\"M0 0h1\"/><use href=\"#hidden\"/>"
+			+ "<rect width=\"0\" height=\"1\"><animate attributeName=\"width\" to=\"1\"/></rect>"))
+			.when(processDocument("icon"))
+			.then(outputContains("id=\"hidden\""))
+			.then(outputContains("<animate"));
+
+		assertEquals(0, processor.getRemoved("icon"));
+	}
+
+	@Test
+	public void keepsHiddenElementsWithAnimatedOpacity() {
+		test.given(String.format(SVG, "<path opacity=\"0\" d=\"M0 0h1\"><animate attributeName=\"opacity\" to=\"1\"/></path>"))
+			.when(processDocument("icon"))
+			.then(outputContains("opacity=\"0\""))
+			.then(outputContains("<animate"));
+
+		assertEquals(0, processor.getRemoved("icon"));
+	}
+
+	@Test
+	public void keepsHiddenGroupsWithAnimatedDisplay() {
+		test.given(String.format(SVG, "<g display=\"none\"><set attributeName=\"display\" to=\"inline\"/><path d=\"M0 0h1\"/></g>"))
+			.when(processDocument("icon"))
+			.then(outputContains("display=\"none\""))
+			.then(outputContains("<set"))
+			.then(outputContains("M0 0h1"));
+
+		assertEquals(0, processor.getRemoved("icon"));
+	}
+
+	@Test
+	public void keepsHiddenElementsTargetedByAnimations() {
+		test.given(String.format(SVG, "<rect id=\"target\" opacity=\"0\" width=\"1\" height=\"1\"/>"
+			+ "<animate href=\"#target\" attributeName=\"opacity\" to=\"1\"/>"))
+			.when(processDocument("icon"))
+			.then(outputContains("id=\"target\""));
+
+		assertEquals(0, processor.getRemoved("icon"));
+	}
+
+	@Test
+	public void leavesStyledDocumentsUnchanged() {
+		test.given(String.format(SVG, "<style>path{display:inline}</style><path display=\"none\" d=\"M0 0h1\"/>"))
+			.when(processDocument())
+			.then(outputContains("display=\"none\""));
+	}
+}
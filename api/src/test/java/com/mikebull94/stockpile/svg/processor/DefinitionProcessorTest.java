@@ -0,0 +1,107 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.nothingShared;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputDoesNotContain;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.processDocument;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.sharedContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.sharedOccurrences;
+
+/**
+ * Contains unit tests for the {@link DefinitionProcessor}.
+ */
+public final class DefinitionProcessorTest {
+	private static final String GRADIENT = "<linearGradient id=\"%s\" x2=\"1\"><stop offset=\"0\" stop-color=\"red\"/></linearGradient>";
+	private static final String FIRST = "<svg xmlns=\"http://www.w3.org/2000/svg\"><defs>" + String.format(GRADIENT, "a")
+		+ "</defs><path fill=\"url(#a)\" d=\"M0 0\"/></svg>";
+	private static final String SECOND = "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"><defs>"
+		+ String.format(GRADIENT, "b") + "<linearGradient id=\"c\" xlink:href=\"#b\" x1=\"1\"/>"
+		+ "</defs><rect fill=\"url(#c)\" stroke=\"url('#b')\"/></svg>";
+
+	private XmlDocumentProcessorTester test;
+
+	@Before
+	public void setUp() {
+		test = XmlDocumentProcessorTester.test(new DefinitionProcessor());
+	}
+
+	@Test
+	public void nothingSharedBeforeProcessing() {
+		test.then(nothingShared());
+	}
+
+	@Test
+	public void definitionsRemovedFromDocument() {
+		test.given(FIRST)
+			.when(processDocument())
+			.then(outputDoesNotContain("linearGradient"))
+			.then(outputDoesNotContain("<stop"));
+	}
+
+	@Test
+	public void referencesRewritten() {
+		test.given(FIRST)
+			.when(processDocument())
+			.then(outputContains("fill=\"url(#d0)\""))
+			.then(sharedContains("<svg:defs"))
+			.then(sharedContains("id=\"d0\""));
+	}
+
+	@Test
+	public void identicalDefinitionsShared() {
+		test.given(FIRST)
+			.when(processDocument("first"))
+			.given(SECOND)
+			.when(processDocument("second"))
+			.then(outputContains("stroke=\"url(#d0)\""))
+			.then(outputContains("fill=\"url(#d1)\""))
+			.then(sharedOccurrences("<stop", 1))
+			.then(sharedOccurrences("<linearGradient", 2))
+			.then(sharedContains("href=\"#d0\""));
+	}
+
+	@Test
+	public void forwardReferencesRewritten() {
+		test.given("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"><defs>"
+			+ "<linearGradient id=\"derived\" xlink:href=\"#base\" x1=\"1\"/>" + String.format(GRADIENT, "base")
+			+ "</defs><rect fill=\"url(#derived)\"/></svg>")
+			.when(processDocument())
+			.then(outputContains("fill=\"url(#d1)\""))
+			.then(sharedContains("<linearGradient x1=\"1\" href=\"#d0\" id=\"d1\">"))
+			.then(sharedOccurrences("#base", 0));
+	}
+
+	@Test
+	public void fragmentIdsNotGenerated() {
+		test.given(FIRST)
+			.when(processDocument("d0"))
+			.then(outputContains("fill=\"url(#d1)\""));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsFragmentIdOfSharedDefinition() {
+		test.given(FIRST)
+			.when(processDocument("first"))
+			.given(FIRST)
+			.when(processDocument("d0"));
+	}
+
+	@Test
+	public void xlinkHrefKeptAsHref() {
+		test.given("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"><defs>"
+			+ "<clipPath id=\"a\"><rect width=\"1\"/></clipPath></defs><use xlink:href=\"#a\"/></svg>")
+			.when(processDocument())
+			.then(outputContains("<use href=\"#d0\">"));
+	}
+
+	@Test
+	public void customPrefix() {
+		test = XmlDocumentProcessorTester.test(new DefinitionProcessor("shared-"));
+		test.given(FIRST)
+			.when(processDocument())
+			.then(outputContains("fill=\"url(#shared-0)\""));
+	}
+}
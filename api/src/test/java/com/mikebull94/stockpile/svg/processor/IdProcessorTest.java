@@ -0,0 +1,92 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputDoesNotContain;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.processDocument;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for the {@link IdProcessor}.
+ */
+public final class IdProcessorTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" id=\"root\">%s</svg>";
+
+	private IdProcessor processor;
+
+	private XmlDocumentProcessorTester test;
+
+	@Before
+	public void setUp() {
+		processor = new IdProcessor();
+		test = XmlDocumentProcessorTester.test(processor);
+	}
+
+	@Test
+	public void givesShortestIdsToMostReferencedIds() {
+		test.given(String.format(SVG, "<linearGradient id=\"linearGradient1234\"/><clipPath id=\"clipPath5678\"/>"
+			+ "<path fill=\"url(#linearGradient1234)\"/><path clip-path=\"url(#clipPath5678)\" fill=\"url(#clipPath5678)\"/>"
+			+ "<use xlink:href=\"#linearGradient1234\"/><use href=\"#clipPath5678\"/>"))
+			.when(processDocument())
+			.then(outputContains("<clipPath id=\"_0\">"))
+			.then(outputContains("<linearGradient id=\"_1\">"))
+			.then(outputContains("fill=\"url(#_1)\""))
+			.then(outputContains("clip-path=\"url(#_0)\""))
+			.then(outputContains("xlink:href=\"#_1\""))
+			.then(outputContains("href=\"#_0\""))
+			.then(outputContains("id=\"root\""));
+	}
+
+	@Test
+	public void keepsIdsUniqueAcrossDocuments() {
+		test.given(String.format(SVG, "<g id=\"a\"/><use href=\"#a\"/>"))
+			.when(processDocument("first"))
+			.then(outputContains("id=\"_0\""));
+
+		test.given(String.format(SVG, "<g id=\"a\"/><use href=\"#a\"/>"))
+			.when(processDocument("second"))
+			.then(outputContains("id=\"_1\""))
+			.then(outputContains("href=\"#_1\""));
+	}
+
+	@Test
+	public void keepsUnreferencedIdsByDefault() {
+		test.given(String.format(SVG, "<path id=\"path4567\" d=\"M0 0h1\"/><g id=\"a\"/><use href=\"#a\"/>"))
+			.when(processDocument())
+			.then(outputContains("id=\"path4567\""))
+			.then(outputContains("<g id=\"_0\">"));
+
+		assertEquals(0, processor.getRemoved());
+	}
+
+	@Test
+	public void removesUnreferencedIdsWhenEnabled() {
+		processor = new IdProcessor("_", true);
+		test = XmlDocumentProcessorTester.test(processor);
+
+		test.given(String.format(SVG, "<path id=\"path4567\" d=\"M0 0h1\"/>"))
+			.when(processDocument())
+			.then(outputDoesNotContain("path4567"))
+			.then(outputContains("<path d=\"M0 0h1\">"));
+
+		assertEquals(1, processor.getRemoved());
+		assertEquals("id=\"path4567\"".length() + 1, processor.getCharactersSaved());
+	}
+
+	@Test
+	public void leavesUndefinedReferences() {
+		test.given(String.format(SVG, "<path fill=\"url(#d0)\"/>"))
+			.when(processDocument())
+			.then(outputContains("fill=\"url(#d0)\""));
+	}
+
+	@Test
+	public void leavesDocumentsWithOtherReferencesUnchanged() {
+		test.given(String.format(SVG, "<rect id=\"box\" aria-labelledby=\"label\"/><text id=\"label\">Box</text>"))
+			.when(processDocument())
+			.then(outputContains("id=\"box\""))
+			.then(outputContains("id=\"label\""));
+	}
+}
@@ -0,0 +1,88 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputDoesNotContain;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.processDocument;
+
+/**
+ * Contains unit tests for the {@link ShapeProcessor}.
+ */
+public final class ShapeProcessorTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\">%s</svg>";
+
+	private XmlDocumentProcessorTester test;
+
+	@Before
+	public void setUp() {
+		test = XmlDocumentProcessorTester.test(new ShapeProcessor());
+	}
+
+	@Test
+	public void convertsShapesToShorterPaths() {
+		test.given(String.format(SVG, "<rect x=\"10\" y=\"10\" width=\"100\" height=\"50\" fill=\"red\"/>"
+			+ "<line x1=\"0\" y1=\"0\" x2=\"10\" y2=\"10\" stroke=\"#000\"/><polygon points=\"0,0 10,0 10,10\" fill=\"blue\"/>"))
+			.when(processDocument())
+			.then(outputContains("<path d=\"M10 10H110V60H10z\" fill=\"red\"></path>"))
+			.then(outputContains("<path d=\"M0 0L10 10\" stroke=\"#000\"></path>"))
+			.then(outputContains("<path d=\"M0 0L10 0 10 10z\" fill=\"blue\"></path>"));
+	}
+
+	@Test
+	public void keepsShapesThatAreShorter() {
+		test.given(String.format(SVG, "<circle cx=\"12\" cy=\"12\" r=\"10\"/><rect x=\"1\" y=\"1\" width=\"2\" height=\"2\" rx=\"1\"/>"))
+			.when(processDocument())
+			.then(outputContains("cx=\"12\""))
+			.then(outputContains("rx=\"1\""))
+			.then(outputDoesNotContain("<path"));
+	}
+
+	@Test
+	public void convertsPathsToShorterShapes() {
+		test.given(String.format(SVG, "<path d=\"M2 12a10 10 0 1 0 20 0 10 10 0 1 0-20 0z\" fill=\"red\"/>"))
+			.when(processDocument())
+			.then(outputContains("<circle"))
+			.then(outputContains("cx=\"12\""))
+			.then(outputContains("cy=\"12\""))
+			.then(outputContains("r=\"10\""))
+			.then(outputDoesNotContain("<path"));
+	}
+
+	@Test
+	public void keepsStrokedPaths() {
+		test.given(String.format(SVG, "<g stroke=\"red\"><path d=\"M2 12a10 10 0 1 0 20 0 10 10 0 1 0-20 0z\"/></g>"))
+			.when(processDocument())
+			.then(outputDoesNotContain("circle"));
+	}
+
+	@Test
+	public void mergesPathsThatDoNotOverlap() {
+		test.given(String.format(SVG, "<path d=\"M0 0h1v1H0z\" fill=\"red\"/>\n<path d=\"m5 5 1 0 0 1z\" fill=\"red\"/>"))
+			.when(processDocument())
+			.then(outputContains("<path d=\"M0 0h1v1H0zM5 5l1 0 0 1z\" fill=\"red\"></path></svg>"));
+	}
+
+	@Test
+	public void keepsPathsThatOverlapOrDiffer() {
+		test.given(String.format(SVG, "<path d=\"M0 0h10v10H0z\"/><path d=\"M5 5h10v10H5z\"/><path d=\"M50 50h1v1h-1z\" fill=\"red\"/>"))
+			.when(processDocument())
+			.then(outputContains("<path d=\"M0 0h10v10H0z\"></path><path d=\"M5 5h10v10H5z\"></path><path d=\"M50 50h1v1h-1z\" fill=\"red\"></path>"));
+	}
+
+	@Test
+	public void keepsPathsWithIdentifiers() {
+		test.given(String.format(SVG, "<path id=\"a\" d=\"M0 0h1v1H0z\"/><path id=\"b\" d=\"M5 5h1v1H5z\"/>"))
+			.when(processDocument())
+			.then(outputContains("id=\"a\""))
+			.then(outputContains("id=\"b\""));
+	}
+
+	@Test
+	public void leavesStyledDocumentsUnchanged() {
+		test.given(String.format(SVG, "<style>rect{fill:red}</style><rect width=\"100\" height=\"50\"/>"))
+			.when(processDocument())
+			.then(outputContains("<rect width=\"100\" height=\"50\">"));
+	}
+}
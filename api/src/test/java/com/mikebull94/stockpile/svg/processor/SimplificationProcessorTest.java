@@ -0,0 +1,50 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.processDocument;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for the {@link SimplificationProcessor}.
+ */
+public final class SimplificationProcessorTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\">%s</svg>";
+
+	private SimplificationProcessor processor;
+
+	private XmlDocumentProcessorTester test;
+
+	@Before
+	public void setUp() {
+		processor = new SimplificationProcessor(0.5);
+		test = XmlDocumentProcessorTester.test(processor);
+	}
+
+	@Test
+	public void simplifiesPathData() {
+		test.given(String.format(SVG, "<path d=\"M 0 0 L 10 0.1 L 20 -0.1 L 30 0.1 L 40 0\" fill=\"red\"/>"))
+			.when(processDocument())
+			.then(outputContains("d=\"M0 0H40\""))
+			.then(outputContains("fill=\"red\""));
+	}
+
+	@Test
+	public void leavesMalformedDataUnchanged() {
+		test.given(String.format(SVG, "<path d=\"M 0 0 L 1\"/>"))
+			.when(processDocument())
+			.then(outputContains("d=\"M 0 0 L 1\""));
+	}
+
+	@Test
+	public void reportsReduction() {
+		test.given(String.format(SVG, "<path d=\"M 0 0 L 10 0 L 20 0\"/><path d=\"M0 0h1\"/>"))
+			.when(processDocument());
+
+		assertEquals(2, processor.getPaths());
+		assertEquals(25, processor.getCharactersBefore());
+		assertEquals(13, processor.getCharactersAfter());
+	}
+}
@@ -0,0 +1,77 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.mikebull94.stockpile.svg.SpriteSheet;
+import com.mikebull94.stockpile.svg.SvgDocument;
+import com.mikebull94.stockpile.xml.XmlEvents;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for the {@link SpriteTagProcessor}.
+ */
+public final class SpriteTagProcessorTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\" id=\"original\" class=\"icon\" %s><path d=\"M0 0h1\"/></svg>";
+
+	private SpriteTagProcessor processor;
+
+	@Before
+	public void setUp() {
+		processor = new SpriteTagProcessor(SpriteSheet.builder().add("first", 10, 10).add("second", 24, 12).build());
+	}
+
+	private StartElement processRoot(String id, String attributes) {
+		for (XMLEvent event : XmlDocumentProcessorTester.parse(String.format(SVG, attributes))) {
+			if (event.isStartElement()) {
+				assertTrue(processor.accepts(event));
+				return processor.process(id, event).get(0).asStartElement();
+			}
+		}
+
+		throw new AssertionError("No root element.");
+	}
+
+	@Test
+	public void positionsSvgAtItsRegion() {
+		StartElement element = processRoot("second", "viewBox=\"0 0 48 24\" width=\"96\" preserveAspectRatio=\"none\"");
+
+		assertEquals(SvgDocument.EMBEDDED_SVG_TAG, element.getName());
+		assertEquals("0", XmlEvents.attribute(element, "x"));
+		assertEquals("0", XmlEvents.attribute(element, "y"));
+		assertEquals("24", XmlEvents.attribute(element, "width"));
+		assertEquals("12", XmlEvents.attribute(element, "height"));
+		assertEquals("0 0 48 24", XmlEvents.attribute(element, "viewBox"));
+		assertEquals("none", XmlEvents.attribute(element, "preserveAspectRatio"));
+	}
+
+	@Test
+	public void leavesIdToView() {
+		StartElement element = processRoot("first", "viewBox=\"0 0 10 10\"");
+
+		assertEquals("0", XmlEvents.attribute(element, "x"));
+		assertEquals("13", XmlEvents.attribute(element, "y"));
+		assertNull(XmlEvents.attribute(element, "id"));
+		assertNull(XmlEvents.attribute(element, "class"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void failsToProcessSvgNotOnSheet() {
+		processRoot("third", "");
+	}
+
+	@Test
+	public void rejectsNonSvgTag() {
+		for (XMLEvent event : XmlDocumentProcessorTester.parse(String.format(SVG, ""))) {
+			if (event.isStartElement() && !event.asStartElement().getName().equals(SvgDocument.SVG_TAG)) {
+				assertFalse(processor.accepts(event));
+			}
+		}
+	}
+}
@@ -52,6 +52,28 @@ final class StartElementBehaviour {
 		};
 	}
 
+	public static Consumer<XMLEvent> startElementHasXlinkHref() {
+		return event -> {
+			Collection<Attribute> attributes = new ArrayList<>();
+			QName name = new QName(SvgDocument.XLINK_NAMESPACE_URI, "href", "xlink");
+			attributes.add(events.createAttribute(name, "#gradient"));
+
+			Mockito.when(event.asStartElement().getAttributes()).thenReturn(attributes.iterator());
+		};
+	}
+
+	public static Predicate<XmlEventProcessorTester> xlinkHrefKeptAsHref() {
+		return tester -> {
+			StartElement element = tester.getProcessedResult(0).asStartElement();
+			Attribute href = element.getAttributeByName(new QName("href"));
+			return href != null && href.getValue().equals("#gradient");
+		};
+	}
+
+	public static Predicate<XmlEventProcessorTester> xlinkHrefRemoved() {
+		return tester -> !tester.getProcessedResult(0).asStartElement().getAttributes().hasNext();
+	}
+
 	public static Predicate<XmlEventProcessorTester> resultContainsSvgStartElement() {
 		return tester -> {
 			Collection<Attribute> attributes = new ArrayList<>();
@@ -8,7 +8,10 @@ import static com.mikebull94.stockpile.svg.processor.StartElementBehaviour.event
 import static com.mikebull94.stockpile.svg.processor.StartElementBehaviour.eventIsStartElement;
 import static com.mikebull94.stockpile.svg.processor.StartElementBehaviour.nonSvgAttributesRemoved;
 import static com.mikebull94.stockpile.svg.processor.StartElementBehaviour.startElementHasAttributes;
+import static com.mikebull94.stockpile.svg.processor.StartElementBehaviour.startElementHasXlinkHref;
 import static com.mikebull94.stockpile.svg.processor.StartElementBehaviour.svgAttributesRemain;
+import static com.mikebull94.stockpile.svg.processor.StartElementBehaviour.xlinkHrefKeptAsHref;
+import static com.mikebull94.stockpile.svg.processor.StartElementBehaviour.xlinkHrefRemoved;
 import static com.mikebull94.stockpile.svg.processor.XmlEventBehaviour.acceptanceCheck;
 import static com.mikebull94.stockpile.svg.processor.XmlEventBehaviour.eventAccepted;
 import static com.mikebull94.stockpile.svg.processor.XmlEventBehaviour.eventRejected;
@@ -69,4 +72,22 @@ public final class StartElementProcessorTest {
 			.then(nonSvgAttributesRemoved())
 			.then(svgAttributesRemain());
 	}
+
+	@Test
+	public void removesXlinkHref() {
+		test.given(eventIsStartElement("use"))
+			.given(startElementHasXlinkHref())
+			.when(process())
+			.then(xlinkHrefRemoved());
+	}
+
+	@Test
+	public void keepsXlinkHref() {
+		test = XmlEventProcessorTester.test(new StartElementProcessor(true));
+		MockitoAnnotations.initMocks(test);
+		test.given(eventIsStartElement("use"))
+			.given(startElementHasXlinkHref())
+			.when(process())
+			.then(xlinkHrefKeptAsHref());
+	}
 }
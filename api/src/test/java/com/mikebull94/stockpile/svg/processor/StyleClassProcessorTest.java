@@ -0,0 +1,96 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.nothingShared;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.processDocument;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.sharedContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.sharedOccurrences;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for the {@link StyleClassProcessor}.
+ */
+public final class StyleClassProcessorTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\" fill=\"red\">%s</svg>";
+
+	private static final String REPEATED = "<path d=\"M0 0h1\" fill=\"#333\" stroke=\"none\" stroke-width=\"2\"/>";
+
+	private StyleClassProcessor processor;
+
+	private XmlDocumentProcessorTester test;
+
+	@Before
+	public void setUp() {
+		processor = new StyleClassProcessor();
+		test = XmlDocumentProcessorTester.test(processor);
+	}
+
+	@Test
+	public void replacesRepeatedDeclarationsWithClass() {
+		test.given(String.format(SVG, REPEATED + REPEATED + REPEATED))
+			.when(processDocument())
+			.then(outputContains("stroke-width=\"2\""))
+			.then(outputContains("</path><path d=\"M0 0h1\" class=\"c0\"></path><path d=\"M0 0h1\" class=\"c0\"></path>"))
+			.then(outputContains("fill=\"red\""))
+			.then(sharedContains("<svg:style>.c0{fill:#333;stroke:none;stroke-width:2}</svg:style>"));
+	}
+
+	@Test
+	public void mergesStyleDeclarationsOverAttributes() {
+		String element = "<rect width=\"1\" fill=\"blue\" style=\"fill: #333; Stroke: none\" class=\"icon\"/>";
+		test.given(String.format(SVG, element + element))
+			.when(processDocument())
+			.then(outputContains("<rect width=\"1\" class=\"icon c0\"></rect>"))
+			.then(sharedContains(".c0{fill:#333;stroke:none}"));
+	}
+
+	@Test
+	public void sharesClassesAcrossDocuments() {
+		test.given(String.format(SVG, REPEATED))
+			.when(processDocument("first"))
+			.then(nothingShared());
+
+		test.given(String.format(SVG, "<circle r=\"1\" stroke-width=\"2\" stroke=\"none\" fill=\"#333\"/>"))
+			.when(processDocument("second"))
+			.then(outputContains("<circle r=\"1\" class=\"c0\"></circle>"))
+			.then(sharedOccurrences(".c0", 1));
+	}
+
+	@Test
+	public void keepsDeclarationsThatCannotBeMoved() {
+		String element = "<path d=\"M0 0h1\" fill=\"url(#a)\" font-size=\"12\" style=\"font:12px serif\"/>";
+		test.given(String.format(SVG, element + element))
+			.when(processDocument())
+			.then(outputContains("style=\"font:12px serif\""))
+			.then(nothingShared());
+	}
+
+	@Test
+	public void keepsShortDeclarations() {
+		String element = "<path d=\"M0 0h1\" fill=\"red\"/>";
+		test.given(String.format(SVG, element + element + element))
+			.when(processDocument())
+			.then(nothingShared());
+	}
+
+	@Test
+	public void leavesStyledDocumentsUnchanged() {
+		test.given(String.format(SVG, "<style>path{fill:blue}</style>" + REPEATED + REPEATED))
+			.when(processDocument())
+			.then(nothingShared());
+	}
+
+	@Test
+	public void reportsSaving() {
+		test.given(String.format(SVG, REPEATED + REPEATED + REPEATED + REPEATED))
+			.when(processDocument());
+
+		assertEquals(1, processor.getClasses());
+		assertEquals(3 * 43, processor.getCharactersRemoved());
+		assertTrue(processor.getSaving() > 0);
+	}
+}
@@ -0,0 +1,87 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputDoesNotContain;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.processDocument;
+
+/**
+ * Contains unit tests for the {@link TransformProcessor}.
+ */
+public final class TransformProcessorTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\">%s</svg>";
+
+	private XmlDocumentProcessorTester test;
+
+	@Before
+	public void setUp() {
+		test = XmlDocumentProcessorTester.test(new TransformProcessor());
+	}
+
+	@Test
+	public void bakesTranslateAndScaleIntoPath() {
+		test.given(String.format(SVG, "<path transform=\"translate(10, 20) scale(2)\" d=\"M1 1L2 3h1v-1z\"/>"))
+			.when(processDocument())
+			.then(outputDoesNotContain("transform"))
+			.then(outputContains("d=\"M12 22L14 26h2v-2z\""));
+	}
+
+	@Test
+	public void bakesGroupTransforms() {
+		test.given(String.format(SVG, "<g transform=\"translate(5)\"><g transform=\"translate(0 5)\"><circle cx=\"1\" cy=\"1\" r=\"1\"/></g></g>"))
+			.when(processDocument())
+			.then(outputDoesNotContain("transform"))
+			.then(outputContains("cx=\"6\""))
+			.then(outputContains("cy=\"6\""));
+	}
+
+	@Test
+	public void bakesReflectedRect() {
+		test.given(String.format(SVG, "<rect transform=\"scale(-1 2)\" x=\"1\" y=\"1\" width=\"2\" height=\"2\" rx=\"1\"/>"))
+			.when(processDocument())
+			.then(outputContains("x=\"-3\""))
+			.then(outputContains("y=\"2\""))
+			.then(outputContains("width=\"2\""))
+			.then(outputContains("height=\"4\""))
+			.then(outputContains("ry=\"2\""));
+	}
+
+	@Test
+	public void flipsArcSweepWhenReflected() {
+		test.given(String.format(SVG, "<path transform=\"scale(-1, 1)\" d=\"M0 0a5 5 0 0 1 10 0\"/>"))
+			.when(processDocument())
+			.then(outputContains("d=\"M0 0a5 5 0 0 0-10 0\""));
+	}
+
+	@Test
+	public void keepsRotationAsTransform() {
+		test.given(String.format(SVG, "<g transform=\"rotate(30)\"><path transform=\"translate(1)\" d=\"M0 0\"/></g>"))
+			.when(processDocument())
+			.then(outputContains("transform=\"rotate(30) translate(1)\""))
+			.then(outputContains("<g>"));
+	}
+
+	@Test
+	public void keepsScaleOfStrokedElements() {
+		test.given(String.format(SVG, "<g stroke=\"red\"><path transform=\"scale(2)\" d=\"M1 1\"/><path transform=\"translate(1)\" d=\"M1 1\"/></g>"))
+			.when(processDocument())
+			.then(outputContains("transform=\"scale(2)\""))
+			.then(outputContains("d=\"M2 1\""));
+	}
+
+	@Test
+	public void keepsTransformOfReferencingElements() {
+		test.given(String.format(SVG, "<path fill=\"url(#a)\" transform=\"translate(1)\" d=\"M1 1\"/>"))
+			.when(processDocument())
+			.then(outputContains("transform=\"translate(1)\""));
+	}
+
+	@Test
+	public void composesTransformOfOtherElements() {
+		test.given(String.format(SVG, "<g transform=\"translate(1 2)\"><use href=\"#a\" transform=\"scale(2)\"/></g>"))
+			.when(processDocument())
+			.then(outputContains("transform=\"matrix(2 0 0 2 1 2)\""));
+	}
+}
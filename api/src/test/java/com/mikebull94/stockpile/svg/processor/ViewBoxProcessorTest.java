@@ -0,0 +1,74 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputContains;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.outputDoesNotContain;
+import static com.mikebull94.stockpile.svg.processor.XmlDocumentBehaviour.processDocument;
+
+/**
+ * Contains unit tests for the {@link ViewBoxProcessor}.
+ */
+public final class ViewBoxProcessorTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\" %s>%s</svg>";
+
+	private XmlDocumentProcessorTester test;
+
+	@Before
+	public void setUp() {
+		test = XmlDocumentProcessorTester.test(new ViewBoxProcessor(new SvgViewBox(0, 0, 48, 48)));
+	}
+
+	@Test
+	public void scalesCoordinatesIntoTarget() {
+		test.given(String.format(SVG, "viewBox=\"0 0 24 24\"", "<path d=\"M1 1L2 3h1v-1z\"/>"))
+			.when(processDocument())
+			.then(outputDoesNotContain("viewBox"))
+			.then(outputDoesNotContain("transform"))
+			.then(outputContains("d=\"M2 2L4 6h2v-2z\""));
+	}
+
+	@Test
+	public void centresNarrowViewBox() {
+		test.given(String.format(SVG, "viewBox=\"0 0 12 24\"", "<circle cx=\"6\" cy=\"12\" r=\"6\"/>"))
+			.when(processDocument())
+			.then(outputContains("cx=\"24\""))
+			.then(outputContains("cy=\"24\""))
+			.then(outputContains("r=\"12\""));
+	}
+
+	@Test
+	public void alignsToMinimum() {
+		test.given(String.format(SVG, "viewBox=\"0 0 12 24\" preserveAspectRatio=\"xMinYMin meet\"", "<circle cx=\"6\" cy=\"12\" r=\"6\"/>"))
+			.when(processDocument())
+			.then(outputContains("cx=\"12\""))
+			.then(outputDoesNotContain("preserveAspectRatio"));
+	}
+
+	@Test
+	public void stretchesWithoutAlignment() {
+		test.given(String.format(SVG, "viewBox=\"0 0 12 24\" preserveAspectRatio=\"none\"", "<rect x=\"1\" y=\"1\" width=\"10\" height=\"10\"/>"))
+			.when(processDocument())
+			.then(outputContains("x=\"4\""))
+			.then(outputContains("y=\"2\""))
+			.then(outputContains("width=\"40\""))
+			.then(outputContains("height=\"20\""));
+	}
+
+	@Test
+	public void preservesDocumentWithReferences() {
+		test.given(String.format(SVG, "viewBox=\"0 0 24 24\"", "<path fill=\"url(#a)\" d=\"M1 1\"/>"))
+			.when(processDocument())
+			.then(outputContains("viewBox=\"0 0 24 24\""))
+			.then(outputContains("d=\"M1 1\""));
+	}
+
+	@Test
+	public void keepsScaleOfStrokedElements() {
+		test.given(String.format(SVG, "viewBox=\"0 0 24 24\"", "<path stroke=\"red\" d=\"M1 1\"/>"))
+			.when(processDocument())
+			.then(outputContains("transform=\"scale(2)\""));
+	}
+}
@@ -0,0 +1,55 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+
+import javax.xml.stream.events.XMLEvent;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * Contains utility methods for dictating/reacting to the behaviour of an {@link XmlDocumentProcessor}.
+ */
+final class XmlDocumentBehaviour {
+	public static BiFunction<XmlDocumentProcessor, ImmutableList<XMLEvent>, ImmutableList<XMLEvent>> processDocument() {
+		return processDocument(XmlEventBehaviour.ATTRIBUTE_TEST_ID);
+	}
+
+	public static BiFunction<XmlDocumentProcessor, ImmutableList<XMLEvent>, ImmutableList<XMLEvent>> processDocument(String id) {
+		return (processor, document) -> processor.process(id, document);
+	}
+
+	public static Predicate<XmlDocumentProcessorTester> outputContains(String text) {
+		return tester -> tester.getProcessed().contains(text);
+	}
+
+	public static Predicate<XmlDocumentProcessorTester> outputDoesNotContain(String text) {
+		return tester -> !tester.getProcessed().contains(text);
+	}
+
+	public static Predicate<XmlDocumentProcessorTester> sharedContains(String text) {
+		return tester -> tester.getShared().contains(text);
+	}
+
+	public static Predicate<XmlDocumentProcessorTester> sharedOccurrences(String text, int expected) {
+		return tester -> occurrences(tester.getShared(), text) == expected;
+	}
+
+	public static Predicate<XmlDocumentProcessorTester> nothingShared() {
+		return tester -> tester.getTestee().sharedEvents().isEmpty();
+	}
+
+	private static int occurrences(String haystack, String needle) {
+		int count = 0;
+
+		for (int index = haystack.indexOf(needle); index >= 0; index = haystack.indexOf(needle, index + needle.length())) {
+			count++;
+		}
+
+		return count;
+	}
+
+	private XmlDocumentBehaviour() {
+		/* empty */
+	}
+}
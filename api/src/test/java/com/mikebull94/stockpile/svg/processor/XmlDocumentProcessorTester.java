@@ -0,0 +1,104 @@
+package com.mikebull94.stockpile.svg.processor;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Provides a behaviour driven development framework for testing {@link XmlDocumentProcessor}s.
+ */
+public final class XmlDocumentProcessorTester {
+	private static final String PREDICATE_FAILURE = "Predicate.test returned false";
+	private static final XMLInputFactory input = XMLInputFactory.newFactory();
+	private static final XMLOutputFactory output = XMLOutputFactory.newFactory();
+
+	public static XmlDocumentProcessorTester test(XmlDocumentProcessor testee) {
+		return new XmlDocumentProcessorTester(testee);
+	}
+
+	public static ImmutableList<XMLEvent> parse(String document) {
+		try {
+			XMLEventReader reader = input.createXMLEventReader(new StringReader(document));
+			ImmutableList.Builder<XMLEvent> events = ImmutableList.builder();
+
+			while (reader.hasNext()) {
+				events.add(reader.nextEvent());
+			}
+
+			return events.build();
+		} catch (XMLStreamException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	public static String serialize(Iterable<XMLEvent> events) {
+		try {
+			StringWriter string = new StringWriter();
+			XMLEventWriter writer = output.createXMLEventWriter(string);
+
+			for (XMLEvent event : events) {
+				if (!event.isStartDocument() && !event.isEndDocument()) {
+					writer.add(event);
+				}
+			}
+
+			writer.flush();
+			writer.close();
+			return string.toString();
+		} catch (XMLStreamException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private final XmlDocumentProcessor testee;
+	private ImmutableList<XMLEvent> document;
+	private String processed;
+
+	private XmlDocumentProcessorTester(XmlDocumentProcessor testee) {
+		this.testee = Preconditions.checkNotNull(testee);
+	}
+
+	public XmlDocumentProcessorTester given(String document) {
+		this.document = parse(document);
+		return this;
+	}
+
+	public XmlDocumentProcessorTester when(BiFunction<XmlDocumentProcessor, ImmutableList<XMLEvent>, ImmutableList<XMLEvent>> function) {
+		processed = serialize(function.apply(testee, document));
+		return this;
+	}
+
+	public XmlDocumentProcessorTester then(Predicate<XmlDocumentProcessorTester> predicate) {
+		return then(PREDICATE_FAILURE, predicate);
+	}
+
+	public XmlDocumentProcessorTester then(String message, Predicate<XmlDocumentProcessorTester> predicate) {
+		assertTrue(message + ", output was: " + processed, predicate.test(this));
+		return this;
+	}
+
+	public XmlDocumentProcessor getTestee() {
+		return testee;
+	}
+
+	public String getProcessed() {
+		return processed;
+	}
+
+	public String getShared() {
+		return serialize(testee.sharedEvents());
+	}
+}
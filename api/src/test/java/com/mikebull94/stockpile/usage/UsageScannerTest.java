@@ -0,0 +1,100 @@
+package com.mikebull94.stockpile.usage;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for the {@link UsageScanner}.
+ */
+public final class UsageScannerTest {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private UsageScanner scanner;
+
+	@Before
+	public void setUp() {
+		scanner = new UsageScanner(ImmutableList.of("arrow", "arrow-left", "close", "menu", "search", "user"));
+	}
+
+	@Test
+	public void findsFragmentReferences() throws IOException {
+		IconUsage usage = scan("index.html", "<img src=\"sheet.svg#arrow-left\"><img src='sheet.svg#close'>");
+		assertTrue(usage.isUsed("arrow-left"));
+		assertTrue(usage.isUsed("close"));
+		assertFalse(usage.isUsed("menu"));
+	}
+
+	@Test
+	public void findsQuotedReferences() throws IOException {
+		IconUsage usage = scan("app.js", "icon('search'); icon(`user`);");
+		assertEquals(ImmutableSet.of("search", "user"), usage.getUsed());
+	}
+
+	@Test
+	public void ignoresPartialWords() throws IOException {
+		IconUsage usage = scan("style.css", ".menubar { background: url(sheet.svg#usersearch); }");
+		assertTrue(usage.getUsed().isEmpty());
+	}
+
+	@Test
+	public void hyphensAndDotsJoinWords() throws IOException {
+		IconUsage usage = scan("app.js", "icon('arrow-left'); icon('close.v2');");
+		assertFalse(usage.isUsed("arrow"));
+		assertTrue(usage.isUsed("arrow-left"));
+		assertFalse(usage.isUsed("close"));
+	}
+
+	@Test
+	public void findsFileReferences() throws IOException {
+		IconUsage usage = scan("index.html", "<img src=\"icons/arrow.SVG\"><img src=\"icons/close.svgz\">");
+		assertTrue(usage.isUsed("arrow"));
+		assertFalse(usage.isUsed("close"));
+	}
+
+	@Test
+	public void filtersReferencedPaths() throws IOException {
+		IconUsage usage = scan("index.html", "<use href=\"#menu\"/>");
+		ImmutableList<Path> svgs = ImmutableList.of(Paths.get("icons", "menu.svg"), Paths.get("icons", "user.svg"));
+		assertEquals(ImmutableList.of(Paths.get("icons", "menu.svg")), usage.referenced(svgs));
+	}
+
+	@Test
+	public void writesUnusedReport() throws IOException {
+		IconUsage usage = scan("index.html", "#arrow #close #menu #search");
+		Path report = folder.newFile("unused.txt").toPath();
+		usage.writeUnusedReport(report);
+		assertEquals(ImmutableList.of("arrow-left", "user"), Files.readAllLines(report, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void scansEmptyFile() throws IOException {
+		assertTrue(scan("empty.js", "").getUsed().isEmpty());
+	}
+
+	@Test
+	public void acceptsSourceExtensions() {
+		assertTrue(UsageScanner.hasSourceExtension(Paths.get("src", "App.TSX")));
+		assertFalse(UsageScanner.hasSourceExtension(Paths.get("icons", "menu.svg")));
+	}
+
+	private IconUsage scan(String name, String contents) throws IOException {
+		Path source = folder.newFile(name).toPath();
+		Files.write(source, contents.getBytes(StandardCharsets.UTF_8));
+		return scanner.scan(ImmutableList.of(source));
+	}
+}
@@ -0,0 +1,17 @@
+package com.mikebull94.stockpile.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for {@link JsonStrings}.
+ */
+public final class JsonStringsTest {
+	@Test
+	public void escapesQuotesBackslashesAndControlCharacters() {
+		StringBuilder json = new StringBuilder();
+		JsonStrings.append("a\"b\\c\nd\u00e9", json);
+		assertEquals("\"a\\\"b\\\\c\\u000ad\u00e9\"", json.toString());
+	}
+}
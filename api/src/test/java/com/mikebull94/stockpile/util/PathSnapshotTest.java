@@ -0,0 +1,113 @@
+package com.mikebull94.stockpile.util;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for the {@link PathSnapshot}.
+ */
+public final class PathSnapshotTest {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private Path root;
+
+	@Before
+	public void setUp() throws IOException {
+		root = folder.getRoot().toPath();
+		Files.createDirectories(root.resolve("icons"));
+		write("a.svg", "<svg/>");
+		write("icons/b.svg", "<svg></svg>");
+		write("readme.txt", "not an svg");
+	}
+
+	@Test
+	public void recordsFilteredFiles() throws IOException {
+		PathSnapshot snapshot = PathUtils.snapshot(root, PathUtils::hasSvgExtension);
+		assertEquals(2, snapshot.paths().size());
+		assertTrue(snapshot.paths().contains(root.resolve("icons/b.svg")));
+	}
+
+	@Test
+	public void persistedSnapshotIsEqual() throws IOException {
+		PathSnapshot snapshot = PathUtils.snapshot(root, PathUtils::hasSvgExtension);
+		Path file = folder.newFile("snapshot").toPath();
+		snapshot.write(file);
+		assertEquals(snapshot, PathSnapshot.read(root, file));
+	}
+
+	@Test
+	public void unchangedWithoutModification() throws IOException {
+		PathSnapshot previous = PathUtils.snapshot(root, PathUtils::hasSvgExtension);
+		PathSnapshot current = PathUtils.snapshot(root, PathUtils::hasSvgExtension, previous);
+		assertTrue(current.unchangedSince(previous));
+		assertEquals(previous, current);
+	}
+
+	@Test
+	public void detectsModifiedFile() throws IOException {
+		PathSnapshot previous = PathUtils.snapshot(root, PathUtils::hasSvgExtension);
+		write("icons/b.svg", "<svg><path/></svg>");
+
+		PathSnapshot current = PathUtils.snapshot(root, PathUtils::hasSvgExtension, previous);
+		assertFalse(current.unchangedSince(previous));
+		assertEquals(1, current.changedSince(previous).size());
+		assertTrue(current.changedSince(previous).contains(Paths.get("icons", "b.svg")));
+	}
+
+	@Test
+	public void detectsAddedAndRemovedFiles() throws IOException {
+		PathSnapshot previous = PathUtils.snapshot(root, PathUtils::hasSvgExtension);
+		Files.delete(root.resolve("a.svg"));
+		write("icons/c.svg", "<svg/>");
+
+		PathSnapshot current = PathUtils.snapshot(root, PathUtils::hasSvgExtension, previous);
+		assertEquals(2, current.changedSince(previous).size());
+	}
+
+	@Test
+	public void reusesHashOfUnmodifiedFile() throws IOException {
+		PathSnapshot snapshot = PathUtils.snapshot(root, PathUtils::hasSvgExtension);
+		Path file = folder.newFile("snapshot").toPath();
+		snapshot.write(file);
+
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		lines.replaceAll(line -> line.endsWith("a.svg") ? line.replaceAll("\t[0-9a-f]+\ta.svg$", "\tcafe\ta.svg") : line);
+		Files.write(file, lines, StandardCharsets.UTF_8);
+
+		PathSnapshot current = PathUtils.snapshot(root, PathUtils::hasSvgExtension, PathSnapshot.read(root, file));
+		assertEquals("cafe", current.file(Paths.get("a.svg")).getHash());
+	}
+
+	@Test
+	public void skipsListingOfUnmodifiedDirectory() throws IOException {
+		Path icons = root.resolve("icons");
+		FileTime lastModified = Files.getLastModifiedTime(icons);
+		PathSnapshot previous = PathUtils.snapshot(root, PathUtils::hasSvgExtension);
+
+		write("icons/c.svg", "<svg/>");
+		Files.setLastModifiedTime(icons, lastModified);
+
+		PathSnapshot current = PathUtils.snapshot(root, PathUtils::hasSvgExtension, previous);
+		assertFalse(current.paths().contains(icons.resolve("c.svg")));
+		assertTrue(PathUtils.snapshot(root, PathUtils::hasSvgExtension).paths().contains(icons.resolve("c.svg")));
+	}
+
+	private void write(String name, String contents) throws IOException {
+		Files.write(root.resolve(name), contents.getBytes(StandardCharsets.UTF_8));
+	}
+}
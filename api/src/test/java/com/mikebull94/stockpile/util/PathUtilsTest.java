@@ -0,0 +1,33 @@
+package com.mikebull94.stockpile.util;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for {@link PathUtils}.
+ */
+public final class PathUtilsTest {
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void listsPathsInOrder() throws IOException {
+		Path root = folder.getRoot().toPath();
+		Files.createDirectories(root.resolve("b"));
+
+		for (String name : ImmutableList.of("c.svg", "a.svg", "b/z.svg", "b.txt")) {
+			Files.createFile(root.resolve(name));
+		}
+
+		ImmutableList<Path> expected = ImmutableList.of(root.resolve("a.svg"), root.resolve("b/z.svg"), root.resolve("c.svg"));
+		assertEquals(expected, PathUtils.filterPathsIn(root, PathUtils::hasSvgExtension));
+	}
+}
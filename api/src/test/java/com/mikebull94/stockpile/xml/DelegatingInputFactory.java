@@ -0,0 +1,142 @@
+package com.mikebull94.stockpile.xml;
+
+import javax.xml.stream.EventFilter;
+import javax.xml.stream.StreamFilter;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLReporter;
+import javax.xml.stream.XMLResolver;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.XMLEventAllocator;
+import javax.xml.transform.Source;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * A public {@link XMLInputFactory} that delegates to the shared {@link XmlFactories#input()}, so that an engine can be
+ * created from its class name on any Java version.
+ */
+public final class DelegatingInputFactory extends XMLInputFactory {
+	private final XMLInputFactory delegate = XmlFactories.input();
+
+	@Override
+	public XMLStreamReader createXMLStreamReader(Reader reader) throws XMLStreamException {
+		return delegate.createXMLStreamReader(reader);
+	}
+
+	@Override
+	public XMLStreamReader createXMLStreamReader(Source source) throws XMLStreamException {
+		return delegate.createXMLStreamReader(source);
+	}
+
+	@Override
+	public XMLStreamReader createXMLStreamReader(InputStream stream) throws XMLStreamException {
+		return delegate.createXMLStreamReader(stream);
+	}
+
+	@Override
+	public XMLStreamReader createXMLStreamReader(InputStream stream, String encoding) throws XMLStreamException {
+		return delegate.createXMLStreamReader(stream, encoding);
+	}
+
+	@Override
+	public XMLStreamReader createXMLStreamReader(String systemId, InputStream stream) throws XMLStreamException {
+		return delegate.createXMLStreamReader(systemId, stream);
+	}
+
+	@Override
+	public XMLStreamReader createXMLStreamReader(String systemId, Reader reader) throws XMLStreamException {
+		return delegate.createXMLStreamReader(systemId, reader);
+	}
+
+	@Override
+	public XMLEventReader createXMLEventReader(Reader reader) throws XMLStreamException {
+		return delegate.createXMLEventReader(reader);
+	}
+
+	@Override
+	public XMLEventReader createXMLEventReader(String systemId, Reader reader) throws XMLStreamException {
+		return delegate.createXMLEventReader(systemId, reader);
+	}
+
+	@Override
+	public XMLEventReader createXMLEventReader(XMLStreamReader reader) throws XMLStreamException {
+		return delegate.createXMLEventReader(reader);
+	}
+
+	@Override
+	public XMLEventReader createXMLEventReader(Source source) throws XMLStreamException {
+		return delegate.createXMLEventReader(source);
+	}
+
+	@Override
+	public XMLEventReader createXMLEventReader(InputStream stream) throws XMLStreamException {
+		return delegate.createXMLEventReader(stream);
+	}
+
+	@Override
+	public XMLEventReader createXMLEventReader(InputStream stream, String encoding) throws XMLStreamException {
+		return delegate.createXMLEventReader(stream, encoding);
+	}
+
+	@Override
+	public XMLEventReader createXMLEventReader(String systemId, InputStream stream) throws XMLStreamException {
+		return delegate.createXMLEventReader(systemId, stream);
+	}
+
+	@Override
+	public XMLStreamReader createFilteredReader(XMLStreamReader reader, StreamFilter filter) throws XMLStreamException {
+		return delegate.createFilteredReader(reader, filter);
+	}
+
+	@Override
+	public XMLEventReader createFilteredReader(XMLEventReader reader, EventFilter filter) throws XMLStreamException {
+		return delegate.createFilteredReader(reader, filter);
+	}
+
+	@Override
+	public XMLResolver getXMLResolver() {
+		return delegate.getXMLResolver();
+	}
+
+	@Override
+	public void setXMLResolver(XMLResolver resolver) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public XMLReporter getXMLReporter() {
+		return delegate.getXMLReporter();
+	}
+
+	@Override
+	public void setXMLReporter(XMLReporter reporter) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setProperty(String name, Object value) {
+		/* the shared factory must not be reconfigured */
+	}
+
+	@Override
+	public Object getProperty(String name) {
+		return delegate.getProperty(name);
+	}
+
+	@Override
+	public boolean isPropertySupported(String name) {
+		return delegate.isPropertySupported(name);
+	}
+
+	@Override
+	public void setEventAllocator(XMLEventAllocator allocator) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public XMLEventAllocator getEventAllocator() {
+		return delegate.getEventAllocator();
+	}
+}
@@ -0,0 +1,112 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Contains unit tests for {@link XmlDocumentFeeder}.
+ */
+public final class XmlDocumentFeederTest {
+	private static final byte[] DOCUMENT = ("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 24 24\">"
+		+ "<path d=\"M2 2L22 22\"/><!-- \u00e9t\u00e9 --><circle r=\"2\"/></svg>").getBytes(StandardCharsets.UTF_8);
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	@After
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private static ImmutableList<String> strings(ImmutableList<XMLEvent> events) {
+		ImmutableList.Builder<String> strings = ImmutableList.builder();
+		events.forEach(event -> strings.add(event.toString()));
+		return strings.build();
+	}
+
+	@Test
+	public void feedInChunks() throws XMLStreamException {
+		XmlDocumentFeeder feeder = new XmlDocumentFeeder(XmlInputEngine.jdk());
+		ByteBuffer buffer = ByteBuffer.allocateDirect(3);
+
+		for (int offset = 0; offset < DOCUMENT.length; offset += 3) {
+			buffer.clear();
+			buffer.put(DOCUMENT, offset, Math.min(3, DOCUMENT.length - offset)).flip();
+			feeder.feed(buffer);
+			assertEquals(0, buffer.remaining());
+		}
+
+		ImmutableList<XMLEvent> expected = XmlInputEngine.jdk().read(new ByteArrayInputStream(DOCUMENT));
+		assertEquals(strings(expected), strings(feeder.end()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void feedAfterEnd() throws XMLStreamException {
+		XmlDocumentFeeder feeder = new XmlDocumentFeeder(XmlInputEngine.jdk());
+		feeder.feed(ByteBuffer.wrap(DOCUMENT)).end();
+		feeder.feed(ByteBuffer.wrap(DOCUMENT));
+	}
+
+	@Test
+	public void readFile() throws IOException, XMLStreamException, ExecutionException, InterruptedException {
+		byte[] large = new byte[DOCUMENT.length * 1000];
+
+		for (int copy = 0; copy < 1000; copy++) {
+			System.arraycopy(DOCUMENT, 0, large, copy * DOCUMENT.length, DOCUMENT.length);
+		}
+
+		byte[] document = ("<g>" + new String(large, StandardCharsets.UTF_8) + "</g>").getBytes(StandardCharsets.UTF_8);
+		Path path = folder.newFile("large.svg").toPath();
+		Files.write(path, document);
+
+		ImmutableList<XMLEvent> expected = XmlInputEngine.jdk().read(new ByteArrayInputStream(document));
+		assertEquals(strings(expected), strings(XmlDocumentFeeder.read(path, XmlInputEngine.jdk(), executor).get()));
+	}
+
+	@Test
+	public void readMissingFile() throws InterruptedException {
+		Path path = folder.getRoot().toPath().resolve("missing.svg");
+
+		try {
+			XmlDocumentFeeder.read(path, XmlInputEngine.jdk(), executor).get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof NoSuchFileException);
+		}
+	}
+
+	@Test
+	public void readMalformedFile() throws IOException, InterruptedException {
+		Path path = folder.newFile("malformed.svg").toPath();
+		Files.write(path, "<svg><path></svg>".getBytes(StandardCharsets.UTF_8));
+
+		try {
+			XmlDocumentFeeder.read(path, XmlInputEngine.jdk(), executor).get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof XMLStreamException);
+		}
+	}
+}
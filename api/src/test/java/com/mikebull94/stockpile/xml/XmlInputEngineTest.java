@@ -0,0 +1,42 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Contains unit tests for {@link XmlInputEngine}.
+ */
+public final class XmlInputEngineTest {
+	@Test
+	public void jdkByName() {
+		assertSame(XmlInputEngine.jdk(), XmlInputEngine.forName(XmlInputEngine.JDK));
+	}
+
+	@Test
+	public void factoryByClassName() throws XMLStreamException {
+		String name = DelegatingInputFactory.class.getName();
+		XmlInputEngine engine = XmlInputEngine.forName(name);
+		ImmutableList<XMLEvent> events = engine.read(new ByteArrayInputStream("<svg><path/></svg>".getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(name, engine.getName());
+		assertEquals(6, events.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void missingEngine() {
+		XmlInputEngine.forName("com.example.MissingInputFactory");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void notAnInputFactory() {
+		XmlInputEngine.forName(String.class.getName());
+	}
+}
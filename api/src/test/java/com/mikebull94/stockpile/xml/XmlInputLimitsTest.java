@@ -0,0 +1,108 @@
+package com.mikebull94.stockpile.xml;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Contains unit tests for {@link XmlInputLimits}.
+ */
+public final class XmlInputLimitsTest {
+	private static final String SVG = "<svg><g><path d=\"M0 0L24 24\"/></g></svg>";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private static ImmutableList<XMLEvent> read(XmlInputLimits limits, String xml) throws XMLStreamException {
+		return XmlInputEngine.jdk().limit(limits).read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	public void unlimitedEngineIsUnchanged() {
+		assertSame(XmlInputEngine.jdk(), XmlInputEngine.jdk().limit(XmlInputLimits.UNLIMITED));
+	}
+
+	@Test
+	public void readsWithinLimits() throws XMLStreamException {
+		XmlInputLimits limits = XmlInputLimits.UNLIMITED
+			.withMaxDocumentBytes(SVG.length())
+			.withMaxDepth(3)
+			.withMaxEvents(8)
+			.withMaxAttributeLength(10);
+
+		assertEquals(8, read(limits, SVG).size());
+	}
+
+	@Test(expected = XmlLimitException.class)
+	public void rejectsLargeDocuments() throws XMLStreamException {
+		read(XmlInputLimits.UNLIMITED.withMaxDocumentBytes(SVG.length() - 1), SVG);
+	}
+
+	@Test(expected = XmlLimitException.class)
+	public void rejectsLargeDocumentsThatStreamSlowly() throws XMLStreamException {
+		String svg = "<svg>" + Strings.repeat("<path d=\"M0 0\"/>", 100_000) + "</svg>";
+		read(XmlInputLimits.UNLIMITED.withMaxDocumentBytes(64 * 1024), svg);
+	}
+
+	@Test(expected = XmlLimitException.class)
+	public void rejectsDeepDocuments() throws XMLStreamException {
+		read(XmlInputLimits.UNLIMITED.withMaxDepth(2), SVG);
+	}
+
+	@Test(expected = XmlLimitException.class)
+	public void rejectsDocumentsWithManyEvents() throws XMLStreamException {
+		read(XmlInputLimits.UNLIMITED.withMaxEvents(7), SVG);
+	}
+
+	@Test(expected = XmlLimitException.class)
+	public void rejectsLongAttributes() throws XMLStreamException {
+		read(XmlInputLimits.UNLIMITED.withMaxAttributeLength(9), SVG);
+	}
+
+	@Test(expected = XmlLimitException.class)
+	public void checksParsedDocuments() throws XMLStreamException {
+		XmlInputLimits.UNLIMITED.withMaxDepth(2).check(XmlInputEngine.jdk().read(
+			new ByteArrayInputStream(SVG.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	public void equalLimits() {
+		assertEquals(XmlInputLimits.UNLIMITED.withMaxDepth(4), XmlInputLimits.UNLIMITED.withMaxDepth(4));
+		assertEquals(XmlInputLimits.UNLIMITED.withMaxDepth(4).hashCode(), XmlInputLimits.UNLIMITED.withMaxDepth(4).hashCode());
+	}
+
+	@Test
+	public void externalEntitiesAreNotResolved() throws IOException, XMLStreamException {
+		File secret = folder.newFile("secret.txt");
+		Files.write(secret.toPath(), "secret".getBytes(StandardCharsets.UTF_8));
+
+		String xml = "<!DOCTYPE svg [<!ENTITY secret SYSTEM \"" + secret.toURI() + "\">]><svg>&secret;</svg>";
+		String text = "";
+
+		try {
+			for (XMLEvent event : XmlInputEngine.jdk().read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))) {
+				if (event.isCharacters()) {
+					text += event.asCharacters().getData();
+				}
+			}
+		} catch (XMLStreamException e) {
+			/* an undeclared entity may also fail to parse */
+		}
+
+		assertFalse(text.contains("secret"));
+	}
+}
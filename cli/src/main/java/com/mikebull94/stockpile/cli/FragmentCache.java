@@ -0,0 +1,98 @@
+package com.mikebull94.stockpile.cli;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.xml.XmlInputEngine;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Holds the parsed {@link XMLEvent}s of each SVG file that is read by any {@link Job}, so that an SVG shared by several
+ * jobs is only read and parsed once. The events are immutable, so they can be read by several jobs concurrently.
+ */
+public final class FragmentCache {
+
+	/**
+	 * The {@link XmlInputEngine} to parse each file with.
+	 */
+	private final XmlInputEngine engine;
+
+	/**
+	 * The parsed {@link XMLEvent}s of each file, by normalized absolute {@link Path}.
+	 */
+	private final LoadingCache<Path, ImmutableList<XMLEvent>> fragments = CacheBuilder.newBuilder()
+		.recordStats()
+		.build(new CacheLoader<Path, ImmutableList<XMLEvent>>() {
+			@Override
+			public ImmutableList<XMLEvent> load(Path path) throws IOException, XMLStreamException {
+				try (InputStream inputStream = Files.newInputStream(path)) {
+					return engine.read(inputStream);
+				}
+			}
+		});
+
+	/**
+	 * Creates a new {@link FragmentCache} that parses each file with the parser built into the JRE.
+	 */
+	public FragmentCache() {
+		this(XmlInputEngine.jdk());
+	}
+
+	/**
+	 * Creates a new {@link FragmentCache}.
+	 * @param engine The {@link XmlInputEngine} to parse each file with.
+	 * @throws NullPointerException If {@code engine} is {@code null}.
+	 */
+	public FragmentCache(XmlInputEngine engine) {
+		this.engine = Preconditions.checkNotNull(engine);
+	}
+
+	/**
+	 * Gets the parsed {@link XMLEvent}s of a file, reading it if it has not been read before.
+	 * @param path The {@link Path} of the file.
+	 * @return An {@link ImmutableList} of {@link XMLEvent}s.
+	 * @throws NullPointerException If {@code path} is {@code null}.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public ImmutableList<XMLEvent> get(Path path) throws IOException, XMLStreamException {
+		try {
+			return fragments.get(Preconditions.checkNotNull(path).toAbsolutePath().normalize());
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof XMLStreamException) {
+				throw (XMLStreamException) cause;
+			}
+
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * Gets the number of files that have been read.
+	 * @return The number of files.
+	 */
+	public long size() {
+		return fragments.size();
+	}
+
+	/**
+	 * Gets the number of times a file was found in this cache rather than read.
+	 * @return The number of hits.
+	 */
+	public long hits() {
+		return fragments.stats().hitCount();
+	}
+}
@@ -0,0 +1,308 @@
+package com.mikebull94.stockpile.cli;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.mikebull94.stockpile.Stockpile;
+import com.mikebull94.stockpile.StockpileBuilder;
+import com.mikebull94.stockpile.svg.SpriteSheet;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.svg.processor.CompactionProcessor;
+import com.mikebull94.stockpile.svg.processor.DeadElementProcessor;
+import com.mikebull94.stockpile.svg.processor.DefinitionProcessor;
+import com.mikebull94.stockpile.svg.processor.IdProcessor;
+import com.mikebull94.stockpile.svg.processor.ShapeProcessor;
+import com.mikebull94.stockpile.svg.processor.StyleClassProcessor;
+import com.mikebull94.stockpile.svg.processor.TransformProcessor;
+import com.mikebull94.stockpile.svg.processor.ViewBoxProcessor;
+import com.mikebull94.stockpile.util.PathUtils;
+import com.mikebull94.stockpile.xml.XmlDocumentProcessor;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import static com.mikebull94.stockpile.svg.SvgDocument.endSvg;
+import static com.mikebull94.stockpile.svg.SvgDocument.hideEmbeddedSvgs;
+import static com.mikebull94.stockpile.svg.SvgDocument.startSvg;
+
+/**
+ * A stockpile to build from a directory of SVGs, as described by a job file.
+ * <p>
+ * A job file is a properties file that lists the names of its jobs in the {@code jobs} property, and describes each
+ * job with properties prefixed by its name:
+ * <pre>
+ * jobs = navigation, social
+ *
+ * navigation.input = icons/navigation
+ * navigation.output = build/navigation.svg
+ * navigation.viewBox = 0 0 24 24
+ * navigation.processors = transform, shapes, styles
+ *
+ * social.input = icons/social
+ * social.output = build/social.svg
+ * social.grid = true
+ * </pre>
+ * The {@code input} and {@code output} paths are resolved against the directory of the job file. The optional
+ * properties are {@code viewBox}, which is required unless {@code grid} is {@code true}, {@code grid},
+ * {@code preserveViewBoxes}, {@code normalizeViewBoxes} and {@code processors}, a list of the
+ * {@link XmlDocumentProcessor}s to run on each SVG, in order.
+ */
+public final class Job {
+
+	/**
+	 * The property that lists the names of the jobs.
+	 */
+	private static final String JOBS = "jobs";
+
+	/**
+	 * Splits a list of names.
+	 */
+	private static final Splitter LIST_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+	/**
+	 * Creates the {@link XmlDocumentProcessor} of each name that may be listed in the {@code processors} property.
+	 */
+	private static final ImmutableMap<String, Supplier<XmlDocumentProcessor>> PROCESSORS =
+		ImmutableMap.<String, Supplier<XmlDocumentProcessor>>builder()
+			.put("transform", TransformProcessor::new)
+			.put("shapes", ShapeProcessor::new)
+			.put("dead-elements", DeadElementProcessor::new)
+			.put("ids", IdProcessor::new)
+			.put("definitions", DefinitionProcessor::new)
+			.put("styles", StyleClassProcessor::new)
+			.put("compaction", CompactionProcessor::new)
+			.build();
+
+	/**
+	 * Reads the {@link Job}s of a job file.
+	 * @param path The {@link Path} of the job file.
+	 * @return An {@link ImmutableList} of {@link Job}s, in the order they are listed.
+	 * @throws NullPointerException If {@code path} is {@code null}.
+	 * @throws IllegalArgumentException If the job file is not valid.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static ImmutableList<Job> read(Path path) throws IOException {
+		Properties properties = new Properties();
+
+		try (InputStream inputStream = Files.newInputStream(Preconditions.checkNotNull(path))) {
+			properties.load(inputStream);
+		}
+
+		Path directory = path.toAbsolutePath().getParent();
+		return parse(properties, directory);
+	}
+
+	/**
+	 * Parses the {@link Job}s of a job file.
+	 * @param properties The {@link Properties} of the job file.
+	 * @param directory The {@link Path} of the directory to resolve the {@code input} and {@code output} paths against.
+	 * @return An {@link ImmutableList} of {@link Job}s, in the order they are listed.
+	 * @throws IllegalArgumentException If the job file is not valid.
+	 */
+	public static ImmutableList<Job> parse(Properties properties, Path directory) {
+		String names = properties.getProperty(JOBS);
+		Preconditions.checkArgument(names != null, "Job file has no '%s' property.", JOBS);
+
+		ImmutableList.Builder<Job> jobs = ImmutableList.builder();
+
+		for (String name : LIST_SPLITTER.split(names)) {
+			jobs.add(parse(name, properties, directory));
+		}
+
+		return jobs.build();
+	}
+
+	/**
+	 * Parses one {@link Job} of a job file.
+	 * @param name The name of the job.
+	 * @param properties The {@link Properties} of the job file.
+	 * @param directory The {@link Path} of the directory to resolve the {@code input} and {@code output} paths against.
+	 * @return The {@link Job}.
+	 * @throws IllegalArgumentException If the job is not valid.
+	 */
+	private static Job parse(String name, Properties properties, Path directory) {
+		String input = properties.getProperty(name + ".input");
+		String output = properties.getProperty(name + ".output");
+		Preconditions.checkArgument(input != null, "Job '%s' has no input.", name);
+		Preconditions.checkArgument(output != null, "Job '%s' has no output.", name);
+
+		boolean grid = Boolean.parseBoolean(properties.getProperty(name + ".grid"));
+		SvgViewBox viewBox = null;
+		String value = properties.getProperty(name + ".viewBox");
+
+		if (value != null) {
+			viewBox = SvgViewBox.parse(value);
+			Preconditions.checkArgument(viewBox != null, "Job '%s' has an invalid viewBox '%s'.", name, value);
+		}
+
+		Preconditions.checkArgument(grid || viewBox != null, "Job '%s' has no viewBox.", name);
+
+		ImmutableList.Builder<String> processors = ImmutableList.builder();
+
+		for (String processor : LIST_SPLITTER.split(properties.getProperty(name + ".processors", ""))) {
+			Preconditions.checkArgument(PROCESSORS.containsKey(processor), "Job '%s' has an unknown processor '%s'.",
+				name, processor);
+			processors.add(processor);
+		}
+
+		return new Job(name, directory.resolve(input), directory.resolve(output), viewBox, grid,
+			Boolean.parseBoolean(properties.getProperty(name + ".preserveViewBoxes")),
+			Boolean.parseBoolean(properties.getProperty(name + ".normalizeViewBoxes")), processors.build());
+	}
+
+	/**
+	 * The name.
+	 */
+	private final String name;
+
+	/**
+	 * The directory from which to read SVGs.
+	 */
+	private final Path input;
+
+	/**
+	 * The file to write the stockpile to.
+	 */
+	private final Path output;
+
+	/**
+	 * The {@link SvgViewBox} to provide the stockpile with, or {@code null} if the SVGs are laid out on a
+	 * {@link SpriteSheet}.
+	 */
+	private final SvgViewBox viewBox;
+
+	/**
+	 * A flag indicating whether the SVGs are laid out on a {@link SpriteSheet}.
+	 */
+	private final boolean grid;
+
+	/**
+	 * A flag indicating whether each stacked SVG keeps its own {@code viewBox}.
+	 */
+	private final boolean preserveViewBoxes;
+
+	/**
+	 * A flag indicating whether the coordinates of each stacked SVG are rewritten to fit the {@link #viewBox}.
+	 */
+	private final boolean normalizeViewBoxes;
+
+	/**
+	 * The names of the {@link XmlDocumentProcessor}s to run on each SVG, in order.
+	 */
+	private final ImmutableList<String> processors;
+
+	/**
+	 * Creates a new {@link Job}.
+	 * @param name The name.
+	 * @param input The directory from which to read SVGs.
+	 * @param output The file to write the stockpile to.
+	 * @param viewBox The {@link SvgViewBox}, or {@code null} if the SVGs are laid out on a {@link SpriteSheet}.
+	 * @param grid A flag indicating whether the SVGs are laid out on a {@link SpriteSheet}.
+	 * @param preserveViewBoxes A flag indicating whether each stacked SVG keeps its own {@code viewBox}.
+	 * @param normalizeViewBoxes A flag indicating whether the coordinates of each stacked SVG are rewritten.
+	 * @param processors The names of the {@link XmlDocumentProcessor}s to run on each SVG, in order.
+	 */
+	private Job(String name, Path input, Path output, SvgViewBox viewBox, boolean grid, boolean preserveViewBoxes,
+		boolean normalizeViewBoxes, ImmutableList<String> processors) {
+		this.name = name;
+		this.input = input;
+		this.output = output;
+		this.viewBox = viewBox;
+		this.grid = grid;
+		this.preserveViewBoxes = preserveViewBoxes;
+		this.normalizeViewBoxes = normalizeViewBoxes;
+		this.processors = processors;
+	}
+
+	/**
+	 * Builds the stockpile of this job and writes it to the {@link #output} file.
+	 * @param fragments The {@link FragmentCache} to read the SVGs from.
+	 * @return The written {@link Stockpile}.
+	 * @throws NullPointerException If {@code fragments} is {@code null}.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	public Stockpile run(FragmentCache fragments) throws IOException, XMLStreamException {
+		Preconditions.checkNotNull(fragments);
+		ImmutableList<Path> paths = PathUtils.filterPathsIn(input, PathUtils::hasSvgExtension);
+		StockpileBuilder builder;
+
+		if (grid) {
+			SpriteSheet sheet = SpriteSheet.builder().read(paths).build();
+			builder = Stockpile.builder(sheet).add(startSvg(sheet.getViewBox()));
+			read(builder, paths, fragments);
+			builder.add(sheet.views());
+		} else {
+			builder = Stockpile.builder(preserveViewBoxes || normalizeViewBoxes);
+
+			if (normalizeViewBoxes) {
+				builder.with(new ViewBoxProcessor(viewBox));
+			}
+
+			builder.add(startSvg(viewBox)).add(hideEmbeddedSvgs());
+			read(builder, paths, fragments);
+		}
+
+		Path parent = output.toAbsolutePath().getParent();
+
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+
+		return builder.addSharedEvents().add(endSvg()).build().write(output);
+	}
+
+	/**
+	 * Registers the {@link #processors} with a {@link StockpileBuilder}, then adds each SVG to it.
+	 * @param builder The {@link StockpileBuilder}.
+	 * @param paths The {@link Path}s of the SVGs.
+	 * @param fragments The {@link FragmentCache} to read the SVGs from.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws XMLStreamException If an XML error occurs.
+	 */
+	private void read(StockpileBuilder builder, ImmutableList<Path> paths, FragmentCache fragments)
+		throws IOException, XMLStreamException {
+		for (String processor : processors) {
+			builder.with(PROCESSORS.get(processor).get());
+		}
+
+		for (Path path : paths) {
+			builder.read(PathUtils.fragmentId(path), fragments.get(path));
+		}
+	}
+
+	/**
+	 * Gets the name.
+	 * @return The name.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets the file the stockpile is written to.
+	 * @return The {@link Path} of the file.
+	 */
+	public Path getOutput() {
+		return output;
+	}
+
+	@Override
+	public String toString() {
+		return MoreObjects.toStringHelper(this)
+			.add("name", name)
+			.add("input", input)
+			.add("output", output)
+			.add("viewBox", viewBox)
+			.add("grid", grid)
+			.add("processors", processors)
+			.toString();
+	}
+}
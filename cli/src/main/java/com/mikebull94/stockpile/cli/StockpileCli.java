@@ -0,0 +1,141 @@
+package com.mikebull94.stockpile.cli;
+
+import com.google.common.collect.ImmutableList;
+import com.mikebull94.stockpile.Stockpile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The entry point of the command-line interface, which runs the {@link Job}s of a job file concurrently on a bounded
+ * pool of threads, sharing one {@link FragmentCache} between them.
+ */
+public final class StockpileCli {
+
+	/**
+	 * The exit code if every job succeeded.
+	 */
+	public static final int SUCCESS = 0;
+
+	/**
+	 * The exit code if any job failed.
+	 */
+	public static final int JOB_FAILED = 1;
+
+	/**
+	 * The exit code if the arguments or the job file are not valid.
+	 */
+	public static final int INVALID_USAGE = 2;
+
+	/**
+	 * The logger for this class.
+	 */
+	private static final Logger logger = LoggerFactory.getLogger(StockpileCli.class);
+
+	/**
+	 * The expected program arguments format.
+	 */
+	private static final String EXPECTED_ARGUMENTS = "Expecting program arguments: <jobFile> [<threads>]";
+
+	/**
+	 * The entry point of the program.
+	 * @param args The program's arguments.
+	 */
+	public static void main(String... args) {
+		System.exit(run(args));
+	}
+
+	/**
+	 * Runs the {@link Job}s of a job file.
+	 * @param args The program's arguments: the path of the job file, and optionally the maximum number of jobs to run
+	 * at once, which defaults to the number of processors.
+	 * @return The exit code.
+	 */
+	public static int run(String... args) {
+		ImmutableList<Job> jobs;
+		int threads;
+
+		try {
+			if (args.length < 1 || args.length > 2) {
+				logger.error(EXPECTED_ARGUMENTS);
+				return INVALID_USAGE;
+			}
+
+			jobs = Job.read(Paths.get(args[0]));
+			threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+			if (threads < 1) {
+				logger.error(EXPECTED_ARGUMENTS);
+				return INVALID_USAGE;
+			}
+		} catch (Exception e) {
+			logger.error("Failed to read job file.", e);
+			return INVALID_USAGE;
+		}
+
+		if (jobs.isEmpty()) {
+			logger.warn("Job file contains no jobs.");
+			return SUCCESS;
+		}
+
+		return run(jobs, Math.min(threads, jobs.size()));
+	}
+
+	/**
+	 * Runs {@link Job}s concurrently, logging the time each took.
+	 * @param jobs The {@link Job}s.
+	 * @param threads The maximum number of jobs to run at once.
+	 * @return The exit code.
+	 */
+	private static int run(ImmutableList<Job> jobs, int threads) {
+		FragmentCache fragments = new FragmentCache();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Long>> futures = new ArrayList<>(jobs.size());
+		long start = System.nanoTime();
+
+		for (Job job : jobs) {
+			futures.add(executor.submit(() -> {
+				long jobStart = System.nanoTime();
+				Stockpile stockpile = job.run(fragments);
+				long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - jobStart);
+				logger.info("{}: stockpiled {} XML events into {} in {} ms", job.getName(), stockpile.size(),
+					job.getOutput(), elapsed);
+				return elapsed;
+			}));
+		}
+
+		executor.shutdown();
+		int failed = 0;
+
+		for (int index = 0; index < jobs.size(); index++) {
+			try {
+				futures.get(index).get();
+			} catch (ExecutionException e) {
+				failed++;
+				logger.error(jobs.get(index).getName() + ": failed.", e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				executor.shutdownNow();
+				logger.error("Interrupted while running jobs.", e);
+				return JOB_FAILED;
+			}
+		}
+
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		logger.info("Ran {} jobs ({} failed) on {} threads in {} ms, reading {} SVG files with {} cache hits.",
+			jobs.size(), failed, threads, elapsed, fragments.size(), fragments.hits());
+		return failed == 0 ? SUCCESS : JOB_FAILED;
+	}
+
+	private StockpileCli() {
+		/* empty */
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * Contains classes related to the command-line interface.
+ */
+package com.mikebull94.stockpile.cli;
@@ -0,0 +1,154 @@
+package com.mikebull94.stockpile.cli;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.mikebull94.stockpile.Stockpile;
+import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.util.PathUtils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static com.mikebull94.stockpile.svg.SvgDocument.endSvg;
+import static com.mikebull94.stockpile.svg.SvgDocument.hideEmbeddedSvgs;
+import static com.mikebull94.stockpile.svg.SvgDocument.startSvg;
+
+/**
+ * Measures the startup time of a short-lived process that stacks a sheet of fifty icons: the time from the start of
+ * the JVM until the first byte of the sheet is written, which is dominated by class loading and the creation of the
+ * StAX factories rather than by the work itself. Each measurement must be made in a new JVM, as done by the
+ * {@code startupBenchmark} task.
+ */
+public final class StartupBenchmark {
+
+	/**
+	 * The number of icons in the sheet.
+	 */
+	private static final int ICONS = 50;
+
+	/**
+	 * An icon, formatted with a number so that the path data varies.
+	 */
+	private static final String ICON = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 24 24\">"
+		+ "<path d=\"M%1$d 2L22 12 12 22 2 12z\" fill=\"#333\"/>"
+		+ "<circle cx=\"12\" cy=\"12\" r=\"%1$d\" fill=\"none\" stroke=\"#1e88e5\"/>"
+		+ "</svg>";
+
+	/**
+	 * The expected program arguments format.
+	 */
+	private static final String EXPECTED_ARGUMENTS = "Expecting program arguments: generate|run <corpusDir>";
+
+	/**
+	 * An {@link OutputStream} that records when its first byte is written.
+	 */
+	private static final class FirstByteOutputStream extends FilterOutputStream {
+
+		/**
+		 * The time at which the first byte was written, in milliseconds since the epoch, or {@code 0} if none has been.
+		 */
+		private long firstByte;
+
+		/**
+		 * Creates a new {@link FirstByteOutputStream}.
+		 * @param out The {@link OutputStream} to write to.
+		 */
+		private FirstByteOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			record();
+			out.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			record();
+			out.write(b, off, len);
+		}
+
+		/**
+		 * Records the time, if this is the first byte.
+		 */
+		private void record() {
+			if (firstByte == 0) {
+				firstByte = System.currentTimeMillis();
+			}
+		}
+	}
+
+	/**
+	 * The entry point of the benchmark.
+	 * @param args The program's arguments: {@code generate} to write the icons to a directory, or {@code run} to stack
+	 * them and print the time-to-first-byte.
+	 * @throws Exception If the benchmark fails.
+	 */
+	public static void main(String... args) throws Exception {
+		Preconditions.checkArgument(args.length == 2, EXPECTED_ARGUMENTS);
+		Path corpus = Paths.get(args[1]);
+
+		switch (args[0]) {
+			case "generate":
+				generate(corpus);
+				break;
+			case "run":
+				run(corpus);
+				break;
+			default:
+				throw new IllegalArgumentException(EXPECTED_ARGUMENTS);
+		}
+	}
+
+	/**
+	 * Writes the icons to a directory.
+	 * @param corpus The {@link Path} of the directory.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void generate(Path corpus) throws IOException {
+		Files.createDirectories(corpus);
+
+		for (int icon = 0; icon < ICONS; icon++) {
+			byte[] bytes = String.format(ICON, icon % 10 + 1).getBytes(StandardCharsets.UTF_8);
+			Files.write(corpus.resolve("icon-" + icon + ".svg"), bytes);
+		}
+	}
+
+	/**
+	 * Stacks the icons in a directory and prints the time from the start of the JVM to the first byte of the sheet,
+	 * and to the last.
+	 * @param corpus The {@link Path} of the directory.
+	 * @throws Exception If the icons cannot be read or the sheet cannot be written.
+	 */
+	private static void run(Path corpus) throws Exception {
+		ImmutableList<Path> input = PathUtils.filterPathsIn(corpus, PathUtils::hasSvgExtension);
+		Preconditions.checkState(input.size() == ICONS, "Expected %s icons in: %s", ICONS, corpus);
+
+		FirstByteOutputStream output = new FirstByteOutputStream(ByteStreams.nullOutputStream());
+		SvgViewBox viewBox = new SvgViewBox(0, 0, 24, 24);
+
+		Stockpile.builder()
+			.add(startSvg(viewBox))
+			.add(hideEmbeddedSvgs())
+			.read(input)
+			.add(endSvg())
+			.build()
+			.write(output);
+
+		long start = ManagementFactory.getRuntimeMXBean().getStartTime();
+		long end = System.currentTimeMillis();
+		System.out.println("time-to-first-byte: " + (output.firstByte - start) + " ms, total: " + (end - start) + " ms");
+	}
+
+	private StartupBenchmark() {
+		/* empty */
+	}
+}
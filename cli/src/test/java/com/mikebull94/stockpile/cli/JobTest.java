@@ -0,0 +1,57 @@
+package com.mikebull94.stockpile.cli;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Contains unit tests for parsing {@link Job}s.
+ */
+public final class JobTest {
+	private static final Path DIRECTORY = Paths.get("jobs").toAbsolutePath();
+
+	private static Properties properties(String... keysAndValues) {
+		Properties properties = new Properties();
+
+		for (int index = 0; index < keysAndValues.length; index += 2) {
+			properties.setProperty(keysAndValues[index], keysAndValues[index + 1]);
+		}
+
+		return properties;
+	}
+
+	@Test
+	public void parsesJobsInOrder() {
+		ImmutableList<Job> jobs = Job.parse(properties(
+			"jobs", "b, a",
+			"a.input", "icons/a", "a.output", "a.svg", "a.viewBox", "0 0 24 24",
+			"b.input", "icons/b", "b.output", "out/b.svg", "b.grid", "true"
+		), DIRECTORY);
+
+		assertEquals(2, jobs.size());
+		assertEquals("b", jobs.get(0).getName());
+		assertEquals(DIRECTORY.resolve("out/b.svg"), jobs.get(0).getOutput());
+		assertEquals("a", jobs.get(1).getName());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void failsWithoutJobs() {
+		Job.parse(properties("a.input", "icons"), DIRECTORY);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void failsWithoutViewBox() {
+		Job.parse(properties("jobs", "a", "a.input", "icons", "a.output", "a.svg"), DIRECTORY);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void failsWithUnknownProcessor() {
+		Job.parse(properties("jobs", "a", "a.input", "icons", "a.output", "a.svg", "a.viewBox", "0 0 1 1",
+			"a.processors", "transform, unknown"), DIRECTORY);
+	}
+}
@@ -0,0 +1,69 @@
+package com.mikebull94.stockpile.cli;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contains unit tests for the {@link StockpileCli}.
+ */
+public final class StockpileCliTest {
+	private static final String SVG = "<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 24 24\"><path d=\"M0 0h24v24z\"/></svg>";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private Path root;
+
+	@Before
+	public void setUp() throws IOException {
+		root = folder.getRoot().toPath();
+		Files.createDirectories(root.resolve("icons"));
+		write("icons/a.svg", SVG);
+		write("icons/b.svg", SVG);
+	}
+
+	private Path write(String name, String contents) throws IOException {
+		return Files.write(root.resolve(name), contents.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void runsJobsSharingFragments() throws IOException {
+		Path jobFile = write("jobs.properties", String.join("\n",
+			"jobs = stacked, grid",
+			"stacked.input = icons",
+			"stacked.output = build/stacked.svg",
+			"stacked.viewBox = 0 0 24 24",
+			"stacked.processors = transform, styles",
+			"grid.input = icons",
+			"grid.output = build/grid.svg",
+			"grid.grid = true"
+		));
+
+		assertEquals(StockpileCli.SUCCESS, StockpileCli.run(jobFile.toString(), "2"));
+		assertTrue(Files.isRegularFile(root.resolve("build/stacked.svg")));
+		assertTrue(new String(Files.readAllBytes(root.resolve("build/grid.svg")), StandardCharsets.UTF_8).contains("<svg:view"));
+	}
+
+	@Test
+	public void failsWhenJobFails() throws IOException {
+		write("icons/broken.svg", "<svg");
+		Path jobFile = write("jobs.properties", "jobs = a\na.input = icons\na.output = a.svg\na.viewBox = 0 0 24 24\n");
+		assertEquals(StockpileCli.JOB_FAILED, StockpileCli.run(jobFile.toString()));
+	}
+
+	@Test
+	public void failsWithInvalidUsage() throws IOException {
+		assertEquals(StockpileCli.INVALID_USAGE, StockpileCli.run());
+		assertEquals(StockpileCli.INVALID_USAGE, StockpileCli.run(root.resolve("missing.properties").toString()));
+	}
+}
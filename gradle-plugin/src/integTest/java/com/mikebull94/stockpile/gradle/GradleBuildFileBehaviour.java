@@ -47,6 +47,10 @@ final class GradleBuildFileBehaviour {
 		return result -> result.getOutput().contains(text);
 	}
 
+	static Predicate<BuildResult> outputDoesNotContain(CharSequence text) {
+		return result -> !result.getOutput().contains(text);
+	}
+
 	static Predicate<BuildResult> taskOutcome(String taskName, TaskOutcome outcome) {
 		return result -> result.task(taskName).getOutcome() == outcome;
 	}
@@ -18,6 +18,7 @@ import static com.mikebull94.stockpile.gradle.GradleBuildFileBehaviour.arguments
 import static com.mikebull94.stockpile.gradle.GradleBuildFileBehaviour.correctOutput;
 import static com.mikebull94.stockpile.gradle.GradleBuildFileBehaviour.gradleFile;
 import static com.mikebull94.stockpile.gradle.GradleBuildFileBehaviour.outputContains;
+import static com.mikebull94.stockpile.gradle.GradleBuildFileBehaviour.outputDoesNotContain;
 import static com.mikebull94.stockpile.gradle.GradleBuildFileBehaviour.taskOutcome;
 import static com.mikebull94.stockpile.gradle.GradleBuildFileTester.test;
 import static org.gradle.testkit.runner.TaskOutcome.SUCCESS;
@@ -67,4 +68,28 @@ public final class StockpilePluginTest {
 			.thenBuildResult("Expected outcome of :stockpile to be " + SUCCESS, taskOutcome(":stockpile", SUCCESS))
 			.thenTemporaryFolder("Actual SVG does not match expected", correctOutput("default_task.svg"));
 	}
+
+	@Test
+	public void buildNamedStockpiles() {
+		test(projectDir, buildFile)
+			.given(gradleFile("named_stockpiles"))
+			.given(arguments("stockpileAll"))
+			.when(GradleRunner::build)
+			.thenBuildResult("Expected outcome of :stockpileFirst to be " + SUCCESS, taskOutcome(":stockpileFirst", SUCCESS))
+			.thenBuildResult("Expected outcome of :stockpileSecond to be " + SUCCESS, taskOutcome(":stockpileSecond", SUCCESS))
+			.thenBuildResult("Expected outcome of :stockpileBuild to be " + SUCCESS, taskOutcome(":stockpileBuild", SUCCESS))
+			.thenTemporaryFolder("Actual SVG does not match expected", correctOutput("build/first.svg"))
+			.thenTemporaryFolder("Actual SVG does not match expected", correctOutput("build/second.svg"))
+			.thenTemporaryFolder("Actual SVG does not match expected", correctOutput("build/build.svg"));
+	}
+
+	@Test
+	public void describeApiVersionInProcessorChain() {
+		test(projectDir, buildFile)
+			.given(gradleFile("processor_chain"))
+			.given(arguments("printProcessorChain"))
+			.when(GradleRunner::build)
+			.thenBuildResult("Expected the processor chain to be printed.", outputContains("Processor chain: api="))
+			.thenBuildResult("Expected the processor chain to name the API version.", outputDoesNotContain("api=null"));
+	}
 }
@@ -1,14 +1,50 @@
 package com.mikebull94.stockpile.gradle;
 
+import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 
 /**
  * A {@link Plugin} that interacts with the svg-stockpile API.
+ * <p>
+ * Besides the default {@link StockpileTask}, the plugin adds a {@code stockpiles} container in which any number of
+ * stockpiles can be declared by name. Each declaration creates a {@link StockpileTask} named after it with a
+ * {@code stockpile} prefix, such as {@code stockpileIcons} for {@code icons}, so that a stockpile may share its name with
+ * any other task, such as {@code build}. Every declared stockpile is built by the {@code stockpileAll} task.
  */
 public final class StockpilePlugin implements Plugin<Project> {
 
+	/**
+	 * The name of the container of named {@link StockpileTask}s.
+	 */
+	public static final String EXTENSION_NAME = "stockpiles";
+
+	/**
+	 * The name of the task that builds every {@link StockpileTask} in the {@link #EXTENSION_NAME} container.
+	 */
+	public static final String ALL_TASK_NAME = "stockpileAll";
+
+	/**
+	 * The description of the {@link #ALL_TASK_NAME} task.
+	 */
+	private static final String ALL_TASK_DESCRIPTION = "Builds every stockpile declared in the '" + EXTENSION_NAME
+		+ "' container.";
+
+	/**
+	 * Gets the name of the {@link StockpileTask} of a declared stockpile.
+	 * @param name The name of the stockpile.
+	 * @return The name of the task, which is the name of the stockpile capitalised and prefixed with
+	 * {@value StockpileTask#NAME}.
+	 */
+	static String taskName(String name) {
+		if (name.isEmpty()) {
+			return StockpileTask.NAME;
+		}
+
+		return StockpileTask.NAME + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
 	/**
 	 * Applies this {@link Plugin} to a {@link Project}.
 	 * @param project The {@link Project} to apply this {@link Plugin} to.
@@ -18,5 +54,14 @@ public final class StockpilePlugin implements Plugin<Project> {
 		Task task = project.getTasks().create(StockpileTask.NAME, StockpileTask.class);
 		task.setGroup(StockpileTask.GROUP);
 		task.setDescription(StockpileTask.DESCRIPTION);
+
+		NamedDomainObjectContainer<StockpileTask> stockpiles = project.container(StockpileTask.class,
+			name -> project.getTasks().create(taskName(name), StockpileTask.class));
+		project.getExtensions().add(EXTENSION_NAME, stockpiles);
+
+		Task all = project.getTasks().create(ALL_TASK_NAME);
+		all.setGroup(StockpileTask.GROUP);
+		all.setDescription(ALL_TASK_DESCRIPTION);
+		stockpiles.all(all::dependsOn);
 	}
 }
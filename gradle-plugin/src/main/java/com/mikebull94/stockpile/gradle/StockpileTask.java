@@ -3,18 +3,39 @@ package com.mikebull94.stockpile.gradle;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.mikebull94.stockpile.Stockpile;
+import com.mikebull94.stockpile.StockpileBuilder;
+import com.mikebull94.stockpile.StockpileVariant;
+import com.mikebull94.stockpile.report.SizeBudget;
+import com.mikebull94.stockpile.report.SizeReport;
+import com.mikebull94.stockpile.svg.FragmentIdMinifier;
+import com.mikebull94.stockpile.svg.SpriteSheet;
 import com.mikebull94.stockpile.svg.SvgViewBox;
+import com.mikebull94.stockpile.svg.processor.ViewBoxProcessor;
+import com.mikebull94.stockpile.usage.IconUsage;
+import com.mikebull94.stockpile.usage.UsageScanner;
 import com.mikebull94.stockpile.util.PathUtils;
+import org.gradle.api.Action;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
 import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.ParallelizableTask;
 import org.gradle.api.tasks.TaskAction;
 
 import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 import static com.mikebull94.stockpile.svg.SvgDocument.endSvg;
 import static com.mikebull94.stockpile.svg.SvgDocument.hideEmbeddedSvgs;
@@ -23,7 +44,11 @@ import static com.mikebull94.stockpile.svg.SvgDocument.startSvg;
 /**
  * A {@link Task} that will read SVG documents from an {@link InputDirectory} into a {@link Stockpile}, then write the
  * {@link Stockpile} to an {@link OutputFile}.
+ * <p>
+ * {@link StockpileTask}s share no state, so those of the same project may run in parallel when the build is run with
+ * {@code --parallel} and {@code -Dorg.gradle.parallel.intra=true}.
  */
+@ParallelizableTask
 public class StockpileTask extends DefaultTask {
 
 	/**
@@ -41,6 +66,11 @@ public class StockpileTask extends DefaultTask {
 	 */
 	public static final String DESCRIPTION = "Stacks and optimizes Scalable Vector Graphics using the svg-stockpile API.";
 
+	/**
+	 * The name of the files of the size report, without their extensions.
+	 */
+	public static final String SIZE_REPORT_NAME = "stockpile-sizes";
+
 	/**
 	 * The exception message to use if a property value is unspecified.
 	 */
@@ -59,16 +89,107 @@ public class StockpileTask extends DefaultTask {
 	private File output;
 
 	/**
-	 * The {@link SvgViewBox} to provide the {@link Stockpile} with.
+	 * The {@link SvgViewBox} to provide the {@link Stockpile} with, unless the SVGs are laid out on a
+	 * {@link SpriteSheet}.
 	 */
+	@Input
+	@Optional
 	private SvgViewBox viewBox;
 
+	/**
+	 * A flag indicating whether the SVGs are laid out on a {@link SpriteSheet} and selected by {@code <view>} elements,
+	 * rather than stacked on top of each other and hidden unless targeted.
+	 */
+	@Input
+	private boolean grid;
+
+	/**
+	 * A flag indicating whether each stacked SVG keeps its own {@code viewBox}, so that it is scaled to fit the
+	 * {@link #viewBox}.
+	 */
+	@Input
+	private boolean preserveViewBoxes;
+
+	/**
+	 * A flag indicating whether the coordinates of each stacked SVG are rewritten to fit the {@link #viewBox}, as per
+	 * {@link ViewBoxProcessor}. SVGs that cannot be rewritten keep their own {@code viewBox}.
+	 */
+	@Input
+	private boolean normalizeViewBoxes;
+
+	/**
+	 * The application source files, or directories thereof, to scan for references to embedded SVGs. If specified,
+	 * only the SVGs that are referenced are read into the {@link Stockpile}.
+	 */
+	@InputFiles
+	@Optional
+	private FileCollection sourceDirs;
+
+	/**
+	 * The {@link File} to write the fragment identifiers of the SVGs that are not referenced by the {@link #sourceDirs}
+	 * to.
+	 */
+	@OutputFile
+	@Optional
+	private File unusedReport;
+
+	/**
+	 * The {@link File} to write a JSON manifest to, mapping the fragment identifier of each SVG to the short id it is
+	 * embedded with. If specified, the SVGs are embedded with short ids rather than their file names.
+	 */
+	@OutputFile
+	@Optional
+	private File fragmentIdManifest;
+
+	/**
+	 * The directory to write a report of the bytes each SVG contributes to the {@link #output} to, as
+	 * {@value #SIZE_REPORT_NAME}.json and {@value #SIZE_REPORT_NAME}.html.
+	 */
+	@OutputDirectory
+	@Optional
+	private File sizeReportDir;
+
+	/**
+	 * The maximum number of bytes of the {@link #output}, or {@code null} if it is not limited.
+	 */
+	@Input
+	@Optional
+	private Long maxSheetBytes;
+
+	/**
+	 * The maximum number of bytes of each SVG in the {@link #output}, or {@code null} if they are not limited.
+	 */
+	@Input
+	@Optional
+	private Long maxFragmentBytes;
+
+	/**
+	 * A flag indicating whether exceeding the {@link #maxSheetBytes} or {@link #maxFragmentBytes} fails the build,
+	 * rather than logging a warning.
+	 */
+	@Input
+	private boolean failOnBudget = true;
+
+	/**
+	 * The {@link StockpileVariant}s to build from the same SVGs as the {@link #output}, which are described to Gradle by
+	 * the {@link #getProcessorChain() processor chain}.
+	 */
+	private final List<StockpileVariant> variants = new ArrayList<>();
+
+	/**
+	 * The directory to write each of the {@link #variants} to, in a file named after the variant.
+	 */
+	@OutputDirectory
+	@Optional
+	private File variantDir;
+
 	/**
 	 * Creates a new {@link StockpileTask}.
 	 */
 	public StockpileTask() {
 		setGroup(GROUP);
 		setDescription(DESCRIPTION);
+		getOutputs().upToDateWhen(task -> variantsDescribed());
 	}
 
 	/**
@@ -81,23 +202,167 @@ public class StockpileTask extends DefaultTask {
 	public void run() throws IOException, XMLStreamException {
 		Preconditions.checkNotNull(inputDir, String.format(UNSPECIFIED_VALUE, "inputDir"));
 		Preconditions.checkNotNull(output, String.format(UNSPECIFIED_VALUE, "output"));
-		Preconditions.checkNotNull(viewBox, String.format(UNSPECIFIED_VALUE, "viewBox"));
+
+		if (!grid) {
+			Preconditions.checkNotNull(viewBox, String.format(UNSPECIFIED_VALUE, "viewBox"));
+		}
+
+		if (!variants.isEmpty()) {
+			Preconditions.checkState(!grid, "Variants cannot be laid out on a sprite-sheet.");
+			Preconditions.checkNotNull(variantDir, String.format(UNSPECIFIED_VALUE, "variantDir"));
+		}
 
 		getLogger().info("Starting stockpile...");
-		getLogger().info("Providing embedded SVGs with: {}", viewBox);
 
 		ImmutableList<Path> input = PathUtils.filterPathsIn(inputDir.toPath(), PathUtils::hasSvgExtension);
 		getLogger().info("Found {} SVG files in: {}", input.size(), inputDir);
 
-		Stockpile stockpile = Stockpile.builder()
-			.add(startSvg(viewBox))
-			.add(hideEmbeddedSvgs())
-			.read(input)
-			.add(endSvg())
-			.build();
+		if (sourceDirs != null) {
+			input = referenced(input);
+		}
+
+		FragmentIdMinifier fragmentIds = null;
+		Function<String, String> ids = Function.identity();
+
+		if (fragmentIdManifest != null) {
+			fragmentIds = new FragmentIdMinifier();
+			ids = fragmentIds;
+		}
+
+		StockpileBuilder builder;
 
-		stockpile.write(output);
-		getLogger().info("Stockpiled {} XML events into: {}", stockpile.size(), output);
+		if (grid) {
+			SpriteSheet sheet = SpriteSheet.builder().withFragmentIds(ids).read(input).build();
+			getLogger().info("Laid out embedded SVGs on: {}", sheet);
+
+			builder = Stockpile.builder(sheet)
+				.withFragmentIds(ids)
+				.measureSizes()
+				.add(startSvg(sheet.getViewBox()))
+				.read(input)
+				.add(sheet.views());
+		} else {
+			getLogger().info("Providing embedded SVGs with: {}", viewBox);
+
+			builder = Stockpile.builder(preserveViewBoxes || normalizeViewBoxes).withFragmentIds(ids).measureSizes();
+
+			if (normalizeViewBoxes) {
+				builder.with(new ViewBoxProcessor(viewBox));
+			}
+
+			for (StockpileVariant variant : variants) {
+				builder.variant(variant);
+			}
+
+			builder.add(startSvg(viewBox))
+				.add(hideEmbeddedSvgs())
+				.read(input);
+		}
+
+		Stockpile stockpile = builder.add(endSvg()).build();
+
+		SizeReport sizes = stockpile.writeMeasured(output.toPath());
+		getLogger().info("Stockpiled {} XML events into {} bytes: {}", stockpile.size(), sizes.getTotalBytes(), output);
+
+		if (!variants.isEmpty()) {
+			builder.writeVariants(variantDir.toPath()).forEach((name, variant) ->
+				getLogger().info("Stockpiled {} XML events into variant: {}", variant.size(), name));
+		}
+
+		if (fragmentIds != null) {
+			fragmentIds.writeManifest(fragmentIdManifest.toPath());
+			getLogger().info("Wrote {} short fragment identifiers to: {}", fragmentIds.getMapping().size(), fragmentIdManifest);
+		}
+
+		report(sizes);
+	}
+
+	/**
+	 * Writes the {@link #sizeReportDir} if specified, then checks the sizes of the {@link #output} against the
+	 * {@link #maxSheetBytes} and {@link #maxFragmentBytes}.
+	 * @param sizes The {@link SizeReport} of the {@link #output}.
+	 * @throws IOException If an I/O error occurs.
+	 * @throws GradleException If a budget is exceeded and {@link #failOnBudget} is set.
+	 */
+	private void report(SizeReport sizes) throws IOException {
+		if (sizeReportDir != null) {
+			Path directory = Files.createDirectories(sizeReportDir.toPath());
+			sizes.writeJson(directory.resolve(SIZE_REPORT_NAME + ".json"));
+			sizes.writeHtml(directory.resolve(SIZE_REPORT_NAME + ".html"));
+			getLogger().info("Reported the sizes of {} SVGs in: {}", sizes.getFragments().size(), sizeReportDir);
+		}
+
+		SizeBudget budget = new SizeBudget(maxSheetBytes == null ? SizeBudget.UNLIMITED : maxSheetBytes,
+			maxFragmentBytes == null ? SizeBudget.UNLIMITED : maxFragmentBytes);
+		ImmutableList<String> violations = budget.violations(sizes);
+
+		if (violations.isEmpty()) {
+			return;
+		}
+
+		if (failOnBudget) {
+			throw new GradleException(String.join(System.lineSeparator(), violations));
+		}
+
+		violations.forEach(getLogger()::warn);
+	}
+
+	/**
+	 * Describes the processors that each SVG is passed through, including the {@link StockpileVariant#describe()
+	 * description} of each of the {@link #variants}, so that a change to them or their options makes the outputs out of
+	 * date. It starts with the {@code Implementation-Version} of the API jar, so upgrading the API also makes the outputs
+	 * out of date. A variant that cannot be described is only named here, and disables the up-to-date check.
+	 * @return The description.
+	 */
+	@Input
+	public String getProcessorChain() {
+		StringBuilder chain = new StringBuilder();
+		chain.append("api=").append(Stockpile.class.getPackage().getImplementationVersion());
+
+		if (normalizeViewBoxes) {
+			chain.append(',').append(ViewBoxProcessor.class.getName());
+		}
+
+		for (StockpileVariant variant : variants) {
+			String description = variant.describe();
+			chain.append(';').append(description == null ? variant.getName() : description);
+		}
+
+		return chain.toString();
+	}
+
+	/**
+	 * A flag indicating whether every one of the {@link #variants} can be described, so that the outputs can be up to
+	 * date when the {@link #getProcessorChain() processor chain} is unchanged.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	private boolean variantsDescribed() {
+		return variants.stream().allMatch(variant -> variant.describe() != null);
+	}
+
+	/**
+	 * Scans the {@link #sourceDirs} for references to SVGs, writing the {@link #unusedReport} if specified.
+	 * @param input The {@link Path}s of all of the SVGs.
+	 * @return The {@link Path}s of the SVGs that are referenced.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private ImmutableList<Path> referenced(ImmutableList<Path> input) throws IOException {
+		ImmutableList.Builder<Path> sources = ImmutableList.builder();
+
+		for (File sourceDir : sourceDirs) {
+			sources.addAll(PathUtils.filterPathsIn(sourceDir.toPath(), UsageScanner::hasSourceExtension));
+		}
+
+		IconUsage usage = UsageScanner.forPaths(input).scan(sources.build());
+		getLogger().info("Found references to {} of {} SVG files in: {}", usage.getUsed().size(), input.size(),
+			sourceDirs.getFiles());
+
+		if (unusedReport != null) {
+			usage.writeUnusedReport(unusedReport.toPath());
+			getLogger().info("Reported {} unused SVG files in: {}", usage.getUnused().size(), unusedReport);
+		}
+
+		return usage.referenced(input);
 	}
 
 	/**
@@ -150,4 +415,214 @@ public class StockpileTask extends DefaultTask {
 	public void setViewBox(SvgViewBox viewBox) {
 		this.viewBox = Preconditions.checkNotNull(viewBox);
 	}
+
+	/**
+	 * Gets a flag indicating whether the SVGs are laid out on a {@link SpriteSheet}.
+	 * @return {@code true} if so, {@code false} if they are stacked on top of each other.
+	 */
+	public boolean isGrid() {
+		return grid;
+	}
+
+	/**
+	 * Sets a flag indicating whether the SVGs are laid out on a {@link SpriteSheet}, in which case the
+	 * {@link #viewBox} is not required.
+	 * @param grid {@code true} to lay the SVGs out on a {@link SpriteSheet}, {@code false} to stack them.
+	 */
+	public void setGrid(boolean grid) {
+		this.grid = grid;
+	}
+
+	/**
+	 * Gets a flag indicating whether each stacked SVG keeps its own {@code viewBox}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean isPreserveViewBoxes() {
+		return preserveViewBoxes;
+	}
+
+	/**
+	 * Sets a flag indicating whether each stacked SVG keeps its own {@code viewBox}, so that it is scaled to fit the
+	 * {@link #viewBox}.
+	 * @param preserveViewBoxes {@code true} to keep each {@code viewBox}, {@code false} otherwise.
+	 */
+	public void setPreserveViewBoxes(boolean preserveViewBoxes) {
+		this.preserveViewBoxes = preserveViewBoxes;
+	}
+
+	/**
+	 * Gets a flag indicating whether the coordinates of each stacked SVG are rewritten to fit the {@link #viewBox}.
+	 * @return {@code true} if so, {@code false} otherwise.
+	 */
+	public boolean isNormalizeViewBoxes() {
+		return normalizeViewBoxes;
+	}
+
+	/**
+	 * Sets a flag indicating whether the coordinates of each stacked SVG are rewritten to fit the {@link #viewBox}.
+	 * SVGs that cannot be rewritten keep their own {@code viewBox}, as if {@link #preserveViewBoxes} were set.
+	 * @param normalizeViewBoxes {@code true} to rewrite the coordinates, {@code false} otherwise.
+	 */
+	public void setNormalizeViewBoxes(boolean normalizeViewBoxes) {
+		this.normalizeViewBoxes = normalizeViewBoxes;
+	}
+
+	/**
+	 * Adds a {@link StockpileVariant} to build from the same SVGs as the {@link #output}.
+	 * @param name The name of the variant, which is also its file name in the {@link #variantDir}.
+	 * @param viewBox The {@link SvgViewBox} to provide the variant with.
+	 * @param action Configures the {@link StockpileVariant}, such as its processors and filter.
+	 * @throws NullPointerException If any argument is {@code null}.
+	 */
+	public void variant(String name, SvgViewBox viewBox, Action<? super StockpileVariant> action) {
+		StockpileVariant variant = new StockpileVariant(name, viewBox);
+		Preconditions.checkNotNull(action).execute(variant);
+		variants.add(variant);
+	}
+
+	/**
+	 * Gets the {@link StockpileVariant}s to build from the same SVGs as the {@link #output}.
+	 * @return An {@link ImmutableList} of {@link StockpileVariant}s.
+	 */
+	public ImmutableList<StockpileVariant> getVariants() {
+		return ImmutableList.copyOf(variants);
+	}
+
+	/**
+	 * Gets the directory to write each variant to.
+	 * @return The directory, or {@code null} if there are no variants.
+	 */
+	public File getVariantDir() {
+		return variantDir;
+	}
+
+	/**
+	 * Sets the directory to write each variant to.
+	 * @param variantDir The directory to set.
+	 * @throws NullPointerException If {@code variantDir} is {@code null}.
+	 */
+	public void setVariantDir(File variantDir) {
+		this.variantDir = Preconditions.checkNotNull(variantDir);
+	}
+
+	/**
+	 * Gets the directory to write the size report to.
+	 * @return The directory, or {@code null} if no report should be written.
+	 */
+	public File getSizeReportDir() {
+		return sizeReportDir;
+	}
+
+	/**
+	 * Sets the directory to write a report of the bytes each SVG contributes to the output to, as JSON and as an HTML
+	 * treemap.
+	 * @param sizeReportDir The directory to set.
+	 * @throws NullPointerException If {@code sizeReportDir} is {@code null}.
+	 */
+	public void setSizeReportDir(File sizeReportDir) {
+		this.sizeReportDir = Preconditions.checkNotNull(sizeReportDir);
+	}
+
+	/**
+	 * Gets the maximum number of bytes of the output.
+	 * @return The maximum number of bytes, or {@code null} if it is not limited.
+	 */
+	public Long getMaxSheetBytes() {
+		return maxSheetBytes;
+	}
+
+	/**
+	 * Sets the maximum number of bytes of the output.
+	 * @param maxSheetBytes The maximum number of bytes to set.
+	 * @throws IllegalArgumentException If {@code maxSheetBytes} is negative.
+	 */
+	public void setMaxSheetBytes(long maxSheetBytes) {
+		Preconditions.checkArgument(maxSheetBytes >= 0, "Maximum sheet bytes must not be negative.");
+		this.maxSheetBytes = maxSheetBytes;
+	}
+
+	/**
+	 * Gets the maximum number of bytes of each SVG in the output.
+	 * @return The maximum number of bytes, or {@code null} if they are not limited.
+	 */
+	public Long getMaxFragmentBytes() {
+		return maxFragmentBytes;
+	}
+
+	/**
+	 * Sets the maximum number of bytes of each SVG in the output.
+	 * @param maxFragmentBytes The maximum number of bytes to set.
+	 * @throws IllegalArgumentException If {@code maxFragmentBytes} is negative.
+	 */
+	public void setMaxFragmentBytes(long maxFragmentBytes) {
+		Preconditions.checkArgument(maxFragmentBytes >= 0, "Maximum fragment bytes must not be negative.");
+		this.maxFragmentBytes = maxFragmentBytes;
+	}
+
+	/**
+	 * Gets a flag indicating whether exceeding a size budget fails the build.
+	 * @return {@code true} if so, {@code false} if a warning is logged instead.
+	 */
+	public boolean isFailOnBudget() {
+		return failOnBudget;
+	}
+
+	/**
+	 * Sets a flag indicating whether exceeding a size budget fails the build, rather than logging a warning.
+	 * @param failOnBudget {@code true} to fail the build, {@code false} to log a warning.
+	 */
+	public void setFailOnBudget(boolean failOnBudget) {
+		this.failOnBudget = failOnBudget;
+	}
+
+	/**
+	 * Gets the application source files to scan for references to embedded SVGs.
+	 * @return The {@link FileCollection}, or {@code null} if every SVG should be read.
+	 */
+	public FileCollection getSourceDirs() {
+		return sourceDirs;
+	}
+
+	/**
+	 * Sets the application source files, or directories thereof, to scan for references to embedded SVGs.
+	 * @param sourceDirs The source files, evaluated as per {@link org.gradle.api.Project#files(Object...)}.
+	 * @throws NullPointerException If {@code sourceDirs} is {@code null}.
+	 */
+	public void setSourceDirs(Object... sourceDirs) {
+		this.sourceDirs = getProject().files(Preconditions.checkNotNull(sourceDirs));
+	}
+
+	/**
+	 * Gets the {@link File} to write the fragment identifiers of unused SVGs to.
+	 * @return The {@link File}, or {@code null} if no report should be written.
+	 */
+	public File getUnusedReport() {
+		return unusedReport;
+	}
+
+	/**
+	 * Sets the {@link File} to write the fragment identifiers of unused SVGs to.
+	 * @param unusedReport The {@link File} to set.
+	 * @throws NullPointerException If {@code unusedReport} is {@code null}.
+	 */
+	public void setUnusedReport(File unusedReport) {
+		this.unusedReport = Preconditions.checkNotNull(unusedReport);
+	}
+
+	/**
+	 * Gets the {@link File} to write the manifest of short fragment identifiers to.
+	 * @return The {@link File}, or {@code null} if the SVGs should be embedded with their file names.
+	 */
+	public File getFragmentIdManifest() {
+		return fragmentIdManifest;
+	}
+
+	/**
+	 * Sets the {@link File} to write the manifest of short fragment identifiers to, embedding the SVGs with short ids.
+	 * @param fragmentIdManifest The {@link File} to set.
+	 * @throws NullPointerException If {@code fragmentIdManifest} is {@code null}.
+	 */
+	public void setFragmentIdManifest(File fragmentIdManifest) {
+		this.fragmentIdManifest = Preconditions.checkNotNull(fragmentIdManifest);
+	}
 }